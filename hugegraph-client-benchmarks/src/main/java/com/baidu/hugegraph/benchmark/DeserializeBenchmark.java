@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.baidu.hugegraph.serializer.PathDeserializer;
+import com.baidu.hugegraph.structure.graph.Path;
+import com.baidu.hugegraph.structure.gremlin.Response;
+import com.baidu.hugegraph.structure.gremlin.Result;
+import com.baidu.hugegraph.structure.gremlin.ResultSet;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Deserialize the canned paths and gremlin responses like RestResult does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializeBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(Path.class, new PathDeserializer());
+        MAPPER.registerModule(module);
+    }
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private String pathsJson;
+    private String gremlinJson;
+    private JavaType pathsType;
+
+    @Setup
+    public void setup() {
+        this.pathsJson = Payloads.pathsJson(this.size);
+        this.gremlinJson = Payloads.gremlinJson(this.size);
+        this.pathsType = MAPPER.getTypeFactory()
+                               .constructCollectionType(List.class,
+                                                        Path.class);
+    }
+
+    @Benchmark
+    public List<Path> deserializePaths() throws IOException {
+        return MAPPER.readValue(this.pathsJson, this.pathsType);
+    }
+
+    @Benchmark
+    public Response deserializeGremlinResponse() throws IOException {
+        return MAPPER.readValue(this.gremlinJson, Response.class);
+    }
+
+    @Benchmark
+    public void readResultSet(Blackhole blackhole) throws IOException {
+        ResultSet resultSet = MAPPER.readValue(this.gremlinJson,
+                                               Response.class).result();
+        for (int i = 0; i < resultSet.size(); i++) {
+            Result result = resultSet.get(i);
+            blackhole.consume(result.getObject());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.hugegraph.api.graph.GraphAPI;
+import com.baidu.hugegraph.util.IdUtil;
+import com.baidu.hugegraph.util.SplicingIdGenerator;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Format the ids and properties of the request url, and concat or split
+ * the composite edge ids
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdBenchmark {
+
+    private String stringId;
+    private long longId;
+    private UUID uuidId;
+    private Map<String, Object> properties;
+    private String[] idParts;
+    private String edgeId;
+
+    @Setup
+    public void setup() {
+        this.stringId = "1:marko";
+        this.longId = 123456789L;
+        this.uuidId = UUID.fromString("835e1153-9281-4957-8691-cf79258e90eb");
+        this.properties = ImmutableMap.of("name", "marko", "age", 29,
+                                          "city", "Beijing Haidian");
+        this.idParts = new String[]{"S1:marko", "1", "knows", "",
+                                    "S2:vadas>`name"};
+        this.edgeId = SplicingIdGenerator.concat(this.idParts);
+    }
+
+    @Benchmark
+    public String formatStringId() {
+        return GraphAPI.formatVertexId(this.stringId);
+    }
+
+    @Benchmark
+    public String formatLongId() {
+        return GraphAPI.formatVertexId(this.longId);
+    }
+
+    @Benchmark
+    public String formatUuidId() {
+        return GraphAPI.formatVertexId(this.uuidId);
+    }
+
+    @Benchmark
+    public String formatProperties() {
+        return GraphAPI.formatProperties(this.properties);
+    }
+
+    @Benchmark
+    public String concatIds() {
+        return SplicingIdGenerator.concat(this.idParts);
+    }
+
+    @Benchmark
+    public String[] splitIds() {
+        return SplicingIdGenerator.split(this.edgeId);
+    }
+
+    @Benchmark
+    public String[] unescapeIds() {
+        return IdUtil.unescape(this.edgeId,
+                               SplicingIdGenerator.IDS_SPLITOR_STR,
+                               SplicingIdGenerator.ESCAPE_STR);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.benchmark;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+
+/**
+ * The canned payloads shaped like the responses of HugeGraph server
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static Vertex vertex(int id) {
+        Vertex vertex = new Vertex("person");
+        vertex.id(id);
+        vertex.property("name", "name-" + id);
+        vertex.property("age", 20 + id % 50);
+        vertex.property("city", "Beijing");
+        return vertex;
+    }
+
+    public static Edge edge(int source, int target) {
+        Edge edge = new Edge("knows");
+        edge.sourceId(source);
+        edge.sourceLabel("person");
+        edge.targetId(target);
+        edge.targetLabel("person");
+        edge.property("date", "2016-01-10");
+        edge.property("weight", 0.5);
+        return edge;
+    }
+
+    public static String vertexJson(int id) {
+        return String.format("{\"id\": \"1:name-%s\", \"label\": \"person\", " +
+                             "\"type\": \"vertex\", \"properties\": " +
+                             "{\"name\": \"name-%s\", \"age\": %s, " +
+                             "\"city\": \"Beijing\"}}", id, id, 20 + id % 50);
+    }
+
+    public static String edgeJson(int source, int target) {
+        return String.format("{\"id\": \"S1:name-%s>1>>S1:name-%s\", " +
+                             "\"label\": \"knows\", \"type\": \"edge\", " +
+                             "\"outV\": \"1:name-%s\", " +
+                             "\"outVLabel\": \"person\", " +
+                             "\"inV\": \"1:name-%s\", " +
+                             "\"inVLabel\": \"person\", \"properties\": " +
+                             "{\"date\": \"2016-01-10\", \"weight\": 0.5}}",
+                             source, target, source, target);
+    }
+
+    /**
+     * Paths of vertex objects: [{"labels": [...], "objects": [...]}, ...]
+     */
+    public static String pathsJson(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"labels\": [[], [], []], \"objects\": [")
+              .append(vertexJson(i)).append(",")
+              .append(vertexJson(i + 1)).append(",")
+              .append(vertexJson(i + 2)).append("]}");
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * The gremlin response with vertices, edges and scalar values
+     */
+    public static String gremlinJson(int size) {
+        StringBuilder sb = new StringBuilder("{\"requestId\": " +
+                                             "\"b0fd8ead-333f-43ac\", " +
+                                             "\"status\": {\"message\": " +
+                                             "\"\", \"code\": 200, " +
+                                             "\"attributes\": {}}, " +
+                                             "\"result\": {\"data\": [");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            switch (i % 3) {
+                case 0:
+                    sb.append(vertexJson(i));
+                    break;
+                case 1:
+                    sb.append(edgeJson(i, i + 1));
+                    break;
+                default:
+                    sb.append(i);
+                    break;
+            }
+        }
+        return sb.append("], \"meta\": {}}}").toString();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * Drive HugeClient with a number of threads for a while and report the
+ * throughput and the latency percentiles, the requests are sent to an
+ * embedded StubServer unless a server url is given. For example:
+ *
+ *   java -jar loadtest.jar --scenario=vertices --threads=16 --duration=60
+ *
+ * Run with --help to see all the options.
+ */
+public class LoadTest {
+
+    private static final long MAX_LATENCY_NS = TimeUnit.MINUTES.toNanos(10L);
+
+    private final Map<String, String> options;
+    private final Scenario scenario;
+    private final int threads;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+
+    private final Recorder recorder;
+    private final AtomicLong elements;
+    private final AtomicLong errors;
+    private volatile boolean stopped;
+
+    public LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.scenario = Scenario.valueOf(this.option("scenario", "vertices")
+                                             .toUpperCase());
+        this.threads = Integer.parseInt(this.option("threads", "8"));
+        this.warmupSeconds = Long.parseLong(this.option("warmup", "5"));
+        this.durationSeconds = Long.parseLong(this.option("duration", "30"));
+        E.checkArgument(this.threads > 0,
+                        "The threads must be > 0, but got %s", this.threads);
+        E.checkArgument(this.durationSeconds > 0L,
+                        "The duration must be > 0, but got %s",
+                        this.durationSeconds);
+
+        this.recorder = new Recorder(MAX_LATENCY_NS, 3);
+        this.elements = new AtomicLong();
+        this.errors = new AtomicLong();
+        this.stopped = false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage(System.out);
+            return;
+        }
+        new LoadTest(options).run(System.out);
+    }
+
+    public Histogram run(PrintStream out) throws IOException,
+                                                 InterruptedException {
+        String url = this.options.get("url");
+        StubServer server = null;
+        if (url == null) {
+            server = new StubServer.Builder()
+                     .latencyMs(Long.parseLong(this.option("latency", "1")))
+                     .shards(Integer.parseInt(this.option("shards", "4")))
+                     .pages(Integer.parseInt(this.option("pages", "10")))
+                     .resultSize(Integer.parseInt(this.option("result_size",
+                                                              "100")))
+                     .propertyBytes(this.propertyBytes())
+                     .build();
+            url = server.url();
+        }
+        int maxConns = Integer.parseInt(this.option(
+                                        "max_conns",
+                                        String.valueOf(this.threads * 2)));
+        try (HugeClient client = HugeClient.builder(url,
+                                                    this.option("graph",
+                                                                "hugegraph"))
+                                           .configPool(maxConns, maxConns)
+                                           .build()) {
+            out.printf("Running %s against %s with %s threads, " +
+                       "warmup %ss, duration %ss%n", this.scenario, url,
+                       this.threads, this.warmupSeconds,
+                       this.durationSeconds);
+            return this.drive(client, out);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private Histogram drive(HugeClient client, PrintStream out)
+                            throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(this.threads);
+        for (int i = 0; i < this.threads; i++) {
+            Scenario.Worker worker = this.newWorker();
+            Thread thread = new Thread(() -> this.loop(client, worker),
+                                       "load-test-" + i);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+
+        TimeUnit.SECONDS.sleep(this.warmupSeconds);
+        // Discard the samples recorded while warming up
+        this.recorder.getIntervalHistogram();
+        this.elements.set(0L);
+        this.errors.set(0L);
+
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(this.durationSeconds);
+        Histogram histogram = this.recorder.getIntervalHistogram();
+        long elapsed = System.nanoTime() - start;
+        long elements = this.elements.get();
+        long errors = this.errors.get();
+
+        this.stopped = true;
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        report(out, histogram, elements, errors, elapsed);
+        return histogram;
+    }
+
+    private void loop(HugeClient client, Scenario.Worker worker) {
+        while (!this.stopped) {
+            long start = System.nanoTime();
+            try {
+                this.elements.addAndGet(this.scenario.run(client, worker));
+            } catch (Exception e) {
+                this.errors.incrementAndGet();
+            }
+            long latency = System.nanoTime() - start;
+            this.recorder.recordValue(Math.min(latency, MAX_LATENCY_NS));
+        }
+    }
+
+    private Scenario.Worker newWorker() {
+        char[] padding = new char[this.propertyBytes()];
+        Arrays.fill(padding, 'x');
+        return new Scenario.Worker(
+               Integer.parseInt(this.option("batch_size", "500")),
+               Long.parseLong(this.option("page_size", "500")),
+               Long.parseLong(this.option("split_size", "1048576")),
+               Long.parseLong(this.option("result_size", "100")),
+               new String(padding));
+    }
+
+    private int propertyBytes() {
+        return Integer.parseInt(this.option("property_bytes", "64"));
+    }
+
+    private String option(String name, String defaultValue) {
+        return this.options.getOrDefault(name, defaultValue);
+    }
+
+    private static void report(PrintStream out, Histogram histogram,
+                               long elements, long errors, long elapsed) {
+        double seconds = elapsed / 1e9;
+        long requests = histogram.getTotalCount();
+        out.printf("requests: %s, errors: %s, elapsed: %.2fs%n",
+                   requests, errors, seconds);
+        out.printf("throughput: %.1f req/s, %.1f elements/s%n",
+                   requests / seconds, elements / seconds);
+        out.printf("latency(ms): p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f " +
+                   "max=%.3f%n", millis(histogram, 50.0),
+                   millis(histogram, 90.0), millis(histogram, 99.0),
+                   millis(histogram, 99.9),
+                   histogram.getMaxValue() / 1e6);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            E.checkArgument(arg.startsWith("--"),
+                            "Invalid option '%s', expect --name=value", arg);
+            int pos = arg.indexOf('=');
+            if (pos < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, pos), arg.substring(pos + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -jar loadtest.jar [--name=value ...]");
+        out.println("  --scenario        vertices|edges|scan|kout|gremlin, " +
+                    "default vertices");
+        out.println("  --threads         concurrent requests, default 8");
+        out.println("  --warmup          warmup seconds, default 5");
+        out.println("  --duration        measured seconds, default 30");
+        out.println("  --url             server url, default start an " +
+                    "embedded stub server");
+        out.println("  --graph           graph name, default hugegraph");
+        out.println("  --max_conns       connection pool size, " +
+                    "default 2 * threads");
+        out.println("  --batch_size      elements per batch write, " +
+                    "default 500");
+        out.println("  --page_size       vertices per scan page, default 500");
+        out.println("  --split_size      scan shard split size, " +
+                    "default 1048576");
+        out.println("  --result_size     kout and gremlin result size, " +
+                    "default 100");
+        out.println("  --property_bytes  size of the name property, " +
+                    "default 64");
+        out.println("  --latency         stub server latency in ms, " +
+                    "default 1");
+        out.println("  --shards          stub server scan shards, default 4");
+        out.println("  --pages           stub server pages per shard, " +
+                    "default 10");
+    }
+}
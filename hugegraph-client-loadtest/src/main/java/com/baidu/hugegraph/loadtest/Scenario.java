@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.structure.constant.Direction;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Shard;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.structure.graph.Vertices;
+import com.baidu.hugegraph.structure.gremlin.ResultSet;
+
+/**
+ * The operations driven by the load test, every call of run() sends one
+ * request and returns the number of elements written or read
+ */
+public enum Scenario {
+
+    VERTICES {
+        @Override
+        public long run(HugeClient client, Worker worker) {
+            List<Vertex> vertices = new ArrayList<>(worker.batchSize);
+            for (int i = 0; i < worker.batchSize; i++) {
+                Vertex vertex = new Vertex("person");
+                vertex.property("name", worker.padding);
+                vertex.property("age", i % 100);
+                vertices.add(vertex);
+            }
+            return client.graph().addVertices(vertices).size();
+        }
+    },
+
+    EDGES {
+        @Override
+        public long run(HugeClient client, Worker worker) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Edge> edges = new ArrayList<>(worker.batchSize);
+            for (int i = 0; i < worker.batchSize; i++) {
+                Edge edge = new Edge("knows");
+                edge.sourceId("1:v-" + random.nextInt(1000000));
+                edge.sourceLabel("person");
+                edge.targetId("1:v-" + random.nextInt(1000000));
+                edge.targetLabel("person");
+                edge.property("date", "2016-01-10");
+                edges.add(edge);
+            }
+            return client.graph().addEdges(edges, false).size();
+        }
+    },
+
+    SCAN {
+        @Override
+        public long run(HugeClient client, Worker worker) {
+            if (worker.shards == null) {
+                worker.shards = client.traverser().vertexShards(
+                                worker.splitSize);
+                worker.shard = 0;
+                worker.page = "";
+            }
+            Shard shard = worker.shards.get(worker.shard);
+            Vertices page = client.traverser().vertices(shard, worker.page,
+                                                        worker.pageSize);
+            worker.page = page.page();
+            if (worker.page == null) {
+                // Go on with the next shard, restart after the last one
+                worker.shard = (worker.shard + 1) % worker.shards.size();
+                worker.page = "";
+            }
+            return page.results().size();
+        }
+    },
+
+    KOUT {
+        @Override
+        public long run(HugeClient client, Worker worker) {
+            String source = "1:v-" +
+                            ThreadLocalRandom.current().nextInt(1000000);
+            return client.traverser().kout(source, Direction.OUT, null, 2,
+                                           true, 10000L, 10000000L,
+                                           worker.resultLimit).size();
+        }
+    },
+
+    GREMLIN {
+        @Override
+        public long run(HugeClient client, Worker worker) {
+            ResultSet results = client.gremlin()
+                                      .gremlin("g.V().limit(" +
+                                               worker.resultLimit + ")")
+                                      .execute();
+            long count = 0L;
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getObject() != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    };
+
+    public abstract long run(HugeClient client, Worker worker);
+
+    /**
+     * The settings and the scan cursor of a load test thread
+     */
+    public static class Worker {
+
+        private final int batchSize;
+        private final long pageSize;
+        private final long splitSize;
+        private final long resultLimit;
+        private final String padding;
+
+        private List<Shard> shards;
+        private int shard;
+        private String page;
+
+        public Worker(int batchSize, long pageSize, long splitSize,
+                      long resultLimit, String padding) {
+            this.batchSize = batchSize;
+            this.pageSize = pageSize;
+            this.splitSize = splitSize;
+            this.resultLimit = resultLimit;
+            this.padding = padding;
+            this.shards = null;
+            this.shard = 0;
+            this.page = null;
+        }
+    }
+}
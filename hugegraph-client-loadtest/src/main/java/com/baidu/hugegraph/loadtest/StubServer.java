@@ -0,0 +1,347 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.loadtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import com.baidu.hugegraph.util.E;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process http server which emulates the HugeGraph REST endpoints
+ * used by the load test, every response is delayed by the configured
+ * latency and the vertices are padded to the configured size.
+ */
+public class StubServer implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // Avoid the delay of Nagle's algorithm on the small responses
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final Pattern VERTICES_BATCH = Pattern.compile(
+            "/graphs/[^/]+/graph/vertices/batch");
+    private static final Pattern EDGES_BATCH = Pattern.compile(
+            "/graphs/[^/]+/graph/edges/batch");
+    private static final Pattern SHARDS = Pattern.compile(
+            "/graphs/[^/]+/traversers/vertices/shards");
+    private static final Pattern SCAN = Pattern.compile(
+            "/graphs/[^/]+/traversers/vertices/scan");
+    private static final Pattern KOUT = Pattern.compile(
+            "/graphs/[^/]+/traversers/kout");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final int shards;
+    private final int pages;
+    private final int resultSize;
+    private final String padding;
+    private final AtomicLong requests;
+
+    private StubServer(Builder builder) throws IOException {
+        this.latencyMs = builder.latencyMs;
+        this.shards = builder.shards;
+        this.pages = builder.pages;
+        this.resultSize = builder.resultSize;
+        char[] chars = new char[builder.propertyBytes];
+        Arrays.fill(chars, 'x');
+        this.padding = new String(chars);
+        this.requests = new AtomicLong();
+
+        this.executor = Executors.newCachedThreadPool(
+                        new ThreadFactoryBuilder().setDaemon(true)
+                                                  .setNameFormat("stub-%d")
+                                                  .build());
+        this.server = HttpServer.create(new InetSocketAddress(
+                                        "127.0.0.1", builder.port), 1024);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    public long requests() {
+        return this.requests.get();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.requests.incrementAndGet();
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> params = parseQuery(
+                                         exchange.getRequestURI()
+                                                 .getRawQuery());
+            if (this.latencyMs > 0L) {
+                TimeUnit.MILLISECONDS.sleep(this.latencyMs);
+            }
+            if (path.equals("/versions")) {
+                reply(exchange, 200, "{\"versions\": {\"version\": \"v1\", " +
+                                     "\"core\": \"0.12.0\", " +
+                                     "\"gremlin\": \"3.4.3\", " +
+                                     "\"api\": \"0.67.0.0\"}}");
+            } else if (VERTICES_BATCH.matcher(path).matches()) {
+                int size = readBody(exchange).size();
+                reply(exchange, 201, this.idsJson(size, "\"1:v-", "\""));
+            } else if (EDGES_BATCH.matcher(path).matches()) {
+                int size = readBody(exchange).size();
+                reply(exchange, 201, this.idsJson(size, "\"S1:v-",
+                                                  ">1>>S1:v-0\""));
+            } else if (SHARDS.matcher(path).matches()) {
+                reply(exchange, 200, this.shardsJson());
+            } else if (SCAN.matcher(path).matches()) {
+                reply(exchange, 200, this.scanJson(params));
+            } else if (KOUT.matcher(path).matches()) {
+                reply(exchange, 200, "{\"size\": " + this.resultSize +
+                                     ", \"vertices\": " +
+                                     this.idsJson(this.resultSize, "", "") +
+                                     "}");
+            } else if (path.equals("/gremlin")) {
+                readBody(exchange);
+                reply(exchange, 200, this.gremlinJson());
+            } else {
+                reply(exchange, 404, "{\"exception\": \"NotFoundException\"," +
+                                     " \"message\": \"Not found: " + path +
+                                     "\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            reply(exchange, 500, "{\"exception\": \"" +
+                                 e.getClass().getName() + "\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String vertexJson(long id) {
+        return "{\"id\": \"1:v-" + id + "\", \"label\": \"person\", " +
+               "\"type\": \"vertex\", \"properties\": {\"name\": \"" +
+               this.padding + "\", \"age\": " + (id % 100) + "}}";
+    }
+
+    private String idsJson(int size, String prefix, String suffix) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(prefix).append(i).append(suffix);
+        }
+        return sb.append("]").toString();
+    }
+
+    private String shardsJson() {
+        StringBuilder sb = new StringBuilder("{\"shards\": [");
+        for (int i = 0; i < this.shards; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"start\": \"").append(i).append("\", \"end\": \"")
+              .append(i + 1).append("\", \"length\": 0}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String scanJson(Map<String, String> params) {
+        String page = params.get("page");
+        int index = page == null || page.isEmpty() ? 0 : Integer.valueOf(page);
+        long limit = Long.valueOf(params.getOrDefault("page_limit", "100"));
+        StringBuilder sb = new StringBuilder("{\"vertices\": [");
+        for (long i = 0; i < limit; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(this.vertexJson(index * limit + i));
+        }
+        sb.append("], \"page\": ");
+        if (index + 1 < this.pages) {
+            sb.append("\"").append(index + 1).append("\"");
+        } else {
+            sb.append("null");
+        }
+        return sb.append("}").toString();
+    }
+
+    private String gremlinJson() {
+        StringBuilder sb = new StringBuilder("{\"requestId\": \"stub\", " +
+                                             "\"status\": {\"message\": " +
+                                             "\"\", \"code\": 200, " +
+                                             "\"attributes\": {}}, " +
+                                             "\"result\": {\"data\": [");
+        for (int i = 0; i < this.resultSize; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(this.vertexJson(i));
+        }
+        return sb.append("], \"meta\": {}}}").toString();
+    }
+
+    private static JsonNode readBody(HttpExchange exchange)
+                                     throws IOException {
+        InputStream input = exchange.getRequestBody();
+        String encoding = exchange.getRequestHeaders()
+                                  .getFirst("Content-Encoding");
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            input = new GZIPInputStream(input);
+        }
+        return MAPPER.readTree(input);
+    }
+
+    private static void reply(HttpExchange exchange, int status,
+                              String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                                          "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query)
+                                                  throws
+                                                  UnsupportedEncodingException {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int pos = pair.indexOf('=');
+            String key = pos < 0 ? pair : pair.substring(0, pos);
+            String value = pos < 0 ? "" : pair.substring(pos + 1);
+            params.put(URLDecoder.decode(key, "UTF-8"),
+                       URLDecoder.decode(value, "UTF-8"));
+        }
+        return params;
+    }
+
+    public static class Builder {
+
+        private int port;
+        private long latencyMs;
+        private int shards;
+        private int pages;
+        private int resultSize;
+        private int propertyBytes;
+
+        public Builder() {
+            this.port = 0;
+            this.latencyMs = 1L;
+            this.shards = 4;
+            this.pages = 10;
+            this.resultSize = 100;
+            this.propertyBytes = 64;
+        }
+
+        /**
+         * The port to listen, 0 means pick a free port
+         */
+        public Builder port(int port) {
+            E.checkArgument(port >= 0, "The port must be >= 0, but got %s",
+                            port);
+            this.port = port;
+            return this;
+        }
+
+        public Builder latencyMs(long latencyMs) {
+            E.checkArgument(latencyMs >= 0L,
+                            "The latency must be >= 0, but got %s",
+                            latencyMs);
+            this.latencyMs = latencyMs;
+            return this;
+        }
+
+        public Builder shards(int shards) {
+            E.checkArgument(shards > 0,
+                            "The shards must be > 0, but got %s", shards);
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * The number of scan pages in every shard
+         */
+        public Builder pages(int pages) {
+            E.checkArgument(pages > 0,
+                            "The pages must be > 0, but got %s", pages);
+            this.pages = pages;
+            return this;
+        }
+
+        /**
+         * The number of vertices returned by kout and gremlin
+         */
+        public Builder resultSize(int resultSize) {
+            E.checkArgument(resultSize >= 0,
+                            "The result size must be >= 0, but got %s",
+                            resultSize);
+            this.resultSize = resultSize;
+            return this;
+        }
+
+        /**
+         * The length of the padded name property of every vertex
+         */
+        public Builder propertyBytes(int propertyBytes) {
+            E.checkArgument(propertyBytes >= 0,
+                            "The property bytes must be >= 0, but got %s",
+                            propertyBytes);
+            this.propertyBytes = propertyBytes;
+            return this;
+        }
+
+        public StubServer build() throws IOException {
+            return new StubServer(this);
+        }
+    }
+}
@@ -22,17 +22,18 @@ package com.baidu.hugegraph.api.graph;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.exception.NotAllCreatedException;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.constant.HugeType;
 import com.baidu.hugegraph.structure.graph.BatchEdgeRequest;
 import com.baidu.hugegraph.structure.graph.Edge;
 import com.baidu.hugegraph.structure.graph.Edges;
 import com.google.common.collect.ImmutableMap;
-import jakarta.ws.rs.core.MultivaluedHashMap;
 
 public class EdgeAPI extends GraphAPI {
 
@@ -50,13 +51,31 @@ public class EdgeAPI extends GraphAPI {
         return result.readObject(Edge.class);
     }
 
+    public CompletableFuture<Edge> createAsync(Edge edge) {
+        return this.client.postAsync(this.path(), edge).thenApply(result -> {
+            return result.readObject(Edge.class);
+        });
+    }
+
     public List<String> create(List<Edge> edges, boolean checkVertex) {
-        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
-        headers.putSingle("Content-Encoding", BATCH_ENCODING);
         Map<String, Object> params = ImmutableMap.of("check_vertex",
                                                      checkVertex);
         RestResult result = this.client.post(this.batchPath(), edges,
-                                             headers, params);
+                                             batchHeaders(), params);
+        return createdIds(edges, result);
+    }
+
+    public CompletableFuture<List<String>> createAsync(List<Edge> edges,
+                                                       boolean checkVertex) {
+        Map<String, Object> params = ImmutableMap.of("check_vertex",
+                                                     checkVertex);
+        return this.client.postAsync(this.batchPath(), edges,
+                                     batchHeaders(), params)
+                          .thenApply(result -> createdIds(edges, result));
+    }
+
+    private static List<String> createdIds(List<Edge> edges,
+                                           RestResult result) {
         List<String> ids = result.readList(String.class);
         if (edges.size() != ids.size()) {
             throw new NotAllCreatedException(
@@ -69,13 +88,20 @@ public class EdgeAPI extends GraphAPI {
 
     public List<Edge> update(BatchEdgeRequest request) {
         this.client.checkApiVersion("0.45", "batch property update");
-        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
-        headers.putSingle("Content-Encoding", BATCH_ENCODING);
         RestResult result = this.client.put(this.batchPath(), null,
-                                            request, headers);
+                                            request, batchHeaders());
         return result.readList(this.type(), Edge.class);
     }
 
+    public CompletableFuture<List<Edge>> updateAsync(BatchEdgeRequest request) {
+        this.client.checkApiVersion("0.45", "batch property update");
+        return this.client.putAsync(this.batchPath(), null, request,
+                                    batchHeaders())
+                          .thenApply(result -> {
+                              return result.readList(this.type(), Edge.class);
+                          });
+    }
+
     public Edge append(Edge edge) {
         String id = edge.id();
         Map<String, Object> params = ImmutableMap.of("action", "append");
@@ -95,6 +121,12 @@ public class EdgeAPI extends GraphAPI {
         return result.readObject(Edge.class);
     }
 
+    public CompletableFuture<Edge> getAsync(String id) {
+        return this.client.getAsync(this.path(), id).thenApply(result -> {
+            return result.readObject(Edge.class);
+        });
+    }
+
     public Edges list(int limit) {
         return this.list(null, null, null, null, 0, null, limit);
     }
@@ -109,24 +141,70 @@ public class EdgeAPI extends GraphAPI {
     public Edges list(Object vertexId, Direction direction, String label,
                       Map<String, Object> properties, boolean keepP,
                       int offset, String page, int limit) {
+        Map<String, Object> params = listParams(vertexId, direction, label,
+                                                properties, keepP, offset,
+                                                page, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readObject(Edges.class);
+    }
+
+    public CompletableFuture<Edges> listAsync(Object vertexId,
+                                              Direction direction,
+                                              String label,
+                                              Map<String, Object> properties,
+                                              boolean keepP, int offset,
+                                              String page, int limit) {
+        Map<String, Object> params = listParams(vertexId, direction, label,
+                                                properties, keepP, offset,
+                                                page, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readObject(Edges.class);
+        });
+    }
+
+    /**
+     * Like list(), but the edges are read from the response stream one
+     * by one, the returned iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Edge> stream(Object vertexId, Direction direction,
+                                           String label,
+                                           Map<String, Object> properties,
+                                           boolean keepP, int offset,
+                                           String page, int limit) {
+        Map<String, Object> params = listParams(vertexId, direction, label,
+                                                properties, keepP, offset,
+                                                page, limit);
+        return new JsonStreamIterator<>(this.client.getStream(this.path(),
+                                                              params),
+                                        this.type(), Edge.class);
+    }
+
+    private static Map<String, Object> listParams(Object vertexId,
+                                                  Direction direction,
+                                                  String label,
+                                                  Map<String, Object> props,
+                                                  boolean keepP, int offset,
+                                                  String page, int limit) {
         checkOffset(offset);
         checkLimit(limit, "Limit");
-        String vid = GraphAPI.formatVertexId(vertexId, true);
-        String props = GraphAPI.formatProperties(properties);
         Map<String, Object> params = new LinkedHashMap<>();
-        params.put("vertex_id", vid);
+        params.put("vertex_id", GraphAPI.formatVertexId(vertexId, true));
         params.put("direction", direction);
         params.put("label", label);
-        params.put("properties", props);
+        params.put("properties", GraphAPI.formatProperties(props));
         params.put("keep_start_p", keepP);
         params.put("offset", offset);
         params.put("limit", limit);
         params.put("page", page);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readObject(Edges.class);
+        return params;
     }
 
     public void delete(String id) {
         this.client.delete(this.path(), id);
     }
+
+    public CompletableFuture<Void> deleteAsync(String id) {
+        return this.client.deleteAsync(this.path(), id)
+                          .thenApply(result -> null);
+    }
 }
@@ -29,6 +29,7 @@ import com.baidu.hugegraph.api.API;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.JsonUtil;
+import jakarta.ws.rs.core.MultivaluedHashMap;
 
 public abstract class GraphAPI extends API {
 
@@ -46,6 +47,12 @@ public abstract class GraphAPI extends API {
         return this.batchPath;
     }
 
+    protected static MultivaluedHashMap<String, Object> batchHeaders() {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Encoding", BATCH_ENCODING);
+        return headers;
+    }
+
     public static String formatVertexId(Object id) {
         return formatVertexId(id, false);
     }
@@ -22,11 +22,13 @@ package com.baidu.hugegraph.api.graph;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.exception.InvalidResponseException;
 import com.baidu.hugegraph.exception.NotAllCreatedException;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.constant.HugeType;
 import com.baidu.hugegraph.structure.graph.BatchOlapPropertyRequest;
 import com.baidu.hugegraph.structure.graph.BatchVertexRequest;
@@ -51,11 +53,26 @@ public class VertexAPI extends GraphAPI {
         return result.readObject(Vertex.class);
     }
 
+    public CompletableFuture<Vertex> createAsync(Vertex vertex) {
+        return this.client.postAsync(this.path(), vertex).thenApply(result -> {
+            return result.readObject(Vertex.class);
+        });
+    }
+
     public List<Object> create(List<Vertex> vertices) {
-        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
-        headers.putSingle("Content-Encoding", BATCH_ENCODING);
         RestResult result = this.client.post(this.batchPath(), vertices,
-                                             headers);
+                                             batchHeaders());
+        return createdIds(vertices, result);
+    }
+
+    public CompletableFuture<List<Object>> createAsync(List<Vertex> vertices) {
+        return this.client.postAsync(this.batchPath(), vertices,
+                                     batchHeaders(), null)
+                          .thenApply(result -> createdIds(vertices, result));
+    }
+
+    private static List<Object> createdIds(List<Vertex> vertices,
+                                           RestResult result) {
         List<Object> ids = result.readList(Object.class);
         if (vertices.size() != ids.size()) {
             throw new NotAllCreatedException(
@@ -68,13 +85,22 @@ public class VertexAPI extends GraphAPI {
 
     public List<Vertex> update(BatchVertexRequest request) {
         this.client.checkApiVersion("0.45", "batch property update");
-        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
-        headers.putSingle("Content-Encoding", BATCH_ENCODING);
         RestResult result = this.client.put(this.batchPath(), null,
-                                            request, headers);
+                                            request, batchHeaders());
         return result.readList(this.type(), Vertex.class);
     }
 
+    public CompletableFuture<List<Vertex>> updateAsync(
+                                           BatchVertexRequest request) {
+        this.client.checkApiVersion("0.45", "batch property update");
+        return this.client.putAsync(this.batchPath(), null, request,
+                                    batchHeaders())
+                          .thenApply(result -> {
+                              return result.readList(this.type(),
+                                                     Vertex.class);
+                          });
+    }
+
     public int update(BatchOlapPropertyRequest request) {
         this.client.checkApiVersion("0.59", "olap property batch update");
         MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
@@ -110,6 +136,14 @@ public class VertexAPI extends GraphAPI {
         return result.readObject(Vertex.class);
     }
 
+    public CompletableFuture<Vertex> getAsync(Object id) {
+        String vertexId = GraphAPI.formatVertexId(id);
+        return this.client.getAsync(this.path(), vertexId)
+                          .thenApply(result -> {
+                              return result.readObject(Vertex.class);
+                          });
+    }
+
     public Vertices list(int limit) {
         return this.list(null, null, 0, null, limit);
     }
@@ -121,22 +155,62 @@ public class VertexAPI extends GraphAPI {
 
     public Vertices list(String label, Map<String, Object> properties,
                          boolean keepP, int offset, String page, int limit) {
+        Map<String, Object> params = listParams(label, properties, keepP,
+                                                offset, page, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readObject(Vertices.class);
+    }
+
+    public CompletableFuture<Vertices> listAsync(String label,
+                                                 Map<String, Object> properties,
+                                                 boolean keepP, int offset,
+                                                 String page, int limit) {
+        Map<String, Object> params = listParams(label, properties, keepP,
+                                                offset, page, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readObject(Vertices.class);
+        });
+    }
+
+    /**
+     * Like list(), but the vertices are read from the response stream one
+     * by one, the returned iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Vertex> stream(String label,
+                                             Map<String, Object> properties,
+                                             boolean keepP, int offset,
+                                             String page, int limit) {
+        Map<String, Object> params = listParams(label, properties, keepP,
+                                                offset, page, limit);
+        return new JsonStreamIterator<>(this.client.getStream(this.path(),
+                                                              params),
+                                        this.type(), Vertex.class);
+    }
+
+    private static Map<String, Object> listParams(String label,
+                                                  Map<String, Object> props,
+                                                  boolean keepP, int offset,
+                                                  String page, int limit) {
         checkOffset(offset);
         checkLimit(limit, "Limit");
-        String props = GraphAPI.formatProperties(properties);
         Map<String, Object> params = new LinkedHashMap<>();
         params.put("label", label);
-        params.put("properties", props);
+        params.put("properties", GraphAPI.formatProperties(props));
         params.put("keep_start_p", keepP);
         params.put("offset", offset);
         params.put("limit", limit);
         params.put("page", page);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readObject(Vertices.class);
+        return params;
     }
 
     public void delete(Object id) {
         String vertexId = GraphAPI.formatVertexId(id);
         this.client.delete(this.path(), vertexId);
     }
+
+    public CompletableFuture<Void> deleteAsync(Object id) {
+        String vertexId = GraphAPI.formatVertexId(id);
+        return this.client.deleteAsync(this.path(), vertexId)
+                          .thenApply(result -> null);
+    }
 }
@@ -19,6 +19,8 @@
 
 package com.baidu.hugegraph.api.gremlin;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.baidu.hugegraph.api.API;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
@@ -41,4 +43,11 @@ public class GremlinAPI extends API {
         RestResult result = this.client.post(this.path(), request);
         return result.readObject(Response.class);
     }
+
+    public CompletableFuture<Response> postAsync(GremlinRequest request) {
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readObject(Response.class);
+                          });
+    }
 }
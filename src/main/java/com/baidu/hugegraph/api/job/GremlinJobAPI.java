@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.api.job;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.gremlin.GremlinRequest;
 import com.baidu.hugegraph.api.task.TaskAPI;
@@ -41,6 +42,15 @@ public class GremlinJobAPI extends JobAPI {
 
     public long execute(GremlinRequest request) {
         RestResult result = this.client.post(this.path(), request);
+        return readTaskId(result);
+    }
+
+    public CompletableFuture<Long> executeAsync(GremlinRequest request) {
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(GremlinJobAPI::readTaskId);
+    }
+
+    private static long readTaskId(RestResult result) {
         @SuppressWarnings("unchecked")
         Map<String, Object> task = result.readObject(Map.class);
         return TaskAPI.parseTaskId(task);
@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.api.traverser;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
@@ -42,6 +43,16 @@ public class CountAPI extends TraversersAPI {
     public long post(CountRequest request) {
         this.client.checkApiVersion("0.55", "count");
         RestResult result = this.client.post(this.path(), request);
+        return readCount(result);
+    }
+
+    public CompletableFuture<Long> postAsync(CountRequest request) {
+        this.client.checkApiVersion("0.55", "count");
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(CountAPI::readCount);
+    }
+
+    private static long readCount(RestResult result) {
         @SuppressWarnings("unchecked")
         Map<String, Number> countMap = result.readObject(Map.class);
         E.checkState(countMap.containsKey(COUNT),
@@ -19,6 +19,8 @@
 
 package com.baidu.hugegraph.api.traverser;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
 import com.baidu.hugegraph.structure.traverser.PathsWithVertices;
@@ -39,4 +41,13 @@ public class CustomizedPathsAPI extends TraversersAPI {
         RestResult result = this.client.post(this.path(), request);
         return result.readObject(PathsWithVertices.class);
     }
+
+    public CompletableFuture<PathsWithVertices> postAsync(
+                                       CustomizedPathsRequest request) {
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readObject(
+                                     PathsWithVertices.class);
+                          });
+    }
 }
@@ -22,9 +22,11 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.graph.Edge;
 import com.baidu.hugegraph.structure.graph.Edges;
 import com.baidu.hugegraph.structure.graph.Shard;
@@ -43,13 +45,24 @@ public class EdgesAPI extends TraversersAPI {
     }
 
     public List<Edge> list(List<String> ids) {
+        RestResult result = this.client.get(this.path(), listParams(ids));
+        return result.readList(this.type(), Edge.class);
+    }
+
+    public CompletableFuture<List<Edge>> listAsync(List<String> ids) {
+        return this.client.getAsync(this.path(), listParams(ids))
+                          .thenApply(result -> {
+                              return result.readList(this.type(), Edge.class);
+                          });
+    }
+
+    private static Map<String, Object> listParams(List<String> ids) {
         E.checkArgument(ids != null && !ids.isEmpty(),
                         "Ids can't be null or empty");
 
         Map<String, Object> params = new LinkedHashMap<>();
         params.put("ids", ids);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList(this.type(), Edge.class);
+        return params;
     }
 
     public List<Shard> shards(long splitSize) {
@@ -60,15 +73,29 @@ public class EdgesAPI extends TraversersAPI {
     }
 
     public Edges scan(Shard shard, String page, long pageLimit) {
-        E.checkArgument(shard != null, "Shard can't be null");
         String path = String.join(PATH_SPLITOR, this.path(), "scan");
+        RestResult result = this.client.get(path, scanParams(shard, page,
+                                                             pageLimit));
+        return result.readObject(Edges.class);
+    }
+
+    public JsonStreamIterator<Edge> scanStream(Shard shard, String page,
+                                               long pageLimit) {
+        String path = String.join(PATH_SPLITOR, this.path(), "scan");
+        Map<String, Object> params = scanParams(shard, page, pageLimit);
+        return new JsonStreamIterator<>(this.client.getStream(path, params),
+                                        this.type(), Edge.class);
+    }
+
+    private static Map<String, Object> scanParams(Shard shard, String page,
+                                                  long pageLimit) {
+        E.checkArgument(shard != null, "Shard can't be null");
         Map<String, Object> params = new LinkedHashMap<>();
         params.put("start", shard.start());
         params.put("end", shard.end());
         params.put("page", page);
         params.put("page_limit", pageLimit);
-        RestResult result = this.client.get(path, params);
-        return result.readObject(Edges.class);
+        return params;
     }
 }
 
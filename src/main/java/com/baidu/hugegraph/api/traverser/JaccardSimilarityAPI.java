@@ -21,6 +21,7 @@ package com.baidu.hugegraph.api.traverser;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
@@ -47,6 +48,26 @@ public class JaccardSimilarityAPI extends TraversersAPI {
     public double get(Object vertexId, Object otherId, Direction direction,
                       String label, long degree) {
         this.client.checkApiVersion("0.51", "jaccard similarity");
+        Map<String, Object> params = getParams(vertexId, otherId, direction,
+                                               label, degree);
+        RestResult result = this.client.get(this.path(), params);
+        return readSimilarity(result);
+    }
+
+    public CompletableFuture<Double> getAsync(Object vertexId, Object otherId,
+                                              Direction direction,
+                                              String label, long degree) {
+        this.client.checkApiVersion("0.51", "jaccard similarity");
+        Map<String, Object> params = getParams(vertexId, otherId, direction,
+                                               label, degree);
+        return this.client.getAsync(this.path(), params)
+                          .thenApply(JaccardSimilarityAPI::readSimilarity);
+    }
+
+    private static Map<String, Object> getParams(Object vertexId,
+                                                 Object otherId,
+                                                 Direction direction,
+                                                 String label, long degree) {
         String vertex = GraphAPI.formatVertexId(vertexId, false);
         String other = GraphAPI.formatVertexId(otherId, false);
         checkDegree(degree);
@@ -56,7 +77,10 @@ public class JaccardSimilarityAPI extends TraversersAPI {
         params.put("direction", direction);
         params.put("label", label);
         params.put("max_degree", degree);
-        RestResult result = this.client.get(this.path(), params);
+        return params;
+    }
+
+    private static double readSimilarity(RestResult result) {
         @SuppressWarnings("unchecked")
         Map<String, Double> jaccard = result.readObject(Map.class);
         E.checkState(jaccard.containsKey(JACCARD_SIMILARITY),
@@ -71,4 +95,14 @@ public class JaccardSimilarityAPI extends TraversersAPI {
         RestResult result = this.client.post(this.path(), request);
         return result.readObject(Map.class);
     }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Map<Object, Double>> postAsync(
+                               SingleSourceJaccardSimilarityRequest request) {
+        this.client.checkApiVersion("0.58", "jaccard similar");
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readObject(Map.class);
+                          });
+    }
 }
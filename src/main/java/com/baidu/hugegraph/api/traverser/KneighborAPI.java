@@ -22,13 +22,17 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.VertexIdsReader;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.traverser.Kneighbor;
 import com.baidu.hugegraph.structure.traverser.KneighborRequest;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
+import com.baidu.hugegraph.util.E;
 
 public class KneighborAPI extends TraversersAPI {
 
@@ -43,6 +47,39 @@ public class KneighborAPI extends TraversersAPI {
 
     public List<Object> get(Object sourceId, Direction direction,
                             String label, int depth, long degree, long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, degree, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readList("vertices", Object.class);
+    }
+
+    public CompletableFuture<List<Object>> getAsync(Object sourceId,
+                                                    Direction direction,
+                                                    String label, int depth,
+                                                    long degree, long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, degree, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readList("vertices", Object.class);
+        });
+    }
+
+    /**
+     * Like get(), but the numeric ids are decoded as primitive longs
+     */
+    public VertexIds getIds(Object sourceId, Direction direction,
+                            String label, int depth, long degree, long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, degree, limit);
+        return VertexIdsReader.read(this.client.getStream(this.path(),
+                                                          params),
+                                    "vertices");
+    }
+
+    private static Map<String, Object> getParams(Object sourceId,
+                                                 Direction direction,
+                                                 String label, int depth,
+                                                 long degree, long limit) {
         String source = GraphAPI.formatVertexId(sourceId, false);
 
         checkPositive(depth, "Depth of k-neighbor");
@@ -56,8 +93,7 @@ public class KneighborAPI extends TraversersAPI {
         params.put("max_depth", depth);
         params.put("max_degree", degree);
         params.put("limit", limit);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList("vertices", Object.class);
+        return params;
     }
 
     public Kneighbor post(KneighborRequest request) {
@@ -65,5 +101,28 @@ public class KneighborAPI extends TraversersAPI {
         RestResult result = this.client.post(this.path(), request);
         return result.readObject(Kneighbor.class);
     }
+
+    public CompletableFuture<Kneighbor> postAsync(KneighborRequest request) {
+        this.client.checkApiVersion("0.58", "customized kneighbor");
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readObject(Kneighbor.class);
+                          });
+    }
+
+    /**
+     * Like post(), but only the ids are read and the numeric ids are
+     * decoded as primitive longs
+     */
+    public VertexIds postIds(KneighborRequest request) {
+        this.client.checkApiVersion("0.58", "customized kneighbor");
+        E.checkArgument(!request.countOnly && !request.withPath &&
+                        !request.withVertex,
+                        "Can't read only the ids of kneighbor request with " +
+                        "count_only, with_path or with_vertex");
+        return VertexIdsReader.read(this.client.postStream(this.path(),
+                                                           request),
+                                    "kneighbor");
+    }
 }
 
@@ -22,13 +22,17 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.VertexIdsReader;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.traverser.Kout;
 import com.baidu.hugegraph.structure.traverser.KoutRequest;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
+import com.baidu.hugegraph.util.E;
 
 public class KoutAPI extends TraversersAPI {
 
@@ -44,6 +48,47 @@ public class KoutAPI extends TraversersAPI {
     public List<Object> get(Object sourceId, Direction direction,
                             String label, int depth, boolean nearest,
                             long degree, long capacity, long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, nearest, degree,
+                                               capacity, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readList("vertices", Object.class);
+    }
+
+    public CompletableFuture<List<Object>> getAsync(Object sourceId,
+                                                    Direction direction,
+                                                    String label, int depth,
+                                                    boolean nearest,
+                                                    long degree, long capacity,
+                                                    long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, nearest, degree,
+                                               capacity, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readList("vertices", Object.class);
+        });
+    }
+
+    /**
+     * Like get(), but the numeric ids are decoded as primitive longs
+     */
+    public VertexIds getIds(Object sourceId, Direction direction,
+                            String label, int depth, boolean nearest,
+                            long degree, long capacity, long limit) {
+        Map<String, Object> params = getParams(sourceId, direction, label,
+                                               depth, nearest, degree,
+                                               capacity, limit);
+        return VertexIdsReader.read(this.client.getStream(this.path(),
+                                                          params),
+                                    "vertices");
+    }
+
+    private static Map<String, Object> getParams(Object sourceId,
+                                                 Direction direction,
+                                                 String label, int depth,
+                                                 boolean nearest,
+                                                 long degree, long capacity,
+                                                 long limit) {
         String source = GraphAPI.formatVertexId(sourceId, false);
 
         checkPositive(depth, "Depth of k-out");
@@ -60,8 +105,7 @@ public class KoutAPI extends TraversersAPI {
         params.put("max_degree", degree);
         params.put("capacity", capacity);
         params.put("limit", limit);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList("vertices", Object.class);
+        return params;
     }
 
     public Kout post(KoutRequest request) {
@@ -69,5 +113,26 @@ public class KoutAPI extends TraversersAPI {
         RestResult result = this.client.post(this.path(), request);
         return result.readObject(Kout.class);
     }
+
+    public CompletableFuture<Kout> postAsync(KoutRequest request) {
+        this.client.checkApiVersion("0.58", "customized kout");
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> result.readObject(Kout.class));
+    }
+
+    /**
+     * Like post(), but only the ids are read and the numeric ids are
+     * decoded as primitive longs
+     */
+    public VertexIds postIds(KoutRequest request) {
+        this.client.checkApiVersion("0.58", "customized kout");
+        E.checkArgument(!request.countOnly && !request.withPath &&
+                        !request.withVertex,
+                        "Can't read only the ids of kout request with " +
+                        "count_only, with_path or with_vertex");
+        return VertexIdsReader.read(this.client.postStream(this.path(),
+                                                           request),
+                                    "kout");
+    }
 }
 
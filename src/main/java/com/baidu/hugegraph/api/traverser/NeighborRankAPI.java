@@ -22,6 +22,7 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
@@ -47,6 +48,13 @@ public class NeighborRankAPI extends TraversersAPI {
         return result.readList("ranks", Ranks.class);
     }
 
+    public CompletableFuture<List<Ranks>> postAsync(Request request) {
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readList("ranks", Ranks.class);
+                          });
+    }
+
     public static class Request {
 
         @JsonProperty("source")
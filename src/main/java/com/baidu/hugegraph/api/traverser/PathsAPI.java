@@ -22,10 +22,12 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.graph.Path;
 import com.baidu.hugegraph.structure.traverser.PathsRequest;
@@ -46,6 +48,65 @@ public class PathsAPI extends TraversersAPI {
                           Direction direction, String label,
                           int maxDepth, long degree, long capacity,
                           long limit) {
+        Map<String, Object> params = getParams(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               capacity, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readList("paths", Path.class);
+    }
+
+    public CompletableFuture<List<Path>> getAsync(Object sourceId,
+                                                  Object targetId,
+                                                  Direction direction,
+                                                  String label, int maxDepth,
+                                                  long degree, long capacity,
+                                                  long limit) {
+        Map<String, Object> params = getParams(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               capacity, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readList("paths", Path.class);
+        });
+    }
+
+    /**
+     * Like get(), but the paths are read from the response stream one by
+     * one, the returned iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Path> stream(Object sourceId, Object targetId,
+                                           Direction direction, String label,
+                                           int maxDepth, long degree,
+                                           long capacity, long limit) {
+        Map<String, Object> params = getParams(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               capacity, limit);
+        return new JsonStreamIterator<>(this.client.getStream(this.path(),
+                                                              params),
+                                        "paths", Path.class);
+    }
+
+    public PathsWithVertices post(PathsRequest request) {
+        this.client.checkApiVersion("0.58", "paths with property filter");
+        RestResult result = this.client.post(this.path(), request);
+        return result.readObject(PathsWithVertices.class);
+    }
+
+    public CompletableFuture<PathsWithVertices> postAsync(
+                                                PathsRequest request) {
+        this.client.checkApiVersion("0.58", "paths with property filter");
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> {
+                              return result.readObject(
+                                     PathsWithVertices.class);
+                          });
+    }
+
+    private static Map<String, Object> getParams(Object sourceId,
+                                                 Object targetId,
+                                                 Direction direction,
+                                                 String label, int maxDepth,
+                                                 long degree, long capacity,
+                                                 long limit) {
         String source = GraphAPI.formatVertexId(sourceId, false);
         String target = GraphAPI.formatVertexId(targetId, false);
 
@@ -63,13 +124,6 @@ public class PathsAPI extends TraversersAPI {
         params.put("max_degree", degree);
         params.put("capacity", capacity);
         params.put("limit", limit);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList("paths", Path.class);
-    }
-
-    public PathsWithVertices post(PathsRequest request) {
-        this.client.checkApiVersion("0.58", "paths with property filter");
-        RestResult result = this.client.post(this.path(), request);
-        return result.readObject(PathsWithVertices.class);
+        return params;
     }
 }
@@ -19,6 +19,8 @@
 
 package com.baidu.hugegraph.api.traverser;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
 import com.baidu.hugegraph.structure.constant.Traverser;
@@ -42,6 +44,11 @@ public class PersonalRankAPI extends TraversersAPI {
         return result.readObject(Ranks.class);
     }
 
+    public CompletableFuture<Ranks> postAsync(Request request) {
+        return this.client.postAsync(this.path(), request)
+                          .thenApply(result -> result.readObject(Ranks.class));
+    }
+
     public static class Request {
 
         @JsonProperty("source")
@@ -22,11 +22,14 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.VertexIdsReader;
 import com.baidu.hugegraph.structure.constant.Direction;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
 
 public class SameNeighborsAPI extends TraversersAPI {
 
@@ -45,6 +48,44 @@ public class SameNeighborsAPI extends TraversersAPI {
                             Direction direction, String label,
                             long degree, long limit) {
         this.client.checkApiVersion("0.51", "same neighbors");
+        Map<String, Object> params = getParams(vertexId, otherId, direction,
+                                               label, degree, limit);
+        RestResult result = this.client.get(this.path(), params);
+        return result.readList(SAME_NEIGHBORS, Object.class);
+    }
+
+    public CompletableFuture<List<Object>> getAsync(Object vertexId,
+                                                    Object otherId,
+                                                    Direction direction,
+                                                    String label,
+                                                    long degree, long limit) {
+        this.client.checkApiVersion("0.51", "same neighbors");
+        Map<String, Object> params = getParams(vertexId, otherId, direction,
+                                               label, degree, limit);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return result.readList(SAME_NEIGHBORS, Object.class);
+        });
+    }
+
+    /**
+     * Like get(), but the numeric ids are decoded as primitive longs
+     */
+    public VertexIds getIds(Object vertexId, Object otherId,
+                            Direction direction, String label,
+                            long degree, long limit) {
+        this.client.checkApiVersion("0.51", "same neighbors");
+        Map<String, Object> params = getParams(vertexId, otherId, direction,
+                                               label, degree, limit);
+        return VertexIdsReader.read(this.client.getStream(this.path(),
+                                                          params),
+                                    SAME_NEIGHBORS);
+    }
+
+    private static Map<String, Object> getParams(Object vertexId,
+                                                 Object otherId,
+                                                 Direction direction,
+                                                 String label, long degree,
+                                                 long limit) {
         String vertex = GraphAPI.formatVertexId(vertexId, false);
         String other = GraphAPI.formatVertexId(otherId, false);
         checkDegree(degree);
@@ -55,7 +96,6 @@ public class SameNeighborsAPI extends TraversersAPI {
         params.put("label", label);
         params.put("max_degree", degree);
         params.put("limit", limit);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList(SAME_NEIGHBORS, Object.class);
+        return params;
     }
 }
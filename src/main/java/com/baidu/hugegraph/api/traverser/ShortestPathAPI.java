@@ -22,6 +22,7 @@ package com.baidu.hugegraph.api.traverser;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
@@ -43,6 +44,32 @@ public class ShortestPathAPI extends TraversersAPI {
     public Path get(Object sourceId, Object targetId,
                     Direction direction, String label, int maxDepth,
                     long degree, long skipDegree, long capacity) {
+        Map<String, Object> params = getParams(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               skipDegree, capacity);
+        RestResult result = this.client.get(this.path(), params);
+        List<Object> vertices = result.readList("path", Object.class);
+        return new Path(vertices);
+    }
+
+    public CompletableFuture<Path> getAsync(Object sourceId, Object targetId,
+                                            Direction direction, String label,
+                                            int maxDepth, long degree,
+                                            long skipDegree, long capacity) {
+        Map<String, Object> params = getParams(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               skipDegree, capacity);
+        return this.client.getAsync(this.path(), params).thenApply(result -> {
+            return new Path(result.readList("path", Object.class));
+        });
+    }
+
+    private static Map<String, Object> getParams(Object sourceId,
+                                                 Object targetId,
+                                                 Direction direction,
+                                                 String label, int maxDepth,
+                                                 long degree, long skipDegree,
+                                                 long capacity) {
         String source = GraphAPI.formatVertexId(sourceId, false);
         String target = GraphAPI.formatVertexId(targetId, false);
 
@@ -60,8 +87,6 @@ public class ShortestPathAPI extends TraversersAPI {
         params.put("max_degree", degree);
         params.put("skip_degree", skipDegree);
         params.put("capacity", capacity);
-        RestResult result = this.client.get(this.path(), params);
-        List<Object> vertices = result.readList("path", Object.class);
-        return new Path(vertices);
+        return params;
     }
 }
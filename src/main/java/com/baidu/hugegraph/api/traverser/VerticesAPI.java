@@ -23,10 +23,12 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.baidu.hugegraph.api.graph.GraphAPI;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.graph.Shard;
 import com.baidu.hugegraph.structure.graph.Vertex;
 import com.baidu.hugegraph.structure.graph.Vertices;
@@ -45,6 +47,19 @@ public class VerticesAPI extends TraversersAPI {
     }
 
     public List<Vertex> list(List<Object> ids) {
+        RestResult result = this.client.get(this.path(), listParams(ids));
+        return result.readList(this.type(), Vertex.class);
+    }
+
+    public CompletableFuture<List<Vertex>> listAsync(List<Object> ids) {
+        return this.client.getAsync(this.path(), listParams(ids))
+                          .thenApply(result -> {
+                              return result.readList(this.type(),
+                                                     Vertex.class);
+                          });
+    }
+
+    private static Map<String, Object> listParams(List<Object> ids) {
         E.checkArgument(ids != null && !ids.isEmpty(),
                         "Ids can't be null or empty");
 
@@ -55,8 +70,7 @@ public class VerticesAPI extends TraversersAPI {
 
         Map<String, Object> params = new LinkedHashMap<>();
         params.put("ids", stringIds);
-        RestResult result = this.client.get(this.path(), params);
-        return result.readList(this.type(), Vertex.class);
+        return params;
     }
 
     public List<Shard> shards(long splitSize) {
@@ -67,15 +81,29 @@ public class VerticesAPI extends TraversersAPI {
     }
 
     public Vertices scan(Shard shard, String page, long pageLimit) {
-        E.checkArgument(shard != null, "Shard can't be null");
         String path = String.join(PATH_SPLITOR, this.path(), "scan");
+        RestResult result = this.client.get(path, scanParams(shard, page,
+                                                             pageLimit));
+        return result.readObject(Vertices.class);
+    }
+
+    public JsonStreamIterator<Vertex> scanStream(Shard shard, String page,
+                                                 long pageLimit) {
+        String path = String.join(PATH_SPLITOR, this.path(), "scan");
+        Map<String, Object> params = scanParams(shard, page, pageLimit);
+        return new JsonStreamIterator<>(this.client.getStream(path, params),
+                                        this.type(), Vertex.class);
+    }
+
+    private static Map<String, Object> scanParams(Shard shard, String page,
+                                                  long pageLimit) {
+        E.checkArgument(shard != null, "Shard can't be null");
         Map<String, Object> params = new LinkedHashMap<>();
         params.put("start", shard.start());
         params.put("end", shard.end());
         params.put("page", page);
         params.put("page_limit", pageLimit);
-        RestResult result = this.client.get(path, params);
-        return result.readObject(Vertices.class);
+        return params;
     }
 }
 
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.baidu.hugegraph.util.E;
+import com.google.common.collect.ImmutableSet;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Record the client side metrics of the requests sent by a RestClient,
+ * keyed by the http method and the api type like "vertices" or "kout":
+ *  - requests and errors, an error is an exception or a 4xx/5xx status
+ *  - latency of the whole request, wait from sending the request to
+ *    receiving the response headers, and read of the response body,
+ *    all in nanoseconds
+ *  - request_bytes after compression and response_bytes of the bodies
+ *
+ * The metrics are recorded to a registry, which keeps them in memory by
+ * default, implement the Registry to bridge them to a metrics library like
+ * Dropwizard or Micrometer. The utilization of connection pool and the
+ * counters of the policies are registered as gauges by the RestClient.
+ */
+// Run before the encoders, so the request bytes are counted after encoding
+@Priority(Priorities.ENTITY_CODER - 200)
+public class ClientMetrics implements ClientRequestFilter,
+                                      ClientResponseFilter,
+                                      WriterInterceptor, ReaderInterceptor {
+
+    public static final String REQUESTS = "requests";
+    public static final String ERRORS = "errors";
+    public static final String LATENCY = "latency";
+    public static final String WAIT = "wait";
+    public static final String READ = "read";
+    public static final String REQUEST_BYTES = "request_bytes";
+    public static final String RESPONSE_BYTES = "response_bytes";
+
+    private static final String ATTEMPT = ClientMetrics.class.getName();
+    private static final String GRAPHS = "graphs";
+    // The apis like "graphs/{graph}/traversers/{type}"
+    private static final Set<String> CATEGORIES = ImmutableSet.of(
+            "graph", "schema", "traversers", "auth", "jobs");
+
+    private final Registry registry;
+    private final ThreadLocal<Attempt> attempt;
+
+    public ClientMetrics() {
+        this(new MemoryRegistry());
+    }
+
+    public ClientMetrics(Registry registry) {
+        E.checkArgumentNotNull(registry, "The registry can't be null");
+        this.registry = registry;
+        this.attempt = new ThreadLocal<>();
+    }
+
+    public Registry registry() {
+        return this.registry;
+    }
+
+    /**
+     * Send the request and record the metrics of it
+     */
+    public Response execute(Supplier<Response> request) {
+        Attempt attempt = new Attempt();
+        this.attempt.set(attempt);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Response response = request.get();
+            error = response.getStatus() >= 400;
+            return response;
+        } finally {
+            this.attempt.remove();
+            // The api is unknown if the request is not sent
+            if (attempt.api != null) {
+                this.registry.increment(REQUESTS, attempt.method,
+                                        attempt.api);
+                if (error) {
+                    this.registry.increment(ERRORS, attempt.method,
+                                            attempt.api);
+                }
+                this.registry.record(LATENCY, attempt.method, attempt.api,
+                                     System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Attempt attempt = this.attempt.get();
+        if (attempt == null) {
+            // Not sent by execute(), like the health checks
+            return;
+        }
+        attempt.method = context.getMethod();
+        attempt.api = apiType(context.getUri().getPath());
+        attempt.start = System.nanoTime();
+        context.setProperty(ATTEMPT, attempt);
+    }
+
+    @Override
+    public void filter(ClientRequestContext request,
+                       ClientResponseContext response) {
+        Attempt attempt = (Attempt) request.getProperty(ATTEMPT);
+        if (attempt != null) {
+            this.registry.record(WAIT, attempt.method, attempt.api,
+                                 System.nanoTime() - attempt.start);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context)
+                              throws IOException {
+        Attempt attempt = (Attempt) context.getProperty(ATTEMPT);
+        if (attempt == null) {
+            context.proceed();
+            return;
+        }
+        CountingOutputStream output = new CountingOutputStream(
+                                      context.getOutputStream());
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+        } finally {
+            this.registry.record(REQUEST_BYTES, attempt.method, attempt.api,
+                                 output.bytes());
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context)
+                                 throws IOException {
+        Attempt attempt = (Attempt) context.getProperty(ATTEMPT);
+        if (attempt != null) {
+            // Recorded when the body is closed, it may be read as a stream
+            long start = System.nanoTime();
+            context.setInputStream(new CountingInputStream(
+                                   context.getInputStream(), bytes -> {
+                this.registry.record(READ, attempt.method, attempt.api,
+                                     System.nanoTime() - start);
+                this.registry.record(RESPONSE_BYTES, attempt.method,
+                                     attempt.api, bytes);
+            }));
+        }
+        return context.proceed();
+    }
+
+    /**
+     * Get the api type of a path, like "vertices" of
+     * "graphs/hugegraph/graph/vertices/1"
+     */
+    static String apiType(String path) {
+        String[] segments = StringUtils.split(path, '/');
+        if (segments.length == 0) {
+            return "";
+        }
+        for (int i = 0; i < segments.length - 2; i++) {
+            if (GRAPHS.equals(segments[i])) {
+                String category = segments[i + 2];
+                if (CATEGORIES.contains(category) && i + 3 < segments.length) {
+                    return segments[i + 3];
+                }
+                return category;
+            }
+        }
+        // The apis not of a graph like "versions" and "graphs/{graph}"
+        for (String segment : segments) {
+            if (GRAPHS.equals(segment)) {
+                return GRAPHS;
+            }
+        }
+        return segments[segments.length - 1];
+    }
+
+    private static class Attempt {
+
+        private String method;
+        private String api;
+        private long start;
+    }
+
+    /**
+     * The registry of metrics, it must be thread safe
+     */
+    public interface Registry {
+
+        void increment(String name, String method, String api);
+
+        void record(String name, String method, String api, long value);
+
+        void gauge(String name, LongSupplier value);
+    }
+
+    /**
+     * Keep the counters and histograms in memory
+     */
+    public static class MemoryRegistry implements Registry {
+
+        private final Map<String, LongAdder> counters;
+        private final Map<String, Histogram> histograms;
+        private final Map<String, LongSupplier> gauges;
+
+        public MemoryRegistry() {
+            this.counters = new ConcurrentHashMap<>();
+            this.histograms = new ConcurrentHashMap<>();
+            this.gauges = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public void increment(String name, String method, String api) {
+            this.counters.computeIfAbsent(key(name, method, api),
+                                          k -> new LongAdder()).increment();
+        }
+
+        @Override
+        public void record(String name, String method, String api,
+                           long value) {
+            this.histograms.computeIfAbsent(key(name, method, api),
+                                            k -> new Histogram())
+                           .update(value);
+        }
+
+        @Override
+        public void gauge(String name, LongSupplier value) {
+            this.gauges.put(name, value);
+        }
+
+        public long count(String name, String method, String api) {
+            LongAdder counter = this.counters.get(key(name, method, api));
+            return counter == null ? 0L : counter.sum();
+        }
+
+        public Histogram histogram(String name, String method, String api) {
+            Histogram histogram = this.histograms.get(key(name, method,
+                                                          api));
+            return histogram == null ? new Histogram() : histogram;
+        }
+
+        public long gauge(String name) {
+            LongSupplier gauge = this.gauges.get(name);
+            E.checkArgument(gauge != null, "Undefined gauge '%s'", name);
+            return gauge.getAsLong();
+        }
+
+        /**
+         * The requested apis like "GET vertices"
+         */
+        public Set<String> apis() {
+            Set<String> apis = new TreeSet<>();
+            for (String key : this.counters.keySet()) {
+                apis.add(StringUtils.substringAfter(key, ":"));
+            }
+            return apis;
+        }
+
+        private static String key(String name, String method, String api) {
+            return name + ":" + method + " " + api;
+        }
+    }
+
+    /**
+     * A histogram of the values in buckets of power of 2, the percentiles
+     * are approximate with an error less than 2 times
+     */
+    public static class Histogram {
+
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets;
+        private final LongAdder count;
+        private final LongAdder sum;
+        private final AtomicLong max;
+
+        public Histogram() {
+            this.buckets = new AtomicLongArray(BUCKETS);
+            this.count = new LongAdder();
+            this.sum = new LongAdder();
+            this.max = new AtomicLong();
+        }
+
+        public void update(long value) {
+            value = Math.max(value, 0L);
+            // The bucket i holds the values in [2^(i-1), 2^i)
+            int bucket = BUCKETS - Long.numberOfLeadingZeros(value);
+            this.buckets.incrementAndGet(bucket);
+            this.count.increment();
+            this.sum.add(value);
+            this.max.accumulateAndGet(value, Math::max);
+        }
+
+        public long count() {
+            return this.count.sum();
+        }
+
+        public long sum() {
+            return this.sum.sum();
+        }
+
+        public long max() {
+            return this.max.get();
+        }
+
+        public double mean() {
+            long count = this.count();
+            return count == 0L ? 0.0 : (double) this.sum() / count;
+        }
+
+        /**
+         * The upper bound of the bucket holding the percentile
+         * @param percentile the percentile in (0, 100]
+         */
+        public long percentile(double percentile) {
+            E.checkArgument(percentile > 0.0 && percentile <= 100.0,
+                            "The percentile must be in (0, 100], " +
+                            "but got %s", percentile);
+            long count = this.count();
+            long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += this.buckets.get(i);
+                if (seen >= rank && seen > 0L) {
+                    long bound = i == 0 ? 0L : (1L << i) - 1L;
+                    return Math.min(bound, this.max());
+                }
+            }
+            return this.max();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.baidu.hugegraph.exception.LimitExceededException;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.util.E;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Limit the in-flight requests of every server endpoint, the limit is
+ * adjusted by the observed latency and errors: it's increased while the
+ * server is healthy and decreased once the server slows down or rejects
+ * requests, which keeps the server near its best throughput rather than
+ * overloaded.
+ *
+ * The requests exceeding the limit wait in a bounded queue, they fail with
+ * LimitExceededException when the queue is full or after the max wait.
+ */
+// Run after the load balancer, which may change the endpoint
+@Priority(Priorities.USER + 100)
+public class ConcurrencyLimiter implements ClientRequestFilter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final long DEFAULT_LATENCY_THRESHOLD = 5000L;
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+    // The weight of the latest sample in the long term latency
+    private static final double LATENCY_DECAY = 0.05;
+
+    private static final Set<Integer> DROPPED_STATUSES =
+            ImmutableSet.of(429, 503, 504);
+
+    public enum Algorithm {
+
+        // Additive increase and multiplicative decrease on errors or slow
+        AIMD,
+
+        // Scale by the ratio of long term latency to current latency
+        GRADIENT
+    }
+
+    private final Algorithm algorithm;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThreshold;
+    private final int maxQueue;
+    private final long maxWait;
+
+    private final Map<String, Limit> limits;
+    private final ThreadLocal<Attempt> attempt;
+    private final AtomicLong rejected;
+
+    private ConcurrencyLimiter(Builder builder) {
+        this.algorithm = builder.algorithm;
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.latencyThreshold = TimeUnit.MILLISECONDS.toNanos(
+                                builder.latencyThreshold);
+        this.maxQueue = builder.maxQueue;
+        this.maxWait = builder.maxWait;
+        this.limits = new ConcurrentHashMap<>();
+        this.attempt = new ThreadLocal<>();
+        this.rejected = new AtomicLong();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Algorithm algorithm() {
+        return this.algorithm;
+    }
+
+    /**
+     * The current limit of every endpoint
+     */
+    public Map<String, Integer> limits() {
+        ImmutableMap.Builder<String, Integer> limits = ImmutableMap.builder();
+        for (Limit limit : this.limits.values()) {
+            limits.put(limit.endpoint, limit.limit());
+        }
+        return limits.build();
+    }
+
+    public int inflight() {
+        int inflight = 0;
+        for (Limit limit : this.limits.values()) {
+            inflight += limit.inflight();
+        }
+        return inflight;
+    }
+
+    /**
+     * The number of requests waiting for the limit
+     */
+    public int queued() {
+        int queued = 0;
+        for (Limit limit : this.limits.values()) {
+            queued += limit.queued();
+        }
+        return queued;
+    }
+
+    public long rejected() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Acquire a permit of the endpoint, the caller must release it after
+     * the request is finished
+     */
+    public Permit acquire(String endpoint) {
+        Limit limit = this.limits.computeIfAbsent(endpoint, Limit::new);
+        boolean acquired;
+        try {
+            acquired = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for " +
+                                      "the concurrency limit", e);
+        }
+        if (!acquired) {
+            this.rejected.incrementAndGet();
+            throw new LimitExceededException(
+                      "The concurrency limit %s of '%s' is exceeded",
+                      limit.limit(), endpoint);
+        }
+        return new Permit(limit);
+    }
+
+    /**
+     * Send the request and release the permit acquired by the filter after
+     * the response is received
+     */
+    public Response execute(Supplier<Response> request) {
+        Attempt attempt = new Attempt();
+        this.attempt.set(attempt);
+        boolean dropped = true;
+        try {
+            Response response = request.get();
+            dropped = DROPPED_STATUSES.contains(response.getStatus());
+            return response;
+        } catch (ClientException e) {
+            // The rejection in filter is wrapped by the request
+            for (Throwable c = e.getCause(); c != null; c = c.getCause()) {
+                if (c instanceof LimitExceededException) {
+                    throw (LimitExceededException) c;
+                }
+            }
+            dropped = e.getCause() instanceof ProcessingException;
+            throw e;
+        } finally {
+            this.attempt.remove();
+            if (attempt.permit != null) {
+                attempt.permit.release(dropped);
+            }
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Attempt attempt = this.attempt.get();
+        if (attempt == null || attempt.permit != null) {
+            // Not sent through execute(), like the health check
+            return;
+        }
+        URI uri = context.getUri();
+        String endpoint = uri.getScheme() + "://" + uri.getAuthority();
+        attempt.permit = this.acquire(endpoint);
+    }
+
+    private static class Attempt {
+
+        private Permit permit;
+    }
+
+    public class Permit {
+
+        private final Limit limit;
+        private final long start;
+        private boolean released;
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+            this.start = System.nanoTime();
+            this.released = false;
+        }
+
+        public void release(boolean dropped) {
+            this.release(System.nanoTime() - this.start, dropped);
+        }
+
+        /**
+         * @param latency the latency of the request in ns
+         * @param dropped whether the request is rejected by the server or
+         *                failed to get response
+         */
+        public void release(long latency, boolean dropped) {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            this.limit.release(latency, dropped);
+        }
+    }
+
+    private class Limit {
+
+        private final String endpoint;
+        private double limit;
+        private int inflight;
+        private int queued;
+        // The long term average latency in ns, 0 means no sample yet
+        private double longLatency;
+
+        public Limit(String endpoint) {
+            this.endpoint = endpoint;
+            this.limit = initialLimit;
+            this.inflight = 0;
+            this.queued = 0;
+            this.longLatency = 0.0;
+        }
+
+        public synchronized int limit() {
+            return (int) this.limit;
+        }
+
+        public synchronized int inflight() {
+            return this.inflight;
+        }
+
+        public synchronized int queued() {
+            return this.queued;
+        }
+
+        public synchronized boolean acquire() throws InterruptedException {
+            if (this.inflight < this.limit()) {
+                this.inflight++;
+                return true;
+            }
+            if (this.queued >= maxQueue) {
+                return false;
+            }
+            this.queued++;
+            try {
+                long deadline = System.nanoTime() +
+                                TimeUnit.MILLISECONDS.toNanos(maxWait);
+                while (this.inflight >= this.limit()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                this.inflight++;
+                return true;
+            } finally {
+                this.queued--;
+            }
+        }
+
+        public synchronized void release(long latency, boolean dropped) {
+            // Only grow the limit when it's nearly used up
+            boolean saturated = this.inflight * 2 >= this.limit;
+            this.inflight--;
+            double limit = this.limit;
+            if (dropped) {
+                limit = limit * BACKOFF_RATIO;
+            } else if (algorithm == Algorithm.AIMD) {
+                if (latency > latencyThreshold) {
+                    limit = limit * BACKOFF_RATIO;
+                } else if (saturated) {
+                    limit = limit + 1.0;
+                }
+            } else {
+                limit = this.gradient(limit, latency, saturated);
+            }
+            this.limit = Math.min(maxLimit, Math.max(minLimit, limit));
+            this.notifyAll();
+        }
+
+        private double gradient(double limit, long latency,
+                                boolean saturated) {
+            if (this.longLatency == 0.0) {
+                this.longLatency = latency;
+            } else {
+                this.longLatency += LATENCY_DECAY *
+                                    (latency - this.longLatency);
+            }
+            if (!saturated || latency <= 0L) {
+                return limit;
+            }
+            // < 1 means the requests are queued in server
+            double gradient = Math.max(0.5, Math.min(1.0, this.longLatency /
+                                                          latency));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            return limit * (1.0 - SMOOTHING) + newLimit * SMOOTHING;
+        }
+    }
+
+    public static class Builder {
+
+        private Algorithm algorithm;
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private long latencyThreshold;
+        private int maxQueue;
+        private long maxWait;
+
+        private Builder() {
+            this.algorithm = Algorithm.GRADIENT;
+            this.initialLimit = DEFAULT_INITIAL_LIMIT;
+            this.minLimit = DEFAULT_MIN_LIMIT;
+            this.maxLimit = DEFAULT_MAX_LIMIT;
+            this.latencyThreshold = DEFAULT_LATENCY_THRESHOLD;
+            this.maxQueue = 0;
+            this.maxWait = 0L;
+        }
+
+        public Builder algorithm(Algorithm algorithm) {
+            E.checkArgumentNotNull(algorithm, "The algorithm can't be null");
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        public Builder limit(int initialLimit, int minLimit, int maxLimit) {
+            E.checkArgument(minLimit > 0,
+                            "The min limit must be > 0, but got %s",
+                            minLimit);
+            E.checkArgument(minLimit <= initialLimit &&
+                            initialLimit <= maxLimit,
+                            "The initial limit must be in [%s, %s], " +
+                            "but got %s", minLimit, maxLimit, initialLimit);
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * The latency in ms over which a request is regarded as a sign of
+         * overload, only used by AIMD
+         */
+        public Builder latencyThreshold(long latencyThreshold) {
+            E.checkArgument(latencyThreshold > 0L,
+                            "The latency threshold must be > 0, but got %s",
+                            latencyThreshold);
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * Queue at most maxQueue requests for at most maxWait ms when the
+         * limit is reached, 0 means reject immediately
+         */
+        public Builder queue(int maxQueue, long maxWait) {
+            E.checkArgument(maxQueue >= 0,
+                            "The max queue must be >= 0, but got %s",
+                            maxQueue);
+            E.checkArgument(maxWait >= 0L,
+                            "The max wait must be >= 0, but got %s",
+                            maxWait);
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public ConcurrencyLimiter build() {
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.SizeUtil;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Control the compression of request and response bodies.
+ *
+ * When enabled, the responses are negotiated with "Accept-Encoding: gzip,
+ * deflate" (added by the transports) and decompressed as a stream while
+ * being read. The request bodies marked with a Content-Encoding, like the
+ * batch writes, are encoded by the codec at the level while being written
+ * (only gzip, the one the server decodes),
+ * unless the estimated size is smaller than the threshold, since
+ * compressing a tiny body costs more than sending it.
+ *
+ * NOTE: the threshold only applies to request bodies, there is no
+ * threshold of responses, whether a response is compressed is decided by
+ * the server and the client can only enable or disable the negotiation.
+ *
+ * When disabled, "Accept-Encoding: identity" is sent and no request body
+ * is compressed, which saves the cpu on a fast network.
+ */
+// Run before the encoders, which compress by the Content-Encoding header
+@Priority(Priorities.ENTITY_CODER - 100)
+public class ContentCompression implements ClientRequestFilter,
+                                           WriterInterceptor {
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_LEVEL = 6;
+
+    private static final String IDENTITY = "identity";
+    private static final int BUFFER_SIZE = 8192;
+
+    public enum Codec {
+
+        NONE(IDENTITY),
+
+        // The server only decodes gzip request bodies
+        GZIP("gzip");
+
+        private final String encoding;
+
+        Codec(String encoding) {
+            this.encoding = encoding;
+        }
+
+        public String encoding() {
+            return this.encoding;
+        }
+
+        public static Codec fromEncoding(Object encoding) {
+            for (Codec codec : values()) {
+                if (codec.encoding.equals(encoding)) {
+                    return codec;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final boolean enabled;
+    private final int threshold;
+    private final Codec codec;
+    private final int level;
+
+    public ContentCompression(boolean enabled, int threshold) {
+        this(enabled, threshold, Codec.GZIP, DEFAULT_LEVEL);
+    }
+
+    /**
+     * @param enabled   whether to compress the bodies
+     * @param threshold the min size in bytes of a request body to compress
+     * @param codec     the codec to encode request bodies
+     * @param level     the compression level from 1 (fastest) to 9 (best)
+     */
+    public ContentCompression(boolean enabled, int threshold,
+                              Codec codec, int level) {
+        E.checkArgument(threshold >= 0,
+                        "The compression threshold must be >= 0, " +
+                        "but got %s", threshold);
+        E.checkArgumentNotNull(codec, "The codec can't be null");
+        E.checkArgument(level >= Deflater.BEST_SPEED &&
+                        level <= Deflater.BEST_COMPRESSION,
+                        "The compression level must be in [1, 9], " +
+                        "but got %s", level);
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.codec = codec;
+        this.level = level;
+    }
+
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    public int threshold() {
+        return this.threshold;
+    }
+
+    public Codec codec() {
+        return this.codec;
+    }
+
+    public int level() {
+        return this.level;
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (!this.enabled &&
+            !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.putSingle(HttpHeaders.ACCEPT_ENCODING, IDENTITY);
+        }
+
+        // Decide the encoding before the headers are sent
+        Object encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || Codec.fromEncoding(encoding) == null) {
+            return;
+        }
+        if (!this.enabled || this.codec == Codec.NONE ||
+            !context.hasEntity() ||
+            estimateSize(context.getEntity()) < this.threshold) {
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+        } else {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING,
+                              this.codec.encoding());
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context)
+                              throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        Object encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        Codec codec = Codec.fromEncoding(encoding);
+        if (codec == null || codec == Codec.NONE) {
+            context.proceed();
+            return;
+        }
+
+        // Hide the encoding from the encoders, which use the default level
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        OutputStream output = context.getOutputStream();
+        Deflater deflater = new Deflater(this.level, true);
+        GzipStream stream = new GzipStream(output, deflater);
+        // Compress into the entity stream directly
+        context.setOutputStream(stream);
+        try {
+            context.proceed();
+            stream.finish();
+        } finally {
+            deflater.end();
+            context.setOutputStream(output);
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+    }
+
+    private static long estimateSize(Object entity) {
+        if (!(entity instanceof Collection)) {
+            // The size of a request object is unknown, regard it as large
+            return Long.MAX_VALUE;
+        }
+        return SizeUtil.estimateSize(entity);
+    }
+
+    private static class GzipStream extends GZIPOutputStream {
+
+        public GzipStream(OutputStream output, Deflater deflater)
+                          throws IOException {
+            super(output, BUFFER_SIZE);
+            // Replace the default deflater to apply the level
+            this.def.end();
+            this.def = deflater;
+        }
+    }
+}
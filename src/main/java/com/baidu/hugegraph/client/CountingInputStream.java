@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Count the bytes read from a stream, the count is passed to the listener
+ * once when the stream is closed
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final LongConsumer listener;
+    private long bytes;
+    private boolean closed;
+
+    public CountingInputStream(InputStream in, LongConsumer listener) {
+        super(in);
+        this.listener = listener;
+        this.bytes = 0L;
+        this.closed = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = this.in.read();
+        if (b >= 0) {
+            this.bytes++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = this.in.read(b, off, len);
+        if (read > 0) {
+            this.bytes += read;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.in.close();
+        } finally {
+            if (!this.closed) {
+                this.closed = true;
+                this.listener.accept(this.bytes);
+            }
+        }
+    }
+}
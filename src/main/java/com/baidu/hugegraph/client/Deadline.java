@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.hugegraph.exception.DeadlineExceededException;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * The deadline of the requests sent by current thread, it's opened by
+ * start() and must be closed in the same thread, like:
+ * <pre>
+ * try (Deadline deadline = Deadline.start(Duration.ofSeconds(2))) {
+ *     client.traverser().kout(...);
+ * }
+ * </pre>
+ * Every attempt of a request is checked against the deadline before
+ * sending, its read timeout is limited to the remaining time, and the
+ * remaining time is sent to server by the header X-Request-Timeout, so it
+ * can abandon the work nobody will read. A nested deadline can't extend
+ * the enclosing one.
+ */
+public final class Deadline implements AutoCloseable {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadline;
+    private final Deadline previous;
+
+    private Deadline(long deadline, Deadline previous) {
+        this.deadline = deadline;
+        this.previous = previous;
+    }
+
+    /**
+     * Open a deadline after the timeout for the requests of current thread
+     */
+    public static Deadline start(Duration timeout) {
+        E.checkArgumentNotNull(timeout, "The timeout can't be null");
+        E.checkArgument(!timeout.isNegative() && !timeout.isZero(),
+                        "The timeout must be > 0, but got %s", timeout);
+        Deadline previous = CURRENT.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (previous != null && previous.deadline - deadline < 0L) {
+            deadline = previous.deadline;
+        }
+        Deadline current = new Deadline(deadline, previous);
+        CURRENT.set(current);
+        return current;
+    }
+
+    /**
+     * The deadline of current thread, null if no deadline
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind a deadline to current thread, used to pass the deadline to the
+     * threads sending requests for the caller, null means unbind
+     */
+    public static void current(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * The remaining time in ms, it's <= 0 if expired
+     */
+    public long remaining() {
+        return TimeUnit.NANOSECONDS.toMillis(this.deadline -
+                                             System.nanoTime());
+    }
+
+    public boolean expired() {
+        return this.deadline - System.nanoTime() <= 0L;
+    }
+
+    public void check() {
+        if (this.expired()) {
+            throw new DeadlineExceededException(
+                      "The deadline of request is exceeded by %sms",
+                      -this.remaining());
+        }
+    }
+
+    @Override
+    public void close() {
+        E.checkState(CURRENT.get() == this,
+                     "The deadline must be closed in the thread opening " +
+                     "it and after the nested deadlines");
+        current(this.previous);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.protocol.HttpContext;
+import org.glassfish.jersey.apache.connector.ApacheHttpClientBuilderConfigurator;
+
+/**
+ * The in-flight exchange of an attempt, which can be aborted by another
+ * thread, like the loser of a hedged request. The exchange is bound to the
+ * thread sending the attempt, and the connectors register the way to abort
+ * the request being sent by the thread.
+ */
+final class Exchange {
+
+    private static final ThreadLocal<Exchange> CURRENT = new ThreadLocal<>();
+
+    private volatile Runnable aborter;
+    private volatile boolean aborted;
+
+    public Exchange() {
+        this.aborter = null;
+        this.aborted = false;
+    }
+
+    public static Exchange current() {
+        return CURRENT.get();
+    }
+
+    public static void current(Exchange exchange) {
+        if (exchange == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(exchange);
+        }
+    }
+
+    /**
+     * Register the way to abort the request being sent, the request is
+     * aborted at once if the exchange has been aborted
+     */
+    public void aborter(Runnable aborter) {
+        this.aborter = aborter;
+        if (this.aborted) {
+            aborter.run();
+        }
+    }
+
+    public void abort() {
+        this.aborted = true;
+        Runnable aborter = this.aborter;
+        if (aborter != null) {
+            aborter.run();
+        }
+    }
+
+    public boolean aborted() {
+        return this.aborted;
+    }
+
+    /**
+     * Register the abort of the apache requests sent by the thread of an
+     * exchange
+     */
+    static class ApacheAborter implements ApacheHttpClientBuilderConfigurator {
+
+        @Override
+        public HttpClientBuilder configure(HttpClientBuilder builder) {
+            return builder.addInterceptorFirst(ApacheAborter::register);
+        }
+
+        private static void register(HttpRequest request, HttpContext context) {
+            Exchange exchange = CURRENT.get();
+            if (exchange == null) {
+                return;
+            }
+            if (request instanceof HttpRequestWrapper) {
+                request = ((HttpRequestWrapper) request).getOriginal();
+            }
+            if (request instanceof HttpUriRequest) {
+                exchange.aborter(((HttpUriRequest) request)::abort);
+            }
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Send a duplicate of a slow request and take the first response, which
+ * cuts the tail latency caused by a slow server or a GC pause. A request
+ * is hedged if no response arrives within the delay, which is a high
+ * percentile of the recent latencies, so only a few slow requests are
+ * duplicated. The duplicate is sent through the load balancer if any, so
+ * it usually goes to another server.
+ *
+ * Only the GET requests and the traverser POST requests are hedged, and
+ * the hedges are limited by a budget: every request deposits budgetRatio
+ * tokens and every hedge costs one token.
+ *
+ * The first attempt is sent by the caller thread, and the hedges are sent
+ * by a bounded thread pool of the policy, a request isn't hedged while all
+ * the threads are busy. Once an attempt is answered, the other attempts
+ * are aborted, which releases their connections at once. A policy owns the
+ * threads, so it must not be shared by multiple clients.
+ */
+public class HedgingPolicy implements ClientRequestFilter, Closeable {
+
+    public static final double DEFAULT_PERCENTILE = 95.0;
+    public static final long DEFAULT_MIN_DELAY = 5L;
+    public static final int DEFAULT_MAX_HEDGES = 1;
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_THREADS = 4;
+
+    // The latencies used to compute the delay
+    private static final int SAMPLES = 1024;
+    // Don't hedge before enough latencies are sampled
+    private static final int MIN_SAMPLES = 64;
+    private static final int RECOMPUTE_INTERVAL = 64;
+    private static final int MAX_BUDGET_TOKENS = 10;
+    private static final String TRAVERSER_PATH = "/traversers/";
+
+    private final double percentile;
+    private final long minDelay;
+    private final int maxHedges;
+    private final double budgetRatio;
+    private final int threads;
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    // The hedges being sent, at most one per thread
+    private final AtomicInteger inflight;
+    private final ThreadLocal<Call> call;
+    private final long[] samples;
+    private long sampled;
+    // The cached delay in ns, -1 means not enough samples
+    private volatile long delay;
+    private double budget;
+
+    private final AtomicLong hedges;
+    private final AtomicLong hedgeWins;
+
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelay = TimeUnit.MILLISECONDS.toNanos(builder.minDelay);
+        this.maxHedges = builder.maxHedges;
+        this.budgetRatio = builder.budgetRatio;
+        this.threads = builder.threads;
+        this.executor = ExecutorUtil.newFixedThreadPool(this.threads,
+                                                        "hedging-%d");
+        this.timer = ExecutorUtil.newScheduledThreadPool("hedging-timer-%d");
+        this.inflight = new AtomicInteger();
+        this.call = new ThreadLocal<>();
+        this.samples = new long[SAMPLES];
+        this.sampled = 0L;
+        this.delay = -1L;
+        this.budget = 0.0;
+        this.hedges = new AtomicLong();
+        this.hedgeWins = new AtomicLong();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The current delay in ms before hedging, -1 means not hedge yet
+     */
+    public long delay() {
+        long delay = this.delay;
+        return delay < 0L ? -1L : TimeUnit.NANOSECONDS.toMillis(delay);
+    }
+
+    /**
+     * The number of sent hedges
+     */
+    public long hedges() {
+        return this.hedges.get();
+    }
+
+    /**
+     * The number of requests answered by a hedge first
+     */
+    public long hedgeWins() {
+        return this.hedgeWins.get();
+    }
+
+    /**
+     * Send the request, and send hedges of it if it's slow, the first
+     * response is returned
+     */
+    public Response execute(Supplier<Response> request) {
+        Call call = new Call(request);
+        this.depositBudget();
+        call.pending.incrementAndGet();
+        long delay = this.delay;
+        if (delay >= 0L) {
+            this.schedule(call, delay);
+        }
+        this.attempt(call, 0);
+        try {
+            return call.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for " +
+                                      "response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ClientException("Failed to do request", cause);
+        } finally {
+            call.finish();
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Call call = this.call.get();
+        if (call != null && call.method == null) {
+            call.path = context.getUri().getPath();
+            call.method = context.getMethod();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.timer.shutdownNow();
+        this.executor.shutdownNow();
+    }
+
+    private void schedule(Call call, long delay) {
+        try {
+            call.timer = this.timer.schedule(() -> this.hedge(call, delay),
+                                             delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // The policy is closed
+        }
+    }
+
+    private void hedge(Call call, long delay) {
+        if (call.finished || call.result.isDone() || !call.hedgeable() ||
+            this.inflight.get() >= this.threads || !this.withdrawBudget()) {
+            return;
+        }
+        this.hedges.incrementAndGet();
+        this.inflight.incrementAndGet();
+        call.pending.incrementAndGet();
+        int index = call.sent.getAndIncrement();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    this.attempt(call, index);
+                } finally {
+                    this.inflight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.inflight.decrementAndGet();
+            call.release();
+            return;
+        }
+        if (call.sent.get() < 1 + this.maxHedges) {
+            this.schedule(call, delay);
+        }
+    }
+
+    private void attempt(Call call, int index) {
+        Exchange exchange = new Exchange();
+        if (!call.register(exchange)) {
+            // The request has been answered before this hedge starts
+            call.release();
+            return;
+        }
+        this.call.set(call);
+        Exchange.current(exchange);
+        long start = System.nanoTime();
+        try {
+            Response response = call.request.get();
+            if (call.result.complete(response)) {
+                this.sample(System.nanoTime() - start);
+                if (index > 0) {
+                    this.hedgeWins.incrementAndGet();
+                }
+                call.abortLosers(exchange);
+            } else {
+                // Lost the race, release the connection
+                response.close();
+            }
+        } catch (Throwable e) {
+            call.failure = e;
+        } finally {
+            Exchange.current(null);
+            this.call.remove();
+            call.release();
+        }
+    }
+
+    private synchronized void sample(long latency) {
+        this.samples[(int) (this.sampled % SAMPLES)] = latency;
+        if (++this.sampled % RECOMPUTE_INTERVAL == 0L &&
+            this.sampled >= MIN_SAMPLES) {
+            int size = (int) Math.min(this.sampled, SAMPLES);
+            long[] sorted = Arrays.copyOf(this.samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(this.percentile / 100.0 * size) - 1;
+            long delay = sorted[Math.max(0, Math.min(size - 1, index))];
+            this.delay = Math.max(this.minDelay, delay);
+        }
+    }
+
+    private synchronized void depositBudget() {
+        this.budget = Math.min(MAX_BUDGET_TOKENS,
+                               this.budget + this.budgetRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (this.budget < 1.0) {
+            return false;
+        }
+        this.budget -= 1.0;
+        return true;
+    }
+
+    private static class Call {
+
+        private final Supplier<Response> request;
+        private final CompletableFuture<Response> result;
+        private final AtomicInteger pending;
+        private final AtomicInteger sent;
+        // The exchanges of the attempts, aborted once answered
+        private final List<Exchange> exchanges;
+        private volatile ScheduledFuture<?> timer;
+        private volatile boolean finished;
+        private volatile Throwable failure;
+        private volatile String method;
+        private volatile String path;
+
+        public Call(Supplier<Response> request) {
+            this.request = request;
+            this.result = new CompletableFuture<>();
+            this.pending = new AtomicInteger();
+            this.sent = new AtomicInteger(1);
+            this.exchanges = new ArrayList<>();
+            this.timer = null;
+            this.finished = false;
+            this.failure = null;
+            this.method = null;
+            this.path = null;
+        }
+
+        public synchronized boolean register(Exchange exchange) {
+            if (this.finished || this.result.isDone()) {
+                return false;
+            }
+            this.exchanges.add(exchange);
+            return true;
+        }
+
+        public synchronized void abortLosers(Exchange winner) {
+            for (Exchange exchange : this.exchanges) {
+                if (exchange != winner) {
+                    exchange.abort();
+                }
+            }
+            this.exchanges.clear();
+        }
+
+        public void release() {
+            if (this.pending.decrementAndGet() == 0 && this.failure != null) {
+                // All the sent attempts are failed
+                this.result.completeExceptionally(this.failure);
+            }
+        }
+
+        public void finish() {
+            this.finished = true;
+            ScheduledFuture<?> timer = this.timer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            this.abortLosers(null);
+        }
+
+        public boolean hedgeable() {
+            // The method is unknown if the request is not sent yet
+            String method = this.method;
+            if (HttpMethod.GET.equals(method)) {
+                return true;
+            }
+            return HttpMethod.POST.equals(method) && this.path != null &&
+                   this.path.contains(TRAVERSER_PATH);
+        }
+    }
+
+    public static class Builder {
+
+        private double percentile;
+        private long minDelay;
+        private int maxHedges;
+        private double budgetRatio;
+        private int threads;
+
+        private Builder() {
+            this.percentile = DEFAULT_PERCENTILE;
+            this.minDelay = DEFAULT_MIN_DELAY;
+            this.maxHedges = DEFAULT_MAX_HEDGES;
+            this.budgetRatio = DEFAULT_BUDGET_RATIO;
+            this.threads = DEFAULT_THREADS;
+        }
+
+        /**
+         * Hedge the requests slower than the percentile of the recent
+         * latencies, but at least minDelay ms
+         */
+        public Builder delay(double percentile, long minDelay) {
+            E.checkArgument(percentile > 0.0 && percentile <= 100.0,
+                            "The percentile must be in (0, 100], " +
+                            "but got %s", percentile);
+            E.checkArgument(minDelay >= 0L,
+                            "The min delay must be >= 0, but got %s",
+                            minDelay);
+            this.percentile = percentile;
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * The max number of hedges of a request
+         */
+        public Builder maxHedges(int maxHedges) {
+            E.checkArgument(maxHedges > 0,
+                            "The max hedges must be > 0, but got %s",
+                            maxHedges);
+            this.maxHedges = maxHedges;
+            return this;
+        }
+
+        /**
+         * The max ratio of the hedges to the requests
+         */
+        public Builder budget(double budgetRatio) {
+            E.checkArgument(budgetRatio > 0.0 && budgetRatio <= 1.0,
+                            "The budget ratio must be in (0, 1], " +
+                            "but got %s", budgetRatio);
+            this.budgetRatio = budgetRatio;
+            return this;
+        }
+
+        /**
+         * The number of threads to send the hedges, which is the max
+         * number of the hedges in flight
+         */
+        public Builder threads(int threads) {
+            E.checkArgument(threads > 0,
+                            "The hedging threads must be > 0, but got %s",
+                            threads);
+            this.threads = threads;
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+import jakarta.ws.rs.core.Configuration;
+import okhttp3.OkHttpClient;
+
+/**
+ * Multiplex the concurrent requests over a few HTTP/2 connections instead
+ * of one pooled HTTP/1.1 connection per in-flight request.
+ *
+ * The HTTP/2 is negotiated by ALPN for https urls (Java 8u252+), and it
+ * falls back to HTTP/1.1 if the server doesn't support it. The cleartext
+ * HTTP/2 is only used with prior knowledge that the server supports it.
+ *
+ * The connections are shared by all the clients created with a transport,
+ * like the streaming client of RestClient, they are closed after all the
+ * clients are closed, the config of the first client is used.
+ *
+ * NOTE: it depends on the optional dependency com.squareup.okhttp3:okhttp
+ */
+public class Http2Transport implements Transport {
+
+    private final boolean priorKnowledge;
+    private OkHttpClient client;
+    private int references;
+
+    public Http2Transport() {
+        this(false);
+    }
+
+    /**
+     * @param priorKnowledge send cleartext HTTP/2 to http urls without
+     *                       negotiation, the server must support h2c
+     */
+    public Http2Transport(boolean priorKnowledge) {
+        this.priorKnowledge = priorKnowledge;
+        this.client = null;
+        this.references = 0;
+    }
+
+    @Override
+    public String name() {
+        return this.priorKnowledge ? "h2c" : "h2";
+    }
+
+    @Override
+    public ConnectorProvider connectorProvider() {
+        return (client, config) -> this.connect(config);
+    }
+
+    @Override
+    public boolean nonBlocking() {
+        return true;
+    }
+
+    private synchronized OkHttpConnector connect(Configuration config) {
+        if (this.client == null) {
+            this.client = OkHttpConnector.newClient(config,
+                                                    this.priorKnowledge);
+        }
+        this.references++;
+        return new OkHttpConnector(this.client, this::release);
+    }
+
+    private synchronized void release() {
+        if (this.references > 0 && --this.references == 0) {
+            OkHttpConnector.shutdown(this.client);
+            this.client = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.collect.ImmutableSet;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Distribute the requests of a RestClient across multiple servers. The
+ * requests are built against the first url, and this filter rewrites the
+ * url of every request to the node selected by the strategy.
+ *
+ * A node is ejected after FAILURE_THRESHOLD continuous failures (connection
+ * errors or 502/503/504), or when the health check fails, and the GET
+ * requests failed on a node are retried on another one.
+ *
+ * NOTE: when the client also has a RetryPolicy, the policy owns the retries
+ * across the nodes, and every attempt of it fails over at most once, so the
+ * attempts are bounded by its max attempts and budget, not multiplied by
+ * the number of nodes.
+ */
+public class LoadBalancer implements ClientRequestFilter, Closeable {
+
+    private static final Logger LOG = Log.logger(LoadBalancer.class);
+
+    public static final int FAILURE_THRESHOLD = 3;
+    public static final long EJECT_TIME_MS = 30000L;
+
+    private static final Set<Integer> UNAVAILABLE_STATUSES = ImmutableSet.of(
+            Response.Status.BAD_GATEWAY.getStatusCode(),
+            Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
+            Response.Status.GATEWAY_TIMEOUT.getStatusCode());
+    // The weight of the latest sample in the average latency
+    private static final double LATENCY_DECAY = 0.2;
+
+    public enum Strategy {
+
+        ROUND_ROBIN,
+
+        // Select the node with the least in-flight requests
+        LEAST_REQUESTS,
+
+        // Select the faster of two random nodes by latency and load
+        LATENCY_WEIGHTED
+    }
+
+    private final String url;
+    private final List<Node> nodes;
+    private final Strategy strategy;
+    private final int healthCheckInterval;
+    private final AtomicInteger cursor;
+    private final ThreadLocal<Attempt> attempt;
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param urls                the server urls, the first one is used to
+     *                            build the requests
+     * @param strategy            the strategy to select node
+     * @param healthCheckInterval the interval in seconds to check the nodes,
+     *                            0 means disable the health check
+     */
+    public LoadBalancer(List<String> urls, Strategy strategy,
+                        int healthCheckInterval) {
+        E.checkArgument(urls != null && !urls.isEmpty(),
+                        "The urls of load balancer can't be empty");
+        E.checkArgumentNotNull(strategy, "The strategy can't be null");
+        E.checkArgument(healthCheckInterval >= 0,
+                        "The health check interval must be >= 0, " +
+                        "but got %s", healthCheckInterval);
+        List<Node> nodes = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            E.checkArgument(url != null && !url.isEmpty(),
+                            "The url can't be null or empty");
+            nodes.add(new Node(StringUtils.removeEnd(url, "/")));
+        }
+        this.url = nodes.get(0).url;
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.strategy = strategy;
+        this.healthCheckInterval = healthCheckInterval;
+        this.cursor = new AtomicInteger();
+        this.attempt = new ThreadLocal<>();
+        this.healthChecker = null;
+    }
+
+    public String url() {
+        return this.url;
+    }
+
+    public List<Node> nodes() {
+        return this.nodes;
+    }
+
+    public Strategy strategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Start to check the nodes periodically with the pinger, which returns
+     * whether the node of the url is available
+     */
+    public synchronized void startHealthCheck(Predicate<String> pinger) {
+        if (this.healthCheckInterval == 0 || this.healthChecker != null) {
+            return;
+        }
+        this.healthChecker = ExecutorUtil.newScheduledThreadPool(
+                             "load-balancer-%d");
+        this.healthChecker.scheduleWithFixedDelay(() -> {
+            this.checkHealth(pinger);
+        }, this.healthCheckInterval, this.healthCheckInterval,
+           TimeUnit.SECONDS);
+    }
+
+    /**
+     * Send the request to a selected node, the request is retried on the
+     * other nodes if it's an idempotent GET and the node is unavailable
+     */
+    public Response execute(Supplier<Response> request) {
+        return this.execute(request, this.nodes.size() - 1);
+    }
+
+    /**
+     * Like execute(request), but the request is retried on at most the
+     * specified number of other nodes
+     */
+    public Response execute(Supplier<Response> request, int failovers) {
+        E.checkArgument(failovers >= 0,
+                        "The failovers must be >= 0, but got %s", failovers);
+        Set<Node> tried = new HashSet<>();
+        while (true) {
+            Node node = this.select(tried);
+            tried.add(node);
+            boolean retryable = tried.size() <= failovers &&
+                                tried.size() < this.nodes.size();
+
+            Attempt attempt = new Attempt(node);
+            this.attempt.set(attempt);
+            node.outstanding.incrementAndGet();
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = request.get();
+            } catch (ClientException e) {
+                if (!(e.getCause() instanceof ProcessingException)) {
+                    throw e;
+                }
+                node.fail();
+                if (retryable && attempt.idempotent()) {
+                    LOG.debug("Retry request on another node since " +
+                              "node {} is unavailable", node, e);
+                    continue;
+                }
+                throw e;
+            } finally {
+                node.outstanding.decrementAndGet();
+                this.attempt.remove();
+            }
+
+            if (UNAVAILABLE_STATUSES.contains(response.getStatus())) {
+                node.fail();
+                if (retryable && attempt.idempotent()) {
+                    LOG.debug("Retry request on another node since " +
+                              "node {} responded {}", node,
+                              response.getStatus());
+                    response.close();
+                    continue;
+                }
+            } else {
+                node.succeed(System.nanoTime() - start);
+            }
+            return response;
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Attempt attempt = this.attempt.get();
+        if (attempt == null) {
+            // Not sent through execute(), like the health check
+            return;
+        }
+        attempt.method = context.getMethod();
+        String uri = context.getUri().toString();
+        if (attempt.node.url.equals(this.url) || !uri.startsWith(this.url)) {
+            return;
+        }
+        String target = attempt.node.url + uri.substring(this.url.length());
+        context.setUri(URI.create(target));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.healthChecker != null) {
+            this.healthChecker.shutdownNow();
+            this.healthChecker = null;
+        }
+    }
+
+    protected Node select(Set<Node> excluded) {
+        long now = System.currentTimeMillis();
+        List<Node> candidates = new ArrayList<>(this.nodes.size());
+        for (Node node : this.nodes) {
+            if (!excluded.contains(node) && node.available(now)) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // All the nodes are ejected, try them anyway rather than fail
+            for (Node node : this.nodes) {
+                if (!excluded.contains(node)) {
+                    candidates.add(node);
+                }
+            }
+        }
+        E.checkState(!candidates.isEmpty(), "No node can be selected");
+
+        int size = candidates.size();
+        int offset = Math.floorMod(this.cursor.getAndIncrement(), size);
+        switch (this.strategy) {
+            case ROUND_ROBIN:
+                return candidates.get(offset);
+            case LEAST_REQUESTS:
+                Node selected = candidates.get(offset);
+                for (int i = 1; i < size; i++) {
+                    Node node = candidates.get((offset + i) % size);
+                    if (node.outstanding() < selected.outstanding()) {
+                        selected = node;
+                    }
+                }
+                return selected;
+            case LATENCY_WEIGHTED:
+                if (size == 1) {
+                    return candidates.get(0);
+                }
+                // Pick two different nodes randomly
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int i = random.nextInt(size);
+                int j = random.nextInt(size - 1);
+                if (j >= i) {
+                    j++;
+                }
+                Node first = candidates.get(i);
+                Node second = candidates.get(j);
+                return first.score() <= second.score() ? first : second;
+            default:
+                throw new AssertionError("Unsupported strategy " +
+                                         this.strategy);
+        }
+    }
+
+    private void checkHealth(Predicate<String> pinger) {
+        for (Node node : this.nodes) {
+            boolean healthy;
+            try {
+                healthy = pinger.test(node.url);
+            } catch (Throwable e) {
+                LOG.debug("Failed to check health of node {}", node, e);
+                healthy = false;
+            }
+            if (healthy) {
+                if (node.ejected()) {
+                    LOG.info("Node {} is available again", node);
+                }
+                node.reinstate();
+            } else {
+                if (!node.ejected()) {
+                    LOG.warn("Eject node {} since health check failed",
+                             node);
+                }
+                // Keep ejected until a later health check is passed
+                node.eject(Long.MAX_VALUE);
+            }
+        }
+    }
+
+    private static class Attempt {
+
+        private final Node node;
+        private String method;
+
+        public Attempt(Node node) {
+            this.node = node;
+            this.method = null;
+        }
+
+        public boolean idempotent() {
+            return HttpMethod.GET.equals(this.method) ||
+                   HttpMethod.HEAD.equals(this.method);
+        }
+    }
+
+    public static class Node {
+
+        private final String url;
+        private final AtomicInteger outstanding;
+        private final AtomicInteger failures;
+        // The time in ms until which the node is ejected
+        private volatile long ejectedUntil;
+        // The average latency in ns, 0 means no sample yet
+        private volatile double latency;
+
+        public Node(String url) {
+            this.url = url;
+            this.outstanding = new AtomicInteger();
+            this.failures = new AtomicInteger();
+            this.ejectedUntil = 0L;
+            this.latency = 0.0;
+        }
+
+        public String url() {
+            return this.url;
+        }
+
+        public int outstanding() {
+            return this.outstanding.get();
+        }
+
+        public boolean ejected() {
+            return !this.available(System.currentTimeMillis());
+        }
+
+        public double latency() {
+            return this.latency;
+        }
+
+        private boolean available(long now) {
+            return this.ejectedUntil <= now;
+        }
+
+        private double score() {
+            return this.latency * (this.outstanding.get() + 1);
+        }
+
+        private void succeed(long latency) {
+            this.failures.set(0);
+            double average = this.latency;
+            this.latency = average == 0.0 ? latency :
+                           average + LATENCY_DECAY * (latency - average);
+        }
+
+        private void fail() {
+            if (this.failures.incrementAndGet() >= FAILURE_THRESHOLD &&
+                !this.ejected()) {
+                LOG.warn("Eject node {} after {} continuous failures",
+                         this, this.failures.get());
+                this.eject(System.currentTimeMillis() + EJECT_TIME_MS);
+            }
+        }
+
+        private void eject(long until) {
+            this.ejectedUntil = until;
+        }
+
+        private void reinstate() {
+            this.failures.set(0);
+            this.ejectedUntil = 0L;
+        }
+
+        @Override
+        public String toString() {
+            return this.url;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.Statuses;
+
+import com.baidu.hugegraph.rest.ClientException;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+/**
+ * The jersey connector of Http2Transport based on OkHttp, the requests to
+ * a server are multiplexed on a shared HTTP/2 connection. The OkHttpClient
+ * is shared by the connectors of a transport, and is closed by the closer.
+ */
+class OkHttpConnector implements Connector {
+
+    private static final int DEFAULT_MAX_IDLE = 5;
+    private static final long DEFAULT_KEEP_ALIVE = 5L * 60 * 1000;
+    private static final int DEFAULT_ASYNC_REQUESTS = 64;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final OkHttpClient client;
+    private final Runnable closer;
+
+    public OkHttpConnector(OkHttpClient client, Runnable closer) {
+        this.client = client;
+        this.closer = closer;
+    }
+
+    public static OkHttpClient newClient(Configuration config,
+                                         boolean priorKnowledge) {
+        Map<String, Object> props = config.getProperties();
+        int connectTimeout = ClientProperties.getValue(
+                             props, ClientProperties.CONNECT_TIMEOUT, 0);
+        int readTimeout = ClientProperties.getValue(
+                          props, ClientProperties.READ_TIMEOUT, 0);
+        int maxIdle = ClientProperties.getValue(props, "maxPerRoute",
+                                                DEFAULT_MAX_IDLE);
+        // Keep the idle connections alive for the idle time of client
+        long keepAlive = ClientProperties.getValue(props, "idleTime",
+                                                   DEFAULT_KEEP_ALIVE,
+                                                   Long.class);
+        /*
+         * The dispatcher runs only 5 async requests per host by default,
+         * the requests over the limit wait in its queue
+         */
+        int asyncRequests = ClientProperties.getValue(
+                            props, "maxAsyncRequests",
+                            DEFAULT_ASYNC_REQUESTS);
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(asyncRequests);
+        dispatcher.setMaxRequestsPerHost(asyncRequests);
+
+        List<Protocol> protocols = priorKnowledge ?
+                                   Collections.singletonList(
+                                   Protocol.H2_PRIOR_KNOWLEDGE) :
+                                   Arrays.asList(Protocol.HTTP_2,
+                                                 Protocol.HTTP_1_1);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .protocols(protocols)
+                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdle, keepAlive,
+                                                   TimeUnit.MILLISECONDS));
+        if ("https".equals(props.get("protocol"))) {
+            configSSL(builder, (String) props.get("trustStoreFile"),
+                      (String) props.get("trustStorePassword"));
+        }
+        return builder.build();
+    }
+
+    public static void shutdown(OkHttpClient client) {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        Call call = this.newCall(request);
+        // The loser of a hedged request is aborted by the winner
+        Exchange exchange = Exchange.current();
+        if (exchange != null) {
+            exchange.aborter(call::cancel);
+        }
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw new ProcessingException(e);
+        }
+        return toClientResponse(request, response);
+    }
+
+    /**
+     * Send the request by the dispatcher of okhttp without blocking the
+     * caller, the callback is completed by the thread reading the response
+     */
+    @Override
+    public Future<?> apply(ClientRequest request,
+                           AsyncConnectorCallback callback) {
+        CompletableFuture<ClientResponse> future = new CompletableFuture<>();
+        Call call;
+        try {
+            call = this.newCall(request);
+        } catch (Throwable e) {
+            callback.failure(e);
+            future.completeExceptionally(e);
+            return future;
+        }
+        call.enqueue(new Callback() {
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                ClientResponse clientResponse;
+                try {
+                    clientResponse = toClientResponse(request, response);
+                } catch (Throwable e) {
+                    response.close();
+                    this.fail(e);
+                    return;
+                }
+                callback.response(clientResponse);
+                future.complete(clientResponse);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                this.fail(new ProcessingException(e));
+            }
+
+            private void fail(Throwable e) {
+                callback.failure(e);
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public String getName() {
+        return "OkHttp";
+    }
+
+    @Override
+    public void close() {
+        this.closer.run();
+    }
+
+    private Call newCall(ClientRequest request) {
+        Call call = this.client.newCall(buildRequest(request));
+        // The read timeout is limited per request by the deadline
+        int timeout = request.resolveProperty(ClientProperties.READ_TIMEOUT, 0);
+        if (timeout > 0 && (this.client.readTimeoutMillis() == 0 ||
+                            timeout < this.client.readTimeoutMillis())) {
+            call.timeout().timeout(timeout, TimeUnit.MILLISECONDS);
+        }
+        return call;
+    }
+
+    private static ClientResponse toClientResponse(ClientRequest request,
+                                                   Response response) {
+        String message = response.message();
+        ClientResponse clientResponse = new ClientResponse(
+                                        message.isEmpty() ?
+                                        Statuses.from(response.code()) :
+                                        Statuses.from(response.code(),
+                                                      message),
+                                        request);
+        Headers headers = response.headers();
+        for (int i = 0; i < headers.size(); i++) {
+            clientResponse.getHeaders().add(headers.name(i),
+                                            headers.value(i));
+        }
+        ResponseBody body = response.body();
+        // The connection is released when the entity stream is closed
+        InputStream entity = body != null ? body.byteStream() :
+                             new ByteArrayInputStream(EMPTY);
+        clientResponse.setEntityStream(entity);
+        return clientResponse;
+    }
+
+    private static Request buildRequest(ClientRequest request) {
+        Request.Builder builder = new Request.Builder();
+        builder.url(request.getUri().toString());
+        MediaType type = null;
+        for (Map.Entry<String, List<String>> header :
+             request.getStringHeaders().entrySet()) {
+            String name = header.getKey();
+            // The length and encoding of body are set by okhttp
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) ||
+                "Transfer-Encoding".equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                builder.addHeader(name, value);
+            }
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) &&
+                !header.getValue().isEmpty()) {
+                type = MediaType.parse(header.getValue().get(0));
+            }
+        }
+
+        String method = request.getMethod();
+        RequestBody body = null;
+        if (request.hasEntity()) {
+            body = new EntityBody(request, type);
+        } else if (requireBody(method)) {
+            body = RequestBody.create(type, EMPTY);
+        }
+        builder.method(method, body);
+        return builder.build();
+    }
+
+    private static boolean requireBody(String method) {
+        return HttpMethod.POST.equals(method) ||
+               HttpMethod.PUT.equals(method) ||
+               "PATCH".equals(method);
+    }
+
+    /**
+     * The request body that serializes the entity through the writers and
+     * interceptors into the sink while being sent, rather than buffering
+     * the whole body in memory. Like the chunked mode of apache connector,
+     * the headers are sent before the entity is written.
+     */
+    private static class EntityBody extends RequestBody {
+
+        private final ClientRequest request;
+        private final MediaType type;
+
+        public EntityBody(ClientRequest request, MediaType type) {
+            this.request = request;
+            this.type = type;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return this.type;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1L;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            // The entity can only be written once
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            OutputStream output = new FilterOutputStream(sink.outputStream()) {
+
+                @Override
+                public void write(byte[] bytes, int offset, int length)
+                                  throws IOException {
+                    this.out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // The sink is closed by okhttp after the body is written
+                    this.out.flush();
+                }
+            };
+            this.request.setStreamProvider(contentLength -> output);
+            this.request.writeEntity();
+        }
+    }
+
+    private static void configSSL(OkHttpClient.Builder builder,
+                                  String trustStoreFile,
+                                  String trustStorePassword) {
+        try (InputStream input = new FileInputStream(trustStoreFile)) {
+            KeyStore store = KeyStore.getInstance(KeyStore.getDefaultType());
+            store.load(input, trustStorePassword.toCharArray());
+            TrustManagerFactory factory = TrustManagerFactory.getInstance(
+                                          TrustManagerFactory
+                                          .getDefaultAlgorithm());
+            factory.init(store);
+            X509TrustManager trustManager = null;
+            for (TrustManager manager : factory.getTrustManagers()) {
+                if (manager instanceof X509TrustManager) {
+                    trustManager = (X509TrustManager) manager;
+                    break;
+                }
+            }
+            if (trustManager == null) {
+                throw new ClientException("No X509 trust manager in %s",
+                                          trustStoreFile);
+            }
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustManager}, null);
+            builder.sslSocketFactory(context.getSocketFactory(),
+                                     trustManager);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new ClientException("Failed to init security management",
+                                      e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.util.function.Supplier;
+
+/**
+ * The context of the requests bound to the calling thread: the auth, the
+ * deadline, the trace and the slow call record. A context is captured by
+ * RestClient.context() in the caller thread and bound to the threads doing
+ * the requests on behalf of the caller, like hedges and prefetches.
+ */
+public final class RequestContext {
+
+    private final RestClient client;
+    private final String auth;
+    private final Deadline deadline;
+    private final RequestTracing tracing;
+    private final RequestTracing.Call trace;
+    private final SlowCallLog slowCallLog;
+    private final SlowCallLog.Call slowCall;
+
+    RequestContext(RestClient client, RequestTracing tracing,
+                   SlowCallLog slowCallLog) {
+        this.client = client;
+        this.auth = client.getAuthContext();
+        this.deadline = Deadline.current();
+        this.tracing = tracing;
+        this.trace = tracing == null ? null : tracing.current();
+        this.slowCallLog = slowCallLog;
+        this.slowCall = slowCallLog == null ? null : slowCallLog.current();
+    }
+
+    /**
+     * Wrap the task to run with this context in any thread, the context of
+     * the running thread is restored after the task
+     */
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        return () -> {
+            RequestContext origin = this.client.context();
+            this.bind();
+            try {
+                return task.get();
+            } finally {
+                origin.bind();
+            }
+        };
+    }
+
+    private void bind() {
+        if (this.auth == null) {
+            this.client.resetAuthContext();
+        } else {
+            this.client.setAuthContext(this.auth);
+        }
+        Deadline.current(this.deadline);
+        if (this.tracing != null) {
+            if (this.trace == null) {
+                this.tracing.detach();
+            } else {
+                this.tracing.attach(this.trace);
+            }
+        }
+        if (this.slowCallLog != null) {
+            if (this.slowCall == null) {
+                this.slowCallLog.detach();
+            } else {
+                this.slowCallLog.attach(this.slowCall);
+            }
+        }
+    }
+}
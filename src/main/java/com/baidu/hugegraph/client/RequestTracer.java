@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The SPI to trace the requests of a RestClient, implement it to bridge
+ * the spans to a tracing library like OpenTelemetry.
+ *
+ * A span is started for every api call, which covers all the attempts of
+ * the call, it has the child spans "encode" of writing the request body
+ * and "decode" of reading the response body.
+ */
+public interface RequestTracer {
+
+    /**
+     * Start the span of an api call, the parent of it is the current span
+     * of the tracing library if any
+     * @param name the name of the api call like "GET vertices"
+     * @return the started span, or null to not trace the call
+     */
+    Span start(String name);
+
+    interface Span {
+
+        /**
+         * Start a child span of this span
+         */
+        Span child(String name);
+
+        void attribute(String key, Object value);
+
+        /**
+         * Inject the trace context headers like "traceparent" into the
+         * request sent to the server
+         */
+        void propagate(BiConsumer<String, String> headers);
+
+        void error(Throwable e);
+
+        void end();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.baidu.hugegraph.client.RequestTracer.Span;
+import com.baidu.hugegraph.util.E;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Trace the api calls of a RestClient by a RequestTracer, the span of a
+ * call has the attributes:
+ *  - http.method, http.status_code, hugegraph.graph and hugegraph.api
+ *  - hugegraph.attempts, the number of attempts include the retries and
+ *    the hedged requests
+ *  - hugegraph.batch_size, the number of elements of a batch write
+ *  - hugegraph.max_depth and hugegraph.capacity of the traversers
+ * and the child spans "encode" with hugegraph.request_bytes and "decode"
+ * with hugegraph.response_bytes.
+ *
+ * It's registered only if a tracer is configured, so the requests cost
+ * nothing if the tracing is disabled.
+ */
+// Run before the encoders, so the encoding is included in the encode span
+@Priority(Priorities.ENTITY_CODER - 300)
+public class RequestTracing implements ClientRequestFilter,
+                                       WriterInterceptor, ReaderInterceptor {
+
+    public static final String ENCODE = "encode";
+    public static final String DECODE = "decode";
+
+    private static final String CALL = RequestTracing.class.getName();
+    private static final String GRAPHS = "graphs";
+    private static final String[] TRAVERSER_PARAMS = {
+            "max_depth", "capacity"
+    };
+
+    private final RequestTracer tracer;
+    private final ThreadLocal<Call> call;
+
+    public RequestTracing(RequestTracer tracer) {
+        E.checkArgumentNotNull(tracer, "The tracer can't be null");
+        this.tracer = tracer;
+        this.call = new ThreadLocal<>();
+    }
+
+    public RequestTracer tracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Send the request of an api call in the span of the call
+     */
+    public Response execute(Supplier<Response> request) {
+        Call call = new Call();
+        this.call.set(call);
+        try {
+            Response response = request.get();
+            call.succeed(response.getStatus());
+            return response;
+        } catch (RuntimeException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            this.call.remove();
+        }
+    }
+
+    /**
+     * The call of current thread, attach it to the threads sending the
+     * requests of the call, like the hedged requests
+     */
+    Call current() {
+        return this.call.get();
+    }
+
+    void attach(Call call) {
+        this.call.set(call);
+    }
+
+    void detach() {
+        this.call.remove();
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Call call = this.call.get();
+        if (call == null) {
+            // Not sent by execute(), like the health checks
+            return;
+        }
+        Span span = call.attempt(this.tracer, context);
+        if (span != null) {
+            span.propagate((key, value) -> {
+                context.getHeaders().putSingle(key, value);
+            });
+            context.setProperty(CALL, span);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context)
+                              throws IOException {
+        Span span = (Span) context.getProperty(CALL);
+        if (span == null) {
+            context.proceed();
+            return;
+        }
+        Span encode = span.child(ENCODE);
+        CountingOutputStream output = new CountingOutputStream(
+                                      context.getOutputStream());
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+        } catch (IOException | RuntimeException e) {
+            encode.error(e);
+            throw e;
+        } finally {
+            encode.attribute("hugegraph.request_bytes", output.bytes());
+            encode.end();
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context)
+                                 throws IOException {
+        Span span = (Span) context.getProperty(CALL);
+        if (span != null) {
+            // Ended when the body is closed, it may be read as a stream
+            Span decode = span.child(DECODE);
+            context.setInputStream(new CountingInputStream(
+                                   context.getInputStream(), bytes -> {
+                decode.attribute("hugegraph.response_bytes", bytes);
+                decode.end();
+            }));
+        }
+        return context.proceed();
+    }
+
+    private static String graph(String path) {
+        String[] segments = StringUtils.split(path, '/');
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (GRAPHS.equals(segments[i])) {
+                return segments[i + 1];
+            }
+        }
+        return null;
+    }
+
+    static class Call {
+
+        private Span span;
+        private int attempts;
+
+        public Call() {
+            this.span = null;
+            this.attempts = 0;
+        }
+
+        public synchronized Span attempt(RequestTracer tracer,
+                                         ClientRequestContext context) {
+            if (++this.attempts > 1) {
+                if (this.span != null) {
+                    this.span.attribute("hugegraph.attempts", this.attempts);
+                }
+                return this.span;
+            }
+            String path = context.getUri().getPath();
+            String api = ClientMetrics.apiType(path);
+            this.span = tracer.start(context.getMethod() + " " + api);
+            if (this.span == null) {
+                return null;
+            }
+            this.span.attribute("http.method", context.getMethod());
+            this.span.attribute("hugegraph.api", api);
+            this.span.attribute("hugegraph.attempts", this.attempts);
+            String graph = graph(path);
+            if (graph != null) {
+                this.span.attribute("hugegraph.graph", graph);
+            }
+            Object entity = context.getEntity();
+            if (entity instanceof Collection) {
+                this.span.attribute("hugegraph.batch_size",
+                                    ((Collection<?>) entity).size());
+            }
+            String query = context.getUri().getQuery();
+            if (query != null) {
+                for (String param : StringUtils.split(query, '&')) {
+                    String key = StringUtils.substringBefore(param, "=");
+                    if (StringUtils.equalsAny(key, TRAVERSER_PARAMS)) {
+                        this.span.attribute("hugegraph." + key,
+                                            StringUtils.substringAfter(
+                                            param, "="));
+                    }
+                }
+            }
+            return this.span;
+        }
+
+        public synchronized void succeed(int status) {
+            if (this.span != null) {
+                this.span.attribute("http.status_code", status);
+                this.span.end();
+            }
+        }
+
+        public synchronized void fail(Throwable e) {
+            if (this.span != null) {
+                this.span.error(e);
+                this.span.end();
+            }
+        }
+    }
+}
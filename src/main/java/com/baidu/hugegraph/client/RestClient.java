@@ -19,40 +19,207 @@
 
 package com.baidu.hugegraph.client;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.uri.UriComponent;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.exception.DeadlineExceededException;
 import com.baidu.hugegraph.exception.ServerException;
 import com.baidu.hugegraph.rest.AbstractRestClient;
 import com.baidu.hugegraph.rest.ClientException;
 import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.serializer.PathDeserializer;
 import com.baidu.hugegraph.structure.graph.Path;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import com.baidu.hugegraph.util.Log;
 import com.baidu.hugegraph.util.VersionUtil;
 import com.baidu.hugegraph.util.VersionUtil.Version;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.InvocationCallback;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
 
 public class RestClient extends AbstractRestClient {
 
+    private static final Logger LOG = Log.logger(RestClient.class);
+
     private static final int SECOND = 1000;
+    private static final String BALANCER = "loadBalancer";
+    private static final String RETRY_POLICY = "retryPolicy";
+    private static final String LIMITER = "concurrencyLimiter";
+    private static final String HEDGING_POLICY = "hedgingPolicy";
+    private static final String CLIENT_METRICS = "clientMetrics";
+    private static final String TRACING = "requestTracing";
+    private static final String SLOW_CALL_LOG = "slowCallLog";
+    private static final String GRAPH_AUTH = "graphAuth";
+    private static final String TRANSPORT = "transport";
 
+    private final String url;
+    private final ClientConfig config;
+    // Distribute the requests across servers, null if only one server
+    private final LoadBalancer balancer;
+    // Retry the failed requests, null if disabled
+    private final RetryPolicy retryPolicy;
+    // Limit the in-flight requests of every server, null if disabled
+    private final ConcurrencyLimiter limiter;
+    // Hedge the slow reads, null if disabled
+    private final HedgingPolicy hedgingPolicy;
+    // Record the metrics of requests, null if disabled
+    private final ClientMetrics metrics;
+    // Trace the api calls, null if disabled
+    private final RequestTracing tracing;
+    // Log the slow api calls, null if disabled
+    private final SlowCallLog slowCallLog;
+    // The auth context of every graph, null if not built by ConfigBuilder
+    private final GraphAuthFilter graphAuth;
+    // Whether the async requests are sent without blocking any thread
+    private final boolean nonBlocking;
+    // Used to read the response body as a stream, it shares the pool
+    private volatile Client streamClient;
     private Version apiVersion = null;
 
     static {
         SimpleModule module = new SimpleModule();
         module.addDeserializer(Path.class, new PathDeserializer());
         RestResult.registerModule(module);
+        JsonStreamIterator.registerModule(module);
     }
 
     public RestClient(String url, String username, String password,
                       int timeout) {
-        super(url, username, password, timeout * SECOND);
+        this(url, new ConfigBuilder().configTimeout(timeout)
+                                     .configUser(username, password)
+                                     .build());
     }
 
     public RestClient(String url, String username, String password, int timeout,
                       int maxConns, int maxConnsPerRoute,
                       String trustStoreFile, String trustStorePassword) {
-        super(url, username, password, timeout * SECOND, maxConns,
-              maxConnsPerRoute, trustStoreFile, trustStorePassword);
+        this(url, new ConfigBuilder().configTimeout(timeout)
+                                     .configUser(username, password)
+                                     .configPool(maxConns, maxConnsPerRoute)
+                                     .configSSL(trustStoreFile,
+                                                trustStorePassword)
+                                     .build());
+    }
+
+    /**
+     * Create a client with the config built by RestClient.ConfigBuilder
+     */
+    public RestClient(String url, ClientConfig config) {
+        super(url, config);
+        this.url = url;
+        this.config = config;
+        this.balancer = (LoadBalancer) config.getProperty(BALANCER);
+        this.retryPolicy = (RetryPolicy) config.getProperty(RETRY_POLICY);
+        this.limiter = (ConcurrencyLimiter) config.getProperty(LIMITER);
+        this.hedgingPolicy = (HedgingPolicy) config.getProperty(
+                                             HEDGING_POLICY);
+        this.metrics = (ClientMetrics) config.getProperty(CLIENT_METRICS);
+        this.tracing = (RequestTracing) config.getProperty(TRACING);
+        this.slowCallLog = (SlowCallLog) config.getProperty(SLOW_CALL_LOG);
+        this.graphAuth = (GraphAuthFilter) config.getProperty(GRAPH_AUTH);
+        Transport transport = (Transport) config.getProperty(TRANSPORT);
+        // The policies wrap the blocking requests, they can't be applied
+        this.nonBlocking = transport != null && transport.nonBlocking() &&
+                           this.balancer == null &&
+                           this.retryPolicy == null &&
+                           this.limiter == null &&
+                           this.hedgingPolicy == null &&
+                           this.metrics == null &&
+                           this.tracing == null &&
+                           this.slowCallLog == null;
+        this.streamClient = null;
+        if (this.balancer != null) {
+            E.checkArgument(this.balancer.url().equals(
+                            StringUtils.removeEnd(url, "/")),
+                            "The url '%s' must be the first url of " +
+                            "load balancer", url);
+            this.balancer.startHealthCheck(this::ping);
+        }
+        if (this.metrics != null) {
+            this.registerGauges(this.metrics.registry());
+        }
+    }
+
+    public LoadBalancer balancer() {
+        return this.balancer;
+    }
+
+    public RetryPolicy retryPolicy() {
+        return this.retryPolicy;
+    }
+
+    public ConcurrencyLimiter limiter() {
+        return this.limiter;
+    }
+
+    public HedgingPolicy hedgingPolicy() {
+        return this.hedgingPolicy;
+    }
+
+    public ClientMetrics clientMetrics() {
+        return this.metrics;
+    }
+
+    public RequestTracer tracer() {
+        return this.tracing == null ? null : this.tracing.tracer();
+    }
+
+    public SlowCallLog slowCallLog() {
+        return this.slowCallLog;
+    }
+
+    /**
+     * Whether the requests can be sent by getAsync() and the like, which
+     * requires a non-blocking transport and no policy like retry, hedging,
+     * balancer, limiter, metrics, tracing or slow call log, since they
+     * wrap the blocking requests
+     */
+    public boolean nonBlocking() {
+        return this.nonBlocking;
+    }
+
+    /**
+     * Capture the request context of current thread, which can be bound to
+     * other threads doing the requests on behalf of current thread
+     */
+    public RequestContext context() {
+        return new RequestContext(this, this.tracing, this.slowCallLog);
     }
 
     public void apiVersion(Version version) {
@@ -79,6 +246,445 @@ public class RestClient extends AbstractRestClient {
         return apiVersion != null && !VersionUtil.gte(apiVersion, minVersion);
     }
 
+    /**
+     * Send a GET request and return the response body as a stream without
+     * buffering it, the caller must close the stream to release the
+     * connection
+     */
+    public InputStream getStream(String path, Map<String, Object> params) {
+        Response response = this.request(() -> {
+            WebTarget target = this.streamClient().target(this.url).path(path);
+            Invocation.Builder builder = queryParams(target, params).request();
+            String auth = this.getAuthContext();
+            if (StringUtils.isNotEmpty(auth)) {
+                builder.header(HttpHeaders.AUTHORIZATION, auth);
+            }
+            return builder.get();
+        });
+        this.checkStatus(response, Response.Status.OK);
+        return response.readEntity(InputStream.class);
+    }
+
+    /**
+     * Send a POST request with the json body and return the response body
+     * as a stream like getStream()
+     */
+    public InputStream postStream(String path, Object body) {
+        Response response = this.request(() -> {
+            WebTarget target = this.streamClient().target(this.url).path(path);
+            Invocation.Builder builder = target.request();
+            String auth = this.getAuthContext();
+            if (StringUtils.isNotEmpty(auth)) {
+                builder.header(HttpHeaders.AUTHORIZATION, auth);
+            }
+            return builder.post(Entity.json(body));
+        });
+        this.checkStatus(response, Response.Status.OK);
+        return response.readEntity(InputStream.class);
+    }
+
+    /**
+     * Send a GET request by the non-blocking transport, the returned
+     * future is completed by the transport thread reading the response
+     */
+    public CompletableFuture<RestResult> getAsync(String path,
+                                                  Map<String, Object> params) {
+        return this.requestAsync(HttpMethod.GET, path, null, null, params,
+                                 null, Response.Status.OK);
+    }
+
+    public CompletableFuture<RestResult> getAsync(String path, String id) {
+        return this.requestAsync(HttpMethod.GET, path, id, null, null, null,
+                                 Response.Status.OK);
+    }
+
+    public CompletableFuture<RestResult> postAsync(String path, Object body) {
+        return this.postAsync(path, body, null, null);
+    }
+
+    public CompletableFuture<RestResult> postAsync(
+                                         String path, Object body,
+                                         MultivaluedMap<String, Object> headers,
+                                         Map<String, Object> params) {
+        return this.requestAsync(HttpMethod.POST, path, null, body, params,
+                                 headers, Response.Status.CREATED,
+                                 Response.Status.OK,
+                                 Response.Status.ACCEPTED);
+    }
+
+    public CompletableFuture<RestResult> putAsync(
+                                         String path, String id, Object body,
+                                         MultivaluedMap<String, Object>
+                                         headers) {
+        return this.requestAsync(HttpMethod.PUT, path, id, body, null,
+                                 headers, Response.Status.OK,
+                                 Response.Status.ACCEPTED);
+    }
+
+    public CompletableFuture<RestResult> deleteAsync(String path, String id) {
+        return this.requestAsync(HttpMethod.DELETE, path, id, null, null,
+                                 null, Response.Status.NO_CONTENT,
+                                 Response.Status.ACCEPTED);
+    }
+
+    /**
+     * Build the request like AbstractRestClient and send it by the async
+     * invoker, the request filters run on the jersey threads, so the
+     * context of current thread like the auth and deadline is bound here
+     */
+    private CompletableFuture<RestResult> requestAsync(
+                                          String method, String path,
+                                          String id, Object body,
+                                          Map<String, Object> params,
+                                          MultivaluedMap<String, Object>
+                                          headers,
+                                          Response.Status... statuses) {
+        E.checkState(this.nonBlocking,
+                     "The async request can only be sent by a " +
+                     "non-blocking transport without blocking policies");
+        WebTarget target = this.streamClient().target(this.url).path(path);
+        if (id != null) {
+            target = target.path(UriComponent.encode(
+                                 id, UriComponent.Type.PATH_SEGMENT));
+        }
+        Invocation.Builder builder = queryParams(target, params).request();
+        String encoding = null;
+        if (headers != null && !headers.isEmpty()) {
+            builder.headers(headers);
+            encoding = (String) headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        }
+        String auth = this.getAuthContext();
+        if (StringUtils.isNotEmpty(auth)) {
+            builder.header(HttpHeaders.AUTHORIZATION, auth);
+        }
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            deadline.check();
+            int remaining = DeadlineFilter.remaining(deadline);
+            builder.header(Deadline.HEADER, remaining);
+            builder.property(ClientProperties.READ_TIMEOUT, remaining);
+        }
+        Entity<?> entity = null;
+        if (body != null) {
+            // Entity.json() would reset the content encoding of headers
+            entity = encoding == null ? Entity.json(body) :
+                     Entity.entity(body, new Variant(
+                                         MediaType.APPLICATION_JSON_TYPE,
+                                         (String) null, encoding));
+        }
+
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        InvocationCallback<Response> callback = new InvocationCallback<
+                                                    Response>() {
+
+            @Override
+            public void completed(Response response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Throwable e) {
+                if (deadline != null && deadline.expired()) {
+                    e = new DeadlineExceededException(
+                            "The deadline of request is exceeded", e);
+                } else {
+                    e = new ClientException("Failed to do request", e);
+                }
+                future.completeExceptionally(e);
+            }
+        };
+        builder.async().method(method, entity, callback);
+        return future.thenApply(response -> {
+            this.checkStatus(response, statuses);
+            return new RestResult(response);
+        });
+    }
+
+    /**
+     * Set the auth context of the requests to a graph, it's used when the
+     * thread has not set an auth context, so that the clients of many
+     * graphs can share a client with their own auth
+     */
+    public void setGraphAuthContext(String graph, String auth) {
+        E.checkArgumentNotNull(graph, "The graph can't be null");
+        E.checkState(this.graphAuth != null,
+                     "The graph auth context is only supported by the " +
+                     "client built with RestClient.ConfigBuilder");
+        if (auth == null) {
+            this.graphAuth.auths.remove(graph);
+        } else {
+            this.graphAuth.auths.put(graph, auth);
+        }
+    }
+
+    public String getGraphAuthContext(String graph) {
+        return this.graphAuth == null ? null : this.graphAuth.auths.get(graph);
+    }
+
+    public void resetGraphAuthContext(String graph) {
+        this.setGraphAuthContext(graph, null);
+    }
+
+    /**
+     * Open the pooled connections to every server ahead of the first
+     * requests, the TLS handshakes are done and the sessions are cached.
+     * The connections are bounded by the pool size and kept alive until
+     * they are idle for the idle time.
+     * @param connections the number of connections to open per server
+     * @return the number of connections opened successfully
+     */
+    public int warmUp(int connections) {
+        E.checkArgument(connections > 0,
+                        "The warm-up connections must be > 0, but got %s",
+                        connections);
+        List<String> urls = new ArrayList<>();
+        if (this.balancer != null) {
+            for (LoadBalancer.Node node : this.balancer.nodes()) {
+                urls.add(node.url());
+            }
+        } else {
+            urls.add(this.url);
+        }
+        Map<String, Object> props = this.config.getProperties();
+        int maxTotal = ClientProperties.getValue(props, "maxTotal",
+                                                 Integer.MAX_VALUE);
+        int maxPerRoute = ClientProperties.getValue(props, "maxPerRoute",
+                                                    Integer.MAX_VALUE);
+        connections = Math.min(connections, maxPerRoute);
+        connections = Math.min(connections,
+                               Math.max(1, maxTotal / urls.size()));
+
+        int total = connections * urls.size();
+        ExecutorService executor = ExecutorUtil.newFixedThreadPool(
+                                   total, "warm-up-%d");
+        List<Future<Response>> futures = new ArrayList<>(total);
+        try {
+            for (String url : urls) {
+                for (int i = 0; i < connections; i++) {
+                    // Sent without the policies like the health check
+                    futures.add(executor.submit(() -> {
+                        return this.streamClient().target(url)
+                                   .path("versions").request().get();
+                    }));
+                }
+            }
+            /*
+             * Hold all the responses until every request is done, so that
+             * no connection is released to be reused by another request
+             */
+            List<Response> responses = new ArrayList<>(total);
+            for (Future<Response> future : futures) {
+                try {
+                    responses.add(future.get());
+                } catch (ExecutionException e) {
+                    LOG.warn("Failed to warm up connection", e.getCause());
+                }
+            }
+            for (Response response : responses) {
+                // Consume the entity to release the connection to pool
+                response.readEntity(String.class);
+            }
+            LOG.debug("Warmed up {}/{} connections to {}",
+                      responses.size(), total, urls);
+            return responses.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while warming up", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (this.balancer != null) {
+                this.balancer.close();
+            }
+            if (this.hedgingPolicy != null) {
+                this.hedgingPolicy.close();
+            }
+            if (this.streamClient != null) {
+                this.streamClient.close();
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    @Override
+    protected Response request(Callable<Response> method) {
+        if (this.tracing == null) {
+            return this.loggedRequest(method);
+        }
+        return this.tracing.execute(() -> this.loggedRequest(method));
+    }
+
+    private Response loggedRequest(Callable<Response> method) {
+        if (this.slowCallLog == null) {
+            return this.retriedRequest(method);
+        }
+        return this.slowCallLog.execute(() -> this.retriedRequest(method));
+    }
+
+    private Response retriedRequest(Callable<Response> method) {
+        if (this.retryPolicy == null) {
+            return this.hedgedRequest(method);
+        }
+        return this.retryPolicy.execute(() -> this.hedgedRequest(method));
+    }
+
+    private Response hedgedRequest(Callable<Response> method) {
+        if (this.hedgingPolicy == null) {
+            return this.balancedRequest(method);
+        }
+        // The hedges are sent by the threads of hedging policy
+        RequestContext context = this.context();
+        return this.hedgingPolicy.execute(context.wrap(() -> {
+            return this.balancedRequest(method);
+        }));
+    }
+
+    private Response balancedRequest(Callable<Response> method) {
+        if (this.balancer == null) {
+            return this.deadlineRequest(method);
+        }
+        if (this.retryPolicy != null) {
+            // The retry policy owns the retries across nodes by its budget
+            return this.balancer.execute(() -> this.deadlineRequest(method),
+                                         1);
+        }
+        return this.balancer.execute(() -> this.deadlineRequest(method));
+    }
+
+    private Response deadlineRequest(Callable<Response> method) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return this.limitedRequest(method);
+        }
+        // Don't send the attempt if no time left, like after retry backoff
+        deadline.check();
+        try {
+            return this.limitedRequest(method);
+        } catch (DeadlineExceededException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (deadline.expired()) {
+                throw new DeadlineExceededException(
+                          "The deadline of request is exceeded", e);
+            }
+            throw e;
+        }
+    }
+
+    private Response limitedRequest(Callable<Response> method) {
+        if (this.limiter == null) {
+            return this.measuredRequest(method);
+        }
+        return this.limiter.execute(() -> this.measuredRequest(method));
+    }
+
+    private Response measuredRequest(Callable<Response> method) {
+        if (this.metrics == null) {
+            return super.request(method);
+        }
+        return this.metrics.execute(() -> super.request(method));
+    }
+
+    private void registerGauges(ClientMetrics.Registry registry) {
+        Object pool = this.config.getProperty(
+                      ApacheClientProperties.CONNECTION_MANAGER);
+        // The apache pool is unused by a custom transport
+        boolean customTransport = this.config instanceof TransportConfig &&
+                                  ((TransportConfig) this.config)
+                                  .customTransport();
+        if (pool instanceof PoolingHttpClientConnectionManager &&
+            !customTransport) {
+            PoolingHttpClientConnectionManager manager =
+                    (PoolingHttpClientConnectionManager) pool;
+            registry.gauge("pool.leased",
+                           () -> manager.getTotalStats().getLeased());
+            registry.gauge("pool.available",
+                           () -> manager.getTotalStats().getAvailable());
+            registry.gauge("pool.pending",
+                           () -> manager.getTotalStats().getPending());
+            registry.gauge("pool.max",
+                           () -> manager.getTotalStats().getMax());
+        }
+        if (this.retryPolicy != null) {
+            RetryPolicy policy = this.retryPolicy;
+            registry.gauge("retry.retries", policy::retries);
+            registry.gauge("retry.exhausted", policy::exhausted);
+            registry.gauge("retry.throttled", policy::throttled);
+        }
+        if (this.limiter != null) {
+            ConcurrencyLimiter limiter = this.limiter;
+            registry.gauge("limiter.inflight", limiter::inflight);
+            registry.gauge("limiter.queued", limiter::queued);
+            registry.gauge("limiter.rejected", limiter::rejected);
+        }
+        if (this.hedgingPolicy != null) {
+            HedgingPolicy policy = this.hedgingPolicy;
+            registry.gauge("hedging.hedges", policy::hedges);
+            registry.gauge("hedging.wins", policy::hedgeWins);
+            registry.gauge("hedging.delay", policy::delay);
+        }
+        if (this.balancer != null) {
+            LoadBalancer balancer = this.balancer;
+            registry.gauge("balancer.ejected", () -> {
+                return balancer.nodes().stream()
+                               .filter(LoadBalancer.Node::ejected).count();
+            });
+        }
+    }
+
+    private boolean ping(String url) {
+        // Sent without the balancer, so it's not redirected to other node
+        Response response = this.streamClient().target(url).path("versions")
+                                .request().get();
+        try {
+            return response.getStatus() ==
+                   Response.Status.OK.getStatusCode();
+        } finally {
+            response.close();
+        }
+    }
+
+    private Client streamClient() {
+        if (this.streamClient == null) {
+            synchronized (this) {
+                if (this.streamClient == null) {
+                    // The config holds the connection manager of super class
+                    this.streamClient = ClientBuilder.newClient(this.config)
+                                                     .register(GZipEncoder.class);
+                }
+            }
+        }
+        return this.streamClient;
+    }
+
+    /**
+     * Add the query params like AbstractRestClient, the values of a
+     * collection are added as a repeated param
+     */
+    private static WebTarget queryParams(WebTarget target,
+                                         Map<String, Object> params) {
+        if (params == null) {
+            return target;
+        }
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            Object value = param.getValue();
+            if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    target = target.queryParam(param.getKey(), item);
+                }
+            } else {
+                target = target.queryParam(param.getKey(), value);
+            }
+        }
+        return target;
+    }
+
     @Override
     protected void checkStatus(Response response, Response.Status... statuses) {
         boolean match = false;
@@ -92,4 +698,265 @@ public class RestClient extends AbstractRestClient {
             throw ServerException.fromResponse(response);
         }
     }
+
+    public static class ConfigBuilder {
+
+        private final TransportConfig config;
+
+        public ConfigBuilder() {
+            this.config = new TransportConfig();
+            // The pool is closed by AbstractRestClient, not by the connectors
+            this.config.property(ApacheClientProperties
+                                 .CONNECTION_MANAGER_SHARED, true);
+            GraphAuthFilter graphAuth = new GraphAuthFilter();
+            this.config.register(graphAuth);
+            this.config.property(GRAPH_AUTH, graphAuth);
+            this.config.register(DeadlineFilter.class);
+        }
+
+        /**
+         * The connect and read timeout in seconds
+         */
+        public ConfigBuilder configTimeout(int timeout) {
+            this.config.property(ClientProperties.CONNECT_TIMEOUT,
+                                 timeout * SECOND);
+            this.config.property(ClientProperties.READ_TIMEOUT,
+                                 timeout * SECOND);
+            return this;
+        }
+
+        public ConfigBuilder configUser(String username, String password) {
+            this.config.register(HttpAuthenticationFeature.basic(username,
+                                                                 password));
+            return this;
+        }
+
+        public ConfigBuilder configPool(int maxTotal, int maxPerRoute) {
+            this.config.property("maxTotal", maxTotal);
+            this.config.property("maxPerRoute", maxPerRoute);
+            return this;
+        }
+
+        /**
+         * The time in seconds to keep the idle connections alive
+         */
+        public ConfigBuilder configIdleTime(int idleTime) {
+            this.config.property("idleTime", (long) idleTime * SECOND);
+            return this;
+        }
+
+        public ConfigBuilder configSSL(String trustStoreFile,
+                                       String trustStorePassword) {
+            if (trustStoreFile == null || trustStoreFile.isEmpty() ||
+                trustStorePassword == null) {
+                this.config.property("protocol", "http");
+            } else {
+                this.config.property("protocol", "https");
+            }
+            this.config.property("trustStoreFile", trustStoreFile);
+            this.config.property("trustStorePassword", trustStorePassword);
+            return this;
+        }
+
+        /**
+         * Distribute the requests by the balancer, the client must be
+         * created with the url of balancer. With a retry policy, a request
+         * fails over to one other node at most for every retry attempt
+         */
+        public ConfigBuilder configBalancer(LoadBalancer balancer) {
+            this.config.register(balancer);
+            this.config.property(BALANCER, balancer);
+            return this;
+        }
+
+        /**
+         * Retry the failed requests by the policy, null means no retry
+         */
+        public ConfigBuilder configRetry(RetryPolicy policy) {
+            if (policy != null) {
+                this.config.register(policy);
+                this.config.property(RETRY_POLICY, policy);
+            }
+            return this;
+        }
+
+        /**
+         * Limit the in-flight requests of every server by the limiter,
+         * null means no limit
+         */
+        public ConfigBuilder configConcurrencyLimit(ConcurrencyLimiter
+                                                    limiter) {
+            if (limiter != null) {
+                this.config.register(limiter);
+                this.config.property(LIMITER, limiter);
+            }
+            return this;
+        }
+
+        /**
+         * Hedge the slow reads by the policy, null means no hedging
+         */
+        public ConfigBuilder configHedging(HedgingPolicy policy) {
+            if (policy != null) {
+                this.config.register(policy);
+                this.config.property(HEDGING_POLICY, policy);
+                // Abort the loser of apache requests
+                this.config.register(new Exchange.ApacheAborter());
+            }
+            return this;
+        }
+
+        /**
+         * Trace the api calls by the tracer, null means disable
+         */
+        public ConfigBuilder configTracer(RequestTracer tracer) {
+            if (tracer != null) {
+                RequestTracing tracing = new RequestTracing(tracer);
+                this.config.register(tracing);
+                this.config.property(TRACING, tracing);
+            }
+            return this;
+        }
+
+        /**
+         * Log the api calls slower than the threshold of the log, null
+         * means disable
+         */
+        public ConfigBuilder configSlowCallLog(SlowCallLog log) {
+            if (log != null) {
+                this.config.register(log);
+                this.config.property(SLOW_CALL_LOG, log);
+            }
+            return this;
+        }
+
+        /**
+         * Record the client side metrics of requests, null means disable
+         */
+        public ConfigBuilder configMetrics(ClientMetrics metrics) {
+            if (metrics != null) {
+                this.config.register(metrics);
+                this.config.property(CLIENT_METRICS, metrics);
+            }
+            return this;
+        }
+
+        /**
+         * Compress the request and response bodies by the config, null
+         * means the default behavior of the transport
+         */
+        public ConfigBuilder configCompression(ContentCompression
+                                               compression) {
+            if (compression != null) {
+                this.config.register(compression);
+            }
+            return this;
+        }
+
+        /**
+         * Send the requests by the transport, null means the default
+         * pooled HTTP/1.1 transport
+         */
+        public ConfigBuilder configTransport(Transport transport) {
+            if (transport != null) {
+                this.config.transport(transport.connectorProvider());
+                this.config.property(TRANSPORT, transport);
+            }
+            return this;
+        }
+
+        /**
+         * The max in-flight async requests of a non-blocking transport,
+         * the requests over it are queued without occupying a thread
+         */
+        public ConfigBuilder configAsyncRequests(int maxRequests) {
+            E.checkArgument(maxRequests > 0,
+                            "The max async requests must be > 0, " +
+                            "but got %s", maxRequests);
+            this.config.property("maxAsyncRequests", maxRequests);
+            return this;
+        }
+
+        public ClientConfig build() {
+            return this.config;
+        }
+    }
+
+    private static class TransportConfig extends ClientConfig {
+
+        private boolean customTransport = false;
+
+        public void transport(ConnectorProvider provider) {
+            super.connectorProvider(provider);
+            this.customTransport = true;
+        }
+
+        public boolean customTransport() {
+            return this.customTransport;
+        }
+
+        @Override
+        public ClientConfig connectorProvider(ConnectorProvider provider) {
+            // AbstractRestClient always sets the apache connector provider
+            if (this.customTransport) {
+                return this;
+            }
+            return super.connectorProvider(provider);
+        }
+    }
+
+    // Run before the basic auth, which is skipped if auth header is set
+    @Priority(Priorities.AUTHENTICATION - 100)
+    private static class GraphAuthFilter implements ClientRequestFilter {
+
+        private static final String GRAPHS = "graphs";
+
+        private final Map<String, String> auths = new ConcurrentHashMap<>();
+
+        @Override
+        public void filter(ClientRequestContext context) {
+            if (this.auths.isEmpty() ||
+                context.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return;
+            }
+            // The path of graph apis is like "/graphs/{graph}/..."
+            String[] segments = StringUtils.split(context.getUri()
+                                                         .getPath(), '/');
+            for (int i = 0; i < segments.length - 1; i++) {
+                if (GRAPHS.equals(segments[i])) {
+                    String auth = this.auths.get(segments[i + 1]);
+                    if (auth != null) {
+                        context.getHeaders().putSingle(
+                                HttpHeaders.AUTHORIZATION, auth);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class DeadlineFilter implements ClientRequestFilter {
+
+        @Override
+        public void filter(ClientRequestContext context) {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return;
+            }
+            int remaining = remaining(deadline);
+            // Limit the read timeout of this attempt to the remaining time
+            Object timeout = context.getConfiguration().getProperty(
+                             ClientProperties.READ_TIMEOUT);
+            if (!(timeout instanceof Integer) || (Integer) timeout <= 0 ||
+                remaining < (Integer) timeout) {
+                context.setProperty(ClientProperties.READ_TIMEOUT, remaining);
+            }
+            context.getHeaders().putSingle(Deadline.HEADER, remaining);
+        }
+
+        public static int remaining(Deadline deadline) {
+            return (int) Math.min(Math.max(deadline.remaining(), 1L),
+                                  Integer.MAX_VALUE);
+        }
+    }
 }
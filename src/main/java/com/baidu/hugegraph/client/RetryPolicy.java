@@ -0,0 +1,463 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.exception.DeadlineExceededException;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Retry the failed requests of a RestClient with exponential backoff and
+ * jitter. Only the idempotent GET and HEAD requests are retried, unless
+ * the retry of batch writes is enabled explicitly.
+ *
+ * The retries are limited by a token bucket shared by all the requests of
+ * the client: every success deposits tokenRatio tokens, every retryable
+ * failure withdraws one token, and no more retry is allowed once the
+ * tokens drop below the half, so the retries won't amplify an overload.
+ *
+ * The requests exceeding their Deadline fail at once without spending the
+ * budget, including the ones whose next backoff would end after it.
+ */
+public class RetryPolicy implements ClientRequestFilter {
+
+    private static final Logger LOG = Log.logger(RetryPolicy.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF = 100L;
+    public static final long DEFAULT_MAX_BACKOFF = 5000L;
+    public static final double DEFAULT_JITTER = 0.5;
+    public static final int DEFAULT_BUDGET_TOKENS = 10;
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+    private static final int BACKOFF_MULTIPLIER = 2;
+    private static final String BATCH_PATH = "/batch";
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final double jitter;
+    private final Set<Integer> retryableStatuses;
+    private final List<Class<? extends Throwable>> retryableExceptions;
+    private final Set<String> retryableServerExceptions;
+    private final boolean retryBatchWrites;
+    private final RetryBudget budget;
+    private final ThreadLocal<Attempt> attempt;
+
+    private final AtomicLong retries;
+    private final AtomicLong exhausted;
+    private final AtomicLong throttled;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.jitter = builder.jitter;
+        this.retryableStatuses = builder.retryableStatuses;
+        this.retryableExceptions = builder.retryableExceptions;
+        this.retryableServerExceptions = builder.retryableServerExceptions;
+        this.retryBatchWrites = builder.retryBatchWrites;
+        this.budget = builder.budgetTokens > 0 ?
+                      new RetryBudget(builder.budgetTokens,
+                                      builder.budgetRatio) : null;
+        this.attempt = new ThreadLocal<>();
+        this.retries = new AtomicLong();
+        this.exhausted = new AtomicLong();
+        this.throttled = new AtomicLong();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int maxAttempts() {
+        return this.maxAttempts;
+    }
+
+    /**
+     * The number of retried requests
+     */
+    public long retries() {
+        return this.retries.get();
+    }
+
+    /**
+     * The number of requests failed after all the attempts
+     */
+    public long exhausted() {
+        return this.exhausted.get();
+    }
+
+    /**
+     * The number of retries refused since the retry budget is used up
+     */
+    public long throttled() {
+        return this.throttled.get();
+    }
+
+    /**
+     * Send the request, and retry it while it's retryable, the response of
+     * the last attempt is returned
+     */
+    public Response execute(Supplier<Response> request) {
+        for (int attempts = 1; ; attempts++) {
+            Attempt attempt = new Attempt();
+            this.attempt.set(attempt);
+            Response response;
+            try {
+                response = request.get();
+            } catch (DeadlineExceededException e) {
+                // No attempt can succeed after the deadline, keep the budget
+                throw e;
+            } catch (RuntimeException e) {
+                if (!attempt.retryable(this.retryBatchWrites) ||
+                    !this.retryable(e)) {
+                    throw e;
+                }
+                long backoff = this.backoff(attempts, null);
+                this.checkDeadline(attempts, backoff);
+                if (!this.allowRetry(attempts)) {
+                    throw e;
+                }
+                LOG.debug("Retry {} {} after {} attempts", attempt.method,
+                          attempt.path, attempts, e);
+                sleep(backoff);
+                continue;
+            } finally {
+                this.attempt.remove();
+            }
+
+            if (!attempt.retryable(this.retryBatchWrites) ||
+                !this.retryable(response)) {
+                if (this.budget != null) {
+                    this.budget.succeed();
+                }
+                return response;
+            }
+            String retryAfter = response.getHeaderString(
+                                HttpHeaders.RETRY_AFTER);
+            long backoff = this.backoff(attempts, retryAfter);
+            try {
+                this.checkDeadline(attempts, backoff);
+            } catch (DeadlineExceededException e) {
+                response.close();
+                throw e;
+            }
+            if (!this.allowRetry(attempts)) {
+                return response;
+            }
+            LOG.debug("Retry {} {} after {} attempts since responded {}",
+                      attempt.method, attempt.path, attempts,
+                      response.getStatus());
+            response.close();
+            sleep(backoff);
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Attempt attempt = this.attempt.get();
+        if (attempt != null) {
+            attempt.method = context.getMethod();
+            attempt.path = context.getUri().getPath();
+        }
+    }
+
+    /**
+     * The backoff in ms before the attempt after the specified attempts
+     */
+    public long backoff(int attempts) {
+        long backoff = this.initialBackoff;
+        for (int i = 1; i < attempts && backoff < this.maxBackoff; i++) {
+            backoff *= BACKOFF_MULTIPLIER;
+        }
+        backoff = Math.min(backoff, this.maxBackoff);
+        // Spread the retries of concurrent requests by random jitter
+        double random = ThreadLocalRandom.current().nextDouble();
+        return (long) (backoff * (1.0 - this.jitter * random));
+    }
+
+    private boolean allowRetry(int attempts) {
+        boolean allowed = this.budget == null || this.budget.fail();
+        if (attempts >= this.maxAttempts) {
+            this.exhausted.incrementAndGet();
+            return false;
+        }
+        if (!allowed) {
+            this.throttled.incrementAndGet();
+            return false;
+        }
+        this.retries.incrementAndGet();
+        return true;
+    }
+
+    private boolean retryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> clazz : this.retryableExceptions) {
+                if (clazz.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean retryable(Response response) {
+        int status = response.getStatus();
+        if (this.retryableStatuses.contains(status)) {
+            return true;
+        }
+        if (status < Response.Status.INTERNAL_SERVER_ERROR.getStatusCode() ||
+            this.retryableServerExceptions.isEmpty()) {
+            return false;
+        }
+        // Keep the body readable when the response is returned finally
+        response.bufferEntity();
+        String exception = ServerException.fromResponse(response)
+                                          .exception();
+        if (exception == null) {
+            return false;
+        }
+        for (String name : this.retryableServerExceptions) {
+            if (exception.endsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempts, String retryAfter) {
+        long backoff = this.backoff(attempts);
+        if (StringUtils.isNumeric(retryAfter)) {
+            // Respect the delay required by server, but not too long
+            long required = Long.parseLong(retryAfter) * 1000L;
+            backoff = Math.min(Math.max(backoff, required), this.maxBackoff);
+        }
+        return backoff;
+    }
+
+    private void checkDeadline(int attempts, long backoff) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null || attempts >= this.maxAttempts) {
+            return;
+        }
+        // Fail now rather than wake up after the deadline to retry
+        if (backoff >= deadline.remaining()) {
+            throw new DeadlineExceededException(
+                      "The deadline of request will be exceeded by the " +
+                      "retry backoff %sms", backoff);
+        }
+    }
+
+    private static void sleep(long backoff) {
+        if (backoff <= 0L) {
+            return;
+        }
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting to retry",
+                                      e);
+        }
+    }
+
+    private static class Attempt {
+
+        private String method;
+        private String path;
+
+        public boolean retryable(boolean retryBatchWrites) {
+            if (HttpMethod.GET.equals(this.method) ||
+                HttpMethod.HEAD.equals(this.method)) {
+                return true;
+            }
+            return retryBatchWrites && this.path != null &&
+                   this.path.endsWith(BATCH_PATH) &&
+                   (HttpMethod.POST.equals(this.method) ||
+                    HttpMethod.PUT.equals(this.method));
+        }
+    }
+
+    private static class RetryBudget {
+
+        private final double maxTokens;
+        private final double tokenRatio;
+        private double tokens;
+
+        public RetryBudget(int maxTokens, double tokenRatio) {
+            this.maxTokens = maxTokens;
+            this.tokenRatio = tokenRatio;
+            this.tokens = maxTokens;
+        }
+
+        public synchronized void succeed() {
+            this.tokens = Math.min(this.maxTokens,
+                                   this.tokens + this.tokenRatio);
+        }
+
+        public synchronized boolean fail() {
+            this.tokens = Math.max(0.0, this.tokens - 1.0);
+            return this.tokens > this.maxTokens / 2;
+        }
+    }
+
+    public static class Builder {
+
+        private int maxAttempts;
+        private long initialBackoff;
+        private long maxBackoff;
+        private double jitter;
+        private Set<Integer> retryableStatuses;
+        private List<Class<? extends Throwable>> retryableExceptions;
+        private Set<String> retryableServerExceptions;
+        private boolean retryBatchWrites;
+        private int budgetTokens;
+        private double budgetRatio;
+
+        private Builder() {
+            this.maxAttempts = DEFAULT_MAX_ATTEMPTS;
+            this.initialBackoff = DEFAULT_INITIAL_BACKOFF;
+            this.maxBackoff = DEFAULT_MAX_BACKOFF;
+            this.jitter = DEFAULT_JITTER;
+            this.retryableStatuses = ImmutableSet.of(429, 502, 503, 504);
+            this.retryableExceptions = ImmutableList.of(
+                                       ProcessingException.class);
+            this.retryableServerExceptions = ImmutableSet.of(
+                                             "BackendException");
+            this.retryBatchWrites = false;
+            this.budgetTokens = DEFAULT_BUDGET_TOKENS;
+            this.budgetRatio = DEFAULT_BUDGET_RATIO;
+        }
+
+        /**
+         * The max attempts of a request including the first one
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            E.checkArgument(maxAttempts > 0,
+                            "The max attempts must be > 0, but got %s",
+                            maxAttempts);
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * The backoff in ms before the first retry, it's doubled for every
+         * later retry until reaching the max backoff
+         */
+        public Builder backoff(long initialBackoff, long maxBackoff) {
+            E.checkArgument(initialBackoff >= 0L,
+                            "The initial backoff must be >= 0, but got %s",
+                            initialBackoff);
+            E.checkArgument(maxBackoff >= initialBackoff,
+                            "The max backoff must be >= initial backoff " +
+                            "%s, but got %s", initialBackoff, maxBackoff);
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * The max fraction of the backoff reduced randomly, 0 means no
+         * jitter and 1 means full jitter
+         */
+        public Builder jitter(double jitter) {
+            E.checkArgument(jitter >= 0.0 && jitter <= 1.0,
+                            "The jitter must be in [0, 1], but got %s",
+                            jitter);
+            this.jitter = jitter;
+            return this;
+        }
+
+        public Builder retryableStatuses(Integer... statuses) {
+            this.retryableStatuses = ImmutableSet.copyOf(statuses);
+            return this;
+        }
+
+        /**
+         * The client side exceptions to retry, matched against the cause
+         * chain of the thrown exception
+         */
+        @SafeVarargs
+        public final Builder retryableExceptions(
+                             Class<? extends Throwable>... exceptions) {
+            this.retryableExceptions = ImmutableList.copyOf(exceptions);
+            return this;
+        }
+
+        /**
+         * The server side exceptions to retry, matched against the suffix
+         * of the exception class name in the error response
+         */
+        public Builder retryableServerExceptions(String... exceptions) {
+            this.retryableServerExceptions = ImmutableSet.copyOf(exceptions);
+            return this;
+        }
+
+        /**
+         * Also retry the batch writes, the caller must make sure writing
+         * a batch twice is harmless, like the vertices with customized id
+         */
+        public Builder retryBatchWrites(boolean retryBatchWrites) {
+            this.retryBatchWrites = retryBatchWrites;
+            return this;
+        }
+
+        /**
+         * @param maxTokens  the capacity of the retry budget, 0 means no
+         *                   limit on the retries
+         * @param tokenRatio the tokens deposited by every success
+         */
+        public Builder retryBudget(int maxTokens, double tokenRatio) {
+            E.checkArgument(maxTokens >= 0,
+                            "The max tokens must be >= 0, but got %s",
+                            maxTokens);
+            E.checkArgument(tokenRatio > 0.0,
+                            "The token ratio must be > 0, but got %s",
+                            tokenRatio);
+            this.budgetTokens = maxTokens;
+            this.budgetRatio = tokenRatio;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
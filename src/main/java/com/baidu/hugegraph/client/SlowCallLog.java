@@ -0,0 +1,443 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Log the api calls of a RestClient slower than a threshold, with the
+ * method, path, the head of request body like a KoutRequest, the sizes of
+ * bodies and the timings. The last slow calls are kept in a ring buffer,
+ * which can be queried at runtime by slowCalls().
+ */
+// Run after the encoders, so the request body is captured before encoding
+@Priority(Priorities.ENTITY_CODER + 100)
+public class SlowCallLog implements ClientRequestFilter, ClientResponseFilter,
+                                    WriterInterceptor {
+
+    private static final Logger LOG = Log.logger(SlowCallLog.class);
+
+    public static final long DEFAULT_THRESHOLD = 1000L;
+    public static final int DEFAULT_CAPACITY = 100;
+    public static final int DEFAULT_MAX_BODY_LENGTH = 512;
+
+    private static final String CALL = SlowCallLog.class.getName();
+
+    private final long thresholdNs;
+    private final int capacity;
+    private final int maxBodyLength;
+    private final Deque<SlowCall> slowCalls;
+    private final ThreadLocal<Call> call;
+    private final AtomicLong total;
+
+    private SlowCallLog(Builder builder) {
+        this.thresholdNs = TimeUnit.MILLISECONDS.toNanos(builder.threshold);
+        this.capacity = builder.capacity;
+        this.maxBodyLength = builder.maxBodyLength;
+        this.slowCalls = new ArrayDeque<>(this.capacity);
+        this.call = new ThreadLocal<>();
+        this.total = new AtomicLong();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The threshold in ms of slow calls
+     */
+    public long threshold() {
+        return TimeUnit.NANOSECONDS.toMillis(this.thresholdNs);
+    }
+
+    /**
+     * The last slow calls from the oldest to the newest
+     */
+    public List<SlowCall> slowCalls() {
+        synchronized (this.slowCalls) {
+            return new ArrayList<>(this.slowCalls);
+        }
+    }
+
+    /**
+     * The number of slow calls since created, include the dropped ones
+     */
+    public long total() {
+        return this.total.get();
+    }
+
+    public void clear() {
+        synchronized (this.slowCalls) {
+            this.slowCalls.clear();
+        }
+    }
+
+    /**
+     * Send the request of an api call, and log it if it's slow
+     */
+    public Response execute(Supplier<Response> request) {
+        Call call = new Call();
+        this.call.set(call);
+        Response response = null;
+        Throwable error = null;
+        try {
+            response = request.get();
+            return response;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            this.call.remove();
+            long latency = System.nanoTime() - call.start;
+            if (latency >= this.thresholdNs && call.method != null) {
+                this.log(call.done(latency, response, error));
+            }
+        }
+    }
+
+    Call current() {
+        return this.call.get();
+    }
+
+    void attach(Call call) {
+        this.call.set(call);
+    }
+
+    void detach() {
+        this.call.remove();
+    }
+
+    @Override
+    public void filter(ClientRequestContext context) {
+        Call call = this.call.get();
+        if (call != null) {
+            call.attempt(context.getMethod(), context.getUri());
+            context.setProperty(CALL, call);
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext request,
+                       ClientResponseContext response) {
+        Call call = (Call) request.getProperty(CALL);
+        if (call != null) {
+            call.respond();
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context)
+                              throws IOException {
+        Call call = (Call) context.getProperty(CALL);
+        if (call == null) {
+            context.proceed();
+            return;
+        }
+        CapturingOutputStream output = new CapturingOutputStream(
+                                       context.getOutputStream(),
+                                       this.maxBodyLength);
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+        } finally {
+            call.body(output);
+        }
+    }
+
+    private void log(SlowCall slowCall) {
+        this.total.incrementAndGet();
+        synchronized (this.slowCalls) {
+            if (this.slowCalls.size() >= this.capacity) {
+                this.slowCalls.removeFirst();
+            }
+            this.slowCalls.addLast(slowCall);
+        }
+        LOG.warn("Slow call: {}", slowCall);
+    }
+
+    static class Call {
+
+        private final long start;
+        private String method;
+        private String path;
+        private int attempts;
+        private long attemptStart;
+        private long wait;
+        private String body;
+        private long requestBytes;
+
+        public Call() {
+            this.start = System.nanoTime();
+            this.method = null;
+            this.path = null;
+            this.attempts = 0;
+            this.attemptStart = 0L;
+            this.wait = -1L;
+            this.body = null;
+            this.requestBytes = -1L;
+        }
+
+        public synchronized void attempt(String method, URI uri) {
+            this.method = method;
+            this.path = uri.getRawQuery() == null ? uri.getRawPath() :
+                        uri.getRawPath() + "?" + uri.getRawQuery();
+            this.attempts++;
+            this.attemptStart = System.nanoTime();
+        }
+
+        public synchronized void respond() {
+            this.wait = System.nanoTime() - this.attemptStart;
+        }
+
+        public synchronized void body(CapturingOutputStream output) {
+            this.body = output.captured();
+            this.requestBytes = output.bytes;
+        }
+
+        public synchronized SlowCall done(long latency, Response response,
+                                          Throwable error) {
+            return new SlowCall(this, latency, response, error);
+        }
+    }
+
+    public static class SlowCall {
+
+        private final long time;
+        private final String method;
+        private final String path;
+        private final String body;
+        private final long requestBytes;
+        private final long responseBytes;
+        private final int status;
+        private final String error;
+        private final int attempts;
+        private final long latency;
+        private final long wait;
+
+        private SlowCall(Call call, long latency, Response response,
+                         Throwable error) {
+            this.time = System.currentTimeMillis();
+            this.method = call.method;
+            this.path = call.path;
+            this.body = call.body;
+            this.requestBytes = call.requestBytes;
+            this.responseBytes = response == null ? -1L :
+                                 response.getLength();
+            this.status = response == null ? -1 : response.getStatus();
+            this.error = error == null ? null : error.getMessage();
+            this.attempts = call.attempts;
+            this.latency = TimeUnit.NANOSECONDS.toMillis(latency);
+            this.wait = call.wait < 0L ? -1L :
+                        TimeUnit.NANOSECONDS.toMillis(call.wait);
+        }
+
+        /**
+         * The time in ms when the call is done
+         */
+        public long time() {
+            return this.time;
+        }
+
+        public String method() {
+            return this.method;
+        }
+
+        /**
+         * The path with the query params
+         */
+        public String path() {
+            return this.path;
+        }
+
+        /**
+         * The head of request body, null if no body
+         */
+        public String body() {
+            return this.body;
+        }
+
+        public long requestBytes() {
+            return this.requestBytes;
+        }
+
+        /**
+         * The Content-Length of response, -1 if unknown
+         */
+        public long responseBytes() {
+            return this.responseBytes;
+        }
+
+        /**
+         * The status of response, -1 if failed to request
+         */
+        public int status() {
+            return this.status;
+        }
+
+        public String error() {
+            return this.error;
+        }
+
+        public int attempts() {
+            return this.attempts;
+        }
+
+        /**
+         * The latency in ms of the call, include all the attempts
+         */
+        public long latency() {
+            return this.latency;
+        }
+
+        /**
+         * The time in ms from sending the last attempt to receiving the
+         * response headers, -1 if no response
+         */
+        public long waitTime() {
+            return this.wait;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s took %sms (wait %sms, attempts %s)" +
+                                 ", status=%s, error=%s, request=%sB, " +
+                                 "response=%sB, body=%s",
+                                 this.method, this.path, this.latency,
+                                 this.wait, this.attempts, this.status,
+                                 this.error, this.requestBytes,
+                                 this.responseBytes, this.body);
+        }
+    }
+
+    private static class CapturingOutputStream extends FilterOutputStream {
+
+        private final byte[] head;
+        private int headLength;
+        private long bytes;
+
+        public CapturingOutputStream(OutputStream out, int maxLength) {
+            super(out);
+            this.head = new byte[maxLength];
+            this.headLength = 0;
+            this.bytes = 0L;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            if (this.headLength < this.head.length) {
+                this.head[this.headLength++] = (byte) b;
+            }
+            this.bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            int length = Math.min(len, this.head.length - this.headLength);
+            if (length > 0) {
+                System.arraycopy(b, off, this.head, this.headLength, length);
+                this.headLength += length;
+            }
+            this.bytes += len;
+        }
+
+        public String captured() {
+            String head = new String(this.head, 0, this.headLength,
+                                     StandardCharsets.UTF_8);
+            return this.bytes > this.headLength ? head + "..." : head;
+        }
+    }
+
+    public static class Builder {
+
+        private long threshold;
+        private int capacity;
+        private int maxBodyLength;
+
+        private Builder() {
+            this.threshold = DEFAULT_THRESHOLD;
+            this.capacity = DEFAULT_CAPACITY;
+            this.maxBodyLength = DEFAULT_MAX_BODY_LENGTH;
+        }
+
+        /**
+         * Log the calls slower than the threshold in ms
+         */
+        public Builder threshold(long threshold) {
+            E.checkArgument(threshold >= 0L,
+                            "The threshold must be >= 0, but got %s",
+                            threshold);
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * The max number of the last slow calls to keep
+         */
+        public Builder capacity(int capacity) {
+            E.checkArgument(capacity > 0,
+                            "The capacity must be > 0, but got %s",
+                            capacity);
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * The max bytes of the request body to keep, the rest is truncated
+         */
+        public Builder maxBodyLength(int maxBodyLength) {
+            E.checkArgument(maxBodyLength >= 0,
+                            "The max body length must be >= 0, but got %s",
+                            maxBodyLength);
+            this.maxBodyLength = maxBodyLength;
+            return this;
+        }
+
+        public SlowCallLog build() {
+            return new SlowCallLog(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.client;
+
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+/**
+ * The SPI to plug the http transport of RestClient. A transport provides
+ * the jersey connector which sends the requests, the filters and the
+ * (de)serialization of RestClient work with any connector.
+ *
+ * The pooled HTTP/1.1 apache connector is used if no transport is set.
+ */
+public interface Transport {
+
+    String name();
+
+    ConnectorProvider connectorProvider();
+
+    /**
+     * Whether the async requests are sent without blocking the calling
+     * thread until the response, like by the dispatcher of okhttp
+     */
+    default boolean nonBlocking() {
+        return false;
+    }
+}
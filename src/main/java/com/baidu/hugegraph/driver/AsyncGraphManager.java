@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.baidu.hugegraph.api.graph.EdgeAPI;
+import com.baidu.hugegraph.api.graph.VertexAPI;
+import com.baidu.hugegraph.exception.InvalidOperationException;
+import com.baidu.hugegraph.structure.GraphElement;
+import com.baidu.hugegraph.structure.constant.Direction;
+import com.baidu.hugegraph.structure.graph.BatchEdgeRequest;
+import com.baidu.hugegraph.structure.graph.BatchVertexRequest;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+
+public class AsyncGraphManager {
+
+    private final AsyncHugeClient client;
+    private final GraphManager graph;
+    private final VertexAPI vertexAPI;
+    private final EdgeAPI edgeAPI;
+
+    public AsyncGraphManager(AsyncHugeClient client, GraphManager graph) {
+        this.client = client;
+        this.graph = graph;
+        this.vertexAPI = new VertexAPI(client.restClient(), graph.graph());
+        this.edgeAPI = new EdgeAPI(client.restClient(), graph.graph());
+    }
+
+    public String graph() {
+        return this.graph.graph();
+    }
+
+    public CompletableFuture<Vertex> addVertex(Vertex vertex) {
+        return this.client.send(() -> {
+            return this.vertexAPI.createAsync(vertex)
+                                 .thenApply(this::attachManager);
+        }, () -> this.graph.addVertex(vertex));
+    }
+
+    public CompletableFuture<Vertex> getVertex(Object vertexId) {
+        return this.client.send(() -> {
+            return this.vertexAPI.getAsync(vertexId)
+                                 .thenApply(this::attachManager);
+        }, () -> this.graph.getVertex(vertexId));
+    }
+
+    public CompletableFuture<List<Vertex>> addVertices(List<Vertex> vertices) {
+        return this.client.send(() -> {
+            return this.vertexAPI.createAsync(vertices).thenApply(ids -> {
+                for (int i = 0; i < vertices.size(); i++) {
+                    Vertex vertex = vertices.get(i);
+                    vertex.id(ids.get(i));
+                    this.attachManager(vertex);
+                }
+                return vertices;
+            });
+        }, () -> this.graph.addVertices(vertices));
+    }
+
+    public CompletableFuture<List<Vertex>> listVertices(int limit) {
+        return this.listVertices(null, null, false, 0, limit);
+    }
+
+    public CompletableFuture<List<Vertex>> listVertices(
+                                           String label,
+                                           Map<String, Object> properties,
+                                           boolean keepP,
+                                           int offset,
+                                           int limit) {
+        return this.client.send(() -> {
+            return this.vertexAPI.listAsync(label, properties, keepP,
+                                            offset, null, limit)
+                                 .thenApply(vertices -> {
+                                     return this.attachManagers(
+                                            vertices.results());
+                                 });
+        }, () -> {
+            return this.graph.listVertices(label, properties, keepP,
+                                           offset, limit);
+        });
+    }
+
+    public CompletableFuture<List<Vertex>> updateVertices(
+                                           BatchVertexRequest request) {
+        return this.client.send(() -> {
+            return this.vertexAPI.updateAsync(request)
+                                 .thenApply(this::attachManagers);
+        }, () -> this.graph.updateVertices(request));
+    }
+
+    public CompletableFuture<Void> removeVertex(Object vertexId) {
+        return this.client.send(() -> this.vertexAPI.deleteAsync(vertexId),
+                                () -> {
+                                    this.graph.removeVertex(vertexId);
+                                    return null;
+                                });
+    }
+
+    public CompletableFuture<Edge> addEdge(Edge edge) {
+        return this.client.send(() -> {
+            if (edge.id() != null) {
+                throw new InvalidOperationException(
+                          "Not allowed to custom id for edge: '%s'", edge);
+            }
+            return this.edgeAPI.createAsync(edge)
+                               .thenApply(this::attachManager);
+        }, () -> this.graph.addEdge(edge));
+    }
+
+    public CompletableFuture<Edge> getEdge(String edgeId) {
+        return this.client.send(() -> {
+            return this.edgeAPI.getAsync(edgeId)
+                               .thenApply(this::attachManager);
+        }, () -> this.graph.getEdge(edgeId));
+    }
+
+    public CompletableFuture<List<Edge>> addEdges(List<Edge> edges) {
+        return this.addEdges(edges, true);
+    }
+
+    public CompletableFuture<List<Edge>> addEdges(List<Edge> edges,
+                                                  boolean checkVertex) {
+        return this.client.send(() -> {
+            for (Edge edge : edges) {
+                edge.sourceId();
+                edge.targetId();
+            }
+            return this.edgeAPI.createAsync(edges, checkVertex)
+                               .thenApply(ids -> {
+                                   for (int i = 0; i < edges.size(); i++) {
+                                       Edge edge = edges.get(i);
+                                       edge.id(ids.get(i));
+                                       this.attachManager(edge);
+                                   }
+                                   return edges;
+                               });
+        }, () -> this.graph.addEdges(edges, checkVertex));
+    }
+
+    public CompletableFuture<List<Edge>> listEdges(int limit) {
+        return this.getEdges(null, null, null, null, false, 0, limit);
+    }
+
+    public CompletableFuture<List<Edge>> getEdges(Object vertexId,
+                                                  Direction direction,
+                                                  String label,
+                                                  Map<String, Object> properties,
+                                                  boolean keepP,
+                                                  int offset,
+                                                  int limit) {
+        return this.client.send(() -> {
+            return this.edgeAPI.listAsync(vertexId, direction, label,
+                                          properties, keepP, offset, null,
+                                          limit)
+                               .thenApply(edges -> {
+                                   return this.attachManagers(edges.results());
+                               });
+        }, () -> {
+            return this.graph.getEdges(vertexId, direction, label, properties,
+                                       keepP, offset, limit);
+        });
+    }
+
+    public CompletableFuture<List<Edge>> updateEdges(BatchEdgeRequest request) {
+        return this.client.send(() -> {
+            return this.edgeAPI.updateAsync(request)
+                               .thenApply(this::attachManagers);
+        }, () -> this.graph.updateEdges(request));
+    }
+
+    public CompletableFuture<Void> removeEdge(String edgeId) {
+        return this.client.send(() -> this.edgeAPI.deleteAsync(edgeId), () -> {
+            this.graph.removeEdge(edgeId);
+            return null;
+        });
+    }
+
+    private <T extends GraphElement> T attachManager(T element) {
+        element.attachManager(this.graph);
+        return element;
+    }
+
+    private <T extends GraphElement> List<T> attachManagers(List<T> elements) {
+        for (T element : elements) {
+            element.attachManager(this.graph);
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.baidu.hugegraph.api.gremlin.GremlinAPI;
+import com.baidu.hugegraph.api.gremlin.GremlinRequest;
+import com.baidu.hugegraph.api.job.GremlinJobAPI;
+import com.baidu.hugegraph.structure.gremlin.ResultSet;
+
+public class AsyncGremlinManager {
+
+    private final AsyncHugeClient client;
+    private final GremlinManager gremlin;
+    private final GremlinAPI gremlinAPI;
+    private final GremlinJobAPI gremlinJobAPI;
+
+    public AsyncGremlinManager(AsyncHugeClient client, GremlinManager gremlin,
+                               String graph) {
+        this.client = client;
+        this.gremlin = gremlin;
+        this.gremlinAPI = new GremlinAPI(client.restClient());
+        this.gremlinJobAPI = new GremlinJobAPI(client.restClient(), graph);
+    }
+
+    public CompletableFuture<ResultSet> execute(String gremlin) {
+        return this.execute(new GremlinRequest(gremlin));
+    }
+
+    public CompletableFuture<ResultSet> execute(GremlinRequest request) {
+        return this.client.send(() -> {
+            return this.gremlinAPI.postAsync(this.gremlin.bind(request))
+                                  .thenApply(this.gremlin::result);
+        }, () -> this.gremlin.execute(request));
+    }
+
+    public CompletableFuture<Long> executeAsTask(GremlinRequest request) {
+        return this.client.send(() -> {
+            return this.gremlinJobAPI.executeAsync(request);
+        }, () -> this.gremlin.executeAsTask(request));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import com.baidu.hugegraph.client.RequestContext;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+
+/**
+ * The asynchronous view of a HugeClient, the result of every call is
+ * returned as a CompletableFuture, so the caller thread doesn't wait for
+ * the response.
+ *
+ * With a non-blocking transport (the http2 one) and no blocking policy
+ * configured, see RestClient.nonBlocking(), the graph, gremlin and
+ * traverser calls are sent by the async invoker of jersey: no caller or
+ * worker thread waits for a response, the okhttp dispatcher runs the
+ * in-flight calls (up to the max async requests, the others are queued
+ * without a thread) and the futures are completed by the threads reading
+ * the responses.
+ *
+ * Otherwise, like the default apache transport or a client with retry,
+ * balancer, limiter, hedging, metrics, tracing or slow call log, which
+ * wrap the blocking requests, a call is sent by a bounded worker pool and
+ * occupies a worker until its response is read. The pool is sized to the
+ * connection pool by default, the extra calls are queued instead of
+ * occupying caller threads.
+ */
+public class AsyncHugeClient implements Closeable {
+
+    private final RestClient restClient;
+    private final ExecutorService executor;
+
+    private final AsyncGraphManager graph;
+    private final AsyncSchemaManager schema;
+    private final AsyncGremlinManager gremlin;
+    private final AsyncTraverserManager traverser;
+
+    public AsyncHugeClient(HugeClient client, RestClient restClient,
+                           int threads) {
+        E.checkNotNull(client, "client");
+        E.checkNotNull(restClient, "rest client");
+        E.checkArgument(threads > 0,
+                        "The async threads must be > 0, but got %s",
+                        threads);
+        this.restClient = restClient;
+        // The schema calls are always sent by the workers
+        this.executor = ExecutorUtil.newFixedThreadPool(threads,
+                                                        "client-async-%d");
+        this.graph = new AsyncGraphManager(this, client.graph());
+        this.schema = new AsyncSchemaManager(this, client.schema());
+        this.gremlin = new AsyncGremlinManager(this, client.gremlin(),
+                                               client.graph().graph());
+        this.traverser = new AsyncTraverserManager(this, client.traverser(),
+                                                   client.graph());
+    }
+
+    public AsyncGraphManager graph() {
+        return this.graph;
+    }
+
+    public AsyncSchemaManager schema() {
+        return this.schema;
+    }
+
+    public AsyncGremlinManager gremlin() {
+        return this.gremlin;
+    }
+
+    public AsyncTraverserManager traverser() {
+        return this.traverser;
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    protected RestClient restClient() {
+        return this.restClient;
+    }
+
+    /**
+     * Send the request by the non-blocking transport if possible, otherwise
+     * do the blocking call by a worker
+     */
+    protected <T> CompletableFuture<T> send(
+                                       Supplier<CompletableFuture<T>> request,
+                                       Supplier<T> call) {
+        if (!this.restClient.nonBlocking()) {
+            return this.submit(call);
+        }
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            // Fail the future like a worker does, e.g. an invalid argument
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    protected <T> CompletableFuture<T> submit(Supplier<T> call) {
+        // The calls are sent by the workers, pass the request context
+        RequestContext context = this.restClient.context();
+        return CompletableFuture.supplyAsync(context.wrap(call),
+                                             this.executor);
+    }
+
+    protected CompletableFuture<Void> run(Runnable call) {
+        return this.submit(() -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.baidu.hugegraph.structure.SchemaElement;
+import com.baidu.hugegraph.structure.schema.EdgeLabel;
+import com.baidu.hugegraph.structure.schema.IndexLabel;
+import com.baidu.hugegraph.structure.schema.PropertyKey;
+import com.baidu.hugegraph.structure.schema.VertexLabel;
+
+/**
+ * The schema calls are always sent by the workers of AsyncHugeClient even
+ * with a non-blocking transport, some of them wait for the server tasks
+ * and they go through the schema cache, which is updated by the sync calls
+ */
+public class AsyncSchemaManager {
+
+    private final AsyncHugeClient client;
+    private final SchemaManager schema;
+
+    public AsyncSchemaManager(AsyncHugeClient client, SchemaManager schema) {
+        this.client = client;
+        this.schema = schema;
+    }
+
+    public CompletableFuture<PropertyKey> addPropertyKey(
+                                          PropertyKey propertyKey) {
+        return this.client.submit(() -> {
+            return this.schema.addPropertyKey(propertyKey);
+        });
+    }
+
+    public CompletableFuture<PropertyKey> getPropertyKey(String name) {
+        return this.client.submit(() -> this.schema.getPropertyKey(name));
+    }
+
+    public CompletableFuture<List<PropertyKey>> getPropertyKeys() {
+        return this.client.submit(this.schema::getPropertyKeys);
+    }
+
+    public CompletableFuture<VertexLabel> addVertexLabel(
+                                          VertexLabel vertexLabel) {
+        return this.client.submit(() -> {
+            return this.schema.addVertexLabel(vertexLabel);
+        });
+    }
+
+    public CompletableFuture<VertexLabel> getVertexLabel(String name) {
+        return this.client.submit(() -> this.schema.getVertexLabel(name));
+    }
+
+    public CompletableFuture<List<VertexLabel>> getVertexLabels() {
+        return this.client.submit(this.schema::getVertexLabels);
+    }
+
+    public CompletableFuture<EdgeLabel> addEdgeLabel(EdgeLabel edgeLabel) {
+        return this.client.submit(() -> this.schema.addEdgeLabel(edgeLabel));
+    }
+
+    public CompletableFuture<EdgeLabel> getEdgeLabel(String name) {
+        return this.client.submit(() -> this.schema.getEdgeLabel(name));
+    }
+
+    public CompletableFuture<List<EdgeLabel>> getEdgeLabels() {
+        return this.client.submit(this.schema::getEdgeLabels);
+    }
+
+    public CompletableFuture<IndexLabel> addIndexLabel(IndexLabel indexLabel) {
+        return this.client.submit(() -> {
+            return this.schema.addIndexLabel(indexLabel);
+        });
+    }
+
+    public CompletableFuture<IndexLabel> getIndexLabel(String name) {
+        return this.client.submit(() -> this.schema.getIndexLabel(name));
+    }
+
+    public CompletableFuture<List<IndexLabel>> getIndexLabels() {
+        return this.client.submit(this.schema::getIndexLabels);
+    }
+
+    public CompletableFuture<Map<String, List<SchemaElement>>> getSchema() {
+        return this.client.submit(this.schema::getSchema);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.baidu.hugegraph.api.traverser.CountAPI;
+import com.baidu.hugegraph.api.traverser.CustomizedPathsAPI;
+import com.baidu.hugegraph.api.traverser.EdgesAPI;
+import com.baidu.hugegraph.api.traverser.JaccardSimilarityAPI;
+import com.baidu.hugegraph.api.traverser.KneighborAPI;
+import com.baidu.hugegraph.api.traverser.KoutAPI;
+import com.baidu.hugegraph.api.traverser.NeighborRankAPI;
+import com.baidu.hugegraph.api.traverser.PathsAPI;
+import com.baidu.hugegraph.api.traverser.PersonalRankAPI;
+import com.baidu.hugegraph.api.traverser.SameNeighborsAPI;
+import com.baidu.hugegraph.api.traverser.ShortestPathAPI;
+import com.baidu.hugegraph.api.traverser.VerticesAPI;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.structure.constant.Direction;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Path;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.structure.traverser.CountRequest;
+import com.baidu.hugegraph.structure.traverser.CustomizedPathsRequest;
+import com.baidu.hugegraph.structure.traverser.Kneighbor;
+import com.baidu.hugegraph.structure.traverser.KneighborRequest;
+import com.baidu.hugegraph.structure.traverser.Kout;
+import com.baidu.hugegraph.structure.traverser.KoutRequest;
+import com.baidu.hugegraph.structure.traverser.PathsRequest;
+import com.baidu.hugegraph.structure.traverser.PathsWithVertices;
+import com.baidu.hugegraph.structure.traverser.Ranks;
+import com.baidu.hugegraph.structure.traverser.SingleSourceJaccardSimilarityRequest;
+
+import static com.baidu.hugegraph.structure.constant.Traverser.DEFAULT_CAPACITY;
+import static com.baidu.hugegraph.structure.constant.Traverser.DEFAULT_ELEMENTS_LIMIT;
+import static com.baidu.hugegraph.structure.constant.Traverser.DEFAULT_MAX_DEGREE;
+import static com.baidu.hugegraph.structure.constant.Traverser.DEFAULT_PATHS_LIMIT;
+
+public class AsyncTraverserManager {
+
+    private final AsyncHugeClient client;
+    private final TraverserManager traverser;
+    private final GraphManager graphManager;
+
+    private final JaccardSimilarityAPI jaccardSimilarityAPI;
+    private final SameNeighborsAPI sameNeighborsAPI;
+    private final ShortestPathAPI shortestPathAPI;
+    private final PathsAPI pathsAPI;
+    private final KoutAPI koutAPI;
+    private final KneighborAPI kneighborAPI;
+    private final CountAPI countAPI;
+    private final CustomizedPathsAPI customizedPathsAPI;
+    private final NeighborRankAPI neighborRankAPI;
+    private final PersonalRankAPI personalRankAPI;
+    private final VerticesAPI verticesAPI;
+    private final EdgesAPI edgesAPI;
+
+    public AsyncTraverserManager(AsyncHugeClient client,
+                                 TraverserManager traverser,
+                                 GraphManager graphManager) {
+        this.client = client;
+        this.traverser = traverser;
+        this.graphManager = graphManager;
+        RestClient restClient = client.restClient();
+        String graph = graphManager.graph();
+        this.jaccardSimilarityAPI = new JaccardSimilarityAPI(restClient,
+                                                             graph);
+        this.sameNeighborsAPI = new SameNeighborsAPI(restClient, graph);
+        this.shortestPathAPI = new ShortestPathAPI(restClient, graph);
+        this.pathsAPI = new PathsAPI(restClient, graph);
+        this.koutAPI = new KoutAPI(restClient, graph);
+        this.kneighborAPI = new KneighborAPI(restClient, graph);
+        this.countAPI = new CountAPI(restClient, graph);
+        this.customizedPathsAPI = new CustomizedPathsAPI(restClient, graph);
+        this.neighborRankAPI = new NeighborRankAPI(restClient, graph);
+        this.personalRankAPI = new PersonalRankAPI(restClient, graph);
+        this.verticesAPI = new VerticesAPI(restClient, graph);
+        this.edgesAPI = new EdgesAPI(restClient, graph);
+    }
+
+    public CompletableFuture<Double> jaccardSimilarity(Object vertexId,
+                                                      Object otherId,
+                                                      Direction direction,
+                                                      String label,
+                                                      long degree) {
+        return this.client.send(() -> {
+            return this.jaccardSimilarityAPI.getAsync(vertexId, otherId,
+                                                      direction, label,
+                                                      degree);
+        }, () -> {
+            return this.traverser.jaccardSimilarity(vertexId, otherId,
+                                                    direction, label, degree);
+        });
+    }
+
+    public CompletableFuture<Map<Object, Double>> jaccardSimilarity(
+                               SingleSourceJaccardSimilarityRequest request) {
+        return this.client.send(() -> {
+            return this.jaccardSimilarityAPI.postAsync(request);
+        }, () -> this.traverser.jaccardSimilarity(request));
+    }
+
+    public CompletableFuture<List<Object>> sameNeighbors(Object vertexId,
+                                                         Object otherId) {
+        return this.sameNeighbors(vertexId, otherId, Direction.BOTH, null,
+                                  DEFAULT_MAX_DEGREE, DEFAULT_PATHS_LIMIT);
+    }
+
+    public CompletableFuture<List<Object>> sameNeighbors(Object vertexId,
+                                                         Object otherId,
+                                                         Direction direction,
+                                                         String label,
+                                                         long degree,
+                                                         long limit) {
+        return this.client.send(() -> {
+            return this.sameNeighborsAPI.getAsync(vertexId, otherId,
+                                                  direction, label,
+                                                  degree, limit);
+        }, () -> {
+            return this.traverser.sameNeighbors(vertexId, otherId, direction,
+                                                label, degree, limit);
+        });
+    }
+
+    public CompletableFuture<Path> shortestPath(Object sourceId,
+                                                Object targetId,
+                                                Direction direction,
+                                                String label, int maxDepth,
+                                                long degree, long skipDegree,
+                                                long capacity) {
+        return this.client.send(() -> {
+            return this.shortestPathAPI.getAsync(sourceId, targetId,
+                                                 direction, label, maxDepth,
+                                                 degree, skipDegree,
+                                                 capacity);
+        }, () -> {
+            return this.traverser.shortestPath(sourceId, targetId, direction,
+                                               label, maxDepth, degree,
+                                               skipDegree, capacity);
+        });
+    }
+
+    public CompletableFuture<List<Path>> paths(Object sourceId,
+                                               Object targetId,
+                                               Direction direction,
+                                               String label, int maxDepth,
+                                               long degree, long capacity,
+                                               long limit) {
+        return this.client.send(() -> {
+            return this.pathsAPI.getAsync(sourceId, targetId, direction,
+                                          label, maxDepth, degree,
+                                          capacity, limit);
+        }, () -> {
+            return this.traverser.paths(sourceId, targetId, direction, label,
+                                        maxDepth, degree, capacity, limit);
+        });
+    }
+
+    public CompletableFuture<PathsWithVertices> paths(PathsRequest request) {
+        return this.client.send(() -> this.pathsAPI.postAsync(request),
+                                () -> this.traverser.paths(request));
+    }
+
+    public CompletableFuture<List<Object>> kout(Object sourceId, int depth) {
+        return this.kout(sourceId, Direction.BOTH, null, depth, true,
+                         DEFAULT_MAX_DEGREE, DEFAULT_CAPACITY,
+                         DEFAULT_ELEMENTS_LIMIT);
+    }
+
+    public CompletableFuture<List<Object>> kout(Object sourceId,
+                                                Direction direction,
+                                                String label, int depth,
+                                                boolean nearest, long degree,
+                                                long capacity, long limit) {
+        return this.client.send(() -> {
+            return this.koutAPI.getAsync(sourceId, direction, label, depth,
+                                         nearest, degree, capacity, limit);
+        }, () -> {
+            return this.traverser.kout(sourceId, direction, label, depth,
+                                       nearest, degree, capacity, limit);
+        });
+    }
+
+    public CompletableFuture<Kout> kout(KoutRequest request) {
+        return this.client.send(() -> this.koutAPI.postAsync(request),
+                                () -> this.traverser.kout(request));
+    }
+
+    public CompletableFuture<List<Object>> kneighbor(Object sourceId,
+                                                     int depth) {
+        return this.kneighbor(sourceId, Direction.BOTH, null, depth,
+                              DEFAULT_MAX_DEGREE, DEFAULT_ELEMENTS_LIMIT);
+    }
+
+    public CompletableFuture<List<Object>> kneighbor(Object sourceId,
+                                                     Direction direction,
+                                                     String label, int depth,
+                                                     long degree, long limit) {
+        return this.client.send(() -> {
+            return this.kneighborAPI.getAsync(sourceId, direction, label,
+                                              depth, degree, limit);
+        }, () -> {
+            return this.traverser.kneighbor(sourceId, direction, label, depth,
+                                            degree, limit);
+        });
+    }
+
+    public CompletableFuture<Kneighbor> kneighbor(KneighborRequest request) {
+        return this.client.send(() -> this.kneighborAPI.postAsync(request),
+                                () -> this.traverser.kneighbor(request));
+    }
+
+    public CompletableFuture<Long> count(CountRequest request) {
+        return this.client.send(() -> this.countAPI.postAsync(request),
+                                () -> this.traverser.count(request));
+    }
+
+    public CompletableFuture<PathsWithVertices> customizedPaths(
+                                                CustomizedPathsRequest request) {
+        return this.client.send(() -> {
+            return this.customizedPathsAPI.postAsync(request);
+        }, () -> this.traverser.customizedPaths(request));
+    }
+
+    public CompletableFuture<List<Ranks>> neighborRank(
+                                          NeighborRankAPI.Request request) {
+        return this.client.send(() -> this.neighborRankAPI.postAsync(request),
+                                () -> this.traverser.neighborRank(request));
+    }
+
+    public CompletableFuture<Ranks> personalRank(
+                                    PersonalRankAPI.Request request) {
+        return this.client.send(() -> {
+            return this.personalRankAPI.postAsync(request);
+        }, () -> this.traverser.personalRank(request));
+    }
+
+    public CompletableFuture<List<Vertex>> vertices(List<Object> ids) {
+        return this.client.send(() -> {
+            return this.verticesAPI.listAsync(ids).thenApply(vertices -> {
+                for (Vertex vertex : vertices) {
+                    vertex.attachManager(this.graphManager);
+                }
+                return vertices;
+            });
+        }, () -> this.traverser.vertices(ids));
+    }
+
+    public CompletableFuture<List<Edge>> edges(List<String> ids) {
+        return this.client.send(() -> {
+            return this.edgesAPI.listAsync(ids).thenApply(edges -> {
+                for (Edge edge : edges) {
+                    edge.attachManager(this.graphManager);
+                }
+                return edges;
+            });
+        }, () -> this.traverser.edges(ids));
+    }
+}
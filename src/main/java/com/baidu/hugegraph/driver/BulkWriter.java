@@ -0,0 +1,441 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.client.RequestContext;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.structure.GraphElement;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import com.baidu.hugegraph.util.Log;
+import com.baidu.hugegraph.util.SizeUtil;
+
+/**
+ * Accept single vertices and edges, group them into batches by count and
+ * by estimated size, and post the batches with a bounded number of
+ * concurrent requests. The caller of add() is blocked when all the
+ * in-flight slots are busy, which keeps the memory bounded.
+ *
+ * If the edges are created with check vertex, the buffered vertices are
+ * posted and finished before any edge batch is posted, so the vertices
+ * added before an edge exist when the edge is checked.
+ *
+ * A batch is posted with the request context (auth, deadline and trace)
+ * of the thread filling or flushing it, the batches expired by the linger
+ * are posted with the context of the linger thread, like the graph auth.
+ */
+public class BulkWriter implements Closeable {
+
+    private static final Logger LOG = Log.logger(BulkWriter.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_BATCH_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_LINGER_MS = 1000L;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final GraphManager graph;
+    private final int batchSize;
+    private final long batchBytes;
+    private final long lingerMs;
+    private final int parallelism;
+    private final boolean checkVertex;
+    private final BiConsumer<GraphElement, Throwable> failureHandler;
+
+    private final Semaphore inflight;
+    // The vertex batches being posted, edge batches wait for them
+    private final Object vertexLock;
+    private int inflightVertices;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService lingerExecutor;
+
+    private final Buffer<Vertex> vertices;
+    private final Buffer<Edge> edges;
+
+    private final AtomicLong writtenVertices;
+    private final AtomicLong writtenEdges;
+    private final AtomicLong failedElements;
+    private volatile boolean closed;
+
+    private BulkWriter(Builder builder) {
+        this.graph = builder.graph;
+        this.batchSize = builder.batchSize;
+        this.batchBytes = builder.batchBytes;
+        this.lingerMs = builder.lingerMs;
+        this.parallelism = builder.parallelism;
+        this.checkVertex = builder.checkVertex;
+        this.failureHandler = builder.failureHandler;
+
+        this.inflight = new Semaphore(this.parallelism);
+        this.vertexLock = new Object();
+        this.inflightVertices = 0;
+        this.executor = ExecutorUtil.newFixedThreadPool(this.parallelism,
+                                                        "bulk-writer-%d");
+        this.vertices = new Buffer<>();
+        this.edges = new Buffer<>();
+        this.writtenVertices = new AtomicLong();
+        this.writtenEdges = new AtomicLong();
+        this.failedElements = new AtomicLong();
+        this.closed = false;
+
+        if (this.lingerMs > 0L) {
+            this.lingerExecutor = ExecutorUtil.newScheduledThreadPool(
+                                  "bulk-writer-linger-%d");
+            this.lingerExecutor.scheduleWithFixedDelay(this::flushExpired,
+                                                       this.lingerMs,
+                                                       this.lingerMs,
+                                                       TimeUnit.MILLISECONDS);
+        } else {
+            this.lingerExecutor = null;
+        }
+    }
+
+    public void add(Vertex vertex) {
+        E.checkArgumentNotNull(vertex, "The vertex can't be null");
+        this.checkOpen();
+        List<Vertex> batch = this.vertices.add(vertex,
+                                               SizeUtil.estimateSize(vertex),
+                                               this.batchSize,
+                                               this.batchBytes);
+        if (batch != null) {
+            this.submitVertices(batch);
+        }
+    }
+
+    public void add(Edge edge) {
+        E.checkArgumentNotNull(edge, "The edge can't be null");
+        // Make sure the source and target vertex are set
+        edge.sourceId();
+        edge.targetId();
+        this.checkOpen();
+        List<Edge> batch = this.edges.add(edge, SizeUtil.estimateSize(edge),
+                                          this.batchSize, this.batchBytes);
+        if (batch != null) {
+            this.submitEdges(batch);
+        }
+    }
+
+    /**
+     * Post all buffered elements and wait until all in-flight batches are
+     * finished
+     */
+    public void flush() {
+        List<Vertex> vertexBatch = this.vertices.drain();
+        if (vertexBatch != null) {
+            this.submitVertices(vertexBatch);
+        }
+        List<Edge> edgeBatch = this.edges.drain();
+        if (edgeBatch != null) {
+            this.submitEdges(edgeBatch);
+        }
+        this.waitInflight();
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        try {
+            this.flush();
+        } finally {
+            this.closed = true;
+            if (this.lingerExecutor != null) {
+                this.lingerExecutor.shutdownNow();
+            }
+            this.executor.shutdown();
+        }
+    }
+
+    public long writtenVertices() {
+        return this.writtenVertices.get();
+    }
+
+    public long writtenEdges() {
+        return this.writtenEdges.get();
+    }
+
+    public long failedElements() {
+        return this.failedElements.get();
+    }
+
+    public int inflightBatches() {
+        return this.parallelism - this.inflight.availablePermits();
+    }
+
+    private void checkOpen() {
+        E.checkState(!this.closed, "The bulk writer has been closed");
+    }
+
+    private void flushExpired() {
+        try {
+            List<Vertex> vertexBatch = this.vertices.drainExpired(
+                                       this.lingerMs);
+            if (vertexBatch != null) {
+                this.submitVertices(vertexBatch);
+            }
+            List<Edge> edgeBatch = this.edges.drainExpired(this.lingerMs);
+            if (edgeBatch != null) {
+                this.submitEdges(edgeBatch);
+            }
+        } catch (Throwable e) {
+            LOG.warn("Failed to flush expired batches", e);
+        }
+    }
+
+    private void submitVertices(List<Vertex> batch) {
+        synchronized (this.vertexLock) {
+            this.inflightVertices++;
+        }
+        try {
+            this.submit(batch, () -> {
+                try {
+                    this.graph.addVertices(batch);
+                    this.writtenVertices.addAndGet(batch.size());
+                } finally {
+                    this.vertexBatchDone();
+                }
+            });
+        } catch (Throwable e) {
+            this.vertexBatchDone();
+            throw e;
+        }
+    }
+
+    private void submitEdges(List<Edge> batch) {
+        if (this.checkVertex) {
+            // The source and target vertices must be created before edges
+            this.flushVertices();
+        }
+        this.submit(batch, () -> {
+            this.graph.addEdges(batch, this.checkVertex);
+            this.writtenEdges.addAndGet(batch.size());
+        });
+    }
+
+    private void flushVertices() {
+        List<Vertex> vertexBatch = this.vertices.drain();
+        if (vertexBatch != null) {
+            this.submitVertices(vertexBatch);
+        }
+        synchronized (this.vertexLock) {
+            while (this.inflightVertices > 0) {
+                try {
+                    this.vertexLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ClientException("Interrupted while waiting " +
+                                              "for vertex batches", e);
+                }
+            }
+        }
+    }
+
+    private void vertexBatchDone() {
+        synchronized (this.vertexLock) {
+            this.inflightVertices--;
+            this.vertexLock.notifyAll();
+        }
+    }
+
+    private void submit(Collection<? extends GraphElement> batch,
+                        Runnable task) {
+        // The batches are posted by the workers, pass the request context
+        RequestContext context = this.graph.context();
+        Supplier<Void> call = context.wrap(() -> {
+            task.run();
+            return null;
+        });
+        // Block the producer when all in-flight slots are busy
+        this.acquireInflight(1);
+        try {
+            this.executor.execute(() -> {
+                try {
+                    call.get();
+                } catch (Throwable e) {
+                    this.handleFailure(batch, e);
+                } finally {
+                    this.inflight.release();
+                }
+            });
+        } catch (Throwable e) {
+            this.inflight.release();
+            throw e;
+        }
+    }
+
+    private void handleFailure(Collection<? extends GraphElement> batch,
+                               Throwable cause) {
+        this.failedElements.addAndGet(batch.size());
+        if (this.failureHandler == null) {
+            LOG.error("Failed to write batch of {} elements",
+                      batch.size(), cause);
+            return;
+        }
+        for (GraphElement element : batch) {
+            try {
+                this.failureHandler.accept(element, cause);
+            } catch (Throwable e) {
+                LOG.warn("Failure handler threw exception for element {}",
+                         element, e);
+            }
+        }
+    }
+
+    private void waitInflight() {
+        this.acquireInflight(this.parallelism);
+        this.inflight.release(this.parallelism);
+    }
+
+    private void acquireInflight(int permits) {
+        try {
+            this.inflight.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for " +
+                                      "in-flight batches", e);
+        }
+    }
+
+    private static class Buffer<T> {
+
+        private List<T> elements = new ArrayList<>();
+        private long bytes = 0L;
+        private long since = 0L;
+
+        public synchronized List<T> add(T element, long size,
+                                        int batchSize, long batchBytes) {
+            if (this.elements.isEmpty()) {
+                this.since = System.currentTimeMillis();
+            }
+            this.elements.add(element);
+            this.bytes += size;
+            if (this.elements.size() >= batchSize || this.bytes >= batchBytes) {
+                return this.drain();
+            }
+            return null;
+        }
+
+        public synchronized List<T> drainExpired(long lingerMs) {
+            if (this.elements.isEmpty() ||
+                System.currentTimeMillis() - this.since < lingerMs) {
+                return null;
+            }
+            return this.drain();
+        }
+
+        public synchronized List<T> drain() {
+            if (this.elements.isEmpty()) {
+                return null;
+            }
+            List<T> batch = this.elements;
+            this.elements = new ArrayList<>();
+            this.bytes = 0L;
+            return batch;
+        }
+    }
+
+    public static class Builder {
+
+        private final GraphManager graph;
+        private int batchSize;
+        private long batchBytes;
+        private long lingerMs;
+        private int parallelism;
+        private boolean checkVertex;
+        private BiConsumer<GraphElement, Throwable> failureHandler;
+
+        public Builder(GraphManager graph) {
+            E.checkNotNull(graph, "graph manager");
+            this.graph = graph;
+            this.batchSize = DEFAULT_BATCH_SIZE;
+            this.batchBytes = DEFAULT_BATCH_BYTES;
+            this.lingerMs = DEFAULT_LINGER_MS;
+            this.parallelism = DEFAULT_PARALLELISM;
+            this.checkVertex = true;
+            this.failureHandler = null;
+        }
+
+        public Builder batchSize(int batchSize) {
+            E.checkArgument(batchSize > 0,
+                            "The batch size must be > 0, but got %s",
+                            batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder batchBytes(long batchBytes) {
+            E.checkArgument(batchBytes > 0L,
+                            "The batch bytes must be > 0, but got %s",
+                            batchBytes);
+            this.batchBytes = batchBytes;
+            return this;
+        }
+
+        /**
+         * The max time in milliseconds that an element waits in buffer,
+         * 0 means only flush when the batch is full or flush() is called
+         */
+        public Builder lingerMs(long lingerMs) {
+            E.checkArgument(lingerMs >= 0L,
+                            "The linger time must be >= 0, but got %s",
+                            lingerMs);
+            this.lingerMs = lingerMs;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            E.checkArgument(parallelism > 0,
+                            "The parallelism must be > 0, but got %s",
+                            parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder checkVertex(boolean checkVertex) {
+            this.checkVertex = checkVertex;
+            return this;
+        }
+
+        public Builder onFailure(BiConsumer<GraphElement, Throwable> handler) {
+            this.failureHandler = handler;
+            return this;
+        }
+
+        public BulkWriter build() {
+            return new BulkWriter(this);
+        }
+    }
+}
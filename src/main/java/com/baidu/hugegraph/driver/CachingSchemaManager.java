@@ -0,0 +1,591 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.structure.SchemaElement;
+import com.baidu.hugegraph.structure.Task;
+import com.baidu.hugegraph.structure.schema.EdgeLabel;
+import com.baidu.hugegraph.structure.schema.IndexLabel;
+import com.baidu.hugegraph.structure.schema.PropertyKey;
+import com.baidu.hugegraph.structure.schema.VertexLabel;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * A SchemaManager that loads all the schema once and serves the get
+ * operations from memory. The cache is reloaded after the ttl is expired
+ * or after the schema is changed through this manager.
+ *
+ * NOTE: the cached schema elements are shared by all callers, don't modify
+ * them, and the schema changed by other clients is only visible after the
+ * ttl is expired or refresh() is called.
+ *
+ * Every invalidation bumps a generation, a cache loaded before the latest
+ * invalidation is never served again even if the loading is finished after
+ * the invalidation.
+ *
+ * The async schema changes are applied by the server tasks after the
+ * methods return, the cache is dirty until their tasks are completed:
+ * it's invalidated once when the change is submitted and again when the
+ * task is completed. The pending tasks are queried by the get operations
+ * at most every TASK_CHECK_INTERVAL ms, or the cache is invalidated right
+ * after a task is waited by waitUntilTaskCompleted().
+ */
+public class CachingSchemaManager extends SchemaManager {
+
+    public static final long TASK_CHECK_INTERVAL = 500L;
+
+    private final long ttl;
+    private volatile Cache cache;
+    private final AtomicLong generation;
+
+    // The async schema change tasks not known to be completed
+    private final Set<Long> tasks;
+    private final AtomicLong tasksChecked;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * @param ttl the seconds to keep the loaded schema, 0 means keep it
+     *            until the schema is changed through this manager
+     */
+    public CachingSchemaManager(RestClient client, String graph, long ttl) {
+        super(client, graph);
+        E.checkArgument(ttl >= 0L,
+                        "The schema cache ttl must be >= 0, but got %s", ttl);
+        this.ttl = TimeUnit.SECONDS.toMillis(ttl);
+        this.cache = null;
+        this.generation = new AtomicLong();
+        this.tasks = ConcurrentHashMap.newKeySet();
+        this.tasksChecked = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    public long hits() {
+        return this.hits.get();
+    }
+
+    public long misses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Drop the cached schema, it will be reloaded by the next get operation
+     */
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.cache = null;
+    }
+
+    public void refresh() {
+        this.cache = this.load();
+    }
+
+    /**
+     * Wait for the task of an async schema change made by this manager,
+     * the cache is invalidated once the task is completed successfully
+     * @return the completed task, or null if the task id is 0
+     */
+    public Task waitUntilTaskCompleted(long task, long seconds) {
+        Task result = this.taskAPI().waitUntilTaskSuccess(task, seconds);
+        this.completeTask(task);
+        return result;
+    }
+
+    @Override
+    public PropertyKey getPropertyKey(String name) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.propertyKeys, name,
+                           super::getPropertyKey);
+    }
+
+    @Override
+    public List<PropertyKey> getPropertyKeys() {
+        return this.values(this.cache().propertyKeys);
+    }
+
+    @Override
+    public List<PropertyKey> getPropertyKeys(List<String> names) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.propertyKeys, names,
+                           super::getPropertyKeys);
+    }
+
+    @Override
+    public VertexLabel getVertexLabel(String name) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.vertexLabels, name,
+                           super::getVertexLabel);
+    }
+
+    @Override
+    public List<VertexLabel> getVertexLabels() {
+        return this.values(this.cache().vertexLabels);
+    }
+
+    @Override
+    public List<VertexLabel> getVertexLabels(List<String> names) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.vertexLabels, names,
+                           super::getVertexLabels);
+    }
+
+    @Override
+    public EdgeLabel getEdgeLabel(String name) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.edgeLabels, name,
+                           super::getEdgeLabel);
+    }
+
+    @Override
+    public List<EdgeLabel> getEdgeLabels() {
+        return this.values(this.cache().edgeLabels);
+    }
+
+    @Override
+    public List<EdgeLabel> getEdgeLabels(List<String> names) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.edgeLabels, names,
+                           super::getEdgeLabels);
+    }
+
+    @Override
+    public IndexLabel getIndexLabel(String name) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.indexLabels, name,
+                           super::getIndexLabel);
+    }
+
+    @Override
+    public List<IndexLabel> getIndexLabels() {
+        return this.values(this.cache().indexLabels);
+    }
+
+    @Override
+    public List<IndexLabel> getIndexLabels(List<String> names) {
+        Cache cache = this.cache();
+        return this.lookup(cache, cache.indexLabels, names,
+                           super::getIndexLabels);
+    }
+
+    @Override
+    public PropertyKey addPropertyKey(PropertyKey propertyKey, long seconds) {
+        try {
+            return super.addPropertyKey(propertyKey, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long addPropertyKeyAsync(PropertyKey propertyKey) {
+        try {
+            return this.trackTask(super.addPropertyKeyAsync(propertyKey));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public PropertyKey appendPropertyKey(PropertyKey propertyKey) {
+        try {
+            return super.appendPropertyKey(propertyKey);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public PropertyKey eliminatePropertyKey(PropertyKey propertyKey) {
+        try {
+            return super.eliminatePropertyKey(propertyKey);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public PropertyKey clearPropertyKey(PropertyKey propertyKey, long seconds) {
+        try {
+            return super.clearPropertyKey(propertyKey, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long clearPropertyKeyAsync(PropertyKey propertyKey) {
+        try {
+            return this.trackTask(super.clearPropertyKeyAsync(propertyKey));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void removePropertyKey(String name, long seconds) {
+        try {
+            super.removePropertyKey(name, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long removePropertyKeyAsync(String name) {
+        try {
+            return this.trackTask(super.removePropertyKeyAsync(name));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public VertexLabel addVertexLabel(VertexLabel vertexLabel) {
+        try {
+            return super.addVertexLabel(vertexLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public VertexLabel appendVertexLabel(VertexLabel vertexLabel) {
+        try {
+            return super.appendVertexLabel(vertexLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public VertexLabel eliminateVertexLabel(VertexLabel vertexLabel) {
+        try {
+            return super.eliminateVertexLabel(vertexLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void removeVertexLabel(String name) {
+        try {
+            super.removeVertexLabel(name);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void removeVertexLabel(String name, long seconds) {
+        try {
+            super.removeVertexLabel(name, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long removeVertexLabelAsync(String name) {
+        try {
+            return this.trackTask(super.removeVertexLabelAsync(name));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public EdgeLabel addEdgeLabel(EdgeLabel edgeLabel) {
+        try {
+            return super.addEdgeLabel(edgeLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public EdgeLabel appendEdgeLabel(EdgeLabel edgeLabel) {
+        try {
+            return super.appendEdgeLabel(edgeLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public EdgeLabel eliminateEdgeLabel(EdgeLabel edgeLabel) {
+        try {
+            return super.eliminateEdgeLabel(edgeLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void removeEdgeLabel(String name, long seconds) {
+        try {
+            super.removeEdgeLabel(name, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long removeEdgeLabelAsync(String name) {
+        try {
+            return this.trackTask(super.removeEdgeLabelAsync(name));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public IndexLabel addIndexLabel(IndexLabel indexLabel, long seconds) {
+        try {
+            return super.addIndexLabel(indexLabel, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long addIndexLabelAsync(IndexLabel indexLabel) {
+        try {
+            return this.trackTask(super.addIndexLabelAsync(indexLabel));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public IndexLabel appendIndexLabel(IndexLabel indexLabel) {
+        try {
+            return super.appendIndexLabel(indexLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public IndexLabel eliminateIndexLabel(IndexLabel indexLabel) {
+        try {
+            return super.eliminateIndexLabel(indexLabel);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void removeIndexLabel(String name, long seconds) {
+        try {
+            super.removeIndexLabel(name, seconds);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public long removeIndexLabelAsync(String name) {
+        try {
+            return this.trackTask(super.removeIndexLabelAsync(name));
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    private long trackTask(long task) {
+        if (task != Task.TASK_ID_NULL) {
+            this.tasks.add(task);
+        }
+        return task;
+    }
+
+    private void completeTask(long task) {
+        // Drop the cache loaded while the task is applying the change
+        if (this.tasks.remove(task)) {
+            this.invalidate();
+        }
+    }
+
+    private void checkTasks() {
+        if (this.tasks.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long checked = this.tasksChecked.get();
+        if (now - checked < TASK_CHECK_INTERVAL ||
+            !this.tasksChecked.compareAndSet(checked, now)) {
+            return;
+        }
+        for (long task : this.tasks) {
+            boolean completed;
+            try {
+                completed = this.taskAPI().get(task).completed();
+            } catch (ServerException e) {
+                // The task may be deleted, regard it as completed
+                completed = true;
+            }
+            if (completed) {
+                this.completeTask(task);
+            }
+        }
+    }
+
+    private Cache cache() {
+        this.checkTasks();
+        Cache cache = this.cache;
+        if (!this.valid(cache)) {
+            synchronized (this) {
+                cache = this.cache;
+                if (!this.valid(cache)) {
+                    cache = this.load();
+                    this.cache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private boolean valid(Cache cache) {
+        return cache != null && !cache.expired(this.ttl) &&
+               cache.generation == this.generation.get();
+    }
+
+    private Cache load() {
+        // Read the generation before loading, the changes made during the
+        // loading may be missed by the loaded cache
+        Cache cache = new Cache(this.generation.get());
+        for (PropertyKey propertyKey : super.getPropertyKeys()) {
+            cache.propertyKeys.put(propertyKey.name(), propertyKey);
+        }
+        for (VertexLabel vertexLabel : super.getVertexLabels()) {
+            cache.vertexLabels.put(vertexLabel.name(), vertexLabel);
+        }
+        for (EdgeLabel edgeLabel : super.getEdgeLabels()) {
+            cache.edgeLabels.put(edgeLabel.name(), edgeLabel);
+        }
+        for (IndexLabel indexLabel : super.getIndexLabels()) {
+            cache.indexLabels.put(indexLabel.name(), indexLabel);
+        }
+        return cache;
+    }
+
+    private <T extends SchemaElement> T lookup(Cache cache,
+                                               Map<String, T> elements,
+                                               String name,
+                                               Function<String, T> loader) {
+        T element = elements.get(name);
+        if (element != null) {
+            this.hits.incrementAndGet();
+            return element;
+        }
+        // Maybe created by other clients after loading
+        this.misses.incrementAndGet();
+        element = loader.apply(name);
+        this.put(cache, elements, element);
+        return element;
+    }
+
+    private <T extends SchemaElement> List<T> lookup(
+                                              Cache cache,
+                                              Map<String, T> elements,
+                                              List<String> names,
+                                              Function<List<String>, List<T>>
+                                              loader) {
+        List<String> missed = new ArrayList<>();
+        for (String name : names) {
+            if (!elements.containsKey(name)) {
+                missed.add(name);
+            }
+        }
+        this.hits.addAndGet(names.size() - missed.size());
+        Map<String, T> loaded = new HashMap<>();
+        if (!missed.isEmpty()) {
+            // Load the missed ones in a batch, the unknown names are omitted
+            this.misses.addAndGet(missed.size());
+            for (T element : loader.apply(missed)) {
+                loaded.put(element.name(), element);
+                this.put(cache, elements, element);
+            }
+        }
+        List<T> results = new ArrayList<>(names.size());
+        for (String name : names) {
+            T element = elements.get(name);
+            if (element == null) {
+                element = loaded.get(name);
+            }
+            if (element != null) {
+                results.add(element);
+            }
+        }
+        return results;
+    }
+
+    private <T extends SchemaElement> void put(Cache cache,
+                                               Map<String, T> elements,
+                                               T element) {
+        // Don't put into a cache invalidated while loading the element
+        if (cache.generation == this.generation.get()) {
+            elements.put(element.name(), element);
+        }
+    }
+
+    private <T extends SchemaElement> List<T> values(Map<String, T> elements) {
+        this.hits.incrementAndGet();
+        return new ArrayList<>(elements.values());
+    }
+
+    private static class Cache {
+
+        private final long generation;
+        private final long loadTime;
+        private final Map<String, PropertyKey> propertyKeys;
+        private final Map<String, VertexLabel> vertexLabels;
+        private final Map<String, EdgeLabel> edgeLabels;
+        private final Map<String, IndexLabel> indexLabels;
+
+        public Cache(long generation) {
+            this.generation = generation;
+            this.loadTime = System.currentTimeMillis();
+            this.propertyKeys = new ConcurrentHashMap<>();
+            this.vertexLabels = new ConcurrentHashMap<>();
+            this.edgeLabels = new ConcurrentHashMap<>();
+            this.indexLabels = new ConcurrentHashMap<>();
+        }
+
+        public boolean expired(long ttl) {
+            return ttl > 0L &&
+                   System.currentTimeMillis() - this.loadTime >= ttl;
+        }
+    }
+}
@@ -22,12 +22,16 @@ package com.baidu.hugegraph.driver;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 import com.baidu.hugegraph.annotation.UnimplementedFeature;
 import com.baidu.hugegraph.api.graph.EdgeAPI;
 import com.baidu.hugegraph.api.graph.VertexAPI;
+import com.baidu.hugegraph.client.RequestContext;
 import com.baidu.hugegraph.client.RestClient;
 import com.baidu.hugegraph.exception.InvalidOperationException;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.GraphElement;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.constant.T;
@@ -36,16 +40,24 @@ import com.baidu.hugegraph.structure.graph.BatchOlapPropertyRequest;
 import com.baidu.hugegraph.structure.graph.BatchVertexRequest;
 import com.baidu.hugegraph.structure.graph.Edge;
 import com.baidu.hugegraph.structure.graph.GraphIterator;
+import com.baidu.hugegraph.structure.graph.Pageable;
 import com.baidu.hugegraph.structure.graph.Vertex;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
 
-public class GraphManager {
+public class GraphManager implements AutoCloseable {
 
+    private static final int PREFETCH_THREADS = 4;
+
+    private final RestClient client;
     private final String graph;
     private final VertexAPI vertexAPI;
     private final EdgeAPI edgeAPI;
+    // Created by the first prefetching iterator, shut down by close()
+    private volatile ExecutorService prefetchExecutor;
 
     public GraphManager(RestClient client, String graph) {
+        this.client = client;
         this.graph = graph;
         this.vertexAPI = new VertexAPI(client, graph);
         this.edgeAPI = new EdgeAPI(client, graph);
@@ -55,6 +67,21 @@ public class GraphManager {
         return this.graph;
     }
 
+    /**
+     * Capture the request context of current thread, see RestClient.context()
+     */
+    public RequestContext context() {
+        return this.client.context();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.prefetchExecutor != null) {
+            this.prefetchExecutor.shutdownNow();
+            this.prefetchExecutor = null;
+        }
+    }
+
     public Vertex addVertex(Vertex vertex) {
         vertex = this.vertexAPI.create(vertex);
         this.attachManager(vertex);
@@ -167,6 +194,20 @@ public class GraphManager {
         return vertices;
     }
 
+    /**
+     * Read a page of vertices from the response stream one by one instead of
+     * loading the whole page into memory, the page token to fetch next can
+     * be got by JsonStreamIterator.page() after all vertices are read.
+     * NOTE: the returned iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Vertex> streamVertices(
+                                      String label,
+                                      Map<String, Object> properties,
+                                      String page, int limit) {
+        return this.vertexAPI.stream(label, properties, false, 0, page, limit)
+                             .attach(this::attachManager);
+    }
+
     public Iterator<Vertex> iterateVertices(int sizePerPage) {
         return this.iterateVertices(null, null, sizePerPage);
     }
@@ -178,7 +219,17 @@ public class GraphManager {
     public Iterator<Vertex> iterateVertices(String label,
                                             Map<String, Object> properties,
                                             int sizePerPage) {
-        return new GraphIterator<>(this, sizePerPage, (page) -> {
+        return this.iterateVertices(label, properties, sizePerPage, 0);
+    }
+
+    /**
+     * Iterate vertices and fetch at most `prefetch` pages ahead in
+     * background, 0 means fetch the next page only when it's needed
+     */
+    public Iterator<Vertex> iterateVertices(String label,
+                                            Map<String, Object> properties,
+                                            int sizePerPage, int prefetch) {
+        return this.iterator(sizePerPage, prefetch, (page) -> {
             return this.vertexAPI.list(label, properties, 0, page, sizePerPage);
         });
     }
@@ -271,6 +322,10 @@ public class GraphManager {
         return edges;
     }
 
+    public BulkWriter.Builder bulkWriter() {
+        return new BulkWriter.Builder(this);
+    }
+
     public List<Edge> listEdges() {
         return this.listEdges(-1);
     }
@@ -380,6 +435,20 @@ public class GraphManager {
         return edges;
     }
 
+    /**
+     * Read a page of edges from the response stream one by one, the returned
+     * iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Edge> streamEdges(Object vertexId,
+                                                Direction direction,
+                                                String label,
+                                                Map<String, Object> properties,
+                                                String page, int limit) {
+        return this.edgeAPI.stream(vertexId, direction, label, properties,
+                                   false, 0, page, limit)
+                           .attach(this::attachManager);
+    }
+
     public Iterator<Edge> iterateEdges(int sizePerPage) {
         return this.iterateEdges(null, (Map<String, Object>) null, sizePerPage);
     }
@@ -393,7 +462,14 @@ public class GraphManager {
     public Iterator<Edge> iterateEdges(String label,
                                        Map<String, Object> properties,
                                        int sizePerPage) {
-        return new GraphIterator<>(this, sizePerPage, (page) -> {
+        return this.iterateEdges(label, properties, sizePerPage, 0);
+    }
+
+    @UnimplementedFeature(desc = "Server doesn't support paging by label and properties")
+    public Iterator<Edge> iterateEdges(String label,
+                                       Map<String, Object> properties,
+                                       int sizePerPage, int prefetch) {
+        return this.iterator(sizePerPage, prefetch, (page) -> {
             return this.edgeAPI.list(null, null, label, properties,
                                      0, page, sizePerPage);
         });
@@ -422,12 +498,47 @@ public class GraphManager {
                                        String label,
                                        Map<String, Object> properties,
                                        int sizePerPage) {
-        return new GraphIterator<>(this, sizePerPage, (page) -> {
+        return this.iterateEdges(vertexId, direction, label, properties,
+                                 sizePerPage, 0);
+    }
+
+    public Iterator<Edge> iterateEdges(Object vertexId,
+                                       Direction direction,
+                                       String label,
+                                       Map<String, Object> properties,
+                                       int sizePerPage, int prefetch) {
+        return this.iterator(sizePerPage, prefetch, (page) -> {
             return this.edgeAPI.list(vertexId, direction, label, properties,
                                      0, page, sizePerPage);
         });
     }
 
+    private <T extends GraphElement> Iterator<T> iterator(
+                                     int sizePerPage, int prefetch,
+                                     Function<String, Pageable<T>> fetcher) {
+        if (prefetch <= 0) {
+            return new GraphIterator<>(this, sizePerPage, fetcher);
+        }
+        // The pages are fetched by other threads, pass the request context
+        RequestContext context = this.client.context();
+        return new GraphIterator<>(this, sizePerPage, (page) -> {
+            return context.wrap(() -> fetcher.apply(page)).get();
+        }, prefetch, this.prefetchExecutor());
+    }
+
+    private ExecutorService prefetchExecutor() {
+        if (this.prefetchExecutor == null) {
+            synchronized (this) {
+                if (this.prefetchExecutor == null) {
+                    this.prefetchExecutor = ExecutorUtil.newFixedThreadPool(
+                                            PREFETCH_THREADS,
+                                            "graph-prefetch-%d");
+                }
+            }
+        }
+        return this.prefetchExecutor;
+    }
+
     public void removeEdge(String edgeId) {
         this.edgeAPI.delete(edgeId);
     }
@@ -43,12 +43,19 @@ public class GremlinManager {
     }
 
     public ResultSet execute(GremlinRequest request) {
+        Response response = this.gremlinAPI.post(this.bind(request));
+        return this.result(response);
+    }
+
+    GremlinRequest bind(GremlinRequest request) {
         // Bind "graph" to all graphs
         request.aliases.put("graph", this.graph);
         // Bind "g" to all graphs by custom rule which define in gremlin server.
         request.aliases.put("g", "__g_" + this.graph);
+        return request;
+    }
 
-        Response response = this.gremlinAPI.post(request);
+    ResultSet result(Response response) {
         response.graphManager(this.graphManager);
         // TODO: Can add some checks later
         return response.result();
@@ -20,8 +20,17 @@
 package com.baidu.hugegraph.driver;
 
 import java.io.Closeable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+import com.baidu.hugegraph.client.ClientMetrics;
+import com.baidu.hugegraph.client.ContentCompression;
+import com.baidu.hugegraph.client.Deadline;
+import com.baidu.hugegraph.client.LoadBalancer;
 import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.SlowCallLog;
 import com.baidu.hugegraph.rest.ClientException;
 import com.baidu.hugegraph.util.VersionUtil;
 import com.baidu.hugegraph.version.ClientVersion;
@@ -32,38 +41,46 @@ public class HugeClient implements Closeable {
     static {
         ClientVersion.check();
     }
+
+    // The api versions of servers checked in this jvm, keyed by the url
+    private static final Map<String, VersionUtil.Version> API_VERSIONS =
+                                                new ConcurrentHashMap<>();
+
     private final RestClient client;
     private final boolean borrowedClient;
+    private final int asyncThreads;
+    // The ttl in seconds of the schema cache, -1 means disable the cache
+    private final int schemaCacheTtl;
 
-    private VersionManager version;
-    private GraphsManager graphs;
-    private SchemaManager schema;
-    private GraphManager graph;
-    private GremlinManager gremlin;
-    private TraverserManager traverser;
-    private VariablesManager variable;
-    private JobManager job;
-    private TaskManager task;
-    private AuthManager auth;
-    private MetricsManager metrics;
+    // The managers are created on first access
+    private Lazy<GraphsManager> graphs;
+    private Lazy<SchemaManager> schema;
+    private Lazy<GraphManager> graph;
+    private Lazy<GremlinManager> gremlin;
+    private Lazy<TraverserManager> traverser;
+    private Lazy<VariablesManager> variable;
+    private Lazy<JobManager> job;
+    private Lazy<TaskManager> task;
+    private Lazy<AuthManager> auth;
+    private Lazy<MetricsManager> metrics;
+    private volatile AsyncHugeClient async;
 
     public HugeClient(HugeClientBuilder builder) {
         this.borrowedClient = false;
+        this.asyncThreads = builder.asyncThreads();
+        this.schemaCacheTtl = builder.schemaCacheTtl();
         try {
-            this.client = new RestClient(builder.url(),
-                                         builder.username(),
-                                         builder.password(),
-                                         builder.timeout(),
-                                         builder.maxConns(),
-                                         builder.maxConnsPerRoute(),
-                                         builder.trustStoreFile(),
-                                         builder.trustStorePassword());
+            this.client = newRestClient(builder);
         } catch (ProcessingException e) {
             throw new ClientException("Failed to connect url '%s'",
                                       builder.url());
         }
         try {
+            initApiVersion(this.client, builder);
             this.initManagers(this.client, builder.graph());
+            if (builder.warmUpConnections() > 0) {
+                this.client.warmUp(builder.warmUpConnections());
+            }
         } catch (Throwable e) {
             this.client.close();
             throw e;
@@ -72,16 +89,69 @@ public class HugeClient implements Closeable {
 
     public HugeClient(HugeClient client, String graph) {
         this.borrowedClient = true;
+        this.asyncThreads = client.asyncThreads;
+        this.schemaCacheTtl = client.schemaCacheTtl;
         this.client = client.client;
         this.initManagers(this.client, graph);
     }
 
+    /**
+     * Create a client of the graph which borrows the shared rest client
+     */
+    HugeClient(RestClient client, String graph, HugeClientBuilder builder) {
+        this.borrowedClient = true;
+        this.asyncThreads = builder.asyncThreads();
+        this.schemaCacheTtl = builder.schemaCacheTtl();
+        this.client = client;
+        this.initManagers(this.client, graph);
+    }
+
+    static RestClient newRestClient(HugeClientBuilder builder) {
+        RestClient.ConfigBuilder config = new RestClient.ConfigBuilder()
+                .configTimeout(builder.timeout())
+                .configUser(builder.username(), builder.password())
+                .configPool(builder.maxConns(), builder.maxConnsPerRoute())
+                .configIdleTime(builder.idleTime())
+                .configSSL(builder.trustStoreFile(),
+                           builder.trustStorePassword())
+                .configTransport(builder.transport())
+                .configAsyncRequests(builder.asyncThreads())
+                .configRetry(builder.retryPolicy())
+                .configConcurrencyLimit(builder.limiter())
+                .configHedging(builder.hedgingPolicy())
+                .configMetrics(builder.metrics())
+                .configTracer(builder.tracer())
+                .configSlowCallLog(builder.slowCallLog())
+                .configCompression(new ContentCompression(
+                                   builder.compression(),
+                                   builder.compressionThreshold(),
+                                   builder.batchCodec(),
+                                   builder.batchLevel()));
+        String url = builder.url();
+        if (builder.urls().size() > 1) {
+            LoadBalancer balancer = new LoadBalancer(
+                                    builder.urls(),
+                                    builder.balanceStrategy(),
+                                    builder.healthCheckInterval());
+            config.configBalancer(balancer);
+            url = balancer.url();
+        }
+        return new RestClient(url, config.build());
+    }
+
     public static HugeClientBuilder builder(String url, String graph) {
         return new HugeClientBuilder(url, graph);
     }
 
     @Override
     public void close() {
+        if (this.async != null) {
+            this.async.close();
+        }
+        GraphManager graph = this.graph.peek();
+        if (graph != null) {
+            graph.close();
+        }
         if (!this.borrowedClient) {
             this.client.close();
         }
@@ -89,68 +159,138 @@ public class HugeClient implements Closeable {
 
     private void initManagers(RestClient client, String graph) {
         assert client != null;
-        // Check hugegraph-server api version
-        this.version = new VersionManager(client);
-        this.checkServerApiVersion();
-
-        this.graphs = new GraphsManager(client);
-        this.schema = new SchemaManager(client, graph);
-        this.graph = new GraphManager(client, graph);
-        this.gremlin = new GremlinManager(client, graph, this.graph);
-        this.traverser = new TraverserManager(client, this.graph);
-        this.variable = new VariablesManager(client, graph);
-        this.job = new JobManager(client, graph);
-        this.task = new TaskManager(client, graph);
-        this.auth = new AuthManager(client, graph);
-        this.metrics = new MetricsManager(client);
-    }
-
-    private void checkServerApiVersion() {
+        // The borrowed client has checked the api version of server
+        if (client.apiVersion() == null) {
+            checkServerApiVersion(client);
+        }
+
+        this.graphs = new Lazy<>(() -> new GraphsManager(client));
+        this.schema = new Lazy<>(() -> {
+            if (this.schemaCacheTtl >= 0) {
+                return new CachingSchemaManager(client, graph,
+                                                this.schemaCacheTtl);
+            }
+            return new SchemaManager(client, graph);
+        });
+        this.graph = new Lazy<>(() -> new GraphManager(client, graph));
+        this.gremlin = new Lazy<>(() -> {
+            return new GremlinManager(client, graph, this.graph.get());
+        });
+        this.traverser = new Lazy<>(() -> {
+            return new TraverserManager(client, this.graph.get());
+        });
+        this.variable = new Lazy<>(() -> new VariablesManager(client, graph));
+        this.job = new Lazy<>(() -> new JobManager(client, graph));
+        this.task = new Lazy<>(() -> new TaskManager(client, graph));
+        this.auth = new Lazy<>(() -> new AuthManager(client, graph));
+        this.metrics = new Lazy<>(() -> new MetricsManager(client));
+    }
+
+    /**
+     * Set the api version of server to the client, which is requested from
+     * the server unless it's configured or cached
+     */
+    static void initApiVersion(RestClient client, HugeClientBuilder builder) {
+        if (builder.apiVersion() != null) {
+            VersionUtil.Version apiVersion = VersionUtil.Version.of(
+                                             builder.apiVersion());
+            checkApiVersion(apiVersion);
+            client.apiVersion(apiVersion);
+        } else if (builder.apiVersionCache()) {
+            client.apiVersion(API_VERSIONS.computeIfAbsent(builder.url(),
+                              url -> checkServerApiVersion(client)));
+        } else {
+            checkServerApiVersion(client);
+        }
+    }
+
+    private static VersionUtil.Version checkServerApiVersion(
+                                       RestClient client) {
+        VersionManager version = new VersionManager(client);
         VersionUtil.Version apiVersion = VersionUtil.Version.of(
-                                         this.version.getApiVersion());
+                                         version.getApiVersion());
+        checkApiVersion(apiVersion);
+        client.apiVersion(apiVersion);
+        return apiVersion;
+    }
+
+    private static void checkApiVersion(VersionUtil.Version apiVersion) {
         VersionUtil.check(apiVersion, "0.38", "0.68",
                           "hugegraph-api in server");
-        this.client.apiVersion(apiVersion);
     }
 
     public GraphsManager graphs() {
-        return this.graphs;
+        return this.graphs.get();
     }
 
     public SchemaManager schema() {
-        return this.schema;
+        return this.schema.get();
     }
 
     public GraphManager graph() {
-        return this.graph;
+        return this.graph.get();
     }
 
     public GremlinManager gremlin() {
-        return this.gremlin;
+        return this.gremlin.get();
     }
 
     public TraverserManager traverser() {
-        return this.traverser;
+        return this.traverser.get();
     }
 
     public VariablesManager variables() {
-        return this.variable;
+        return this.variable.get();
     }
 
     public JobManager job() {
-        return this.job;
+        return this.job.get();
     }
 
     public TaskManager task() {
-        return this.task;
+        return this.task.get();
     }
 
     public AuthManager auth() {
-        return this.auth;
+        return this.auth.get();
     }
 
     public MetricsManager metrics() {
-        return this.metrics;
+        return this.metrics.get();
+    }
+
+    public AsyncHugeClient async() {
+        if (this.async == null) {
+            synchronized (this) {
+                if (this.async == null) {
+                    this.async = new AsyncHugeClient(this, this.client,
+                                                     this.asyncThreads);
+                }
+            }
+        }
+        return this.async;
+    }
+
+    /**
+     * The client side metrics of requests, null if not configured
+     */
+    public ClientMetrics clientMetrics() {
+        return this.client.clientMetrics();
+    }
+
+    /**
+     * The log of slow api calls, null if not configured
+     */
+    public SlowCallLog slowCallLog() {
+        return this.client.slowCallLog();
+    }
+
+    /**
+     * Open a deadline for the requests sent by current thread until it's
+     * closed, it overrides the global timeout if it's earlier
+     */
+    public Deadline withDeadline(Duration timeout) {
+        return Deadline.start(timeout);
     }
 
     public void setAuthContext(String auth) {
@@ -164,4 +304,30 @@ public class HugeClient implements Closeable {
     public void resetAuthContext() {
         this.client.resetAuthContext();
     }
+
+    private static class Lazy<T> {
+
+        private final Supplier<T> creator;
+        private volatile T value;
+
+        public Lazy(Supplier<T> creator) {
+            this.creator = creator;
+            this.value = null;
+        }
+
+        public T get() {
+            if (this.value == null) {
+                synchronized (this) {
+                    if (this.value == null) {
+                        this.value = this.creator.get();
+                    }
+                }
+            }
+            return this.value;
+        }
+
+        public T peek() {
+            return this.value;
+        }
+    }
 }
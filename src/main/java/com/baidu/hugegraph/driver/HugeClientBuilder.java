@@ -19,6 +19,19 @@
 
 package com.baidu.hugegraph.driver;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.baidu.hugegraph.client.ClientMetrics;
+import com.baidu.hugegraph.client.ConcurrencyLimiter;
+import com.baidu.hugegraph.client.ContentCompression;
+import com.baidu.hugegraph.client.HedgingPolicy;
+import com.baidu.hugegraph.client.LoadBalancer;
+import com.baidu.hugegraph.client.RequestTracer;
+import com.baidu.hugegraph.client.SlowCallLog;
+import com.baidu.hugegraph.client.RetryPolicy;
+import com.baidu.hugegraph.client.Transport;
 import com.baidu.hugegraph.util.E;
 
 public class HugeClientBuilder {
@@ -28,8 +41,10 @@ public class HugeClientBuilder {
     private static final int DEFAULT_MAX_CONNS = 4 * CPUS;
     private static final int DEFAULT_MAX_CONNS_PER_ROUTE = 2 * CPUS;
     private static final int DEFAULT_IDLE_TIME = 30;
+    private static final int DEFAULT_HEALTH_CHECK_INTERVAL = 10;
 
     private String url;
+    private List<String> urls;
     private String graph;
     private String username;
     private String password;
@@ -39,6 +54,24 @@ public class HugeClientBuilder {
     private int idleTime;
     private String trustStoreFile;
     private String trustStorePassword;
+    private int asyncThreads;
+    private int schemaCacheTtl;
+    private LoadBalancer.Strategy balanceStrategy;
+    private int healthCheckInterval;
+    private Transport transport;
+    private RetryPolicy retryPolicy;
+    private ConcurrencyLimiter limiter;
+    private HedgingPolicy hedgingPolicy;
+    private ClientMetrics metrics;
+    private RequestTracer tracer;
+    private SlowCallLog slowCallLog;
+    private boolean compression;
+    private int compressionThreshold;
+    private ContentCompression.Codec batchCodec;
+    private int batchLevel;
+    private int warmUpConnections;
+    private String apiVersion;
+    private boolean apiVersionCache;
 
     public HugeClientBuilder(String url, String graph) {
         E.checkArgument(url != null && !url.isEmpty(),
@@ -48,6 +81,7 @@ public class HugeClientBuilder {
                         "Expect a string value as the graph name " +
                         "parameter argument, but got: %s", graph);
         this.url = url;
+        this.urls = null;
         this.graph = graph;
         this.username = "";
         this.password = "";
@@ -57,6 +91,24 @@ public class HugeClientBuilder {
         this.trustStoreFile = "";
         this.trustStorePassword = "";
         this.idleTime = DEFAULT_IDLE_TIME;
+        this.asyncThreads = 0;
+        this.schemaCacheTtl = -1;
+        this.balanceStrategy = LoadBalancer.Strategy.ROUND_ROBIN;
+        this.healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+        this.transport = null;
+        this.retryPolicy = null;
+        this.limiter = null;
+        this.hedgingPolicy = null;
+        this.metrics = null;
+        this.tracer = null;
+        this.slowCallLog = null;
+        this.compression = true;
+        this.compressionThreshold = ContentCompression.DEFAULT_THRESHOLD;
+        this.batchCodec = ContentCompression.Codec.GZIP;
+        this.batchLevel = ContentCompression.DEFAULT_LEVEL;
+        this.warmUpConnections = 0;
+        this.apiVersion = null;
+        this.apiVersionCache = false;
     }
 
     public HugeClient build() {
@@ -67,11 +119,106 @@ public class HugeClientBuilder {
         return new HugeClient(this);
     }
 
+    /**
+     * Build a factory of the clients of many graphs sharing the connections
+     */
+    public HugeClientFactory buildFactory() {
+        E.checkArgument(this.url != null,
+                        "The url parameter can't be null");
+        return new HugeClientFactory(this);
+    }
+
+    /**
+     * Use the known api version of server like "0.67", instead of
+     * requesting it from the server when the client is built
+     */
+    public HugeClientBuilder configApiVersion(String apiVersion) {
+        E.checkArgument(apiVersion == null || !apiVersion.isEmpty(),
+                        "The api version can't be empty");
+        this.apiVersion = apiVersion;
+        return this;
+    }
+
+    /**
+     * Request the api version of a server only once in the jvm, the later
+     * clients of the same url use the cached version
+     */
+    public HugeClientBuilder configApiVersionCache(boolean cache) {
+        this.apiVersionCache = cache;
+        return this;
+    }
+
+    /**
+     * The worker threads of the async client, an in-flight async call
+     * occupies a worker, unless it's sent by a non-blocking transport,
+     * which then allows so many in-flight calls without any worker,
+     * 0 means the max connections of the pool
+     */
+    public HugeClientBuilder configAsyncThreads(int asyncThreads) {
+        E.checkArgument(asyncThreads >= 0,
+                        "The asyncThreads parameter must be >= 0, " +
+                        "but got %s", asyncThreads);
+        this.asyncThreads = asyncThreads;
+        return this;
+    }
+
+    /**
+     * Encode the batch write bodies by the codec at the level from 1
+     * (fastest) to 9 (smallest), a lower level saves the cpu of a cpu
+     * bound loader and a higher level saves the bandwidth
+     */
+    public HugeClientBuilder configBatchEncoding(ContentCompression.Codec
+                                                 codec, int level) {
+        E.checkArgumentNotNull(codec, "The codec can't be null");
+        E.checkArgument(level >= 1 && level <= 9,
+                        "The compression level must be in [1, 9], " +
+                        "but got %s", level);
+        this.batchCodec = codec;
+        this.batchLevel = level;
+        return this;
+    }
+
+    /**
+     * Negotiate the compression of responses and compress the batch
+     * writes larger than threshold bytes, it's enabled by default and can
+     * be disabled to save cpu on a fast network. The threshold only
+     * applies to request bodies, the server decides whether to compress
+     * a response
+     */
+    public HugeClientBuilder configCompression(boolean enabled,
+                                               int threshold) {
+        E.checkArgument(threshold >= 0,
+                        "The compression threshold must be >= 0, " +
+                        "but got %s", threshold);
+        this.compression = enabled;
+        this.compressionThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Limit the in-flight requests of every server adaptively, which
+     * protects the server from overload, null means no limit
+     */
+    public HugeClientBuilder configConcurrencyLimit(ConcurrencyLimiter
+                                                    limiter) {
+        this.limiter = limiter;
+        return this;
+    }
+
     public HugeClientBuilder configGraph(String graph) {
         this.graph = graph;
         return this;
     }
 
+    /**
+     * Hedge the slow reads and traverser requests, null means no hedging.
+     * The policy is closed with the client, don't share it with others
+     */
+    public HugeClientBuilder configHedging(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+        return this;
+    }
+
     public HugeClientBuilder configIdleTime(int idleTime) {
         E.checkArgument(idleTime > 0,
                         "The idleTime parameter must be > 0, " +
@@ -80,6 +227,30 @@ public class HugeClientBuilder {
         return this;
     }
 
+    /**
+     * Select the server of every request by the strategy when multiple
+     * urls are configured, the servers are checked every interval seconds
+     * and the unavailable ones are ejected, 0 means disable the check
+     */
+    public HugeClientBuilder configLoadBalance(LoadBalancer.Strategy strategy,
+                                               int healthCheckInterval) {
+        E.checkArgumentNotNull(strategy, "The strategy can't be null");
+        E.checkArgument(healthCheckInterval >= 0,
+                        "The health check interval must be >= 0, " +
+                        "but got %s", healthCheckInterval);
+        this.balanceStrategy = strategy;
+        this.healthCheckInterval = healthCheckInterval;
+        return this;
+    }
+
+    /**
+     * Record the client side metrics of requests, null means no metrics
+     */
+    public HugeClientBuilder configMetrics(ClientMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public HugeClientBuilder configPool(int maxConns, int maxConnsPerRoute) {
         if (maxConns == 0) {
             maxConns = DEFAULT_MAX_CONNS;
@@ -92,6 +263,37 @@ public class HugeClientBuilder {
         return this;
     }
 
+    /**
+     * Retry the idempotent requests failed by transient errors, null means
+     * no retry. The retry budget of the policy is shared by the clients
+     * built with it
+     */
+    public HugeClientBuilder configRetry(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Serve the schema get operations of client.schema() from memory, the
+     * schema is reloaded every ttl seconds, 0 means only reloaded after
+     * it's changed through this client
+     */
+    public HugeClientBuilder configSchemaCache(int ttl) {
+        E.checkArgument(ttl >= 0,
+                        "The schema cache ttl must be >= 0, but got %s", ttl);
+        this.schemaCacheTtl = ttl;
+        return this;
+    }
+
+    /**
+     * Log the api calls slower than the threshold of the log and keep the
+     * last ones in memory, null means no slow call log
+     */
+    public HugeClientBuilder configSlowCallLog(SlowCallLog slowCallLog) {
+        this.slowCallLog = slowCallLog;
+        return this;
+    }
+
     public HugeClientBuilder configSSL(String trustStoreFile,
                                        String trustStorePassword) {
         this.trustStoreFile = trustStoreFile;
@@ -107,8 +309,42 @@ public class HugeClientBuilder {
         return this;
     }
 
+    /**
+     * Open a span for every api call by the tracer, null means no tracing
+     */
+    public HugeClientBuilder configTracer(RequestTracer tracer) {
+        this.tracer = tracer;
+        return this;
+    }
+
+    /**
+     * Send the requests by the transport like Http2Transport, null means
+     * the default pooled HTTP/1.1 transport
+     */
+    public HugeClientBuilder configTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
     public HugeClientBuilder configUrl(String url) {
         this.url = url;
+        this.urls = null;
+        return this;
+    }
+
+    /**
+     * Distribute the requests across multiple servers of the cluster
+     */
+    public HugeClientBuilder configUrls(String... urls) {
+        E.checkArgument(urls != null && urls.length > 0,
+                        "The urls parameter can't be empty");
+        for (String url : urls) {
+            E.checkArgument(url != null && !url.isEmpty(),
+                            "Expect a string value as the url, " +
+                            "but got: %s", url);
+        }
+        this.url = urls[0];
+        this.urls = Collections.unmodifiableList(Arrays.asList(urls.clone()));
         return this;
     }
 
@@ -125,10 +361,29 @@ public class HugeClientBuilder {
         return this;
     }
 
+    /**
+     * Open the connections to every server when the client is built,
+     * 0 means open them on demand
+     */
+    public HugeClientBuilder configWarmUp(int connections) {
+        E.checkArgument(connections >= 0,
+                        "The warm-up connections must be >= 0, " +
+                        "but got %s", connections);
+        this.warmUpConnections = connections;
+        return this;
+    }
+
     public String url() {
         return this.url;
     }
 
+    public List<String> urls() {
+        if (this.urls == null) {
+            return Collections.singletonList(this.url);
+        }
+        return this.urls;
+    }
+
     public String graph() {
         return this.graph;
     }
@@ -164,4 +419,77 @@ public class HugeClientBuilder {
     public String trustStorePassword() {
         return this.trustStorePassword;
     }
+
+    public int asyncThreads() {
+        // Keep one worker for each pooled connection by default
+        return this.asyncThreads > 0 ? this.asyncThreads : this.maxConns;
+    }
+
+    public int schemaCacheTtl() {
+        return this.schemaCacheTtl;
+    }
+
+    public LoadBalancer.Strategy balanceStrategy() {
+        return this.balanceStrategy;
+    }
+
+    public int healthCheckInterval() {
+        return this.healthCheckInterval;
+    }
+
+    public Transport transport() {
+        return this.transport;
+    }
+
+    public RetryPolicy retryPolicy() {
+        return this.retryPolicy;
+    }
+
+    public ConcurrencyLimiter limiter() {
+        return this.limiter;
+    }
+
+    public HedgingPolicy hedgingPolicy() {
+        return this.hedgingPolicy;
+    }
+
+    public ClientMetrics metrics() {
+        return this.metrics;
+    }
+
+    public RequestTracer tracer() {
+        return this.tracer;
+    }
+
+    public SlowCallLog slowCallLog() {
+        return this.slowCallLog;
+    }
+
+    public boolean compression() {
+        return this.compression;
+    }
+
+    public int compressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    public ContentCompression.Codec batchCodec() {
+        return this.batchCodec;
+    }
+
+    public int batchLevel() {
+        return this.batchLevel;
+    }
+
+    public int warmUpConnections() {
+        return this.warmUpConnections;
+    }
+
+    public String apiVersion() {
+        return this.apiVersion;
+    }
+
+    public boolean apiVersionCache() {
+        return this.apiVersionCache;
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.util.E;
+import jakarta.ws.rs.ProcessingException;
+
+/**
+ * Hand out the clients of many graphs which share one rest client, so all
+ * the graphs share the connection pool, the policies and the api version
+ * checked once when the factory is created.
+ *
+ * The client of a graph is created on first use and cached, creating it
+ * costs no request. The auth context of a graph is sent with the requests
+ * to the graph, unless the thread has set an auth context.
+ */
+public class HugeClientFactory implements Closeable {
+
+    private final HugeClientBuilder builder;
+    private final RestClient client;
+    private final Map<String, HugeClient> clients;
+    private volatile boolean closed;
+
+    public HugeClientFactory(HugeClientBuilder builder) {
+        E.checkArgumentNotNull(builder, "The builder can't be null");
+        this.builder = builder;
+        try {
+            this.client = HugeClient.newRestClient(builder);
+        } catch (ProcessingException e) {
+            throw new ClientException("Failed to connect url '%s'",
+                                      builder.url());
+        }
+        try {
+            HugeClient.initApiVersion(this.client, builder);
+            if (builder.warmUpConnections() > 0) {
+                this.client.warmUp(builder.warmUpConnections());
+            }
+        } catch (Throwable e) {
+            this.client.close();
+            throw e;
+        }
+        this.clients = new ConcurrentHashMap<>();
+        this.closed = false;
+    }
+
+    /**
+     * Get the client of the graph configured by the builder
+     */
+    public HugeClient client() {
+        return this.client(this.builder.graph());
+    }
+
+    public HugeClient client(String graph) {
+        E.checkArgument(graph != null && !graph.isEmpty(),
+                        "The graph can't be null or empty");
+        E.checkState(!this.closed, "The client factory has been closed");
+        return this.clients.computeIfAbsent(graph, g -> {
+            return new HugeClient(this.client, g, this.builder);
+        });
+    }
+
+    /**
+     * Get the client of the graph and set the auth context of the graph,
+     * which replaces the auth context set before
+     */
+    public HugeClient client(String graph, String auth) {
+        HugeClient client = this.client(graph);
+        this.client.setGraphAuthContext(graph, auth);
+        return client;
+    }
+
+    /**
+     * Close the client of the graph and forget the auth context of it
+     */
+    public void release(String graph) {
+        HugeClient client = this.clients.remove(graph);
+        if (client != null) {
+            client.close();
+        }
+        this.client.resetGraphAuthContext(graph);
+    }
+
+    public int size() {
+        return this.clients.size();
+    }
+
+    public RestClient restClient() {
+        return this.client;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            for (HugeClient client : this.clients.values()) {
+                client.close();
+            }
+            this.clients.clear();
+        } finally {
+            this.client.close();
+        }
+    }
+}
@@ -50,4 +50,11 @@ public class MetricsManager {
     public Map<String, Map<String, Object>> all() {
         return this.metricsAPI.all();
     }
+
+    /**
+     * Poll the metrics in background and keep the samples in memory
+     */
+    public MetricsPoller.Builder poller() {
+        return new MetricsPoller.Builder(this);
+    }
 }
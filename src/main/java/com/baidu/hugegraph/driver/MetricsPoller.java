@@ -0,0 +1,540 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * Sample the server metrics on a schedule in background, flatten the
+ * nested maps into numeric metrics named like "system.heap.used", compute
+ * the per second rates of counters between samples, and keep the last
+ * samples of every metric in memory.
+ *
+ * The listeners subscribed to a metric are notified when its smoothed
+ * value, the mean rate of a counter or the mean value of a gauge over the
+ * last samples, goes above the threshold and when it falls back.
+ */
+public class MetricsPoller implements Closeable {
+
+    private static final Logger LOG = Log.logger(MetricsPoller.class);
+
+    public static final long DEFAULT_INTERVAL = 10000L;
+    public static final int DEFAULT_CAPACITY = 60;
+    public static final int DEFAULT_WINDOW = 5;
+
+    private final MetricsManager metrics;
+    private final long interval;
+    private final int capacity;
+    private final int window;
+    private final Set<Source> sources;
+    private final Predicate<String> counters;
+
+    private final Map<String, Series> series;
+    private final List<Subscription> subscriptions;
+    private final AtomicLong polls;
+    private final AtomicLong failures;
+    private final ScheduledExecutorService executor;
+
+    private MetricsPoller(Builder builder) {
+        this.metrics = builder.metrics;
+        this.interval = builder.interval;
+        this.capacity = builder.capacity;
+        this.window = builder.window;
+        this.sources = builder.sources;
+        this.counters = builder.counters;
+
+        this.series = new ConcurrentHashMap<>();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.polls = new AtomicLong();
+        this.failures = new AtomicLong();
+
+        if (this.interval > 0L) {
+            this.executor = ExecutorUtil.newScheduledThreadPool(
+                            "metrics-poller-%d");
+            this.executor.scheduleWithFixedDelay(this::pollQuietly, 0L,
+                                                 this.interval,
+                                                 TimeUnit.MILLISECONDS);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Sample the metrics of all sources once and notify the listeners,
+     * it's called by the background thread if the interval is set
+     */
+    public synchronized void poll() {
+        long time = System.currentTimeMillis();
+        for (Source source : this.sources) {
+            Map<String, Map<String, Object>> values;
+            switch (source) {
+                case SYSTEM:
+                    values = this.metrics.system();
+                    break;
+                case BACKEND:
+                    values = this.metrics.backend();
+                    break;
+                case ALL:
+                    values = this.metrics.all();
+                    break;
+                default:
+                    throw new AssertionError(String.format(
+                              "Unknown metrics source '%s'", source));
+            }
+            this.record(time, source.string(), values);
+        }
+        this.polls.incrementAndGet();
+        for (Subscription subscription : this.subscriptions) {
+            this.check(subscription, time);
+        }
+    }
+
+    /**
+     * Notify the listener when the smoothed value of the metric goes above
+     * the threshold, and when it falls back to or below the threshold
+     */
+    public void subscribe(String metric, double threshold,
+                          Consumer<Alert> listener) {
+        E.checkArgumentNotNull(metric, "The metric name can't be null");
+        E.checkArgumentNotNull(listener, "The alert listener can't be null");
+        this.subscriptions.add(new Subscription(metric, threshold,
+                                                listener));
+    }
+
+    public void unsubscribe(Consumer<Alert> listener) {
+        this.subscriptions.removeIf(s -> s.listener == listener);
+    }
+
+    /**
+     * The names of all the sampled metrics in order
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(new TreeSet<>(
+                                           this.series.keySet()));
+    }
+
+    /**
+     * The snapshot of a metric, null if it's never sampled
+     */
+    public Metric metric(String name) {
+        Series series = this.series.get(name);
+        return series == null ? null : series.snapshot(this.window);
+    }
+
+    public long polls() {
+        return this.polls.get();
+    }
+
+    public long failures() {
+        return this.failures.get();
+    }
+
+    @Override
+    public void close() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            this.poll();
+        } catch (Throwable e) {
+            this.failures.incrementAndGet();
+            LOG.warn("Failed to poll the server metrics", e);
+        }
+    }
+
+    private void record(long time, String prefix, Map<?, ?> values) {
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            String name = prefix + "." + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                this.record(time, name, (Map<?, ?>) value);
+            } else if (value instanceof Number) {
+                Series series = this.series.computeIfAbsent(name, k -> {
+                    Type type = this.counters.test(k) ?
+                                Type.COUNTER : Type.GAUGE;
+                    return new Series(k, type, this.capacity);
+                });
+                series.add(time, ((Number) value).doubleValue());
+            }
+            // The non-numeric values like units and names are skipped
+        }
+    }
+
+    private void check(Subscription subscription, long time) {
+        Metric metric = this.metric(subscription.metric);
+        if (metric == null || Double.isNaN(metric.smoothed())) {
+            return;
+        }
+        boolean exceeded = metric.smoothed() > subscription.threshold;
+        if (exceeded == subscription.exceeded) {
+            return;
+        }
+        subscription.exceeded = exceeded;
+        Alert alert = new Alert(time, metric, subscription.threshold,
+                                exceeded);
+        try {
+            subscription.listener.accept(alert);
+        } catch (Throwable e) {
+            LOG.warn("Alert listener threw exception for {}", alert, e);
+        }
+    }
+
+    /**
+     * Whether a metric is a counter by default: the count of counters,
+     * histograms, meters and timers, and the accumulated gc, thread and
+     * class loading numbers of system
+     */
+    public static boolean isCounter(String name) {
+        if (name.startsWith("all.")) {
+            return !name.startsWith("all.gauges.") &&
+                   name.endsWith(".count");
+        }
+        return name.startsWith("system.garbage_collector.") ||
+               name.equals("system.thread.total_started") ||
+               name.equals("system.class_loading.loaded") ||
+               name.equals("system.class_loading.unloaded");
+    }
+
+    public enum Source {
+
+        SYSTEM,
+        BACKEND,
+        ALL;
+
+        public String string() {
+            return this.name().toLowerCase();
+        }
+    }
+
+    public enum Type {
+
+        GAUGE,
+        COUNTER
+    }
+
+    private static class Series {
+
+        private final String name;
+        private final Type type;
+        private final int capacity;
+        private final Deque<Sample> samples;
+
+        public Series(String name, Type type, int capacity) {
+            this.name = name;
+            this.type = type;
+            this.capacity = capacity;
+            this.samples = new ArrayDeque<>(capacity);
+        }
+
+        public synchronized void add(long time, double value) {
+            double rate = Double.NaN;
+            Sample last = this.samples.peekLast();
+            if (this.type == Type.COUNTER && last != null &&
+                time > last.time && value >= last.value) {
+                // The counter is reset if it goes down, like server restart
+                rate = (value - last.value) * 1000D / (time - last.time);
+            }
+            if (this.samples.size() >= this.capacity) {
+                this.samples.removeFirst();
+            }
+            this.samples.addLast(new Sample(time, value, rate));
+        }
+
+        public synchronized Metric snapshot(int window) {
+            return new Metric(this.name, this.type,
+                              new ArrayList<>(this.samples), window);
+        }
+    }
+
+    private static class Subscription {
+
+        private final String metric;
+        private final double threshold;
+        private final Consumer<Alert> listener;
+        private volatile boolean exceeded;
+
+        public Subscription(String metric, double threshold,
+                            Consumer<Alert> listener) {
+            this.metric = metric;
+            this.threshold = threshold;
+            this.listener = listener;
+            this.exceeded = false;
+        }
+    }
+
+    public static class Sample {
+
+        private final long time;
+        private final double value;
+        private final double rate;
+
+        public Sample(long time, double value, double rate) {
+            this.time = time;
+            this.value = value;
+            this.rate = rate;
+        }
+
+        /**
+         * The time in ms when the sample is taken
+         */
+        public long time() {
+            return this.time;
+        }
+
+        public double value() {
+            return this.value;
+        }
+
+        /**
+         * The per second rate since the previous sample, NaN for gauges,
+         * the first sample and the sample after a counter reset
+         */
+        public double rate() {
+            return this.rate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sample{time=%s, value=%s, rate=%s}",
+                                 this.time, this.value, this.rate);
+        }
+    }
+
+    public static class Metric {
+
+        private final String name;
+        private final Type type;
+        private final List<Sample> samples;
+        private final double smoothed;
+
+        public Metric(String name, Type type, List<Sample> samples,
+                      int window) {
+            this.name = name;
+            this.type = type;
+            this.samples = Collections.unmodifiableList(samples);
+            this.smoothed = smooth(type, samples, window);
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public Type type() {
+            return this.type;
+        }
+
+        /**
+         * The samples from the oldest to the latest
+         */
+        public List<Sample> samples() {
+            return this.samples;
+        }
+
+        public double value() {
+            return this.latest().value;
+        }
+
+        public double rate() {
+            return this.latest().rate;
+        }
+
+        /**
+         * The mean rate of a counter or the mean value of a gauge over the
+         * last window samples, NaN if a counter has no rate yet
+         */
+        public double smoothed() {
+            return this.smoothed;
+        }
+
+        private Sample latest() {
+            return this.samples.get(this.samples.size() - 1);
+        }
+
+        private static double smooth(Type type, List<Sample> samples,
+                                     int window) {
+            double sum = 0D;
+            int count = 0;
+            int from = Math.max(0, samples.size() - window);
+            for (Sample sample : samples.subList(from, samples.size())) {
+                double value = type == Type.COUNTER ?
+                               sample.rate : sample.value;
+                if (!Double.isNaN(value)) {
+                    sum += value;
+                    count++;
+                }
+            }
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Metric{name=%s, type=%s, value=%s, " +
+                                 "smoothed=%s}", this.name, this.type,
+                                 this.value(), this.smoothed);
+        }
+    }
+
+    public static class Alert {
+
+        private final long time;
+        private final Metric metric;
+        private final double threshold;
+        private final boolean exceeded;
+
+        public Alert(long time, Metric metric, double threshold,
+                     boolean exceeded) {
+            this.time = time;
+            this.metric = metric;
+            this.threshold = threshold;
+            this.exceeded = exceeded;
+        }
+
+        public long time() {
+            return this.time;
+        }
+
+        public Metric metric() {
+            return this.metric;
+        }
+
+        public double threshold() {
+            return this.threshold;
+        }
+
+        /**
+         * True if the metric goes above the threshold, false if it falls
+         * back
+         */
+        public boolean exceeded() {
+            return this.exceeded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Alert{metric=%s, smoothed=%s, " +
+                                 "threshold=%s, exceeded=%s}",
+                                 this.metric.name(), this.metric.smoothed(),
+                                 this.threshold, this.exceeded);
+        }
+    }
+
+    public static class Builder {
+
+        private final MetricsManager metrics;
+        private long interval;
+        private int capacity;
+        private int window;
+        private Set<Source> sources;
+        private Predicate<String> counters;
+
+        public Builder(MetricsManager metrics) {
+            E.checkNotNull(metrics, "metrics manager");
+            this.metrics = metrics;
+            this.interval = DEFAULT_INTERVAL;
+            this.capacity = DEFAULT_CAPACITY;
+            this.window = DEFAULT_WINDOW;
+            this.sources = EnumSet.of(Source.SYSTEM);
+            this.counters = MetricsPoller::isCounter;
+        }
+
+        /**
+         * The interval in ms between polls, 0 means only poll when poll()
+         * is called
+         */
+        public Builder interval(long interval) {
+            E.checkArgument(interval >= 0L,
+                            "The interval must be >= 0, but got %s",
+                            interval);
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * The max number of samples to keep for every metric
+         */
+        public Builder capacity(int capacity) {
+            E.checkArgument(capacity > 0,
+                            "The capacity must be > 0, but got %s",
+                            capacity);
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * The number of the last samples to smooth the alerted values
+         */
+        public Builder window(int window) {
+            E.checkArgument(window > 0,
+                            "The window must be > 0, but got %s", window);
+            this.window = window;
+            return this;
+        }
+
+        public Builder sources(Source... sources) {
+            E.checkArgument(sources.length > 0,
+                            "The metrics sources can't be empty");
+            this.sources = EnumSet.of(sources[0], sources);
+            return this;
+        }
+
+        /**
+         * Decide which metrics are counters by the name, the others are
+         * gauges
+         */
+        public Builder counters(Predicate<String> counters) {
+            E.checkArgumentNotNull(counters,
+                                   "The counter predicate can't be null");
+            this.counters = counters;
+            return this;
+        }
+
+        public MetricsPoller build() {
+            E.checkArgument(this.window <= this.capacity,
+                            "The window %s can't be larger than " +
+                            "the capacity %s", this.window, this.capacity);
+            return new MetricsPoller(this);
+        }
+    }
+}
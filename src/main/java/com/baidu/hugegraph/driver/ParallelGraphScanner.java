@@ -0,0 +1,439 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.driver;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.baidu.hugegraph.client.RequestContext;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.structure.GraphElement;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Pageable;
+import com.baidu.hugegraph.structure.graph.ScanCheckpoint;
+import com.baidu.hugegraph.structure.graph.ScanCheckpoint.ShardState;
+import com.baidu.hugegraph.structure.graph.Shard;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.ExecutorUtil;
+
+import static com.baidu.hugegraph.structure.constant.Traverser.DEFAULT_PAGE_LIMIT;
+
+/**
+ * Scan all the vertices or edges of a graph by shards, the shards are
+ * scanned concurrently by a worker pool, and the fetched pages are handed
+ * to the consumer through a bounded queue.
+ *
+ * The progress is recorded in a ScanCheckpoint after a page is consumed,
+ * pass the saved checkpoint to a new scanner to resume a broken scan.
+ *
+ * NOTE: the streams returned by scanVertices() and scanEdges() must be
+ * closed if they are not read to the end, like a stream stopped early by
+ * findFirst(), otherwise the workers are not stopped until the stream is
+ * garbage collected.
+ */
+public class ParallelGraphScanner implements Closeable {
+
+    public static final long DEFAULT_SPLIT_SIZE = 64L * 1024 * 1024;
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+    private static final Object END = new Object();
+    // The interval to check if the stream is closed while the queue is full
+    private static final long OFFER_TIMEOUT = 100L;
+
+    private final TraverserManager traverser;
+    private final long splitSize;
+    private final long pageSize;
+    private final int workers;
+    private final int queueCapacity;
+    private final ScanCheckpoint checkpoint;
+    private final Consumer<ScanCheckpoint> listener;
+
+    private ExecutorService executor;
+    private volatile boolean closed;
+
+    private ParallelGraphScanner(Builder builder) {
+        this.traverser = builder.traverser;
+        this.splitSize = builder.splitSize;
+        this.pageSize = builder.pageSize;
+        this.workers = builder.workers;
+        this.queueCapacity = builder.queueCapacity;
+        this.checkpoint = builder.checkpoint != null ?
+                          builder.checkpoint : new ScanCheckpoint();
+        this.listener = builder.listener;
+        this.executor = null;
+        this.closed = false;
+    }
+
+    public ScanCheckpoint checkpoint() {
+        return this.checkpoint;
+    }
+
+    /**
+     * Scan vertices as a stream, the stream must be closed if it's not
+     * read to the end
+     */
+    public Stream<Vertex> scanVertices() {
+        return this.stream(this.traverser::vertexShards,
+                           this.traverser::vertices);
+    }
+
+    public Stream<Edge> scanEdges() {
+        return this.stream(this.traverser::edgeShards,
+                           this.traverser::edges);
+    }
+
+    /**
+     * Scan vertices and pass every page to the consumer in worker threads,
+     * this method returns after all the shards are scanned
+     */
+    public void scanVertices(PageConsumer<Vertex> consumer) {
+        this.scan(this.traverser::vertexShards, this.traverser::vertices,
+                  consumer);
+    }
+
+    public void scanEdges(PageConsumer<Edge> consumer) {
+        this.scan(this.traverser::edgeShards, this.traverser::edges,
+                  consumer);
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    private synchronized List<ShardState> prepare(
+                                          LongFunction<List<Shard>> lister) {
+        E.checkState(this.executor == null,
+                     "The scanner can only be used once");
+        if (!this.checkpoint.initialized()) {
+            this.checkpoint.init(lister.apply(this.splitSize));
+        }
+        List<ShardState> pending = new ArrayList<>();
+        for (ShardState state : this.checkpoint.shards()) {
+            if (!state.finished()) {
+                pending.add(state);
+            }
+        }
+        int threads = Math.max(1, Math.min(this.workers, pending.size()));
+        this.executor = ExecutorUtil.newFixedThreadPool(threads,
+                                                        "graph-scanner-%d");
+        return pending;
+    }
+
+    private <T extends GraphElement> void scan(
+                                     LongFunction<List<Shard>> lister,
+                                     PageFetcher<T> fetcher,
+                                     PageConsumer<T> consumer) {
+        E.checkArgumentNotNull(consumer, "The page consumer can't be null");
+        List<ShardState> pending = this.prepare(lister);
+        // The shards are fetched by the workers, pass the request context
+        RequestContext context = this.traverser.context();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (ShardState state : pending) {
+            Supplier<Void> worker = context.wrap(() -> {
+                try {
+                    this.fetchShard(state, fetcher, page -> {
+                        consumer.accept(state.shard(), page.elements);
+                        this.commit(page);
+                    });
+                    return null;
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ClientException("Failed to scan shard %s",
+                                              e, state.shard());
+                }
+            });
+            futures.add(CompletableFuture.supplyAsync(worker, this.executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                             .join();
+        } catch (CompletionException e) {
+            throw new ClientException("Failed to scan shards", e.getCause());
+        } finally {
+            this.close();
+        }
+    }
+
+    private <T extends GraphElement> Stream<T> stream(
+                                     LongFunction<List<Shard>> lister,
+                                     PageFetcher<T> fetcher) {
+        List<ShardState> pending = this.prepare(lister);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(
+                                      this.queueCapacity);
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        if (pending.isEmpty()) {
+            queue.add(END);
+        }
+        Iterator<T> iterator = new PageIterator<>(queue);
+        // The workers stop if the stream is dropped without being closed
+        WeakReference<Iterator<T>> reader = new WeakReference<>(iterator);
+        RequestContext context = this.traverser.context();
+        for (ShardState state : pending) {
+            Supplier<Void> worker = context.wrap(() -> {
+                try {
+                    this.fetchShard(state, fetcher, page -> {
+                        this.offer(queue, page, reader);
+                    });
+                    if (remaining.decrementAndGet() == 0) {
+                        this.offer(queue, END, reader);
+                    }
+                } catch (InterruptedException ignored) {
+                    // The scanner is closed
+                } catch (Throwable e) {
+                    try {
+                        this.offer(queue, e, reader);
+                    } catch (InterruptedException ignored) {
+                        // The scanner is closed
+                    }
+                }
+                return null;
+            });
+            this.executor.execute(worker::get);
+        }
+        int flags = Spliterator.ORDERED | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                                    iterator, flags), false)
+                            .onClose(this::close);
+    }
+
+    private <T extends GraphElement> void fetchShard(ShardState state,
+                                                     PageFetcher<T> fetcher,
+                                                     PageSink<T> sink)
+                                                     throws Exception {
+        String page = state.page();
+        do {
+            Pageable<T> result = fetcher.fetch(state.shard(), page,
+                                               this.pageSize);
+            page = result.page();
+            sink.accept(new Page<>(state, result.results(), page));
+        } while (page != null);
+    }
+
+    private void offer(BlockingQueue<Object> queue, Object item,
+                       WeakReference<?> reader)
+                       throws InterruptedException {
+        while (!queue.offer(item, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            if (this.closed || reader.get() == null) {
+                this.close();
+                throw new InterruptedException("The scanner is closed");
+            }
+        }
+    }
+
+    private void commit(Page<?> page) {
+        this.checkpoint.commit(page.state, page.next, page.elements.size());
+        if (this.listener != null) {
+            this.listener.accept(this.checkpoint);
+        }
+    }
+
+    private class PageIterator<T extends GraphElement> implements Iterator<T> {
+
+        private final BlockingQueue<Object> queue;
+        private Page<T> current;
+        private int cursor;
+        private boolean finished;
+
+        public PageIterator(BlockingQueue<Object> queue) {
+            this.queue = queue;
+            this.current = null;
+            this.cursor = 0;
+            this.finished = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.finished && (this.current == null ||
+                   this.cursor >= this.current.elements.size())) {
+                if (this.current != null) {
+                    // All elements of the page have been consumed
+                    commit(this.current);
+                    this.current = null;
+                }
+                this.fetch();
+            }
+            return !this.finished;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current.elements.get(this.cursor++);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void fetch() {
+            Object object;
+            try {
+                object = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while scanning", e);
+            }
+            if (object == END) {
+                this.finished = true;
+                close();
+            } else if (object instanceof Throwable) {
+                this.finished = true;
+                close();
+                throw new ClientException("Failed to scan shards",
+                                          (Throwable) object);
+            } else {
+                this.current = (Page<T>) object;
+                this.cursor = 0;
+            }
+        }
+    }
+
+    private static class Page<T> {
+
+        private final ShardState state;
+        private final List<T> elements;
+        private final String next;
+
+        public Page(ShardState state, List<T> elements, String next) {
+            this.state = state;
+            this.elements = elements;
+            this.next = next;
+        }
+    }
+
+    @FunctionalInterface
+    public interface PageConsumer<T> {
+
+        void accept(Shard shard, List<T> elements);
+    }
+
+    @FunctionalInterface
+    private interface PageFetcher<T extends GraphElement> {
+
+        Pageable<T> fetch(Shard shard, String page, long pageLimit);
+    }
+
+    @FunctionalInterface
+    private interface PageSink<T> {
+
+        void accept(Page<T> page) throws Exception;
+    }
+
+    public static class Builder {
+
+        private final TraverserManager traverser;
+        private long splitSize;
+        private long pageSize;
+        private int workers;
+        private int queueCapacity;
+        private ScanCheckpoint checkpoint;
+        private Consumer<ScanCheckpoint> listener;
+
+        public Builder(TraverserManager traverser) {
+            E.checkNotNull(traverser, "traverser manager");
+            this.traverser = traverser;
+            this.splitSize = DEFAULT_SPLIT_SIZE;
+            this.pageSize = DEFAULT_PAGE_LIMIT;
+            this.workers = DEFAULT_WORKERS;
+            this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+            this.checkpoint = null;
+            this.listener = null;
+        }
+
+        public Builder splitSize(long splitSize) {
+            E.checkArgument(splitSize > 0L,
+                            "The split size must be > 0, but got %s",
+                            splitSize);
+            this.splitSize = splitSize;
+            return this;
+        }
+
+        public Builder pageSize(long pageSize) {
+            E.checkArgument(pageSize > 0L,
+                            "The page size must be > 0, but got %s",
+                            pageSize);
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        public Builder workers(int workers) {
+            E.checkArgument(workers > 0,
+                            "The workers must be > 0, but got %s", workers);
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * The max number of fetched pages waiting to be consumed
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            E.checkArgument(queueCapacity > 0,
+                            "The queue capacity must be > 0, but got %s",
+                            queueCapacity);
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Resume from a checkpoint saved by a previous scan
+         */
+        public Builder checkpoint(ScanCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        /**
+         * Called after every consumed page, it may be called from the
+         * worker threads when scanning with a page consumer
+         */
+        public Builder onCheckpoint(Consumer<ScanCheckpoint> listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public ParallelGraphScanner build() {
+            return new ParallelGraphScanner(this);
+        }
+    }
+}
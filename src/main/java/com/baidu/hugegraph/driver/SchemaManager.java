@@ -56,6 +56,10 @@ public class SchemaManager {
         this.taskAPI = new TaskAPI(client, graph);
     }
 
+    protected TaskAPI taskAPI() {
+        return this.taskAPI;
+    }
+
     public PropertyKey.Builder propertyKey(String name) {
         PropertyKey.Builder builder = new PropertyKey.BuilderImpl(name, this);
         BuilderProxy<PropertyKey.Builder> proxy = new BuilderProxy<>(builder);
@@ -45,7 +45,9 @@ import com.baidu.hugegraph.api.traverser.SingleSourceShortestPathAPI;
 import com.baidu.hugegraph.api.traverser.TemplatePathsAPI;
 import com.baidu.hugegraph.api.traverser.VerticesAPI;
 import com.baidu.hugegraph.api.traverser.WeightedShortestPathAPI;
+import com.baidu.hugegraph.client.RequestContext;
 import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
 import com.baidu.hugegraph.structure.constant.Direction;
 import com.baidu.hugegraph.structure.graph.Edge;
 import com.baidu.hugegraph.structure.graph.Edges;
@@ -70,6 +72,7 @@ import com.baidu.hugegraph.structure.traverser.CustomizedPathsRequest;
 import com.baidu.hugegraph.structure.traverser.PathsRequest;
 import com.baidu.hugegraph.structure.traverser.Ranks;
 import com.baidu.hugegraph.structure.traverser.TemplatePathsRequest;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
 import com.baidu.hugegraph.structure.traverser.WeightedPath;
 import com.baidu.hugegraph.structure.traverser.WeightedPaths;
 import com.baidu.hugegraph.util.E;
@@ -183,6 +186,17 @@ public class TraverserManager {
                                          label, degree, limit);
     }
 
+    /**
+     * Like sameNeighbors(), but the numeric ids are kept in a primitive
+     * long array, prefer it when the result contains lots of numeric ids
+     */
+    public VertexIds sameNeighborsIds(Object vertexId, Object otherId,
+                                      Direction direction, String label,
+                                      long degree, long limit) {
+        return this.sameNeighborsAPI.getIds(vertexId, otherId, direction,
+                                            label, degree, limit);
+    }
+
     public Path shortestPath(Object sourceId, Object targetId, int maxDepth) {
         return this.shortestPath(sourceId, targetId, Direction.BOTH, null,
                                  maxDepth);
@@ -336,6 +350,20 @@ public class TraverserManager {
                                  maxDepth, degree, capacity, limit);
     }
 
+    /**
+     * Read the paths from the response stream one by one, the returned
+     * iterator must be closed if not read to the end
+     */
+    public JsonStreamIterator<Path> streamPaths(Object sourceId,
+                                                Object targetId,
+                                                Direction direction,
+                                                String label, int maxDepth,
+                                                long degree, long capacity,
+                                                long limit) {
+        return this.pathsAPI.stream(sourceId, targetId, direction, label,
+                                    maxDepth, degree, capacity, limit);
+    }
+
     public PathsWithVertices paths(PathsRequest request) {
         return this.pathsAPI.post(request);
     }
@@ -390,10 +418,30 @@ public class TraverserManager {
                                 degree, capacity, limit);
     }
 
+    /**
+     * Like kout(), but the numeric ids are kept in a primitive long array,
+     * prefer it when the result contains lots of numeric ids
+     */
+    public VertexIds koutIds(Object sourceId, Direction direction,
+                             String label, int depth, boolean nearest,
+                             long degree, long capacity, long limit) {
+        return this.koutAPI.getIds(sourceId, direction, label, depth,
+                                   nearest, degree, capacity, limit);
+    }
+
     public Kout kout(KoutRequest request) {
         return this.koutAPI.post(request);
     }
 
+    /**
+     * Like kout(request), but only the ids are returned and the numeric
+     * ids are kept in a primitive long array, the request can't ask for
+     * the count, paths or vertices
+     */
+    public VertexIds koutIds(KoutRequest request) {
+        return this.koutAPI.postIds(request);
+    }
+
     public List<Object> kneighbor(Object sourceId, int depth) {
         return this.kneighbor(sourceId, Direction.BOTH, null, depth);
     }
@@ -416,10 +464,30 @@ public class TraverserManager {
                                      degree, limit);
     }
 
+    /**
+     * Like kneighbor(), but the numeric ids are kept in a primitive long
+     * array, prefer it when the result contains lots of numeric ids
+     */
+    public VertexIds kneighborIds(Object sourceId, Direction direction,
+                                  String label, int depth,
+                                  long degree, long limit) {
+        return this.kneighborAPI.getIds(sourceId, direction, label, depth,
+                                        degree, limit);
+    }
+
     public Kneighbor kneighbor(KneighborRequest request) {
         return this.kneighborAPI.post(request);
     }
 
+    /**
+     * Like kneighbor(request), but only the ids are returned and the
+     * numeric ids are kept in a primitive long array, the request can't
+     * ask for the count, paths or vertices
+     */
+    public VertexIds kneighborIds(KneighborRequest request) {
+        return this.kneighborAPI.postIds(request);
+    }
+
     public long count(CountRequest request) {
         return this.countAPI.post(request);
     }
@@ -475,6 +543,17 @@ public class TraverserManager {
         return this.personalRankAPI.post(request);
     }
 
+    /**
+     * Capture the request context of current thread, see RestClient.context()
+     */
+    public RequestContext context() {
+        return this.graphManager.context();
+    }
+
+    public ParallelGraphScanner.Builder parallelScanner() {
+        return new ParallelGraphScanner.Builder(this);
+    }
+
     public List<Shard> vertexShards(long splitSize) {
         return this.verticesAPI.shards(splitSize);
     }
@@ -514,6 +593,22 @@ public class TraverserManager {
         return vertices;
     }
 
+    /**
+     * Read a page of vertices of the shard from the response stream one by
+     * one, the page token to fetch next can be got by page() after all
+     * vertices are read, the returned iterator must be closed if not read
+     * to the end
+     */
+    public JsonStreamIterator<Vertex> streamVertices(Shard shard, String page,
+                                                     long pageLimit) {
+        E.checkArgument(page == null || pageLimit >= 0,
+                        "Page limit must be >= 0 when page is not null");
+        return this.verticesAPI.scanStream(shard, page, pageLimit)
+                               .attach(vertex -> {
+                                   vertex.attachManager(this.graphManager);
+                               });
+    }
+
     public Iterator<Vertex> iteratorVertices(Shard shard, int sizePerPage) {
         return new GraphIterator<>(this.graphManager, sizePerPage, (page) -> {
             return this.vertices(shard, page, sizePerPage);
@@ -550,6 +645,16 @@ public class TraverserManager {
         return edges;
     }
 
+    public JsonStreamIterator<Edge> streamEdges(Shard shard, String page,
+                                                long pageLimit) {
+        E.checkArgument(page == null || pageLimit >= 0,
+                        "Page limit must be >= 0 when page is not null");
+        return this.edgesAPI.scanStream(shard, page, pageLimit)
+                            .attach(edge -> {
+                                edge.attachManager(this.graphManager);
+                            });
+    }
+
     public Iterator<Edge> iteratorEdges(Shard shard, int sizePerPage) {
         return new GraphIterator<>(this.graphManager, sizePerPage, (page) -> {
             return this.edges(shard, page, sizePerPage);
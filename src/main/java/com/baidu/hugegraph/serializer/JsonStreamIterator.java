@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.serializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.baidu.hugegraph.rest.SerializeException;
+import com.baidu.hugegraph.util.E;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Read the elements of a json array like {"key": [elem1, elem2, ...]} one
+ * by one from a stream, so that only one element is kept in memory at a
+ * time. The scalar fields beside the array (like "page") can be got after
+ * all elements are read.
+ */
+public class JsonStreamIterator<T> implements Iterator<T>, Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final InputStream input;
+    private final JsonParser parser;
+    private final String key;
+    private final Class<T> clazz;
+    private final Map<String, String> fields;
+    private Consumer<T> attacher;
+    private T current;
+    private boolean finished;
+    private boolean closed;
+
+    public static void registerModule(Module module) {
+        MAPPER.registerModule(module);
+    }
+
+    public JsonStreamIterator(InputStream input, String key, Class<T> clazz) {
+        E.checkNotNull(input, "input");
+        E.checkNotNull(key, "key");
+        E.checkNotNull(clazz, "clazz");
+        this.input = input;
+        this.key = key;
+        this.clazz = clazz;
+        this.fields = new HashMap<>();
+        this.attacher = null;
+        this.current = null;
+        this.finished = false;
+        this.closed = false;
+        try {
+            this.parser = MAPPER.getFactory().createParser(input);
+            if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializeException("Expect a json object, " +
+                                             "but got '%s'",
+                                             this.parser.currentToken());
+            }
+            this.seekArray();
+        } catch (IOException e) {
+            this.close();
+            throw new SerializeException("Failed to read json stream", e);
+        } catch (RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Set a consumer to be called with every element before it's returned
+     */
+    public JsonStreamIterator<T> attach(Consumer<T> attacher) {
+        this.attacher = attacher;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.current != null) {
+            return true;
+        }
+        if (this.finished || this.closed) {
+            return false;
+        }
+        try {
+            JsonToken token = this.parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                // Read the remaining fields like "page" and release the stream
+                this.readFields();
+                this.finished = true;
+                this.close();
+                return false;
+            }
+            this.current = MAPPER.readValue(this.parser, this.clazz);
+        } catch (IOException e) {
+            this.close();
+            throw new SerializeException("Failed to read json stream", e);
+        }
+        if (this.attacher != null) {
+            this.attacher.accept(this.current);
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T elem = this.current;
+        this.current = null;
+        return elem;
+    }
+
+    /**
+     * The page to fetch next, null means there is no more page
+     */
+    public String page() {
+        if (!this.fields.containsKey("page")) {
+            E.checkState(this.finished,
+                         "The page can only be got after all elements " +
+                         "are read");
+        }
+        return this.fields.get("page");
+    }
+
+    public boolean finished() {
+        return this.finished;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.input.close();
+        } catch (IOException ignored) {
+            // Nothing to do if failed to release the connection
+        }
+    }
+
+    private void seekArray() throws IOException {
+        while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = this.parser.getCurrentName();
+            JsonToken token = this.parser.nextToken();
+            if (this.key.equals(name)) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new SerializeException("Expect an array of " +
+                                                 "the key: %s, but got '%s'",
+                                                 this.key, token);
+                }
+                return;
+            }
+            this.readField(name, token);
+        }
+        throw new SerializeException("Can't find value of the key: %s " +
+                                     "in json.", this.key);
+    }
+
+    private void readFields() throws IOException {
+        while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = this.parser.getCurrentName();
+            this.readField(name, this.parser.nextToken());
+        }
+    }
+
+    private void readField(String name, JsonToken token) throws IOException {
+        if (token.isScalarValue()) {
+            this.fields.put(name, token == JsonToken.VALUE_NULL ?
+                                  null : this.parser.getText());
+        } else {
+            this.parser.skipChildren();
+        }
+    }
+}
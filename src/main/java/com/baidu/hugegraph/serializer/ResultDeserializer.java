@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.serializer;
+
+import java.io.IOException;
+
+import com.baidu.hugegraph.rest.SerializeException;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Path;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Deserialize an item of gremlin result data into Vertex, Edge or Path by
+ * the 'type' or 'labels' field, or into the plain java object (map, list,
+ * number, string...) if it's none of them.
+ *
+ * An object item is read once into a token buffer to find the type, then
+ * only the typed object is bound from the buffered tokens. The plain object
+ * of a typed item is bound from the kept tokens when it's first asked for,
+ * so the item is never written back to json and parsed again, and the
+ * plain maps aren't built for the callers only reading the typed items.
+ */
+public class ResultDeserializer
+       extends JsonDeserializer<ResultDeserializer.Item> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Override
+    public Item deserialize(JsonParser parser, DeserializationContext ctxt)
+                            throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return new Item(ctxt.readValue(parser, Object.class));
+        }
+
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.writeStartObject();
+        String type = null;
+        boolean typed = false;
+        boolean labeled = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("type".equals(field) && token != JsonToken.VALUE_NULL) {
+                typed = true;
+                if (token == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                }
+            } else if ("labels".equals(field) &&
+                       token != JsonToken.VALUE_NULL) {
+                labeled = true;
+            }
+            buffer.writeFieldName(field);
+            copyValue(parser, buffer);
+        }
+        buffer.writeEndObject();
+
+        Class<?> clazz = typed ? typeClass(type) :
+                         labeled ? Path.class : null;
+        if (clazz == null) {
+            return new Item(readValue(buffer, parser, ctxt, Object.class));
+        }
+        return new Item(buffer, readValue(buffer, parser, ctxt, clazz));
+    }
+
+    private static Object readValue(TokenBuffer buffer, JsonParser parser,
+                                    DeserializationContext ctxt,
+                                    Class<?> clazz) throws IOException {
+        JsonParser buffered = buffer.asParser(parser);
+        buffered.nextToken();
+        return ctxt.readValue(buffered, clazz);
+    }
+
+    private static void copyValue(JsonParser parser, TokenBuffer buffer)
+                                  throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                // TokenBuffer keeps the exact BigDecimal, read it as double
+                buffer.writeNumber(parser.getDoubleValue());
+            } else {
+                buffer.copyCurrentEvent(parser);
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        } while (depth > 0 && parser.nextToken() != null);
+    }
+
+    private static Class<?> typeClass(String type) {
+        if ("vertex".equals(type)) {
+            return Vertex.class;
+        } else if ("edge".equals(type)) {
+            return Edge.class;
+        }
+        return null;
+    }
+
+    /**
+     * The plain object of an item and the typed object, they are the same
+     * if the item is not a vertex, edge or path
+     */
+    public static class Item {
+
+        // The tokens of a typed item until the plain object is bound
+        private TokenBuffer buffer;
+        private Object value;
+        private final Object typedValue;
+
+        public Item(Object value) {
+            this.buffer = null;
+            this.value = value;
+            this.typedValue = value;
+        }
+
+        public Item(TokenBuffer buffer, Object typedValue) {
+            this.buffer = buffer;
+            this.value = null;
+            this.typedValue = typedValue;
+        }
+
+        public synchronized Object value() {
+            if (this.buffer != null) {
+                try {
+                    this.value = MAPPER.readValue(this.buffer.asParser(),
+                                                  Object.class);
+                } catch (IOException e) {
+                    throw new SerializeException(
+                              "Failed to deserialize result item", e);
+                }
+                // Release the tokens once the plain object is bound
+                this.buffer = null;
+            }
+            return this.value;
+        }
+
+        public Object typedValue() {
+            return this.typedValue;
+        }
+    }
+}
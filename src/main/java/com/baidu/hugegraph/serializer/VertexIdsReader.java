@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.baidu.hugegraph.rest.SerializeException;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
+import com.baidu.hugegraph.util.E;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Read the vertex ids array like {"key": [id1, id2, ...]} from a stream,
+ * the numeric ids are decoded from the tokens as primitive longs without
+ * boxing, other ids are read through the generic object path.
+ */
+public final class VertexIdsReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private VertexIdsReader() {
+    }
+
+    public static VertexIds read(InputStream input, String key) {
+        E.checkNotNull(input, "input");
+        E.checkNotNull(key, "key");
+        try (InputStream stream = input;
+             JsonParser parser = FACTORY.createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializeException("Expect a json object, " +
+                                             "but got '%s'",
+                                             parser.currentToken());
+            }
+            seekArray(parser, key);
+            return readIds(parser);
+        } catch (IOException e) {
+            throw new SerializeException("Failed to read vertex ids", e);
+        }
+    }
+
+    private static void seekArray(JsonParser parser, String key)
+                                  throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (key.equals(name)) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new SerializeException("Expect an array of " +
+                                                 "the key: %s, but got '%s'",
+                                                 key, token);
+                }
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new SerializeException("Can't find value of the key: %s " +
+                                     "in json.", key);
+    }
+
+    private static VertexIds readIds(JsonParser parser) throws IOException {
+        VertexIds.Builder builder = new VertexIds.Builder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new SerializeException("Unexpected end of the " +
+                                             "vertex ids array");
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT &&
+                parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                builder.add(parser.getLongValue());
+            } else {
+                builder.add(MAPPER.readValue(parser, Object.class));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -19,12 +19,19 @@
 
 package com.baidu.hugegraph.structure.graph;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import com.baidu.hugegraph.driver.GraphManager;
+import com.baidu.hugegraph.rest.ClientException;
 import com.baidu.hugegraph.structure.GraphElement;
 import com.baidu.hugegraph.util.E;
 
@@ -33,6 +40,11 @@ public class GraphIterator<T extends GraphElement> implements Iterator<T> {
     private final GraphManager graphManager;
     private final int sizePerPage;
     private final Function<String, Pageable<T>> pageFetcher;
+    private final int prefetch;
+    private final Executor executor;
+    // The pages being fetched in background, a null page means no more
+    private final Deque<CompletableFuture<Pageable<T>>> prefetched;
+    private CompletableFuture<Pageable<T>> lastPrefetched;
     private List<T> results;
     private String page;
     private int cursor;
@@ -40,11 +52,33 @@ public class GraphIterator<T extends GraphElement> implements Iterator<T> {
 
     public GraphIterator(final GraphManager graphManager, final int sizePerPage,
                          final Function<String, Pageable<T>> pageFetcher) {
+        this(graphManager, sizePerPage, pageFetcher, 0, null);
+    }
+
+    /**
+     * @param prefetch the max number of pages fetched ahead in background,
+     *                 the next page is requested as soon as the previous
+     *                 page arrives, 0 means fetch a page only when needed
+     * @param executor the executor fetching the pages in background, it's
+     *                 only required if prefetch > 0
+     */
+    public GraphIterator(final GraphManager graphManager, final int sizePerPage,
+                         final Function<String, Pageable<T>> pageFetcher,
+                         final int prefetch, final Executor executor) {
         E.checkNotNull(graphManager, "Graph manager");
         E.checkNotNull(pageFetcher, "Page fetcher");
+        E.checkArgument(prefetch >= 0,
+                        "The prefetch pages must be >= 0, but got %s",
+                        prefetch);
+        E.checkArgument(prefetch == 0 || executor != null,
+                        "The executor can't be null if prefetch pages > 0");
         this.graphManager = graphManager;
         this.sizePerPage = sizePerPage;
         this.pageFetcher = pageFetcher;
+        this.prefetch = prefetch;
+        this.executor = executor;
+        this.prefetched = new ArrayDeque<>(prefetch);
+        this.lastPrefetched = null;
         this.results = null;
         this.page = "";
         this.cursor = 0;
@@ -64,7 +98,17 @@ public class GraphIterator<T extends GraphElement> implements Iterator<T> {
         if (this.finished) {
             return;
         }
-        Pageable<T> pageable = this.pageFetcher.apply(this.page);
+        Pageable<T> pageable;
+        if (this.prefetch > 0) {
+            pageable = this.takePrefetched();
+            if (pageable == null) {
+                this.results = Collections.emptyList();
+                this.finished = true;
+                return;
+            }
+        } else {
+            pageable = this.pageFetcher.apply(this.page);
+        }
         this.results = pageable.results();
         this.page = pageable.page();
         this.cursor = 0;
@@ -76,6 +120,44 @@ public class GraphIterator<T extends GraphElement> implements Iterator<T> {
         }
     }
 
+    private Pageable<T> takePrefetched() {
+        if (this.lastPrefetched == null) {
+            String first = this.page;
+            this.lastPrefetched = CompletableFuture.supplyAsync(() -> {
+                return this.pageFetcher.apply(first);
+            }, this.executor);
+            this.prefetched.add(this.lastPrefetched);
+        }
+        CompletableFuture<Pageable<T>> future = this.prefetched.poll();
+        assert future != null;
+        // Keep the prefetch depth before waiting for the head page
+        this.fillPrefetched();
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            this.prefetched.forEach(f -> f.cancel(false));
+            this.prefetched.clear();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ClientException("Failed to fetch page", cause);
+        }
+    }
+
+    private void fillPrefetched() {
+        while (this.prefetched.size() < this.prefetch) {
+            this.lastPrefetched = this.lastPrefetched.thenApplyAsync(prev -> {
+                if (prev == null || prev.page() == null ||
+                    prev.results().size() < this.sizePerPage) {
+                    return null;
+                }
+                return this.pageFetcher.apply(prev.page());
+            }, this.executor);
+            this.prefetched.add(this.lastPrefetched);
+        }
+    }
+
     @Override
     public T next() {
         if (!this.hasNext()) {
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.structure.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.baidu.hugegraph.util.E;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The progress of a shard scan, record the next page of every shard, it
+ * can be serialized to json and be used to resume a broken scan.
+ */
+public class ScanCheckpoint {
+
+    @JsonProperty("shards")
+    private List<ShardState> shards;
+
+    public ScanCheckpoint() {
+        this.shards = new ArrayList<>();
+    }
+
+    public ScanCheckpoint(List<Shard> shards) {
+        this.shards = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            this.shards.add(new ShardState(shard));
+        }
+    }
+
+    public synchronized boolean initialized() {
+        return !this.shards.isEmpty();
+    }
+
+    public synchronized void init(List<Shard> shards) {
+        E.checkState(this.shards.isEmpty(),
+                     "The checkpoint has been initialized");
+        for (Shard shard : shards) {
+            this.shards.add(new ShardState(shard));
+        }
+    }
+
+    public synchronized List<ShardState> shards() {
+        return new ArrayList<>(this.shards);
+    }
+
+    public synchronized int totalShards() {
+        return this.shards.size();
+    }
+
+    public synchronized int finishedShards() {
+        int count = 0;
+        for (ShardState state : this.shards) {
+            if (state.finished) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized long scanned() {
+        long count = 0L;
+        for (ShardState state : this.shards) {
+            count += state.scanned;
+        }
+        return count;
+    }
+
+    public synchronized boolean finished() {
+        return this.finishedShards() == this.shards.size();
+    }
+
+    /**
+     * Mark a page of the shard has been consumed
+     * @param state   the shard state to update
+     * @param next    the page to fetch next, null means the shard is done
+     * @param scanned the number of elements in the consumed page
+     */
+    public synchronized void commit(ShardState state, String next,
+                                    long scanned) {
+        state.page = next;
+        state.finished = next == null;
+        state.scanned += scanned;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ScanCheckpoint{shards=%s, finished=%s, " +
+                             "scanned=%s}", this.shards.size(),
+                             this.finishedShards(), this.scanned());
+    }
+
+    public static class ShardState {
+
+        @JsonProperty("shard")
+        private Shard shard;
+        // The page token to fetch next, empty means the first page
+        @JsonProperty("page")
+        private String page;
+        @JsonProperty("finished")
+        private boolean finished;
+        @JsonProperty("scanned")
+        private long scanned;
+
+        public ShardState() {
+        }
+
+        public ShardState(Shard shard) {
+            this.shard = shard;
+            this.page = "";
+            this.finished = false;
+            this.scanned = 0L;
+        }
+
+        public Shard shard() {
+            return this.shard;
+        }
+
+        public String page() {
+            return this.page;
+        }
+
+        public boolean finished() {
+            return this.finished;
+        }
+
+        public long scanned() {
+            return this.scanned;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ShardState{shard=%s, page=%s, " +
+                                 "finished=%s, scanned=%s}", this.shard,
+                                 this.page, this.finished, this.scanned);
+        }
+    }
+}
@@ -25,7 +25,7 @@ import com.baidu.hugegraph.structure.graph.Vertex;
 
 public class Result {
 
-    private Object object;
+    private final Object object;
 
     public Result(Object object) {
         this.object = object;
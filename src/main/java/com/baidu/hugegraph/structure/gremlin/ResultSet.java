@@ -19,108 +19,97 @@
 
 package com.baidu.hugegraph.structure.gremlin;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
 import com.baidu.hugegraph.driver.GraphManager;
-import com.baidu.hugegraph.rest.SerializeException;
-import com.baidu.hugegraph.serializer.PathDeserializer;
+import com.baidu.hugegraph.serializer.ResultDeserializer;
 import com.baidu.hugegraph.structure.constant.GraphAttachable;
-import com.baidu.hugegraph.structure.graph.Edge;
-import com.baidu.hugegraph.structure.graph.Path;
-import com.baidu.hugegraph.structure.graph.Vertex;
 import com.baidu.hugegraph.util.E;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 public class ResultSet {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     private GraphManager graphManager = null;
 
-    @JsonProperty
-    private List<Object> data;
+    // The items decoded into Vertex/Edge/Path when reading the response
+    @JsonProperty("data")
+    @JsonDeserialize(contentUsing = ResultDeserializer.class)
+    private List<ResultDeserializer.Item> items;
     @JsonProperty
     private Map<String, ?> meta;
 
-    static {
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(Path.class, new PathDeserializer());
-        MAPPER.registerModule(module);
-    }
+    // The plain items like maps for vertices, edges and paths, built lazily
+    private volatile List<Object> data = null;
+    // Built lazily, a Result may be built twice by concurrent readers
+    private volatile Result[] results = null;
 
     public void graphManager(GraphManager graphManager) {
         this.graphManager = graphManager;
     }
 
     public List<Object> data() {
-        return this.data;
+        if (this.items == null) {
+            return null;
+        }
+        List<Object> data = this.data;
+        if (data == null) {
+            synchronized (this) {
+                data = this.data;
+                if (data == null) {
+                    data = new ArrayList<>(this.items.size());
+                    for (ResultDeserializer.Item item : this.items) {
+                        data.add(item == null ? null : item.value());
+                    }
+                    this.data = data;
+                }
+            }
+        }
+        return data;
     }
 
     public int size() {
-        return this.data.size();
+        return this.items.size();
     }
 
     public Result get(int index) {
-        if (index >= this.data.size()) {
+        if (index >= this.items.size()) {
             return null;
         }
 
-        Object object = this.data().get(index);
-        if (object == null) {
+        ResultDeserializer.Item item = this.items.get(index);
+        if (item == null || item.typedValue() == null) {
             return null;
         }
-
-        Class<?> clazz = this.parseResultClass(object);
-        // Primitive type
-        if (clazz.equals(object.getClass())) {
-            return new Result(object);
-        }
-
-        try {
-            String rawValue = MAPPER.writeValueAsString(object);
-            object = MAPPER.readValue(rawValue, clazz);
-            if (object instanceof GraphAttachable) {
-                ((GraphAttachable) object).attachManager(graphManager);
+        Object object = item.typedValue();
+
+        Result[] results = this.results;
+        if (results == null) {
+            synchronized (this) {
+                results = this.results;
+                if (results == null) {
+                    results = new Result[this.items.size()];
+                    this.results = results;
+                }
             }
-            return new Result(object);
-        } catch (Exception e) {
-            throw new SerializeException(
-                      "Failed to deserialize: %s", e, object);
         }
-    }
-
-    /**
-     * TODO: Still need to constantly add and optimize
-     */
-    private Class<?> parseResultClass(Object object) {
-        if (object.getClass().equals(LinkedHashMap.class)) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = (Map<String, Object>) object;
-            String type = (String) map.get("type");
-            if (type != null) {
-                if ("vertex".equals(type)) {
-                    return Vertex.class;
-                } else if ("edge".equals(type)) {
-                    return Edge.class;
-                }
-            } else {
-                if (map.get("labels") != null) {
-                    return Path.class;
-                }
+        Result result = results[index];
+        if (result == null) {
+            if (object instanceof GraphAttachable) {
+                ((GraphAttachable) object).attachManager(this.graphManager);
             }
+            result = new Result(object);
+            results[index] = result;
         }
-
-        return object.getClass();
+        return result;
     }
 
     public Iterator<Result> iterator() {
-        E.checkState(this.data != null, "Invalid response from server");
+        E.checkState(this.items != null, "Invalid response from server");
         E.checkState(this.graphManager != null, "Must hold a graph manager");
 
         return new Iterator<Result>() {
@@ -129,7 +118,7 @@ public class ResultSet {
 
             @Override
             public boolean hasNext() {
-                return this.index < ResultSet.this.data.size();
+                return this.index < ResultSet.this.items.size();
             }
 
             @Override
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.structure.traverser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import com.baidu.hugegraph.util.E;
+
+/**
+ * A list of vertex ids returned by the traversers. The numeric ids are kept
+ * in a primitive long array to avoid boxing millions of ids, it falls back
+ * to a generic list once a non-numeric id (like string or uuid) is met.
+ *
+ * NOTE: a numeric id is always got as a Long, even in the generic list,
+ * unlike the List<Object> of kout() which holds an Integer for a small id.
+ * contains() accepts any integral number for a numeric id.
+ */
+public final class VertexIds extends AbstractList<Object>
+                             implements RandomAccess {
+
+    private final long[] longIds;
+    private final List<Object> ids;
+    private final int size;
+    // Built by the first contains(), the sorted long ids or the id set
+    private volatile long[] sortedIds;
+    private volatile Set<Object> idSet;
+
+    private VertexIds(long[] longIds, int size) {
+        this.longIds = longIds;
+        this.ids = null;
+        this.size = size;
+        this.sortedIds = null;
+        this.idSet = null;
+    }
+
+    private VertexIds(List<Object> ids) {
+        this.longIds = null;
+        this.ids = ids;
+        this.size = ids.size();
+        this.sortedIds = null;
+        this.idSet = null;
+    }
+
+    /**
+     * Whether all the ids are numeric, only then getLong() and
+     * toLongArray() can be called
+     */
+    public boolean numeric() {
+        return this.longIds != null;
+    }
+
+    public long getLong(int index) {
+        E.checkState(this.numeric(), "The vertex ids are not all numeric");
+        this.checkIndex(index);
+        return this.longIds[index];
+    }
+
+    public long[] toLongArray() {
+        E.checkState(this.numeric(), "The vertex ids are not all numeric");
+        return Arrays.copyOf(this.longIds, this.size);
+    }
+
+    @Override
+    public Object get(int index) {
+        if (this.ids != null) {
+            return this.ids.get(index);
+        }
+        this.checkIndex(index);
+        return this.longIds[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object id) {
+        if (isIntegral(id)) {
+            id = ((Number) id).longValue();
+        }
+        if (this.ids != null) {
+            Set<Object> idSet = this.idSet;
+            if (idSet == null) {
+                idSet = new HashSet<>(this.ids);
+                this.idSet = idSet;
+            }
+            return idSet.contains(id);
+        }
+        if (!(id instanceof Long)) {
+            return false;
+        }
+        long[] sortedIds = this.sortedIds;
+        if (sortedIds == null) {
+            sortedIds = Arrays.copyOf(this.longIds, this.size);
+            Arrays.sort(sortedIds);
+            this.sortedIds = sortedIds;
+        }
+        return Arrays.binarySearch(sortedIds, (Long) id) >= 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(String.format(
+                      "Index: %s, Size: %s", index, this.size));
+        }
+    }
+
+    private static boolean isIntegral(Object id) {
+        return id instanceof Long || id instanceof Integer ||
+               id instanceof Short || id instanceof Byte;
+    }
+
+    public static class Builder {
+
+        private static final int INIT_CAPACITY = 16;
+
+        private long[] longIds;
+        private List<Object> ids;
+        private int size;
+
+        public Builder() {
+            this.longIds = new long[INIT_CAPACITY];
+            this.ids = null;
+            this.size = 0;
+        }
+
+        public Builder add(long id) {
+            if (this.ids != null) {
+                this.ids.add(id);
+                return this;
+            }
+            if (this.size == this.longIds.length) {
+                this.longIds = Arrays.copyOf(this.longIds, this.size << 1);
+            }
+            this.longIds[this.size++] = id;
+            return this;
+        }
+
+        public Builder add(Object id) {
+            E.checkArgumentNotNull(id, "The vertex id can't be null");
+            if (isIntegral(id)) {
+                // Keep the numeric ids as long like the decoded ones
+                return this.add(((Number) id).longValue());
+            }
+            if (this.ids == null) {
+                // Met the first non-numeric id, box the previous ones
+                this.ids = new ArrayList<>(this.size + INIT_CAPACITY);
+                for (int i = 0; i < this.size; i++) {
+                    this.ids.add(this.longIds[i]);
+                }
+                this.longIds = null;
+            }
+            this.ids.add(id);
+            return this;
+        }
+
+        public VertexIds build() {
+            if (this.ids != null) {
+                return new VertexIds(this.ids);
+            }
+            return new VertexIds(this.longIds, this.size);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.util;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.baidu.hugegraph.structure.GraphElement;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+
+public final class SizeUtil {
+
+    /**
+     * Estimate the size in bytes of the json format of an object roughly,
+     * which is used to limit or compress the request bodies
+     */
+    public static long estimateSize(Object object) {
+        if (object instanceof GraphElement) {
+            return estimateElementSize((GraphElement) object);
+        } else if (object instanceof String) {
+            return ((String) object).length() + 2L;
+        } else if (object instanceof Collection) {
+            long size = 2L;
+            for (Object item : (Collection<?>) object) {
+                size += estimateSize(item) + 1L;
+            }
+            return size;
+        } else if (object instanceof Map) {
+            long size = 2L;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                size += estimateSize(String.valueOf(entry.getKey())) + 2L;
+                size += estimateSize(entry.getValue());
+            }
+            return size;
+        } else {
+            return 16L;
+        }
+    }
+
+    private static long estimateElementSize(GraphElement element) {
+        long size = 32L;
+        if (element.label() != null) {
+            size += element.label().length();
+        }
+        if (element instanceof Vertex) {
+            Object id = ((Vertex) element).id();
+            size += id == null ? 0L : id.toString().length();
+        } else if (element instanceof Edge) {
+            Edge edge = (Edge) element;
+            size += edge.sourceId().toString().length() +
+                    edge.targetId().toString().length();
+        }
+        for (Map.Entry<String, Object> entry :
+             element.properties().entrySet()) {
+            size += entry.getKey().length() + 6L;
+            size += estimateSize(entry.getValue());
+        }
+        return size;
+    }
+}
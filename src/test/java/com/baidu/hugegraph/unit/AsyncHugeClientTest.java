@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.Deadline;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.driver.AsyncHugeClient;
+import com.baidu.hugegraph.driver.GraphManager;
+import com.baidu.hugegraph.driver.GremlinManager;
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.driver.SchemaManager;
+import com.baidu.hugegraph.driver.TraverserManager;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+
+public class AsyncHugeClientTest extends BaseUnitTest {
+
+    private HugeClient client;
+    private RestClient restClient;
+    private GraphManager graph;
+    private TraverserManager traverser;
+    private AsyncHugeClient async;
+
+    @Before
+    public void setup() {
+        this.client = Mockito.mock(HugeClient.class);
+        this.graph = Mockito.mock(GraphManager.class);
+        this.traverser = Mockito.mock(TraverserManager.class);
+        Mockito.when(this.client.graph()).thenReturn(this.graph);
+        Mockito.when(this.client.traverser()).thenReturn(this.traverser);
+        Mockito.when(this.client.schema())
+               .thenReturn(Mockito.mock(SchemaManager.class));
+        Mockito.when(this.client.gremlin())
+               .thenReturn(Mockito.mock(GremlinManager.class));
+        this.restClient = new RestClient("http://127.0.0.1:8080",
+                                         new RestClient.ConfigBuilder()
+                                                       .build());
+        this.async = new AsyncHugeClient(this.client, this.restClient, 2);
+    }
+
+    @After
+    public void teardown() {
+        this.async.close();
+        this.restClient.close();
+    }
+
+    @Test
+    public void testGetVertex() throws Exception {
+        Vertex vertex = new Vertex("person");
+        vertex.id("person:marko");
+        Mockito.when(this.graph.getVertex("person:marko")).thenReturn(vertex);
+
+        CompletableFuture<Vertex> future = this.async.graph()
+                                                     .getVertex("person:marko");
+        Assert.assertSame(vertex, future.get());
+    }
+
+    @Test
+    public void testKout() throws Exception {
+        Mockito.when(this.traverser.kout(Mockito.eq(1), Mockito.any(),
+                                         Mockito.any(), Mockito.eq(2),
+                                         Mockito.anyBoolean(),
+                                         Mockito.anyLong(), Mockito.anyLong(),
+                                         Mockito.anyLong()))
+               .thenReturn(ImmutableList.of(2, 3));
+
+        Assert.assertEquals(ImmutableList.of(2, 3),
+                            this.async.traverser().kout(1, 2).get());
+    }
+
+    @Test
+    public void testRequestContextPropagated() throws Exception {
+        Deadline[] deadline = new Deadline[1];
+        Mockito.when(this.graph.getVertex(1)).thenAnswer(invocation -> {
+            deadline[0] = Deadline.current();
+            Vertex vertex = new Vertex("person");
+            vertex.id(this.restClient.getAuthContext());
+            return vertex;
+        });
+
+        this.restClient.setAuthContext("token");
+        try (Deadline expected = Deadline.start(Duration.ofSeconds(5))) {
+            Vertex vertex = this.async.graph().getVertex(1).get();
+            Assert.assertEquals("token", vertex.id());
+            Assert.assertSame(expected, deadline[0]);
+        } finally {
+            this.restClient.resetAuthContext();
+        }
+    }
+
+    @Test
+    public void testExceptionCompletesFuture() {
+        Mockito.when(this.graph.getVertex(1))
+               .thenThrow(new ServerException("Not found"));
+
+        CompletableFuture<Vertex> future = this.async.graph().getVertex(1);
+        Assert.assertThrows(ExecutionException.class, future::get, e -> {
+            Assert.assertInstanceOf(ServerException.class, e.getCause());
+        });
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.driver.BulkWriter;
+import com.baidu.hugegraph.driver.GraphManager;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.structure.GraphElement;
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.testutil.Assert;
+
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class BulkWriterTest extends BaseUnitTest {
+
+    private RestClient restClient;
+    private GraphManager graph;
+    private List<Integer> batchSizes;
+
+    @Before
+    public void setup() {
+        this.restClient = new RestClient("http://127.0.0.1:8080",
+                                         new RestClient.ConfigBuilder()
+                                                       .build());
+        this.graph = Mockito.mock(GraphManager.class);
+        Mockito.when(this.graph.context())
+               .thenAnswer(invocation -> this.restClient.context());
+        this.batchSizes = new CopyOnWriteArrayList<>();
+        Mockito.when(this.graph.addVertices(Mockito.anyList()))
+               .thenAnswer(invocation -> {
+                   List<?> batch = invocation.getArgument(0);
+                   this.batchSizes.add(batch.size());
+                   return batch;
+               });
+        Mockito.when(this.graph.bulkWriter())
+               .thenReturn(new BulkWriter.Builder(this.graph));
+    }
+
+    @After
+    public void teardown() {
+        this.restClient.close();
+    }
+
+    @Test
+    public void testFlushByBatchSize() {
+        try (BulkWriter writer = this.graph.bulkWriter()
+                                           .batchSize(3)
+                                           .lingerMs(0L)
+                                           .build()) {
+            for (int i = 0; i < 7; i++) {
+                writer.add(vertex(i));
+            }
+            writer.flush();
+            Assert.assertEquals(7L, writer.writtenVertices());
+        }
+        Assert.assertEquals(3, this.batchSizes.size());
+        Assert.assertEquals(7, this.batchSizes.stream()
+                                              .mapToInt(Integer::intValue)
+                                              .sum());
+    }
+
+    @Test
+    public void testFlushByBatchBytes() {
+        try (BulkWriter writer = this.graph.bulkWriter()
+                                           .batchBytes(1L)
+                                           .lingerMs(0L)
+                                           .build()) {
+            writer.add(vertex(1));
+            writer.add(vertex(2));
+            writer.flush();
+        }
+        Assert.assertEquals(2, this.batchSizes.size());
+    }
+
+    @Test
+    public void testFlushByLinger() throws InterruptedException {
+        try (BulkWriter writer = this.graph.bulkWriter()
+                                           .lingerMs(10L)
+                                           .build()) {
+            writer.add(vertex(1));
+            for (int i = 0; i < 100 && writer.writtenVertices() == 0L; i++) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(1L, writer.writtenVertices());
+        }
+    }
+
+    @Test
+    public void testFailureCallback() {
+        Mockito.when(this.graph.addEdges(Mockito.anyList(),
+                                         Mockito.anyBoolean()))
+               .thenThrow(new ServerException("Invalid vertex"));
+
+        List<GraphElement> failed = new CopyOnWriteArrayList<>();
+        try (BulkWriter writer = this.graph.bulkWriter()
+                                           .batchSize(2)
+                                           .onFailure((elem, e) -> {
+                                               failed.add(elem);
+                                           })
+                                           .build()) {
+            writer.add(edge(1, 2));
+            writer.add(edge(2, 3));
+            writer.flush();
+            Assert.assertEquals(2L, writer.failedElements());
+            Assert.assertEquals(0L, writer.writtenEdges());
+        }
+        Assert.assertEquals(2, failed.size());
+    }
+
+    @Test
+    public void testPostVerticesBeforeEdges() {
+        AtomicInteger writtenVertices = new AtomicInteger();
+        Mockito.when(this.graph.addVertices(Mockito.anyList()))
+               .thenAnswer(invocation -> {
+                   List<?> batch = invocation.getArgument(0);
+                   Thread.sleep(50L);
+                   writtenVertices.addAndGet(batch.size());
+                   return batch;
+               });
+        List<Integer> checkedVertices = new CopyOnWriteArrayList<>();
+        Mockito.when(this.graph.addEdges(Mockito.anyList(),
+                                         Mockito.eq(true)))
+               .thenAnswer(invocation -> {
+                   checkedVertices.add(writtenVertices.get());
+                   return invocation.getArgument(0);
+               });
+
+        try (BulkWriter writer = this.graph.bulkWriter()
+                                           .batchSize(2)
+                                           .lingerMs(0L)
+                                           .build()) {
+            writer.add(vertex(1));
+            writer.add(vertex(2));
+            writer.add(vertex(3));
+            writer.add(edge(1, 2));
+            writer.add(edge(2, 3));
+            writer.flush();
+        }
+        // The 3 vertices are written before the edge batch is posted
+        Assert.assertEquals(1, checkedVertices.size());
+        Assert.assertEquals(3, (int) checkedVertices.get(0));
+    }
+
+    @Test
+    public void testAuthOfFlushedBatch() throws IOException,
+                                                InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(json(201, "[1, 2]"));
+        server.start();
+        RestClient client = newClient(server);
+        GraphManager graph = new GraphManager(client, "hugegraph");
+        client.setAuthContext("token");
+        try (BulkWriter writer = graph.bulkWriter().lingerMs(0L).build()) {
+            writer.add(vertex(1));
+            writer.add(vertex(2));
+            // Posted by a worker of the writer
+            writer.flush();
+            Assert.assertEquals(2L, writer.writtenVertices());
+        } finally {
+            client.resetAuthContext();
+            client.close();
+        }
+
+        RecordedRequest request = server.takeRequest();
+        server.shutdown();
+        Assert.assertEquals("/graphs/hugegraph/graph/vertices/batch",
+                            request.getPath());
+        Assert.assertEquals("token", request.getHeader("Authorization"));
+    }
+
+    @Test
+    public void testAddAfterClose() {
+        BulkWriter writer = this.graph.bulkWriter().build();
+        writer.close();
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            writer.add(vertex(1));
+        });
+    }
+
+    private static Vertex vertex(int id) {
+        Vertex vertex = new Vertex("person");
+        vertex.id(id);
+        vertex.property("name", "name-" + id);
+        return vertex;
+    }
+
+    private static Edge edge(int source, int target) {
+        Edge edge = new Edge("knows");
+        edge.sourceId(source);
+        edge.targetId(target);
+        return edge;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.api.schema.EdgeLabelAPI;
+import com.baidu.hugegraph.api.schema.IndexLabelAPI;
+import com.baidu.hugegraph.api.schema.PropertyKeyAPI;
+import com.baidu.hugegraph.api.schema.VertexLabelAPI;
+import com.baidu.hugegraph.api.task.TaskAPI;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.driver.CachingSchemaManager;
+import com.baidu.hugegraph.structure.Task;
+import com.baidu.hugegraph.structure.schema.PropertyKey;
+import com.baidu.hugegraph.structure.schema.VertexLabel;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.testutil.Whitebox;
+import com.google.common.collect.ImmutableList;
+
+public class CachingSchemaManagerTest extends BaseUnitTest {
+
+    private PropertyKeyAPI propertyKeyAPI;
+    private VertexLabelAPI vertexLabelAPI;
+    private EdgeLabelAPI edgeLabelAPI;
+    private IndexLabelAPI indexLabelAPI;
+    private TaskAPI taskAPI;
+    private CachingSchemaManager schema;
+
+    @Before
+    public void setup() {
+        this.propertyKeyAPI = Mockito.mock(PropertyKeyAPI.class);
+        this.vertexLabelAPI = Mockito.mock(VertexLabelAPI.class);
+        this.edgeLabelAPI = Mockito.mock(EdgeLabelAPI.class);
+        this.indexLabelAPI = Mockito.mock(IndexLabelAPI.class);
+        this.taskAPI = Mockito.mock(TaskAPI.class);
+
+        Mockito.when(this.propertyKeyAPI.list())
+               .thenReturn(ImmutableList.of(new PropertyKey("name"),
+                                            new PropertyKey("age")));
+        Mockito.when(this.vertexLabelAPI.list())
+               .thenReturn(ImmutableList.of(new VertexLabel("person")));
+        Mockito.when(this.edgeLabelAPI.list()).thenReturn(ImmutableList.of());
+        Mockito.when(this.indexLabelAPI.list()).thenReturn(ImmutableList.of());
+
+        this.schema = this.newSchemaManager(0L);
+    }
+
+    @Test
+    public void testGetFromCache() {
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("name",
+                                this.schema.getPropertyKey("name").name());
+            Assert.assertEquals("person",
+                                this.schema.getVertexLabel("person").name());
+        }
+        Assert.assertEquals(2, this.schema.getPropertyKeys().size());
+
+        Mockito.verify(this.propertyKeyAPI, Mockito.times(1)).list();
+        Mockito.verify(this.propertyKeyAPI, Mockito.never())
+               .get(Mockito.anyString());
+        Assert.assertEquals(21L, this.schema.hits());
+        Assert.assertEquals(0L, this.schema.misses());
+    }
+
+    @Test
+    public void testGetMissing() {
+        Mockito.when(this.propertyKeyAPI.get("city"))
+               .thenReturn(new PropertyKey("city"));
+
+        Assert.assertEquals("city", this.schema.getPropertyKey("city").name());
+        Assert.assertEquals("city", this.schema.getPropertyKey("city").name());
+
+        Mockito.verify(this.propertyKeyAPI, Mockito.times(1)).get("city");
+        Assert.assertEquals(1L, this.schema.hits());
+        Assert.assertEquals(1L, this.schema.misses());
+    }
+
+    @Test
+    public void testGetMissingInBatch() {
+        Mockito.when(this.propertyKeyAPI.list(ImmutableList.of("city",
+                                                               "unknown")))
+               .thenReturn(ImmutableList.of(new PropertyKey("city")));
+
+        // The unknown names are omitted like the batch get of server
+        List<PropertyKey> keys = this.schema.getPropertyKeys(
+                                 ImmutableList.of("name", "city", "unknown"));
+        Assert.assertEquals(2, keys.size());
+        Assert.assertEquals("name", keys.get(0).name());
+        Assert.assertEquals("city", keys.get(1).name());
+
+        Assert.assertEquals("city", this.schema.getPropertyKey("city").name());
+        Mockito.verify(this.propertyKeyAPI, Mockito.never())
+               .get(Mockito.anyString());
+        Assert.assertEquals(2L, this.schema.hits());
+        Assert.assertEquals(2L, this.schema.misses());
+    }
+
+    @Test
+    public void testInvalidateWhileLoadingMissing() {
+        // The schema is changed by another thread while loading the missing
+        Mockito.when(this.propertyKeyAPI.get("city"))
+               .thenAnswer(invocation -> {
+                   this.schema.invalidate();
+                   return new PropertyKey("city");
+               })
+               .thenReturn(new PropertyKey("city"));
+        Mockito.when(this.propertyKeyAPI.list())
+               .thenReturn(ImmutableList.of(new PropertyKey("name"),
+                                            new PropertyKey("age")))
+               .thenReturn(ImmutableList.of(new PropertyKey("name")));
+
+        Assert.assertEquals("city", this.schema.getPropertyKey("city").name());
+        // The element loaded before the invalidation is not cached
+        Assert.assertEquals(1, this.schema.getPropertyKeys().size());
+        Assert.assertEquals("city", this.schema.getPropertyKey("city").name());
+        Mockito.verify(this.propertyKeyAPI, Mockito.times(2)).get("city");
+    }
+
+    @Test
+    public void testInvalidateAfterChange() {
+        VertexLabel software = new VertexLabel("software");
+        Mockito.when(this.vertexLabelAPI.create(software)).thenReturn(software);
+
+        this.schema.getVertexLabel("person");
+        this.schema.addVertexLabel(software);
+        Mockito.when(this.vertexLabelAPI.list())
+               .thenReturn(ImmutableList.of(new VertexLabel("person"),
+                                            software));
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Assert.assertSame(software, this.schema.getVertexLabel("software"));
+
+        Mockito.verify(this.vertexLabelAPI, Mockito.times(2)).list();
+        Mockito.verify(this.vertexLabelAPI, Mockito.never())
+               .get(Mockito.anyString());
+    }
+
+    @Test
+    public void testInvalidateWhileLoading() {
+        // The schema is changed by another thread while loading
+        Mockito.when(this.vertexLabelAPI.list()).thenAnswer(invocation -> {
+            this.schema.invalidate();
+            return ImmutableList.of(new VertexLabel("person"));
+        }).thenReturn(ImmutableList.of(new VertexLabel("person"),
+                                       new VertexLabel("software")));
+
+        Assert.assertEquals(1, this.schema.getVertexLabels().size());
+        // The cache loaded before the invalidation is not kept
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+
+        Mockito.verify(this.vertexLabelAPI, Mockito.times(2)).list();
+    }
+
+    @Test
+    public void testInvalidateAfterAsyncTaskCompleted()
+                throws InterruptedException {
+        Task task = Mockito.mock(Task.class);
+        Mockito.when(task.completed()).thenReturn(false).thenReturn(true);
+        Mockito.when(this.taskAPI.get(5L)).thenReturn(task);
+        Mockito.when(this.vertexLabelAPI.delete("software")).thenReturn(5L);
+        List<VertexLabel> labels = ImmutableList.of(
+                                   new VertexLabel("person"),
+                                   new VertexLabel("software"));
+        Mockito.when(this.vertexLabelAPI.list())
+               .thenReturn(labels).thenReturn(labels)
+               .thenReturn(ImmutableList.of(new VertexLabel("person")));
+
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Assert.assertEquals(5L, this.schema.removeVertexLabelAsync(
+                                "software"));
+        // The label is deleted by the task after the first reloading
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Mockito.verify(this.vertexLabelAPI, Mockito.times(2)).list();
+
+        Thread.sleep(CachingSchemaManager.TASK_CHECK_INTERVAL + 100L);
+        Assert.assertEquals(1, this.schema.getVertexLabels().size());
+        Assert.assertEquals(1, this.schema.getVertexLabels().size());
+        Mockito.verify(this.vertexLabelAPI, Mockito.times(3)).list();
+        Mockito.verify(this.taskAPI, Mockito.times(2)).get(5L);
+    }
+
+    @Test
+    public void testInvalidateAfterWaitingAsyncTask() {
+        Task task = Mockito.mock(Task.class);
+        Mockito.when(this.taskAPI.get(5L)).thenReturn(task);
+        Mockito.when(this.taskAPI.waitUntilTaskSuccess(5L, 10L))
+               .thenReturn(task);
+        Mockito.when(this.vertexLabelAPI.delete("software")).thenReturn(5L);
+        Mockito.when(this.vertexLabelAPI.list())
+               .thenReturn(ImmutableList.of(new VertexLabel("person"),
+                                            new VertexLabel("software")))
+               .thenReturn(ImmutableList.of(new VertexLabel("person")));
+
+        this.schema.removeVertexLabelAsync("software");
+        Assert.assertEquals(2, this.schema.getVertexLabels().size());
+        Assert.assertSame(task, this.schema.waitUntilTaskCompleted(5L, 10L));
+        Assert.assertEquals(1, this.schema.getVertexLabels().size());
+        Assert.assertEquals(1, this.schema.getVertexLabels().size());
+        Mockito.verify(this.vertexLabelAPI, Mockito.times(2)).list();
+    }
+
+    @Test
+    public void testExpiredByTtl() throws InterruptedException {
+        CachingSchemaManager schema = this.newSchemaManager(1L);
+        schema.getPropertyKey("name");
+        schema.getPropertyKey("name");
+        Mockito.verify(this.propertyKeyAPI, Mockito.times(1)).list();
+
+        Thread.sleep(1100L);
+        schema.getPropertyKey("name");
+        Mockito.verify(this.propertyKeyAPI, Mockito.times(2)).list();
+    }
+
+    private CachingSchemaManager newSchemaManager(long ttl) {
+        CachingSchemaManager schema = new CachingSchemaManager(
+                                      Mockito.mock(RestClient.class),
+                                      "hugegraph", ttl);
+        Whitebox.setInternalState(schema, "propertyKeyAPI",
+                                  this.propertyKeyAPI);
+        Whitebox.setInternalState(schema, "vertexLabelAPI",
+                                  this.vertexLabelAPI);
+        Whitebox.setInternalState(schema, "edgeLabelAPI", this.edgeLabelAPI);
+        Whitebox.setInternalState(schema, "indexLabelAPI",
+                                  this.indexLabelAPI);
+        Whitebox.setInternalState(schema, "taskAPI", this.taskAPI);
+        return schema;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.ClientMetrics;
+import com.baidu.hugegraph.client.ClientMetrics.Histogram;
+import com.baidu.hugegraph.client.ClientMetrics.MemoryRegistry;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+public class ClientMetricsTest extends BaseUnitTest {
+
+    private static final String VERTEX = "{\"id\": \"1:marko\"}";
+
+    private MockWebServer server;
+    private MemoryRegistry registry;
+    private RestClient client;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+        this.registry = new MemoryRegistry();
+        this.client = MockServerUtil.newClient(this.server,
+                                               new RestClient.ConfigBuilder()
+                                               .configPool(4, 2)
+                                               .configMetrics(new ClientMetrics(
+                                                              this.registry)));
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.client.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testRecordRequests() {
+        this.server.enqueue(json(200, VERTEX));
+        this.server.enqueue(json(201, "[\"1:marko\"]"));
+        this.server.enqueue(json(404, "{\"exception\": \"NotFound\"}"));
+
+        this.client.get("graphs/hugegraph/graph/vertices", "1:marko");
+        this.client.post("graphs/hugegraph/graph/vertices/batch",
+                         ImmutableList.of(ImmutableMap.of("label",
+                                                          "person")));
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.get("graphs/hugegraph/traversers/kout");
+        });
+
+        Assert.assertEquals(ImmutableList.of("GET kout", "GET vertices",
+                                             "POST vertices"),
+                            ImmutableList.copyOf(this.registry.apis()));
+        Assert.assertEquals(1L, this.count(ClientMetrics.REQUESTS,
+                                           "GET", "vertices"));
+        Assert.assertEquals(0L, this.count(ClientMetrics.ERRORS,
+                                           "GET", "vertices"));
+        Assert.assertEquals(1L, this.count(ClientMetrics.ERRORS,
+                                           "GET", "kout"));
+
+        Histogram latency = this.histogram(ClientMetrics.LATENCY,
+                                           "GET", "vertices");
+        Histogram wait = this.histogram(ClientMetrics.WAIT,
+                                        "GET", "vertices");
+        Assert.assertEquals(1L, latency.count());
+        Assert.assertEquals(1L, wait.count());
+        Assert.assertTrue(wait.max() > 0L);
+        Assert.assertTrue(wait.max() <= latency.max());
+        Assert.assertEquals(1L, this.histogram(ClientMetrics.READ,
+                                               "GET", "vertices").count());
+        Assert.assertEquals(VERTEX.length(),
+                            this.histogram(ClientMetrics.RESPONSE_BYTES,
+                                           "GET", "vertices").sum());
+        Assert.assertTrue(this.histogram(ClientMetrics.REQUEST_BYTES,
+                                         "POST", "vertices").sum() > 0L);
+
+        Assert.assertEquals(4L, this.registry.gauge("pool.max"));
+        Assert.assertEquals(0L, this.registry.gauge("pool.leased"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.registry.gauge("retry.retries");
+        });
+    }
+
+    @Test
+    public void testRecordStream() throws IOException {
+        this.server.enqueue(json(200, "[1, 2, 3]"));
+        try (InputStream stream = this.client.getStream(
+                                  "graphs/hugegraph/traversers/kout",
+                                  ImmutableMap.of())) {
+            Assert.assertEquals("[1, 2, 3]",
+                                IOUtils.toString(stream, "UTF-8"));
+            // Recorded after the stream is closed
+            Assert.assertEquals(0L, this.histogram(
+                                    ClientMetrics.RESPONSE_BYTES,
+                                    "GET", "kout").count());
+        }
+        Assert.assertEquals(9L, this.histogram(ClientMetrics.RESPONSE_BYTES,
+                                               "GET", "kout").sum());
+    }
+
+    @Test
+    public void testRecordConnectFailure() throws IOException {
+        this.server.shutdown();
+        Assert.assertThrows(ClientException.class, () -> {
+            this.client.get("versions");
+        });
+        Assert.assertEquals(1L, this.count(ClientMetrics.ERRORS,
+                                           "GET", "versions"));
+        Assert.assertEquals(0L, this.histogram(ClientMetrics.WAIT,
+                                               "GET", "versions").count());
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(0L, histogram.percentile(50.0));
+        for (int i = 1; i <= 100; i++) {
+            histogram.update(i);
+        }
+        Assert.assertEquals(100L, histogram.count());
+        Assert.assertEquals(5050L, histogram.sum());
+        Assert.assertEquals(100L, histogram.max());
+        Assert.assertEquals(50.5, histogram.mean(), 0.0);
+        // The value 50 is in the bucket [32, 64)
+        Assert.assertEquals(63L, histogram.percentile(50.0));
+        Assert.assertEquals(100L, histogram.percentile(100.0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            histogram.percentile(0.0);
+        });
+    }
+
+    private long count(String name, String method, String api) {
+        return this.registry.count(name, method, api);
+    }
+
+    private Histogram histogram(String name, String method, String api) {
+        return this.registry.histogram(name, method, api);
+    }
+}
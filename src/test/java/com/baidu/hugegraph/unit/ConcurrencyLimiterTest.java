@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.ConcurrencyLimiter;
+import com.baidu.hugegraph.client.ConcurrencyLimiter.Algorithm;
+import com.baidu.hugegraph.client.ConcurrencyLimiter.Permit;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.exception.LimitExceededException;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class ConcurrencyLimiterTest extends BaseUnitTest {
+
+    private static final String ENDPOINT = "http://127.0.0.1:8080";
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    @Test
+    public void testRejectOverLimit() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .limit(2, 1, 10)
+                                                       .build();
+        Permit first = limiter.acquire(ENDPOINT);
+        limiter.acquire(ENDPOINT);
+        Assert.assertEquals(2, limiter.inflight());
+        Assert.assertThrows(LimitExceededException.class, () -> {
+            limiter.acquire(ENDPOINT);
+        });
+        Assert.assertEquals(1L, limiter.rejected());
+
+        // The limit is per endpoint
+        limiter.acquire("http://127.0.0.1:8081");
+
+        first.release(MS, false);
+        first.release(MS, false);
+        Assert.assertEquals(2, limiter.inflight());
+        limiter.acquire(ENDPOINT);
+        Assert.assertEquals(3, limiter.inflight());
+    }
+
+    @Test
+    public void testQueueOverLimit() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .limit(1, 1, 1)
+                                                       .queue(1, 5000L)
+                                                       .build();
+        Permit first = limiter.acquire(ENDPOINT);
+        CompletableFuture<Permit> waiter = CompletableFuture.supplyAsync(
+                                           () -> limiter.acquire(ENDPOINT));
+        for (int i = 0; i < 100 && limiter.queued() == 0; i++) {
+            Thread.sleep(10L);
+        }
+        Assert.assertEquals(1, limiter.queued());
+        // The queue is full
+        Assert.assertThrows(LimitExceededException.class, () -> {
+            limiter.acquire(ENDPOINT);
+        });
+
+        first.release(MS, false);
+        Assert.assertNotNull(waiter.get(5L, TimeUnit.SECONDS));
+        Assert.assertEquals(0, limiter.queued());
+        Assert.assertEquals(1, limiter.inflight());
+    }
+
+    @Test
+    public void testQueueTimeout() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .limit(1, 1, 1)
+                                                       .queue(1, 20L)
+                                                       .build();
+        limiter.acquire(ENDPOINT);
+        Assert.assertThrows(LimitExceededException.class, () -> {
+            limiter.acquire(ENDPOINT);
+        });
+        Assert.assertEquals(0, limiter.queued());
+        Assert.assertEquals(1L, limiter.rejected());
+    }
+
+    @Test
+    public void testAimd() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .algorithm(
+                                                        Algorithm.AIMD)
+                                                       .limit(10, 1, 100)
+                                                       .latencyThreshold(100L)
+                                                       .build();
+        List<Permit> permits = acquire(limiter, 6);
+        // Increase when the limit is nearly used up
+        permits.get(0).release(MS, false);
+        Assert.assertEquals(11, limit(limiter));
+        // Not increase when the most of the limit is idle
+        permits.get(1).release(MS, false);
+        Assert.assertEquals(11, limit(limiter));
+
+        // Decrease when the request is dropped or too slow
+        permits.get(2).release(MS, true);
+        Assert.assertEquals(9, limit(limiter));
+        permits.get(3).release(200L * MS, false);
+        Assert.assertEquals(8, limit(limiter));
+    }
+
+    @Test
+    public void testGradient() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .algorithm(
+                                                        Algorithm.GRADIENT)
+                                                       .limit(20, 1, 200)
+                                                       .build();
+        int limit = 20;
+        for (int i = 0; i < 20; i++) {
+            for (Permit permit : acquire(limiter, limit)) {
+                permit.release(10L * MS, false);
+            }
+            limit = limit(limiter);
+        }
+        int grown = limit;
+        Assert.assertTrue(grown > 20);
+
+        // The latency rises as the server queues the requests
+        List<Permit> permits = acquire(limiter, grown);
+        for (int i = 0; i < 10; i++) {
+            permits.get(i).release(100L * MS, false);
+        }
+        Assert.assertTrue(limit(limiter) < grown);
+    }
+
+    @Test
+    public void testLimitRequests() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                                                       .limit(1, 1, 1)
+                                                       .build();
+        RestClient client = newClient(server, new RestClient.ConfigBuilder()
+                                              .configConcurrencyLimit(
+                                               limiter));
+        try {
+            server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(
+                           300L, TimeUnit.MILLISECONDS));
+            CompletableFuture<RestResult> slow = CompletableFuture
+                                                 .supplyAsync(() -> {
+                return client.get("versions");
+            });
+            for (int i = 0; i < 100 && limiter.inflight() == 0; i++) {
+                Thread.sleep(10L);
+            }
+            Assert.assertThrows(LimitExceededException.class, () -> {
+                client.get("versions");
+            });
+            Assert.assertEquals(200, slow.get().status());
+            Assert.assertEquals(0, limiter.inflight());
+            Assert.assertEquals(1, limiter.limits().size());
+            Assert.assertEquals(1, server.getRequestCount());
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            ConcurrencyLimiter.builder().limit(0, 0, 10);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            ConcurrencyLimiter.builder().limit(20, 1, 10);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            ConcurrencyLimiter.builder().queue(-1, 0L);
+        });
+    }
+
+    private static List<Permit> acquire(ConcurrencyLimiter limiter,
+                                        int count) {
+        List<Permit> permits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire(ENDPOINT));
+        }
+        return permits;
+    }
+
+    private static int limit(ConcurrencyLimiter limiter) {
+        return limiter.limits().get(ENDPOINT);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.ContentCompression;
+import com.baidu.hugegraph.client.ContentCompression.Codec;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+public class ContentCompressionTest extends BaseUnitTest {
+
+    private static final String BATCH = "graphs/hugegraph/graph/vertices/batch";
+
+    private MockWebServer server;
+    private RestClient client;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        if (this.client != null) {
+            this.client.close();
+        }
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testSmallBodyNotCompressed() throws Exception {
+        this.client = this.newClient(true, 1024);
+        this.server.enqueue(new MockResponse().setBody("[1]"));
+        this.client.post(BATCH, vertices(1), gzipHeaders());
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertNull(request.getHeader("Content-Encoding"));
+        Assert.assertContains("person-0", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testLargeBodyCompressed() throws Exception {
+        this.client = this.newClient(true, 1024);
+        this.server.enqueue(new MockResponse().setBody("[]"));
+        this.client.post(BATCH, vertices(1000), gzipHeaders());
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertEquals("gzip", request.getHeader("Content-Encoding"));
+        byte[] body = request.getBody().readByteArray();
+        String json = gunzip(body);
+        Assert.assertTrue(body.length < json.length());
+        Assert.assertContains("person-999", json);
+    }
+
+    @Test
+    public void testCompressionLevel() throws Exception {
+        int[] sizes = new int[2];
+        int[] levels = {1, 9};
+        for (int i = 0; i < levels.length; i++) {
+            this.client = this.newClient(new ContentCompression(
+                                         true, 1024, Codec.GZIP, levels[i]));
+            this.server.enqueue(new MockResponse().setBody("[]"));
+            this.client.post(BATCH, vertices(5000), gzipHeaders());
+            this.client.close();
+            this.client = null;
+
+            RecordedRequest request = this.server.takeRequest();
+            byte[] body = request.getBody().readByteArray();
+            Assert.assertContains("person-4999", gunzip(body));
+            sizes[i] = body.length;
+        }
+        Assert.assertTrue(sizes[1] < sizes[0]);
+    }
+
+    @Test
+    public void testServerDecodesBody() throws Exception {
+        this.client = this.newClient(new ContentCompression(
+                                     true, 1024, Codec.GZIP, 1));
+        this.server.enqueue(new MockResponse().setBody("[]"));
+        this.client.post(BATCH, vertices(1000), gzipHeaders());
+
+        // Decode by the Content-Encoding header like the server does
+        RecordedRequest request = this.server.takeRequest();
+        String encoding = request.getHeader("Content-Encoding");
+        Assert.assertEquals(Codec.GZIP, Codec.fromEncoding(encoding));
+        byte[] body = request.getBody().readByteArray();
+        List<?> json = new ObjectMapper().readValue(gunzip(body),
+                                                    List.class);
+        Assert.assertEquals(1000, json.size());
+        Assert.assertEquals(vertices(1000), json);
+    }
+
+    @Test
+    public void testNoneCodec() throws Exception {
+        this.client = this.newClient(new ContentCompression(
+                                     true, 1024, Codec.NONE, 1));
+        this.server.enqueue(new MockResponse().setBody("[]"));
+        this.client.post(BATCH, vertices(1000), gzipHeaders());
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertNull(request.getHeader("Content-Encoding"));
+        // Response compression is still negotiated
+        Assert.assertContains("gzip", request.getHeader("Accept-Encoding"));
+        Assert.assertContains("person-999", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testCompressionDisabled() throws Exception {
+        this.client = this.newClient(false, 1024);
+        this.server.enqueue(new MockResponse().setBody("[]"));
+        this.client.post(BATCH, vertices(1000), gzipHeaders());
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertNull(request.getHeader("Content-Encoding"));
+        Assert.assertEquals("identity", request.getHeader("Accept-Encoding"));
+        Assert.assertContains("person-999", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testCompressedResponse() throws Exception {
+        this.client = this.newClient(true, 1024);
+        String json = "{\"vertices\": [{\"id\": \"1:marko\"}]}";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        this.server.enqueue(new MockResponse()
+                                .setHeader("Content-Encoding", "gzip")
+                                .setHeader("Content-Type",
+                                           "application/json")
+                                .setBody(new Buffer().write(
+                                         bytes.toByteArray())));
+
+        RestResult result = this.client.get("graphs/hugegraph/graph/vertices");
+        Assert.assertEquals(json, result.content());
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertContains("gzip", request.getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ContentCompression(true, -1);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ContentCompression(true, 1024, Codec.GZIP, 0);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new ContentCompression(true, 1024, Codec.GZIP, 10);
+        });
+    }
+
+    private RestClient newClient(boolean enabled, int threshold) {
+        return this.newClient(new ContentCompression(enabled, threshold));
+    }
+
+    private RestClient newClient(ContentCompression compression) {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                        .configCompression(compression));
+    }
+
+    private static List<Map<String, Object>> vertices(int count) {
+        List<Map<String, Object>> vertices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vertices.add(ImmutableMap.of("label", "person",
+                                         "properties", ImmutableMap.of(
+                                         "name", "person-" + i)));
+        }
+        return vertices;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        return IOUtils.toString(new GZIPInputStream(
+                                new ByteArrayInputStream(bytes)),
+                                StandardCharsets.UTF_8);
+    }
+
+    private static MultivaluedHashMap<String, Object> gzipHeaders() {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Encoding", "gzip");
+        return headers;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.Deadline;
+import com.baidu.hugegraph.client.Http2Transport;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.RetryPolicy;
+import com.baidu.hugegraph.exception.DeadlineExceededException;
+import com.baidu.hugegraph.testutil.Assert;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class DeadlineTest extends BaseUnitTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+        Assert.assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testForwardRemainingTime() throws IOException,
+                                                  InterruptedException {
+        this.server.enqueue(json(200, "{}"));
+        this.server.enqueue(json(200, "{}"));
+        this.server.start();
+        RestClient client = this.newClient(null);
+        try {
+            try (Deadline deadline = Deadline.start(Duration.ofSeconds(5))) {
+                client.get("versions");
+            }
+            client.get("versions");
+        } finally {
+            client.close();
+        }
+
+        String header = this.server.takeRequest().getHeader(Deadline.HEADER);
+        long remaining = Long.parseLong(header);
+        Assert.assertTrue(header, remaining > 0L && remaining <= 5000L);
+        Assert.assertNull(this.server.takeRequest()
+                                     .getHeader(Deadline.HEADER));
+    }
+
+    @Test
+    public void testSlowResponse() throws IOException {
+        this.server.enqueue(json(200, "{}").setHeadersDelay(
+                            2L, TimeUnit.SECONDS));
+        this.server.start();
+        this.assertTimeout(this.newClient(null));
+    }
+
+    @Test
+    public void testSlowResponseOverHttp2() throws IOException {
+        this.server.setProtocols(Collections.singletonList(
+                                 Protocol.H2_PRIOR_KNOWLEDGE));
+        this.server.enqueue(json(200, "{}").setHeadersDelay(
+                            2L, TimeUnit.SECONDS));
+        this.server.start();
+        this.assertTimeout(MockServerUtil.newClient(this.server,
+                           new RestClient.ConfigBuilder().configTransport(
+                           new Http2Transport(true))));
+    }
+
+    @Test
+    public void testExpiredBeforeSend() throws IOException,
+                                               InterruptedException {
+        this.server.start();
+        RestClient client = this.newClient(null);
+        try (Deadline deadline = Deadline.start(Duration.ofMillis(10L))) {
+            Thread.sleep(50L);
+            Assert.assertTrue(deadline.expired());
+            Assert.assertThrows(DeadlineExceededException.class, () -> {
+                client.get("versions");
+            });
+        } finally {
+            client.close();
+        }
+        Assert.assertEquals(0, this.server.getRequestCount());
+    }
+
+    @Test
+    public void testStopRetryAtDeadline() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            this.server.enqueue(json(503, "{}"));
+        }
+        this.server.start();
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(10)
+                                        .backoff(100L, 100L).build();
+        RestClient client = this.newClient(policy);
+        try (Deadline deadline = Deadline.start(Duration.ofMillis(250L))) {
+            Assert.assertThrows(DeadlineExceededException.class, () -> {
+                client.get("versions");
+            });
+        } finally {
+            client.close();
+        }
+        Assert.assertTrue(this.server.getRequestCount() < 10);
+    }
+
+    @Test
+    public void testRetryAfterBeyondDeadline() throws IOException {
+        this.server.enqueue(json(503, "{}").setHeader("Retry-After", "2"));
+        this.server.enqueue(json(200, "{}"));
+        this.server.start();
+        RetryPolicy policy = RetryPolicy.builder().build();
+        RestClient client = this.newClient(policy);
+        long start = System.currentTimeMillis();
+        try (Deadline deadline = Deadline.start(Duration.ofMillis(500L))) {
+            Assert.assertThrows(DeadlineExceededException.class, () -> {
+                client.get("versions");
+            });
+        } finally {
+            client.close();
+        }
+        // Fail without waiting for the retry after the deadline
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertTrue("Elapsed " + elapsed, elapsed < 1500L);
+        Assert.assertEquals(1, this.server.getRequestCount());
+        Assert.assertEquals(0L, policy.retries());
+    }
+
+    @Test
+    public void testTimeoutNotRetried() throws IOException {
+        this.server.enqueue(json(200, "{}").setHeadersDelay(
+                            2L, TimeUnit.SECONDS));
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(200, "{}"));
+        this.server.start();
+        RetryPolicy policy = RetryPolicy.builder().backoff(10L, 10L)
+                                        .retryBudget(4, 0.1).build();
+        RestClient client = this.newClient(policy);
+        try {
+            try (Deadline deadline = Deadline.start(Duration.ofMillis(300L))) {
+                Assert.assertThrows(DeadlineExceededException.class, () -> {
+                    client.get("versions");
+                });
+            }
+            Assert.assertEquals(0L, policy.retries());
+            // The budget isn't spent by the expired call, so still retry
+            client.get("versions");
+        } finally {
+            client.close();
+        }
+        Assert.assertEquals(1L, policy.retries());
+        Assert.assertEquals(0L, policy.throttled());
+        Assert.assertEquals(3, this.server.getRequestCount());
+    }
+
+    @Test
+    public void testNestedDeadline() {
+        Deadline outer = Deadline.start(Duration.ofMillis(500L));
+        Deadline inner = Deadline.start(Duration.ofSeconds(10L));
+        Assert.assertSame(inner, Deadline.current());
+        Assert.assertTrue(inner.remaining() <= 500L);
+
+        Assert.assertThrows(IllegalStateException.class, outer::close);
+        inner.close();
+        Assert.assertSame(outer, Deadline.current());
+        outer.close();
+        Assert.assertNull(Deadline.current());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            Deadline.start(Duration.ZERO);
+        });
+    }
+
+    private void assertTimeout(RestClient client) {
+        long start = System.currentTimeMillis();
+        try (Deadline deadline = Deadline.start(Duration.ofMillis(300L))) {
+            Assert.assertThrows(DeadlineExceededException.class, () -> {
+                client.get("versions");
+            });
+        } finally {
+            client.close();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertTrue("Elapsed " + elapsed, elapsed < 1500L);
+    }
+
+    private RestClient newClient(RetryPolicy retry) {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                                      .configRetry(retry));
+    }
+}
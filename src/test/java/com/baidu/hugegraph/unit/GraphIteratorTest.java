@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.Deadline;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.driver.GraphManager;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.structure.graph.GraphIterator;
+import com.baidu.hugegraph.structure.graph.Pageable;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.structure.graph.Vertices;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.util.ExecutorUtil;
+
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class GraphIteratorTest extends BaseUnitTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private final GraphManager graph = Mockito.mock(GraphManager.class);
+    private final ExecutorService executor =
+            ExecutorUtil.newFixedThreadPool(2, "prefetch-test-%d");
+
+    @After
+    public void teardown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testIterateWithoutPrefetch() {
+        AtomicInteger requests = new AtomicInteger();
+        Iterator<Vertex> iter = new GraphIterator<>(this.graph, PAGE_SIZE,
+                                                    fetcher(10, requests));
+        Assert.assertEquals(ids(10), collect(iter));
+        Assert.assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testIterateWithPrefetch() {
+        AtomicInteger requests = new AtomicInteger();
+        Iterator<Vertex> iter = new GraphIterator<>(this.graph, PAGE_SIZE,
+                                                    fetcher(10, requests), 2,
+                                                    this.executor);
+        Assert.assertEquals(ids(10), collect(iter));
+        Assert.assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testPrefetchAheadOfConsumer() throws InterruptedException {
+        AtomicInteger requests = new AtomicInteger();
+        Iterator<Vertex> iter = new GraphIterator<>(this.graph, PAGE_SIZE,
+                                                    fetcher(30, requests), 2,
+                                                    this.executor);
+        Assert.assertEquals(0, iter.next().id());
+        // The 2 pages after the current one are fetched in background
+        for (int i = 0; i < 100 && requests.get() < 3; i++) {
+            Thread.sleep(10L);
+        }
+        Thread.sleep(50L);
+        Assert.assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testPrefetchFailed() {
+        Function<String, Pageable<Vertex>> fetcher = page -> {
+            if (!page.isEmpty()) {
+                throw new ServerException("Backend error");
+            }
+            return new Vertices(vertices(0, PAGE_SIZE), "1");
+        };
+        Iterator<Vertex> iter = new GraphIterator<>(this.graph, PAGE_SIZE,
+                                                    fetcher, 2, this.executor);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            iter.next();
+        }
+        Assert.assertThrows(ServerException.class, iter::hasNext);
+    }
+
+    @Test
+    public void testInvalidPrefetch() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new GraphIterator<>(this.graph, PAGE_SIZE,
+                                fetcher(1, new AtomicInteger()), -1,
+                                this.executor);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new GraphIterator<>(this.graph, PAGE_SIZE,
+                                fetcher(1, new AtomicInteger()), 2, null);
+        });
+    }
+
+    @Test
+    public void testPrefetchWithRequestContext() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(json(vertexPage("1:a", "1")));
+        server.enqueue(json(vertexPage("1:b", null)));
+        server.start();
+        RestClient client = newClient(server);
+        GraphManager graph = new GraphManager(client, "hugegraph");
+        client.setAuthContext("Bearer token");
+        try (Deadline deadline = Deadline.start(Duration.ofSeconds(5))) {
+            Iterator<Vertex> iter = graph.iterateVertices(null, null, 1, 2);
+            Assert.assertEquals("1:a", iter.next().id());
+            Assert.assertEquals("1:b", iter.next().id());
+            Assert.assertFalse(iter.hasNext());
+
+            for (int i = 0; i < 2; i++) {
+                // The pages fetched in background keep the caller's context
+                RecordedRequest request = server.takeRequest();
+                Assert.assertEquals("Bearer token",
+                                    request.getHeader("Authorization"));
+                Assert.assertNotNull(request.getHeader(Deadline.HEADER));
+            }
+        } finally {
+            client.resetAuthContext();
+            graph.close();
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    private static String vertexPage(String id, String page) {
+        return String.format("{\"vertices\": [{\"id\": \"%s\", " +
+                             "\"label\": \"person\", " +
+                             "\"type\": \"vertex\", " +
+                             "\"properties\": {}}], \"page\": %s}",
+                             id, page == null ? "null" : "\"" + page + "\"");
+    }
+
+    private static Function<String, Pageable<Vertex>> fetcher(
+                                                      int total,
+                                                      AtomicInteger requests) {
+        return page -> {
+            requests.incrementAndGet();
+            int start = page.isEmpty() ? 0 : Integer.parseInt(page);
+            int end = Math.min(start + PAGE_SIZE, total);
+            String next = end < total ? String.valueOf(end) : null;
+            return new Vertices(vertices(start, end), next);
+        };
+    }
+
+    private static List<Vertex> vertices(int start, int end) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            Vertex vertex = new Vertex("person");
+            vertex.id(i);
+            vertices.add(vertex);
+        }
+        return vertices;
+    }
+
+    private static List<Object> ids(int total) {
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    private static List<Object> collect(Iterator<Vertex> iter) {
+        List<Object> ids = new ArrayList<>();
+        iter.forEachRemaining(vertex -> ids.add(vertex.id()));
+        return ids;
+    }
+}
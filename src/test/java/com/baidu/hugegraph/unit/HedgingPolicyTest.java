@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.HedgingPolicy;
+import com.baidu.hugegraph.client.Http2Transport;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class HedgingPolicyTest extends BaseUnitTest {
+
+    private static final String VERTICES = "graphs/hugegraph/graph/vertices";
+    private static final String KNEIGHBOR =
+            "graphs/hugegraph/traversers/kneighbor";
+
+    private MockWebServer server;
+    private Multiset<String> slowRequests;
+    private HedgingPolicy policy;
+    private RestClient client;
+
+    @Before
+    public void setup() throws IOException {
+        this.slowRequests = ConcurrentHashMultiset.create();
+        this.server = new MockWebServer();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                MockResponse response = new MockResponse().setBody("{}");
+                // Only the first request of every slow path is slow
+                String path = request.getPath();
+                if (path.contains("slow") && slowRequests.add(path, 1) == 0) {
+                    response.setHeadersDelay(1L, TimeUnit.SECONDS);
+                }
+                return response;
+            }
+        });
+        this.server.start();
+        this.policy = HedgingPolicy.builder().delay(95.0, 50L)
+                                   .budget(1.0)
+                                   .build();
+        this.client = newClient(this.server, new RestClient.ConfigBuilder()
+                                             .configPool(4, 4)
+                                             .configHedging(this.policy));
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.client.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testNotHedgeBeforeSampled() {
+        Assert.assertEquals(-1L, this.policy.delay());
+        long start = System.currentTimeMillis();
+        this.client.get(VERTICES + "/slow");
+        Assert.assertGte(1000L, System.currentTimeMillis() - start);
+        Assert.assertEquals(0L, this.policy.hedges());
+    }
+
+    @Test
+    public void testHedgeSlowRequests() {
+        this.warmup();
+        Assert.assertEquals(50L, this.policy.delay());
+
+        String path = VERTICES + "/slow-get";
+        long start = System.currentTimeMillis();
+        RestResult result = this.client.get(path);
+        Assert.assertEquals(200, result.status());
+        Assert.assertLt(500L, System.currentTimeMillis() - start);
+        Assert.assertEquals(1L, this.policy.hedges());
+        Assert.assertEquals(1L, this.policy.hedgeWins());
+        Assert.assertEquals(2, this.slowRequests.count("/" + path));
+
+        path = KNEIGHBOR + "/slow-post";
+        start = System.currentTimeMillis();
+        result = this.client.post(path, ImmutableMap.of("max_depth", 1));
+        Assert.assertEquals(200, result.status());
+        // The slow first attempt sent by the caller thread is aborted
+        Assert.assertLt(500L, System.currentTimeMillis() - start);
+        Assert.assertEquals(2L, this.policy.hedges());
+        Assert.assertEquals(2, this.slowRequests.count("/" + path));
+
+        // The writes are not hedged
+        path = VERTICES + "/slow-write";
+        start = System.currentTimeMillis();
+        this.client.post(path, ImmutableMap.of("label", "person"));
+        Assert.assertGte(1000L, System.currentTimeMillis() - start);
+        Assert.assertEquals(2L, this.policy.hedges());
+        Assert.assertEquals(1, this.slowRequests.count("/" + path));
+    }
+
+    @Test
+    public void testAbortLoserOverOkHttp() {
+        HedgingPolicy policy = HedgingPolicy.builder().delay(95.0, 50L)
+                                            .budget(1.0).threads(1)
+                                            .build();
+        RestClient client = newClient(this.server,
+                            new RestClient.ConfigBuilder()
+                            .configHedging(policy)
+                            .configTransport(new Http2Transport(false)));
+        try {
+            for (int i = 0; i < 64; i++) {
+                client.get(VERTICES);
+            }
+            String path = VERTICES + "/slow-okhttp";
+            long start = System.currentTimeMillis();
+            Assert.assertEquals(200, client.get(path).status());
+            Assert.assertLt(500L, System.currentTimeMillis() - start);
+            Assert.assertEquals(1L, policy.hedgeWins());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testHedgeWithAuthContext() throws InterruptedException {
+        this.client.setAuthContext("Bearer token");
+        try {
+            this.client.get(VERTICES);
+        } finally {
+            this.client.resetAuthContext();
+        }
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertEquals("Bearer token",
+                            request.getHeader("Authorization"));
+    }
+
+    @Test
+    public void testRequestFailed() throws IOException {
+        this.server.shutdown();
+        Assert.assertThrows(ClientException.class, () -> {
+            this.client.get(VERTICES);
+        });
+    }
+
+    private void warmup() {
+        for (int i = 0; i < 64; i++) {
+            this.client.get(VERTICES);
+        }
+    }
+}
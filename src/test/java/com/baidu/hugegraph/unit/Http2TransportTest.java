@@ -0,0 +1,314 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.ClientMetrics;
+import com.baidu.hugegraph.client.Deadline;
+import com.baidu.hugegraph.client.Http2Transport;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.RetryPolicy;
+import com.baidu.hugegraph.driver.AsyncHugeClient;
+import com.baidu.hugegraph.driver.GraphManager;
+import com.baidu.hugegraph.driver.GremlinManager;
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.driver.SchemaManager;
+import com.baidu.hugegraph.driver.TraverserManager;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.Response;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class Http2TransportTest extends BaseUnitTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        // Only speak cleartext HTTP/2, so HTTP/1.1 requests would fail
+        this.server.setProtocols(Collections.singletonList(
+                                 Protocol.H2_PRIOR_KNOWLEDGE));
+        this.server.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testGetAndPost() throws InterruptedException {
+        this.server.enqueue(json(200, "{\"versions\": {\"api\": \"0.67\"}}"));
+        this.server.enqueue(json(201, "[\"1:marko\"]"));
+        RestClient client = this.newClient();
+        try {
+            RestResult result = client.get("versions");
+            Assert.assertEquals(200, result.status());
+            Assert.assertContains("0.67", result.content());
+
+            result = client.post("graphs/hugegraph/graph/vertices/batch",
+                                 ImmutableList.of(ImmutableMap.of(
+                                                  "label", "person")));
+            Assert.assertEquals(201, result.status());
+            Assert.assertEquals(ImmutableList.of("1:marko"),
+                                result.readList(String.class));
+        } finally {
+            client.close();
+        }
+
+        RecordedRequest get = this.server.takeRequest();
+        Assert.assertEquals("GET", get.getMethod());
+        Assert.assertEquals("/versions", get.getPath());
+        RecordedRequest post = this.server.takeRequest();
+        Assert.assertEquals("POST", post.getMethod());
+        Assert.assertContains("application/json",
+                              post.getHeader("Content-Type"));
+        Assert.assertContains("person", post.getBody().readUtf8());
+        // Sent on the same connection
+        Assert.assertEquals(1, post.getSequenceNumber());
+    }
+
+    @Test
+    public void testMultiplexConcurrentRequests() throws Exception {
+        int requests = 8;
+        for (int i = 0; i < requests; i++) {
+            this.server.enqueue(json(200, "{}").setHeadersDelay(
+                                200L, TimeUnit.MILLISECONDS));
+        }
+        RestClient client = this.newClient();
+        try {
+            List<CompletableFuture<RestResult>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    return client.get("versions");
+                }));
+            }
+            for (CompletableFuture<RestResult> future : futures) {
+                Assert.assertEquals(200, future.get().status());
+            }
+        } finally {
+            client.close();
+        }
+
+        // All the in-flight requests are sent on one connection
+        Set<Integer> sequences = new HashSet<>();
+        for (int i = 0; i < requests; i++) {
+            sequences.add(this.server.takeRequest().getSequenceNumber());
+        }
+        Assert.assertEquals(requests, sequences.size());
+    }
+
+    @Test
+    public void testPostStreamedBody() throws InterruptedException {
+        this.server.enqueue(json(201, "[]"));
+        List<Object> vertices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            vertices.add(ImmutableMap.of("label", "person", "id", i));
+        }
+        RestClient client = this.newClient();
+        try {
+            RestResult result = client.post(
+                                "graphs/hugegraph/graph/vertices/batch",
+                                vertices);
+            Assert.assertEquals(201, result.status());
+        } finally {
+            client.close();
+        }
+
+        RecordedRequest post = this.server.takeRequest();
+        // The body is written while being sent, so the length is unknown
+        Assert.assertNull(post.getHeader("Content-Length"));
+        String body = post.getBody().readUtf8();
+        Assert.assertTrue(body.startsWith("[{\"label\":\"person\",\"id\":0}"));
+        Assert.assertTrue(body.endsWith("{\"label\":\"person\",\"id\":999}]"));
+    }
+
+    @Test
+    public void testAsyncRequestsNotBlockThread() throws Exception {
+        int requests = 4;
+        for (int i = 0; i < requests; i++) {
+            this.server.enqueue(json(200, "{}").setHeadersDelay(
+                                300L, TimeUnit.MILLISECONDS));
+        }
+        // Only one thread of jersey to send the async requests
+        Client client = ClientBuilder.newClient(
+                        new RestClient.ConfigBuilder()
+                                      .configTimeout(5)
+                                      .configTransport(
+                                       new Http2Transport(true))
+                                      .build()
+                                      .property(ClientProperties
+                                                .ASYNC_THREADPOOL_SIZE, 1));
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(client.target(this.server.url("/").toString())
+                                  .path("versions").request().async().get());
+            }
+            for (Future<Response> future : futures) {
+                Response response = future.get();
+                Assert.assertEquals(200, response.getStatus());
+                response.close();
+            }
+            // The requests are in flight together, not one after another
+            Assert.assertTrue(System.currentTimeMillis() - start <
+                              requests * 300L);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testAsyncClientNonBlocking() throws Exception {
+        int requests = 8;
+        for (int i = 0; i < requests; i++) {
+            this.server.enqueue(json(200, "{\"id\": \"1:marko\", " +
+                                          "\"label\": \"person\", " +
+                                          "\"type\": \"vertex\", " +
+                                          "\"properties\": {}}")
+                                .setHeadersDelay(300L, TimeUnit.MILLISECONDS));
+        }
+        RestClient client = this.newClient();
+        Assert.assertTrue(client.nonBlocking());
+        HugeClient hugeClient = Mockito.mock(HugeClient.class);
+        Mockito.when(hugeClient.graph())
+               .thenReturn(new GraphManager(client, "hugegraph"));
+        Mockito.when(hugeClient.schema())
+               .thenReturn(Mockito.mock(SchemaManager.class));
+        Mockito.when(hugeClient.gremlin())
+               .thenReturn(Mockito.mock(GremlinManager.class));
+        Mockito.when(hugeClient.traverser())
+               .thenReturn(Mockito.mock(TraverserManager.class));
+        // A worker would send the calls one after another
+        AsyncHugeClient async = new AsyncHugeClient(hugeClient, client, 1);
+        client.setAuthContext("token");
+        try (Deadline deadline = Deadline.start(Duration.ofSeconds(5))) {
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<Vertex>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(async.graph().getVertex("1:marko"));
+            }
+            for (CompletableFuture<Vertex> future : futures) {
+                Assert.assertEquals("1:marko", future.get().id());
+            }
+            // The calls are in flight together, not one after another
+            Assert.assertTrue(System.currentTimeMillis() - start <
+                              requests * 300L);
+        } finally {
+            client.resetAuthContext();
+            async.close();
+            client.close();
+        }
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertEquals("GET", request.getMethod());
+        Assert.assertTrue(request.getPath().startsWith(
+                          "/graphs/hugegraph/graph/vertices/"));
+        Assert.assertEquals("token", request.getHeader("Authorization"));
+        Assert.assertNotNull(request.getHeader(Deadline.HEADER));
+    }
+
+    @Test
+    public void testAsyncClientBlockingWithPolicy() {
+        RestClient client = MockServerUtil.newClient(this.server,
+                            new RestClient.ConfigBuilder()
+                            .configTransport(new Http2Transport(true))
+                            .configRetry(RetryPolicy.builder().build()));
+        try {
+            // The retry wraps the blocking requests
+            Assert.assertFalse(client.nonBlocking());
+            Assert.assertThrows(IllegalStateException.class, () -> {
+                client.getAsync("versions", ImmutableMap.of());
+            });
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testNoApachePoolGauges() {
+        ClientMetrics.MemoryRegistry registry =
+                new ClientMetrics.MemoryRegistry();
+        RestClient client = MockServerUtil.newClient(this.server,
+                            new RestClient.ConfigBuilder()
+                            .configTransport(new Http2Transport(true))
+                            .configMetrics(new ClientMetrics(registry)));
+        try {
+            Assert.assertThrows(IllegalArgumentException.class, () -> {
+                registry.gauge("pool.max");
+            });
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testConnectFailed() throws IOException {
+        RestClient client = this.newClient();
+        this.server.shutdown();
+        try {
+            Assert.assertThrows(ClientException.class, () -> {
+                client.get("versions");
+            }, e -> {
+                Assert.assertInstanceOf(ProcessingException.class,
+                                        e.getCause());
+            });
+        } finally {
+            client.close();
+        }
+    }
+
+    private RestClient newClient() {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                        .configTransport(
+                                         new Http2Transport(true)));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.driver.HugeClientBuilder;
+import com.baidu.hugegraph.driver.SchemaManager;
+import com.baidu.hugegraph.testutil.Assert;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class HugeClientBuilderTest extends BaseUnitTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(200)
+                                         .setHeader("Content-Type",
+                                                    "application/json")
+                                         .setBody("{\"versions\": " +
+                                                  "{\"api\": \"0.67\"}}");
+            }
+        });
+        this.server.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testBuildWithApiVersion() {
+        HugeClient client = this.builder().configApiVersion("0.67").build();
+        try {
+            Assert.assertNotNull(client.graph());
+            Assert.assertNotNull(client.traverser());
+            Assert.assertEquals(0, this.server.getRequestCount());
+        } finally {
+            client.close();
+        }
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            this.builder().configApiVersion("0.30").build();
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.builder().configApiVersion("");
+        });
+    }
+
+    @Test
+    public void testBuildWithApiVersionCache() {
+        for (int i = 0; i < 3; i++) {
+            this.builder().configApiVersionCache(true).build().close();
+        }
+        Assert.assertEquals(1, this.server.getRequestCount());
+
+        this.builder().build().close();
+        Assert.assertEquals(2, this.server.getRequestCount());
+    }
+
+    @Test
+    public void testLazyManagers() throws Exception {
+        HugeClient client = this.builder().configApiVersion("0.67").build();
+        try {
+            List<CompletableFuture<SchemaManager>> futures =
+                                                   new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(client::schema));
+            }
+            Set<SchemaManager> managers = new HashSet<>();
+            for (CompletableFuture<SchemaManager> future : futures) {
+                managers.add(future.get());
+            }
+            Assert.assertEquals(1, managers.size());
+            Assert.assertSame(client.graph(), client.graph());
+        } finally {
+            client.close();
+        }
+    }
+
+    private HugeClientBuilder builder() {
+        return HugeClient.builder(this.server.url("/").toString(),
+                                  "hugegraph");
+    }
+}
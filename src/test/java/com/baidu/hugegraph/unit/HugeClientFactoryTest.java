@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.driver.HugeClientFactory;
+import com.baidu.hugegraph.testutil.Assert;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class HugeClientFactoryTest extends BaseUnitTest {
+
+    private MockWebServer server;
+    private HugeClientFactory factory;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("/versions".equals(request.getPath())) {
+                    return json("{\"versions\": {\"api\": \"0.67\"}}");
+                }
+                return json("{}");
+            }
+        });
+        this.server.start();
+        String url = this.server.url("/").toString();
+        this.factory = HugeClient.builder(url, "hugegraph")
+                                 .buildFactory();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.factory.close();
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testClientsShareRestClient() throws Exception {
+        // Only the factory checks the api version
+        Assert.assertEquals(1, this.server.getRequestCount());
+        Assert.assertEquals("/versions", this.server.takeRequest()
+                                                    .getPath());
+
+        HugeClient graph1 = this.factory.client("graph1");
+        HugeClient graph2 = this.factory.client("graph2");
+        Assert.assertSame(graph1, this.factory.client("graph1"));
+        Assert.assertSame(graph1.graph(), this.factory.client("graph1")
+                                                      .graph());
+        Assert.assertEquals("hugegraph", this.factory.client()
+                                                     .graph().graph());
+        Assert.assertEquals(3, this.factory.size());
+        Assert.assertEquals(1, this.server.getRequestCount());
+
+        graph1.variables().all();
+        graph2.variables().all();
+        Assert.assertEquals("/graphs/graph1/variables",
+                            this.server.takeRequest().getPath());
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertEquals("/graphs/graph2/variables", request.getPath());
+        // Sent on the connection of the version check
+        Assert.assertEquals(2, request.getSequenceNumber());
+
+        // Closing a client of graph doesn't close the shared client
+        this.factory.release("graph1");
+        graph2.variables().all();
+        Assert.assertEquals(2, this.factory.size());
+        Assert.assertNotSame(graph1, this.factory.client("graph1"));
+    }
+
+    @Test
+    public void testGraphAuthContext() throws Exception {
+        this.server.takeRequest();
+        HugeClient graph1 = this.factory.client("graph1", "Bearer token1");
+        HugeClient graph2 = this.factory.client("graph2", "Bearer token2");
+
+        graph1.variables().all();
+        graph2.variables().all();
+        Assert.assertEquals("Bearer token1", this.server.takeRequest()
+                                                        .getHeader(
+                                                        "Authorization"));
+        Assert.assertEquals("Bearer token2", this.server.takeRequest()
+                                                        .getHeader(
+                                                        "Authorization"));
+
+        // The auth context of thread has a higher priority
+        graph1.setAuthContext("Bearer thread");
+        try {
+            graph1.variables().all();
+        } finally {
+            graph1.resetAuthContext();
+        }
+        Assert.assertEquals("Bearer thread", this.server.takeRequest()
+                                                        .getHeader(
+                                                        "Authorization"));
+
+        this.factory.release("graph2");
+        this.factory.client("graph2").variables().all();
+        Assert.assertNotEquals("Bearer token2", this.server.takeRequest()
+                                                           .getHeader(
+                                                           "Authorization"));
+    }
+
+    @Test
+    public void testClientAfterClose() {
+        this.factory.close();
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            this.factory.client("graph1");
+        });
+    }
+}
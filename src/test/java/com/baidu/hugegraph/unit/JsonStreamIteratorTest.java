@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.SerializeException;
+import com.baidu.hugegraph.serializer.JsonStreamIterator;
+import com.baidu.hugegraph.serializer.PathDeserializer;
+import com.baidu.hugegraph.structure.graph.Path;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.testutil.Assert;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+public class JsonStreamIteratorTest extends BaseUnitTest {
+
+    @BeforeClass
+    public static void init() {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(Path.class, new PathDeserializer());
+        JsonStreamIterator.registerModule(module);
+    }
+
+    @Test
+    public void testReadVertices() {
+        String json = "{\"vertices\": [" +
+                      "{\"id\": \"1:marko\", \"label\": \"person\", " +
+                      "\"type\": \"vertex\", \"properties\": " +
+                      "{\"name\": \"marko\", \"age\": 29}}, " +
+                      "{\"id\": \"1:josh\", \"label\": \"person\", " +
+                      "\"type\": \"vertex\", \"properties\": " +
+                      "{\"name\": \"josh\", \"age\": 32}}" +
+                      "], \"page\": \"next-page\"}";
+        AtomicBoolean closed = new AtomicBoolean(false);
+        JsonStreamIterator<Vertex> iter = new JsonStreamIterator<>(
+                                          stream(json, closed),
+                                          "vertices", Vertex.class);
+        Assert.assertThrows(IllegalStateException.class, iter::page);
+
+        List<Object> ids = new ArrayList<>();
+        iter.forEachRemaining(vertex -> ids.add(vertex.id()));
+        Assert.assertEquals(ImmutableList.of("1:marko", "1:josh"), ids);
+        Assert.assertEquals("next-page", iter.page());
+        Assert.assertTrue(iter.finished());
+        // The stream is released after all elements are read
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testReadWithPageBeforeArray() {
+        String json = "{\"page\": null, \"extra\": {\"k\": [1, 2]}, " +
+                      "\"vertices\": []}";
+        JsonStreamIterator<Vertex> iter = new JsonStreamIterator<>(
+                                          stream(json, new AtomicBoolean()),
+                                          "vertices", Vertex.class);
+        Assert.assertNull(iter.page());
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testReadPaths() {
+        String json = "{\"paths\": [{\"objects\": [\"1:marko\", " +
+                      "\"2:lop\"]}, {\"objects\": [\"1:josh\"]}]}";
+        JsonStreamIterator<Path> iter = new JsonStreamIterator<>(
+                                        stream(json, new AtomicBoolean()),
+                                        "paths", Path.class);
+        Assert.assertEquals(ImmutableList.of("1:marko", "2:lop"),
+                            iter.next().objects());
+        Assert.assertEquals(ImmutableList.of("1:josh"),
+                            iter.next().objects());
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testAttach() {
+        String json = "{\"vertices\": [{\"id\": 1, \"label\": \"person\", " +
+                      "\"type\": \"vertex\", \"properties\": {}}]}";
+        List<Vertex> attached = new ArrayList<>();
+        JsonStreamIterator<Vertex> iter = new JsonStreamIterator<>(
+                                          stream(json, new AtomicBoolean()),
+                                          "vertices", Vertex.class)
+                                          .attach(attached::add);
+        Vertex vertex = iter.next();
+        Assert.assertEquals(ImmutableList.of(vertex), attached);
+    }
+
+    @Test
+    public void testCloseBeforeEnd() {
+        String json = "{\"vertices\": [{\"id\": 1, \"label\": \"person\", " +
+                      "\"type\": \"vertex\", \"properties\": {}}, " +
+                      "{\"id\": 2, \"label\": \"person\", " +
+                      "\"type\": \"vertex\", \"properties\": {}}]}";
+        AtomicBoolean closed = new AtomicBoolean(false);
+        JsonStreamIterator<Vertex> iter = new JsonStreamIterator<>(
+                                          stream(json, closed),
+                                          "vertices", Vertex.class);
+        Assert.assertEquals(1, iter.next().id());
+        iter.close();
+        Assert.assertTrue(closed.get());
+        Assert.assertFalse(iter.hasNext());
+        Assert.assertThrows(IllegalStateException.class, iter::page);
+    }
+
+    @Test
+    public void testMissingKey() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Assert.assertThrows(SerializeException.class, () -> {
+            new JsonStreamIterator<>(stream("{\"edges\": []}", closed),
+                                     "vertices", Vertex.class);
+        }, e -> {
+            Assert.assertContains("Can't find value of the key: vertices",
+                                  e.getMessage());
+        });
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testStreamCollectionParams() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(json("[]"));
+        server.start();
+        RestClient client = newClient(server);
+        try (InputStream stream = client.getStream(
+                                  "graphs/hugegraph/graph/vertices",
+                                  ImmutableMap.of("ids", ImmutableList.of(
+                                                  "\"1:marko\"",
+                                                  "\"1:josh\""),
+                                                  "limit", 2))) {
+            Assert.assertEquals('[', stream.read());
+            // Sent the same as the buffered get
+            Assert.assertEquals("/graphs/hugegraph/graph/vertices?" +
+                                "ids=%221%3Amarko%22&ids=%221%3Ajosh%22&" +
+                                "limit=2", server.takeRequest().getPath());
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    private static InputStream stream(String json, AtomicBoolean closed) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+    }
+}
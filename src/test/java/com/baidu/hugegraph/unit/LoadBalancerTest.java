@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.LoadBalancer;
+import com.baidu.hugegraph.client.LoadBalancer.Strategy;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.core.Response;
+
+public class LoadBalancerTest extends BaseUnitTest {
+
+    private static final List<String> URLS = ImmutableList.of(
+            "http://node1:8080", "http://node2:8080/", "http://node3:8080");
+
+    private LoadBalancer balancer;
+
+    @After
+    public void teardown() {
+        if (this.balancer != null) {
+            this.balancer.close();
+        }
+    }
+
+    @Test
+    public void testRoundRobin() {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 0);
+        Assert.assertEquals("http://node1:8080", this.balancer.url());
+
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            this.send("GET", targets, 200);
+        }
+        Assert.assertEquals(ImmutableList.of(
+                            "http://node1:8080/graphs",
+                            "http://node2:8080/graphs",
+                            "http://node3:8080/graphs",
+                            "http://node1:8080/graphs",
+                            "http://node2:8080/graphs",
+                            "http://node3:8080/graphs"), targets);
+    }
+
+    @Test
+    public void testLeastRequests() {
+        this.balancer = new LoadBalancer(URLS, Strategy.LEAST_REQUESTS, 0);
+        List<String> targets = new ArrayList<>();
+        // Send the second request while the first one is in flight
+        this.send("GET", targets, () -> {
+            this.send("GET", targets, 200);
+            return response(200);
+        });
+        Assert.assertEquals(2, targets.size());
+        Assert.assertNotEquals(targets.get(0), targets.get(1));
+    }
+
+    @Test
+    public void testLatencyWeighted() {
+        this.balancer = new LoadBalancer(URLS, Strategy.LATENCY_WEIGHTED, 0);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            List<String> targets = new ArrayList<>();
+            this.send("GET", targets, 200);
+            counts.merge(targets.get(0), 1, Integer::sum);
+        }
+        Assert.assertEquals(3, counts.size());
+    }
+
+    @Test
+    public void testRetryGetOnAnotherNode() {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 0);
+        List<String> targets = new ArrayList<>();
+        Response response = this.send("GET", targets, () -> {
+            if (targets.size() == 1) {
+                throw new ClientException("Failed to do request",
+                                          new ProcessingException("refused"));
+            }
+            return response(200);
+        });
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(2, targets.size());
+        Assert.assertEquals("http://node1:8080/graphs", targets.get(0));
+        Assert.assertNotEquals(targets.get(0), targets.get(1));
+
+        targets.clear();
+        response = this.send("GET", targets, () -> {
+            return targets.size() == 1 ? response(503) : response(200);
+        });
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(2, targets.size());
+    }
+
+    @Test
+    public void testLimitFailovers() {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 0);
+        List<String> targets = new ArrayList<>();
+        Response response = this.send("GET", targets, () -> response(503));
+        Assert.assertEquals(503, response.getStatus());
+        Assert.assertEquals(3, targets.size());
+
+        // Only fail over once, like the attempts of a retry policy
+        targets.clear();
+        response = this.send("GET", targets, () -> response(503), 1);
+        Assert.assertEquals(503, response.getStatus());
+        Assert.assertEquals(2, targets.size());
+        Assert.assertNotEquals(targets.get(0), targets.get(1));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.send("GET", targets, () -> response(200), -1);
+        });
+    }
+
+    @Test
+    public void testNotRetryPost() {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 0);
+        List<String> targets = new ArrayList<>();
+        Assert.assertThrows(ClientException.class, () -> {
+            this.send("POST", targets, () -> {
+                throw new ClientException("Failed to do request",
+                                          new ProcessingException("reset"));
+            });
+        });
+        Assert.assertEquals(1, targets.size());
+
+        targets.clear();
+        Response response = this.send("POST", targets, 503);
+        Assert.assertEquals(503, response.getStatus());
+        Assert.assertEquals(1, targets.size());
+    }
+
+    @Test
+    public void testEjectAfterFailures() {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 0);
+        LoadBalancer.Node node1 = this.balancer.nodes().get(0);
+        // Every node is selected once in every round
+        int requests = LoadBalancer.FAILURE_THRESHOLD * URLS.size();
+        for (int i = 0; i < requests; i++) {
+            List<String> targets = new ArrayList<>();
+            this.send("POST", targets, () -> {
+                return targets.get(0).startsWith("http://node1") ?
+                       response(503) : response(201);
+            });
+        }
+        Assert.assertTrue(node1.ejected());
+
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            this.send("GET", targets, 200);
+        }
+        Assert.assertFalse(targets.contains("http://node1:8080/graphs"));
+    }
+
+    @Test
+    public void testHealthCheck() throws InterruptedException {
+        this.balancer = new LoadBalancer(URLS, Strategy.ROUND_ROBIN, 1);
+        this.balancer.startHealthCheck(url -> !url.contains("node2"));
+        LoadBalancer.Node node2 = this.balancer.nodes().get(1);
+        Assert.assertEquals("http://node2:8080", node2.url());
+        for (int i = 0; i < 30 && !node2.ejected(); i++) {
+            Thread.sleep(100L);
+        }
+        Assert.assertTrue(node2.ejected());
+        Assert.assertFalse(this.balancer.nodes().get(0).ejected());
+    }
+
+    @Test
+    public void testInvalidUrls() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LoadBalancer(ImmutableList.of(), Strategy.ROUND_ROBIN, 0);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new LoadBalancer(URLS, Strategy.ROUND_ROBIN, -1);
+        });
+    }
+
+    private Response send(String method, List<String> targets, int status) {
+        return this.send(method, targets, () -> response(status));
+    }
+
+    private Response send(String method, List<String> targets,
+                          Supplier<Response> server) {
+        return this.send(method, targets, server, URLS.size() - 1);
+    }
+
+    /**
+     * Emulate the request filter of jersey which is called by the request
+     */
+    private Response send(String method, List<String> targets,
+                          Supplier<Response> server, int failovers) {
+        return this.balancer.execute(() -> {
+            ClientRequestContext context = Mockito.mock(
+                                           ClientRequestContext.class);
+            Mockito.when(context.getMethod()).thenReturn(method);
+            Mockito.when(context.getUri()).thenReturn(
+                    URI.create("http://node1:8080/graphs"));
+            List<String> uris = new ArrayList<>();
+            Mockito.doAnswer(invocation -> {
+                uris.add(invocation.getArgument(0).toString());
+                return null;
+            }).when(context).setUri(Mockito.any());
+            this.balancer.filter(context);
+            targets.add(uris.isEmpty() ? "http://node1:8080/graphs" :
+                        uris.get(0));
+            return server.get();
+        }, failovers);
+    }
+
+    private static Response response(int status) {
+        Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getStatus()).thenReturn(status);
+        return response;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.driver.MetricsManager;
+import com.baidu.hugegraph.driver.MetricsPoller;
+import com.baidu.hugegraph.driver.MetricsPoller.Alert;
+import com.baidu.hugegraph.driver.MetricsPoller.Metric;
+import com.baidu.hugegraph.driver.MetricsPoller.Sample;
+import com.baidu.hugegraph.driver.MetricsPoller.Type;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableMap;
+
+public class MetricsPollerTest extends BaseUnitTest {
+
+    private MetricsManager metrics;
+
+    @Before
+    public void setup() {
+        this.metrics = Mockito.mock(MetricsManager.class);
+        Mockito.when(this.metrics.poller())
+               .thenReturn(new MetricsPoller.Builder(this.metrics));
+    }
+
+    @Test
+    public void testFlattenMetrics() {
+        Mockito.when(this.metrics.system())
+               .thenReturn(system(1024L, 10L));
+        try (MetricsPoller poller = this.metrics.poller().interval(0L)
+                                                .build()) {
+            poller.poll();
+            Assert.assertEquals(1L, poller.polls());
+            Assert.assertEquals(2, poller.names().size());
+            Metric heap = poller.metric("system.heap.used");
+            Assert.assertEquals(Type.GAUGE, heap.type());
+            Assert.assertEquals(1024D, heap.value(), 0D);
+            Metric gc = poller.metric("system.garbage_collector.G1_count");
+            Assert.assertEquals(Type.COUNTER, gc.type());
+            Assert.assertTrue(Double.isNaN(gc.rate()));
+            Assert.assertNull(poller.metric("system.heap.unit"));
+        }
+    }
+
+    @Test
+    public void testCounterRate() throws InterruptedException {
+        Mockito.when(this.metrics.system())
+               .thenReturn(system(1024L, 10L))
+               .thenReturn(system(2048L, 30L))
+               .thenReturn(system(512L, 5L));
+        try (MetricsPoller poller = this.metrics.poller().interval(0L)
+                                                .build()) {
+            poller.poll();
+            Thread.sleep(20L);
+            poller.poll();
+            Metric gc = poller.metric("system.garbage_collector.G1_count");
+            List<Sample> samples = gc.samples();
+            Assert.assertEquals(2, samples.size());
+            long elapsed = samples.get(1).time() - samples.get(0).time();
+            Assert.assertEquals(20D * 1000D / elapsed, gc.rate(), 1e-9);
+            Assert.assertEquals(gc.rate(), gc.smoothed(), 1e-9);
+
+            // The counter is reset
+            Thread.sleep(20L);
+            poller.poll();
+            gc = poller.metric("system.garbage_collector.G1_count");
+            Assert.assertTrue(Double.isNaN(gc.rate()));
+            Assert.assertEquals(samples.get(1).rate(), gc.smoothed(), 1e-9);
+
+            Metric heap = poller.metric("system.heap.used");
+            Assert.assertEquals((1024D + 2048D + 512D) / 3D,
+                                heap.smoothed(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testCapacityAndWindow() {
+        Mockito.when(this.metrics.system())
+               .thenReturn(system(1L, 0L))
+               .thenReturn(system(2L, 0L))
+               .thenReturn(system(3L, 0L));
+        try (MetricsPoller poller = this.metrics.poller().interval(0L)
+                                                .capacity(2).window(1)
+                                                .build()) {
+            poller.poll();
+            poller.poll();
+            poller.poll();
+            Metric heap = poller.metric("system.heap.used");
+            Assert.assertEquals(2, heap.samples().size());
+            Assert.assertEquals(2D, heap.samples().get(0).value(), 0D);
+            Assert.assertEquals(3D, heap.smoothed(), 0D);
+        }
+    }
+
+    @Test
+    public void testThresholdAlert() {
+        Mockito.when(this.metrics.system())
+               .thenReturn(system(100L, 0L))
+               .thenReturn(system(300L, 0L))
+               .thenReturn(system(200L, 0L))
+               .thenReturn(system(0L, 0L));
+        List<Alert> alerts = new CopyOnWriteArrayList<>();
+        try (MetricsPoller poller = this.metrics.poller().interval(0L)
+                                                .window(2).build()) {
+            poller.subscribe("system.heap.used", 150D, alerts::add);
+            poller.poll();
+            Assert.assertEquals(0, alerts.size());
+            poller.poll();
+            Assert.assertEquals(1, alerts.size());
+            Assert.assertTrue(alerts.get(0).exceeded());
+            Assert.assertEquals(200D, alerts.get(0).metric().smoothed(), 0D);
+            // Still above the threshold, no new alert
+            poller.poll();
+            Assert.assertEquals(1, alerts.size());
+            poller.poll();
+            Assert.assertEquals(2, alerts.size());
+            Assert.assertFalse(alerts.get(1).exceeded());
+        }
+    }
+
+    @Test
+    public void testPollInBackground() throws InterruptedException {
+        Mockito.when(this.metrics.system())
+               .thenThrow(new RuntimeException("Connection refused"))
+               .thenReturn(system(1L, 0L));
+        try (MetricsPoller poller = this.metrics.poller().interval(10L)
+                                                .build()) {
+            for (int i = 0; i < 100 && poller.polls() == 0L; i++) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(1L, poller.failures());
+            Assert.assertTrue(poller.polls() > 0L);
+        }
+    }
+
+    @Test
+    public void testInvalidBuilder() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.metrics.poller().capacity(0);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            this.metrics.poller().capacity(2).window(3).build();
+        });
+    }
+
+    private static Map<String, Map<String, Object>> system(long heap,
+                                                           long gcCount) {
+        return ImmutableMap.of("heap", ImmutableMap.of("used", heap,
+                                                       "unit", "bytes"),
+                               "garbage_collector",
+                               ImmutableMap.of("G1_count", gcCount));
+    }
+}
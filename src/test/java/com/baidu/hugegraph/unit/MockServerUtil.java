@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import com.baidu.hugegraph.client.RestClient;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * The helpers of the tests sending requests to a MockWebServer
+ */
+public final class MockServerUtil {
+
+    private static final int TIMEOUT = 5;
+
+    private MockServerUtil() {
+    }
+
+    public static MockResponse json(String body) {
+        return json(200, body);
+    }
+
+    public static MockResponse json(int status, String body) {
+        return new MockResponse().setResponseCode(status)
+                                 .setHeader("Content-Type",
+                                            "application/json")
+                                 .setBody(body);
+    }
+
+    public static RestClient newClient(MockWebServer server) {
+        return newClient(server, new RestClient.ConfigBuilder());
+    }
+
+    /**
+     * Create a client of the server with the configs of the builder and
+     * a short timeout, so a broken test fails fast
+     */
+    public static RestClient newClient(MockWebServer server,
+                                       RestClient.ConfigBuilder builder) {
+        String url = server.url("/").toString();
+        return new RestClient(url, builder.configTimeout(TIMEOUT).build());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.driver.ParallelGraphScanner;
+import com.baidu.hugegraph.driver.TraverserManager;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.structure.graph.ScanCheckpoint;
+import com.baidu.hugegraph.structure.graph.Shard;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.structure.graph.Vertices;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+
+public class ParallelGraphScannerTest extends BaseUnitTest {
+
+    private RestClient restClient;
+    private TraverserManager traverser;
+    private List<Shard> shards;
+    private List<String> auths;
+
+    @Before
+    public void setup() {
+        this.restClient = new RestClient("http://127.0.0.1:8080",
+                                         new RestClient.ConfigBuilder()
+                                                       .build());
+        this.auths = new CopyOnWriteArrayList<>();
+        this.traverser = Mockito.mock(TraverserManager.class);
+        Mockito.when(this.traverser.context())
+               .thenAnswer(invocation -> this.restClient.context());
+        this.shards = ImmutableList.of(new Shard("0", "10", 10L),
+                                       new Shard("10", "20", 10L),
+                                       new Shard("20", "30", 10L));
+        Mockito.when(this.traverser.vertexShards(Mockito.anyLong()))
+               .thenReturn(this.shards);
+        // Every shard has two pages: [start-0, start-1] and [start-2]
+        Mockito.when(this.traverser.vertices(Mockito.any(Shard.class),
+                                             Mockito.anyString(),
+                                             Mockito.anyLong()))
+               .thenAnswer(invocation -> {
+                   Shard shard = invocation.getArgument(0);
+                   String page = invocation.getArgument(1);
+                   this.auths.add(String.valueOf(
+                                  this.restClient.getAuthContext()));
+                   if (page.isEmpty()) {
+                       return new Vertices(ImmutableList.of(
+                                           vertex(shard, 0),
+                                           vertex(shard, 1)), "next");
+                   }
+                   return new Vertices(ImmutableList.of(vertex(shard, 2)),
+                                       null);
+               });
+        Mockito.when(this.traverser.parallelScanner())
+               .thenReturn(new ParallelGraphScanner.Builder(this.traverser));
+    }
+
+    @After
+    public void teardown() {
+        this.restClient.close();
+    }
+
+    @Test
+    public void testRequestContextPropagated() {
+        this.restClient.setAuthContext("token");
+        try {
+            ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                         .workers(2)
+                                                         .build();
+            scanner.scanVertices((shard, page) -> {});
+            Assert.assertEquals(6, this.auths.size());
+
+            scanner = this.traverser.parallelScanner().workers(2).build();
+            try (Stream<Vertex> stream = scanner.scanVertices()) {
+                Assert.assertEquals(9L, stream.count());
+            }
+            Assert.assertEquals(12, this.auths.size());
+        } finally {
+            this.restClient.resetAuthContext();
+        }
+        // Every page is fetched by a worker with the auth of the caller
+        for (String auth : this.auths) {
+            Assert.assertEquals("token", auth);
+        }
+    }
+
+    @Test
+    public void testScanVerticesStream() {
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .workers(2)
+                                                     .queueCapacity(1)
+                                                     .build();
+        List<Object> ids;
+        try (Stream<Vertex> stream = scanner.scanVertices()) {
+            ids = stream.map(Vertex::id).collect(Collectors.toList());
+        }
+        Assert.assertEquals(9, ids.size());
+        Assert.assertEquals(9, ids.stream().distinct().count());
+
+        ScanCheckpoint checkpoint = scanner.checkpoint();
+        Assert.assertTrue(checkpoint.finished());
+        Assert.assertEquals(3, checkpoint.finishedShards());
+        Assert.assertEquals(9L, checkpoint.scanned());
+    }
+
+    @Test
+    public void testStopWorkersOfDroppedStream() throws InterruptedException {
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .workers(2)
+                                                     .queueCapacity(1)
+                                                     .build();
+        // Stopped early and not closed, the workers are blocked by the queue
+        Assert.assertTrue(scanner.scanVertices().findFirst().isPresent());
+        for (int i = 0; i < 100 && scannerThreads() > 0; i++) {
+            System.gc();
+            Thread.sleep(50L);
+        }
+        Assert.assertEquals(0, scannerThreads());
+    }
+
+    @Test
+    public void testScanVerticesWithConsumer() {
+        List<Vertex> vertices = new CopyOnWriteArrayList<>();
+        List<ScanCheckpoint> checkpoints = new CopyOnWriteArrayList<>();
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .onCheckpoint(
+                                                      checkpoints::add)
+                                                     .build();
+        scanner.scanVertices((shard, page) -> vertices.addAll(page));
+
+        Assert.assertEquals(9, vertices.size());
+        // Called once per page
+        Assert.assertEquals(6, checkpoints.size());
+        Assert.assertTrue(scanner.checkpoint().finished());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() {
+        ScanCheckpoint checkpoint = new ScanCheckpoint(this.shards);
+        List<ScanCheckpoint.ShardState> states = checkpoint.shards();
+        checkpoint.commit(states.get(0), null, 3L);
+        checkpoint.commit(states.get(1), "next", 2L);
+
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .checkpoint(checkpoint)
+                                                     .build();
+        List<Object> ids;
+        try (Stream<Vertex> stream = scanner.scanVertices()) {
+            ids = stream.map(Vertex::id).collect(Collectors.toList());
+        }
+        // The 2nd page of shard 10 and the whole shard 20
+        Assert.assertEquals(4, ids.size());
+        Assert.assertTrue(ids.contains("10-2"));
+        Assert.assertFalse(ids.contains("0-0"));
+        Assert.assertFalse(ids.contains("10-0"));
+        Assert.assertTrue(checkpoint.finished());
+        Assert.assertEquals(9L, checkpoint.scanned());
+        Mockito.verify(this.traverser, Mockito.never())
+               .vertexShards(Mockito.anyLong());
+    }
+
+    @Test
+    public void testScanFailed() {
+        Mockito.when(this.traverser.vertices(Mockito.eq(this.shards.get(1)),
+                                             Mockito.anyString(),
+                                             Mockito.anyLong()))
+               .thenThrow(new ServerException("Backend error"));
+
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .build();
+        Assert.assertThrows(ClientException.class, () -> {
+            try (Stream<Vertex> stream = scanner.scanVertices()) {
+                stream.count();
+            }
+        });
+        Assert.assertFalse(scanner.checkpoint().finished());
+    }
+
+    @Test
+    public void testScanTwice() {
+        ParallelGraphScanner scanner = this.traverser.parallelScanner()
+                                                     .build();
+        scanner.scanVertices((shard, page) -> { });
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            scanner.scanVertices((shard, page) -> { });
+        });
+    }
+
+    private static int scannerThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() &&
+                thread.getName().startsWith("graph-scanner-")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Vertex vertex(Shard shard, int index) {
+        Vertex vertex = new Vertex("person");
+        vertex.id(shard.start() + "-" + index);
+        return vertex;
+    }
+}
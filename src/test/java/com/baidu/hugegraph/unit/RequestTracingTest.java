@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.RequestTracer;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.RetryPolicy;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class RequestTracingTest extends BaseUnitTest {
+
+    private MockWebServer server;
+    private RecordingTracer tracer;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+        this.tracer = new RecordingTracer();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testTraceGet() throws InterruptedException {
+        this.server.enqueue(json(200, "{\"vertices\": []}"));
+        RestClient client = this.newClient(null);
+        try {
+            client.get("graphs/hugegraph/traversers/kout",
+                       ImmutableMap.of("source", "1:marko",
+                                       "max_depth", 2, "capacity", 100));
+        } finally {
+            client.close();
+        }
+
+        Assert.assertEquals(2, this.tracer.spans.size());
+        RecordingSpan span = this.tracer.spans.get(0);
+        Assert.assertEquals("GET kout", span.name);
+        Assert.assertTrue(span.ended);
+        Assert.assertEquals("hugegraph",
+                            span.attributes.get("hugegraph.graph"));
+        Assert.assertEquals("kout", span.attributes.get("hugegraph.api"));
+        Assert.assertEquals("2", span.attributes.get("hugegraph.max_depth"));
+        Assert.assertEquals("100",
+                            span.attributes.get("hugegraph.capacity"));
+        Assert.assertEquals(200, span.attributes.get("http.status_code"));
+        Assert.assertEquals(1, span.attributes.get("hugegraph.attempts"));
+
+        RecordingSpan decode = this.tracer.spans.get(1);
+        Assert.assertEquals("decode", decode.name);
+        Assert.assertSame(span, decode.parent);
+        Assert.assertTrue(decode.ended);
+        Assert.assertEquals(16L,
+                            decode.attributes.get("hugegraph.response_bytes"));
+
+        RecordedRequest request = this.server.takeRequest();
+        Assert.assertEquals("00-" + span.id + "-01",
+                            request.getHeader("traceparent"));
+    }
+
+    @Test
+    public void testTraceBatchWriteWithRetry() throws InterruptedException {
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(201, "[\"1\", \"2\"]"));
+        RetryPolicy retry = RetryPolicy.builder().backoff(1L, 1L)
+                                       .retryBatchWrites(true).build();
+        RestClient client = this.newClient(retry);
+        try {
+            client.post("graphs/hugegraph/graph/vertices/batch",
+                        ImmutableList.of(ImmutableMap.of("id", 1),
+                                         ImmutableMap.of("id", 2)));
+        } finally {
+            client.close();
+        }
+
+        RecordingSpan span = this.tracer.spans.get(0);
+        Assert.assertEquals("POST vertices", span.name);
+        Assert.assertEquals(2, span.attributes.get("hugegraph.batch_size"));
+        Assert.assertEquals(2, span.attributes.get("hugegraph.attempts"));
+        Assert.assertEquals(201, span.attributes.get("http.status_code"));
+        long encodes = this.tracer.spans.stream().filter(s -> {
+            return "encode".equals(s.name) && s.parent == span && s.ended &&
+                   (long) s.attributes.get("hugegraph.request_bytes") > 0L;
+        }).count();
+        Assert.assertEquals(2L, encodes);
+
+        // The trace context is sent with every attempt
+        String traceparent = "00-" + span.id + "-01";
+        Assert.assertEquals(traceparent, this.server.takeRequest()
+                                                    .getHeader("traceparent"));
+        Assert.assertEquals(traceparent, this.server.takeRequest()
+                                                    .getHeader("traceparent"));
+    }
+
+    @Test
+    public void testTraceFailure() throws IOException {
+        RestClient client = this.newClient(null);
+        this.server.shutdown();
+        try {
+            Assert.assertThrows(ClientException.class, () -> {
+                client.get("versions");
+            });
+        } finally {
+            client.close();
+        }
+        RecordingSpan span = this.tracer.spans.get(0);
+        Assert.assertEquals("GET versions", span.name);
+        Assert.assertTrue(span.ended);
+        Assert.assertNotNull(span.error);
+    }
+
+    @Test
+    public void testNotTraced() throws InterruptedException {
+        this.server.enqueue(json(200, "{}"));
+        this.tracer.sampled = false;
+        RestClient client = this.newClient(null);
+        try {
+            client.get("versions");
+        } finally {
+            client.close();
+        }
+        Assert.assertEquals(0, this.tracer.spans.size());
+        Assert.assertNull(this.server.takeRequest().getHeader("traceparent"));
+    }
+
+    private RestClient newClient(RetryPolicy retry) {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                                      .configRetry(retry)
+                                                      .configTracer(
+                                                       this.tracer));
+    }
+
+    private static class RecordingTracer implements RequestTracer {
+
+        private final List<RecordingSpan> spans = new CopyOnWriteArrayList<>();
+        private volatile boolean sampled = true;
+
+        @Override
+        public Span start(String name) {
+            if (!this.sampled) {
+                return null;
+            }
+            return this.newSpan(name, null);
+        }
+
+        private RecordingSpan newSpan(String name, RecordingSpan parent) {
+            RecordingSpan span = new RecordingSpan(this, name, parent);
+            this.spans.add(span);
+            return span;
+        }
+    }
+
+    private static class RecordingSpan implements RequestTracer.Span {
+
+        private final RecordingTracer tracer;
+        private final String name;
+        private final RecordingSpan parent;
+        private final String id;
+        private final Map<String, Object> attributes;
+        private volatile boolean ended;
+        private volatile Throwable error;
+
+        public RecordingSpan(RecordingTracer tracer, String name,
+                             RecordingSpan parent) {
+            this.tracer = tracer;
+            this.name = name;
+            this.parent = parent;
+            this.id = String.format("%032x-%016x", tracer.spans.size() + 1,
+                                    tracer.spans.size() + 1);
+            this.attributes = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public RequestTracer.Span child(String name) {
+            return this.tracer.newSpan(name, this);
+        }
+
+        @Override
+        public void attribute(String key, Object value) {
+            this.attributes.put(key, value);
+        }
+
+        @Override
+        public void propagate(BiConsumer<String, String> headers) {
+            headers.accept("traceparent", "00-" + this.id + "-01");
+        }
+
+        @Override
+        public void error(Throwable e) {
+            this.error = e;
+        }
+
+        @Override
+        public void end() {
+            this.ended = true;
+        }
+    }
+}
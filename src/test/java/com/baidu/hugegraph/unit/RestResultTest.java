@@ -1017,4 +1017,130 @@ public class RestResultTest extends BaseUnitTest {
         result = results.next();
         Assert.assertNull(result);
     }
+
+    @Test
+    public void testReadGremlinResultDecodedOnce() {
+        String json = "{"
+                + "\"requestId\": \"d95ac131-24b5-4140-a3ff-91b0c020764a\","
+                + "\"status\": {"
+                + "\"message\": \"\","
+                + "\"code\": 200,"
+                + "\"attributes\": {}"
+                + "},"
+                + "\"result\": {"
+                + "\"data\": ["
+                + "{"
+                + "\"id\": \"person:marko\","
+                + "\"label\": \"person\","
+                + "\"type\": \"vertex\","
+                + "\"properties\": {"
+                + "\"name\": \"marko\""
+                + "}"
+                + "},"
+                + "{"
+                + "\"name\": \"marko\","
+                + "\"weight\": 0.5"
+                + "},"
+                + "29"
+                + "],"
+                + "\"meta\": {}"
+                + "}"
+                + "}";
+
+        Mockito.when(this.mockResponse.getStatus()).thenReturn(200);
+        Mockito.when(this.mockResponse.getHeaders()).thenReturn(null);
+        Mockito.when(this.mockResponse.readEntity(String.class))
+               .thenReturn(json);
+        RestResult restResult = new RestResult(this.mockResponse);
+
+        Response response = restResult.readObject(Response.class);
+        response.graphManager(graph());
+
+        // The typed items are decoded when reading, and built only once
+        Result result = response.result().get(0);
+        Assert.assertSame(result, response.result().get(0));
+        Vertex vertex = result.getVertex();
+        Assert.assertEquals("person:marko", vertex.id());
+        Assert.assertEquals(ImmutableMap.of("name", "marko"),
+                            vertex.properties());
+        Assert.assertEquals(29, response.result().get(2).getInt());
+
+        // The data keeps the plain items like before, built when asked for
+        List<Object> data = response.result().data();
+        Assert.assertEquals(ImmutableMap.of("id", "person:marko",
+                                            "label", "person",
+                                            "type", "vertex",
+                                            "properties", ImmutableMap.of(
+                                            "name", "marko")),
+                            data.get(0));
+        Assert.assertEquals(ImmutableMap.of("name", "marko", "weight", 0.5),
+                            data.get(1));
+        Assert.assertEquals(29, data.get(2));
+        Assert.assertSame(data, response.result().data());
+    }
+
+    @Test
+    public void testReadGremlinResultWithTypeAfterFields() {
+        String json = "{"
+                + "\"requestId\": \"d95ac131-24b5-4140-a3ff-91b0c020764a\","
+                + "\"status\": {"
+                + "\"message\": \"\","
+                + "\"code\": 200,"
+                + "\"attributes\": {}"
+                + "},"
+                + "\"result\": {"
+                + "\"data\": ["
+                + "{"
+                + "\"id\": \"person:marko>knows>>person:vadas\","
+                + "\"label\": \"knows\","
+                + "\"outV\": \"person:marko\","
+                + "\"outVLabel\": \"person\","
+                + "\"inV\": \"person:vadas\","
+                + "\"inVLabel\": \"person\","
+                + "\"properties\": {"
+                + "\"date\": \"20160110\""
+                + "},"
+                + "\"type\": \"edge\""
+                + "},"
+                + "{"
+                + "\"labels\": [[], []],"
+                + "\"objects\": [\"person:marko\", \"person:vadas\"]"
+                + "},"
+                + "{"
+                + "\"labels\": [\"a\"],"
+                + "\"type\": \"other\""
+                + "}"
+                + "],"
+                + "\"meta\": {}"
+                + "}"
+                + "}";
+
+        Mockito.when(this.mockResponse.getStatus()).thenReturn(200);
+        Mockito.when(this.mockResponse.getHeaders()).thenReturn(null);
+        Mockito.when(this.mockResponse.readEntity(String.class))
+               .thenReturn(json);
+        RestResult restResult = new RestResult(this.mockResponse);
+
+        Response response = restResult.readObject(Response.class);
+        response.graphManager(graph());
+
+        List<Object> data = response.result().data();
+        Assert.assertEquals(3, data.size());
+
+        Edge edge = response.result().get(0).getEdge();
+        Assert.assertEquals("person:marko>knows>>person:vadas", edge.id());
+        Assert.assertEquals("person:vadas", edge.targetId());
+        Assert.assertEquals(ImmutableMap.of("date", "20160110"),
+                            edge.properties());
+
+        Path path = response.result().get(1).getPath();
+        Assert.assertEquals(2, path.labels().size());
+        Assert.assertEquals(ImmutableList.of("person:marko", "person:vadas"),
+                            path.objects());
+
+        // An unknown type is kept as a plain map
+        Assert.assertEquals(ImmutableMap.of("labels", ImmutableList.of("a"),
+                                            "type", "other"),
+                            data.get(2));
+    }
 }
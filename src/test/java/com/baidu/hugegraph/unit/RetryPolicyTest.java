@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.LoadBalancer;
+import com.baidu.hugegraph.client.LoadBalancer.Strategy;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.RetryPolicy;
+import com.baidu.hugegraph.exception.ServerException;
+import com.baidu.hugegraph.rest.ClientException;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+public class RetryPolicyTest extends BaseUnitTest {
+
+    private static final String BACKEND_EXCEPTION =
+            "{\"exception\": \"class com.baidu.hugegraph.backend." +
+            "BackendException\", \"message\": \"Backend is busy\"}";
+    private static final String ARGUMENT_EXCEPTION =
+            "{\"exception\": \"class java.lang.IllegalArgumentException\", " +
+            "\"message\": \"Invalid label\"}";
+
+    private MockWebServer server;
+    private RestClient client;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        if (this.client != null) {
+            this.client.close();
+        }
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testRetryUnavailable() {
+        RetryPolicy policy = policy().build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(502, "{}"));
+        this.server.enqueue(json(200, "{\"name\": \"marko\"}"));
+
+        RestResult result = this.client.get("graphs/hugegraph/graph/vertices");
+        Assert.assertEquals(200, result.status());
+        Assert.assertContains("marko", result.content());
+        Assert.assertEquals(3, this.server.getRequestCount());
+        Assert.assertEquals(2L, policy.retries());
+        Assert.assertEquals(0L, policy.exhausted());
+    }
+
+    @Test
+    public void testRetryExhausted() {
+        RetryPolicy policy = policy().maxAttempts(2).build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(503, "{}"));
+
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.get("graphs/hugegraph/graph/vertices");
+        }, e -> {
+            Assert.assertEquals(503, ((ServerException) e).status());
+        });
+        Assert.assertEquals(2, this.server.getRequestCount());
+        Assert.assertEquals(1L, policy.retries());
+        Assert.assertEquals(1L, policy.exhausted());
+    }
+
+    @Test
+    public void testRetryServerException() {
+        RetryPolicy policy = policy().build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(500, BACKEND_EXCEPTION));
+        this.server.enqueue(json(200, "{}"));
+        RestResult result = this.client.get("graphs/hugegraph/graph/vertices");
+        Assert.assertEquals(200, result.status());
+        Assert.assertEquals(1L, policy.retries());
+
+        this.server.enqueue(json(500, ARGUMENT_EXCEPTION));
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.get("graphs/hugegraph/graph/vertices");
+        }, e -> {
+            // The buffered error response is still readable
+            Assert.assertContains("IllegalArgumentException",
+                                  ((ServerException) e).exception());
+        });
+        Assert.assertEquals(3, this.server.getRequestCount());
+        Assert.assertEquals(1L, policy.retries());
+    }
+
+    @Test
+    public void testNotRetryWrites() {
+        RetryPolicy policy = policy().build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(503, "{}"));
+
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.post("graphs/hugegraph/graph/vertices",
+                             ImmutableMap.of("label", "person"));
+        });
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.post("graphs/hugegraph/graph/vertices/batch",
+                             ImmutableList.of());
+        });
+        Assert.assertEquals(2, this.server.getRequestCount());
+        Assert.assertEquals(0L, policy.retries());
+    }
+
+    @Test
+    public void testRetryBatchWrites() {
+        RetryPolicy policy = policy().retryBatchWrites(true).build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(201, "[\"1:marko\"]"));
+
+        RestResult result = this.client.post(
+                            "graphs/hugegraph/graph/vertices/batch",
+                            ImmutableList.of(ImmutableMap.of("label",
+                                                             "person")));
+        Assert.assertEquals(201, result.status());
+        Assert.assertEquals(2, this.server.getRequestCount());
+        Assert.assertEquals(1L, policy.retries());
+    }
+
+    @Test
+    public void testRetryConnectionFailure() throws IOException {
+        RetryPolicy policy = policy().build();
+        this.client = this.newClient(policy);
+        this.server.shutdown();
+
+        Assert.assertThrows(ClientException.class, () -> {
+            this.client.get("graphs/hugegraph/graph/vertices");
+        });
+        Assert.assertEquals(2L, policy.retries());
+        Assert.assertEquals(1L, policy.exhausted());
+    }
+
+    @Test
+    public void testRetryBudget() {
+        // Retry is refused once the tokens drop to 2
+        RetryPolicy policy = policy().maxAttempts(10)
+                                     .retryBudget(4, 0.5)
+                                     .build();
+        this.client = this.newClient(policy);
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(503, "{}"));
+        Assert.assertThrows(ServerException.class, () -> {
+            this.client.get("graphs/hugegraph/graph/vertices");
+        });
+        Assert.assertEquals(2, this.server.getRequestCount());
+        Assert.assertEquals(1L, policy.retries());
+        Assert.assertEquals(1L, policy.throttled());
+
+        // Every success deposits some tokens
+        for (int i = 0; i < 3; i++) {
+            this.server.enqueue(json(200, "{}"));
+            this.client.get("graphs/hugegraph/graph/vertices");
+        }
+        this.server.enqueue(json(503, "{}"));
+        this.server.enqueue(json(200, "{}"));
+        RestResult result = this.client.get("graphs/hugegraph/graph/vertices");
+        Assert.assertEquals(200, result.status());
+        Assert.assertEquals(2L, policy.retries());
+        Assert.assertEquals(1L, policy.throttled());
+    }
+
+    @Test
+    public void testBackoff() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(100L, 300L)
+                                        .jitter(0.0).build();
+        Assert.assertEquals(100L, policy.backoff(1));
+        Assert.assertEquals(200L, policy.backoff(2));
+        Assert.assertEquals(300L, policy.backoff(3));
+        Assert.assertEquals(300L, policy.backoff(10));
+
+        policy = RetryPolicy.builder().backoff(100L, 300L)
+                            .jitter(1.0).build();
+        for (int i = 0; i < 100; i++) {
+            long backoff = policy.backoff(1);
+            Assert.assertTrue(backoff >= 0L && backoff <= 100L);
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            RetryPolicy.builder().backoff(100L, 10L);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            RetryPolicy.builder().jitter(1.5);
+        });
+    }
+
+    @Test
+    public void testRetryAcrossBalancedNodes() throws IOException {
+        MockWebServer node2 = new MockWebServer();
+        MockWebServer node3 = new MockWebServer();
+        List<MockWebServer> nodes = ImmutableList.of(this.server, node2,
+                                                     node3);
+        List<String> urls = new ArrayList<>();
+        for (MockWebServer node : nodes) {
+            for (int i = 0; i < 3; i++) {
+                node.enqueue(json(503, "{}"));
+            }
+            urls.add(node.url("/").toString());
+        }
+        LoadBalancer balancer = new LoadBalancer(urls, Strategy.ROUND_ROBIN,
+                                                 0);
+        RetryPolicy policy = policy().maxAttempts(2).build();
+        this.client = MockServerUtil.newClient(this.server,
+                                               new RestClient.ConfigBuilder()
+                                               .configBalancer(balancer)
+                                               .configRetry(policy));
+        try {
+            Assert.assertThrows(ServerException.class, () -> {
+                this.client.get("graphs/hugegraph/graph/vertices");
+            });
+            // Every attempt fails over once, rather than to all the nodes
+            int requests = 0;
+            for (MockWebServer node : nodes) {
+                requests += node.getRequestCount();
+            }
+            Assert.assertEquals(4, requests);
+            Assert.assertEquals(1L, policy.retries());
+            Assert.assertEquals(1L, policy.exhausted());
+        } finally {
+            node2.shutdown();
+            node3.shutdown();
+        }
+    }
+
+    private RestClient newClient(RetryPolicy policy) {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                                      .configRetry(policy));
+    }
+
+    private static RetryPolicy.Builder policy() {
+        return RetryPolicy.builder().backoff(0L, 0L);
+    }
+}
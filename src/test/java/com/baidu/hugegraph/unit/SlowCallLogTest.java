@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.client.SlowCallLog;
+import com.baidu.hugegraph.client.SlowCallLog.SlowCall;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+public class SlowCallLogTest extends BaseUnitTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testLogSlowCall() {
+        this.server.enqueue(json("{\"vertices\": []}")
+                            .setHeadersDelay(100L, TimeUnit.MILLISECONDS));
+        SlowCallLog log = SlowCallLog.builder().threshold(50L).build();
+        RestClient client = this.newClient(log);
+        try {
+            client.get("graphs/hugegraph/traversers/kout",
+                       ImmutableMap.of("source", "\"1:marko\"",
+                                       "max_depth", 2));
+        } finally {
+            client.close();
+        }
+
+        Assert.assertEquals(1L, log.total());
+        List<SlowCall> calls = log.slowCalls();
+        Assert.assertEquals(1, calls.size());
+        SlowCall call = calls.get(0);
+        Assert.assertEquals("GET", call.method());
+        Assert.assertTrue(call.path(), call.path().startsWith(
+                          "/graphs/hugegraph/traversers/kout?"));
+        Assert.assertTrue(call.path(), call.path().contains("max_depth=2"));
+        Assert.assertNull(call.body());
+        Assert.assertEquals(200, call.status());
+        Assert.assertEquals(1, call.attempts());
+        Assert.assertEquals(16L, call.responseBytes());
+        Assert.assertTrue(call.latency() >= 100L);
+        Assert.assertTrue(call.waitTime() >= 100L);
+        Assert.assertTrue(call.waitTime() <= call.latency());
+    }
+
+    @Test
+    public void testTruncateBody() {
+        this.server.enqueue(json("{}")
+                            .setHeadersDelay(20L, TimeUnit.MILLISECONDS));
+        SlowCallLog log = SlowCallLog.builder().threshold(0L)
+                                     .maxBodyLength(10).build();
+        RestClient client = this.newClient(log);
+        String body = "{\"source\":\"1:marko\",\"max_depth\":3}";
+        try {
+            client.post("graphs/hugegraph/traversers/kout", body);
+        } finally {
+            client.close();
+        }
+
+        SlowCall call = log.slowCalls().get(0);
+        Assert.assertEquals("POST", call.method());
+        Assert.assertEquals(body.substring(0, 10) + "...", call.body());
+        Assert.assertEquals(body.length(), call.requestBytes());
+    }
+
+    @Test
+    public void testSkipFastCall() {
+        this.server.enqueue(json("{}"));
+        SlowCallLog log = SlowCallLog.builder().threshold(60000L).build();
+        RestClient client = this.newClient(log);
+        try {
+            client.get("versions");
+        } finally {
+            client.close();
+        }
+        Assert.assertEquals(0L, log.total());
+        Assert.assertTrue(log.slowCalls().isEmpty());
+    }
+
+    @Test
+    public void testEvictOldestCall() {
+        for (int i = 0; i < 3; i++) {
+            this.server.enqueue(json("{}"));
+        }
+        SlowCallLog log = SlowCallLog.builder().threshold(0L)
+                                     .capacity(2).build();
+        RestClient client = this.newClient(log);
+        try {
+            client.get("graphs/hugegraph/graph/vertices", "1");
+            client.get("graphs/hugegraph/graph/vertices", "2");
+            client.get("graphs/hugegraph/graph/vertices", "3");
+        } finally {
+            client.close();
+        }
+
+        Assert.assertEquals(3L, log.total());
+        List<SlowCall> calls = log.slowCalls();
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("/graphs/hugegraph/graph/vertices/2",
+                            calls.get(0).path());
+        Assert.assertEquals("/graphs/hugegraph/graph/vertices/3",
+                            calls.get(1).path());
+
+        log.clear();
+        Assert.assertTrue(log.slowCalls().isEmpty());
+        Assert.assertEquals(3L, log.total());
+    }
+
+    @Test
+    public void testInvalidBuilder() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            SlowCallLog.builder().threshold(-1L);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            SlowCallLog.builder().capacity(0);
+        });
+    }
+
+    private RestClient newClient(SlowCallLog log) {
+        return MockServerUtil.newClient(this.server,
+                                        new RestClient.ConfigBuilder()
+                                        .configSlowCallLog(log));
+    }
+}
@@ -32,7 +32,28 @@ import org.junit.runners.Suite;
     IndexLabelTest.class,
     CommonUtilTest.class,
     IdUtilTest.class,
-    SplicingIdGeneratorTest.class
+    SplicingIdGeneratorTest.class,
+    AsyncHugeClientTest.class,
+    BulkWriterTest.class,
+    ParallelGraphScannerTest.class,
+    GraphIteratorTest.class,
+    JsonStreamIteratorTest.class,
+    CachingSchemaManagerTest.class,
+    VertexIdsTest.class,
+    LoadBalancerTest.class,
+    Http2TransportTest.class,
+    RetryPolicyTest.class,
+    ConcurrencyLimiterTest.class,
+    HedgingPolicyTest.class,
+    ContentCompressionTest.class,
+    WarmUpTest.class,
+    HugeClientFactoryTest.class,
+    HugeClientBuilderTest.class,
+    ClientMetricsTest.class,
+    RequestTracingTest.class,
+    SlowCallLogTest.class,
+    MetricsPollerTest.class,
+    DeadlineTest.class
 })
 public class UnitTestSuite {
 }
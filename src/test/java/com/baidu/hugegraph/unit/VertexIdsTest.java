@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+import static com.baidu.hugegraph.unit.MockServerUtil.newClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.api.traverser.KoutAPI;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.SerializeException;
+import com.baidu.hugegraph.serializer.VertexIdsReader;
+import com.baidu.hugegraph.structure.traverser.KoutRequest;
+import com.baidu.hugegraph.structure.traverser.VertexIds;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
+
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class VertexIdsTest extends BaseUnitTest {
+
+    @Test
+    public void testReadNumericIds() {
+        VertexIds ids = read("{\"size\": 20, \"vertices\": " + range(20) +
+                             ", \"other\": {\"a\": [1]}}", "vertices");
+        Assert.assertTrue(ids.numeric());
+        Assert.assertEquals(20, ids.size());
+        Assert.assertEquals(19L, ids.getLong(19));
+        Assert.assertEquals(3L, ids.get(3));
+        Assert.assertTrue(ids.contains(7L));
+        Assert.assertTrue(ids.contains(7));
+        Assert.assertFalse(ids.contains(20L));
+        Assert.assertFalse(ids.contains("7"));
+        Assert.assertEquals(20, ids.toLongArray().length);
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> {
+            ids.getLong(20);
+        });
+    }
+
+    @Test
+    public void testReadMixedIds() {
+        VertexIds ids = read("{\"same_neighbors\": [1, 2, \"1:marko\", " +
+                             "\"835e1153-9281-4957-8691-cf79258e90eb\"]}",
+                             "same_neighbors");
+        Assert.assertFalse(ids.numeric());
+        Assert.assertEquals(ImmutableList.of(1L, 2L, "1:marko",
+                            "835e1153-9281-4957-8691-cf79258e90eb"), ids);
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            ids.getLong(0);
+        });
+        Assert.assertThrows(IllegalStateException.class, ids::toLongArray);
+    }
+
+    @Test
+    public void testNumericIdsAsLong() {
+        VertexIds numeric = new VertexIds.Builder().add(1).add(2L).build();
+        VertexIds mixed = new VertexIds.Builder().add(1).add(2L).add("a")
+                                                 .build();
+        Assert.assertTrue(numeric.numeric());
+        Assert.assertFalse(mixed.numeric());
+        // The same boxed type and contains() in both representations
+        for (VertexIds ids : ImmutableList.of(numeric, mixed)) {
+            Assert.assertEquals(1L, ids.get(0));
+            Assert.assertEquals(2L, ids.get(1));
+            Assert.assertTrue(ids.contains(1));
+            Assert.assertTrue(ids.contains(2L));
+            Assert.assertTrue(ids.contains((short) 2));
+            Assert.assertFalse(ids.contains(3L));
+            Assert.assertFalse(ids.contains("1"));
+            Assert.assertFalse(ids.contains(1.0D));
+        }
+        Assert.assertTrue(mixed.contains("a"));
+    }
+
+    @Test
+    public void testContainsUnsortedIds() {
+        VertexIds ids = read("{\"vertices\": [9, 3, 7, -1, 5]}",
+                             "vertices");
+        for (long id : new long[]{9L, 3L, 7L, -1L, 5L}) {
+            Assert.assertTrue(ids.contains(id));
+        }
+        Assert.assertFalse(ids.contains(4L));
+        // The order of ids is kept
+        Assert.assertEquals(ImmutableList.of(9L, 3L, 7L, -1L, 5L), ids);
+    }
+
+    @Test
+    public void testPostIds() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(json("{\"size\": 3, \"kout\": [3, 1, 2], " +
+                            "\"paths\": [], \"vertices\": []}"));
+        server.start();
+        RestClient client = newClient(server);
+        try {
+            KoutAPI api = new KoutAPI(client, "hugegraph");
+            KoutRequest.Builder builder = KoutRequest.builder();
+            builder.source(1).maxDepth(2);
+            builder.step();
+            VertexIds ids = api.postIds(builder.build());
+            Assert.assertTrue(ids.numeric());
+            Assert.assertEquals(ImmutableList.of(3L, 1L, 2L), ids);
+
+            RecordedRequest request = server.takeRequest();
+            Assert.assertEquals("POST", request.getMethod());
+            Assert.assertEquals("/graphs/hugegraph/traversers/kout",
+                                request.getPath());
+
+            builder = KoutRequest.builder();
+            builder.source(1).maxDepth(2).withPath(true);
+            builder.step();
+            KoutRequest withPath = builder.build();
+            Assert.assertThrows(IllegalArgumentException.class, () -> {
+                api.postIds(withPath);
+            });
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadEmptyIds() {
+        VertexIds ids = read("{\"vertices\": []}", "vertices");
+        Assert.assertTrue(ids.numeric());
+        Assert.assertEquals(0, ids.size());
+        Assert.assertEquals(0, ids.toLongArray().length);
+    }
+
+    @Test
+    public void testReadWithInvalidJson() {
+        Assert.assertThrows(SerializeException.class, () -> {
+            read("{\"size\": 0}", "vertices");
+        });
+        Assert.assertThrows(SerializeException.class, () -> {
+            read("{\"vertices\": 1}", "vertices");
+        });
+        Assert.assertThrows(SerializeException.class, () -> {
+            read("{\"vertices\": [1, 2", "vertices");
+        });
+    }
+
+    private static VertexIds read(String json, String key) {
+        InputStream input = new ByteArrayInputStream(
+                            json.getBytes(StandardCharsets.UTF_8));
+        return VertexIdsReader.read(input, key);
+    }
+
+    private static String range(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i);
+        }
+        return sb.append("]").toString();
+    }
+}
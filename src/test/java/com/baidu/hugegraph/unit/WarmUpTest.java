@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit;
+
+import static com.baidu.hugegraph.unit.MockServerUtil.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.client.Http2Transport;
+import com.baidu.hugegraph.client.RestClient;
+import com.baidu.hugegraph.rest.RestResult;
+import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableMap;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class WarmUpTest extends BaseUnitTest {
+
+    private static final String VERSIONS = "{\"versions\": {}}";
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = new MockWebServer();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        this.server.start();
+        for (int i = 0; i < 5; i++) {
+            this.server.enqueue(json(VERSIONS));
+        }
+        RestClient client = this.newClient(new RestClient.ConfigBuilder()
+                                           .configPool(8, 8));
+        try {
+            Assert.assertEquals(4, client.warmUp(4));
+            RestResult result = client.get("versions");
+            Assert.assertEquals(200, result.status());
+        } finally {
+            client.close();
+        }
+
+        // Every warm-up request opens a new connection
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(0, this.server.takeRequest()
+                                              .getSequenceNumber());
+        }
+        // The next request reuses a warmed connection
+        Assert.assertEquals(1, this.server.takeRequest()
+                                          .getSequenceNumber());
+    }
+
+    @Test
+    public void testWarmUpBoundedByPool() {
+        this.server.enqueue(json(VERSIONS));
+        this.server.enqueue(json(VERSIONS));
+        RestClient client = this.newClient(new RestClient.ConfigBuilder()
+                                           .configPool(4, 2));
+        try {
+            Assert.assertEquals(2, client.warmUp(8));
+            Assert.assertEquals(2, this.server.getRequestCount());
+
+            Assert.assertThrows(IllegalArgumentException.class, () -> {
+                client.warmUp(0);
+            });
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testWarmUpWithServerDown() throws IOException {
+        RestClient client = this.newClient(new RestClient.ConfigBuilder());
+        this.server.shutdown();
+        try {
+            Assert.assertEquals(0, client.warmUp(2));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testHttp2StreamShareConnection() throws Exception {
+        this.server.setProtocols(Collections.singletonList(
+                                 Protocol.H2_PRIOR_KNOWLEDGE));
+        this.server.start();
+        this.server.enqueue(json(VERSIONS));
+        this.server.enqueue(json("[]"));
+        RestClient client = this.newClient(new RestClient.ConfigBuilder()
+                                           .configTransport(
+                                            new Http2Transport(true)));
+        try {
+            Assert.assertEquals(1, client.warmUp(1));
+            try (InputStream stream = client.getStream(
+                                      "graphs/hugegraph/graph/vertices",
+                                      ImmutableMap.of())) {
+                Assert.assertEquals('[', stream.read());
+            }
+        } finally {
+            client.close();
+        }
+
+        // The streaming requests share the connection of the client
+        Assert.assertEquals(0, this.server.takeRequest()
+                                          .getSequenceNumber());
+        Assert.assertEquals(1, this.server.takeRequest()
+                                          .getSequenceNumber());
+    }
+
+    @Test
+    public void testConfigIdleTime() {
+        RestClient.ConfigBuilder builder = new RestClient.ConfigBuilder()
+                                           .configIdleTime(30);
+        Assert.assertEquals(30000L, builder.build().getProperty("idleTime"));
+    }
+
+    private RestClient newClient(RestClient.ConfigBuilder builder) {
+        return MockServerUtil.newClient(this.server, builder);
+    }
+}